@@ -424,6 +424,20 @@ SET @saved_cs_client     = @@character_set_client;
  1 AS `last_checkin`*/;
 SET character_set_client = @saved_cs_client;
 
+--
+-- Table structure for table `journal_applied`
+--
+
+DROP TABLE IF EXISTS `journal_applied`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `journal_applied` (
+  `journal_key` char(36) NOT NULL,
+  `applied_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`journal_key`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='Idempotency keys of local journal entries already written (orders, check-ins)';
+/*!40101 SET character_set_client = @saved_cs_client */;
+
 --
 -- Table structure for table `order`
 --
@@ -469,6 +483,31 @@ INSERT INTO `order` VALUES
 /*!40000 ALTER TABLE `order` ENABLE KEYS */;
 UNLOCK TABLES;
 
+--
+-- Table structure for table `revenue_daily`
+--
+
+DROP TABLE IF EXISTS `revenue_daily`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `revenue_daily` (
+  `day` date NOT NULL,
+  `order_type` enum('membership','product','course','recharge','renewal') NOT NULL,
+  `payment_status` enum('paid','unpaid','pending','paid_by_balance','paid_by_cash') NOT NULL,
+  `order_count` int NOT NULL DEFAULT '0',
+  `amount` decimal(12,2) NOT NULL DEFAULT '0.00',
+  PRIMARY KEY (`day`,`order_type`,`payment_status`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='Daily revenue rollup, maintained together with every order write';
+/*!40101 SET character_set_client = @saved_cs_client */;
+
+--
+-- Dumping data for table `revenue_daily` (built from the order rows above)
+--
+
+INSERT INTO `revenue_daily` (day, order_type, payment_status, order_count, amount)
+SELECT DATE(order_time), order_type, payment_status, COUNT(*), SUM(amount)
+FROM `order` GROUP BY DATE(order_time), order_type, payment_status;
+
 --
 -- Table structure for table `order_product`
 --
@@ -518,6 +557,7 @@ CREATE TABLE `product` (
   `name` varchar(100) NOT NULL,
   `price` decimal(10,2) NOT NULL,
   `stock` int NOT NULL DEFAULT '0',
+  `reorder_threshold` int NOT NULL DEFAULT '10' COMMENT 'Low-stock alert fires when stock drops below this value',
   PRIMARY KEY (`product_id`)
 ) ENGINE=InnoDB AUTO_INCREMENT=9 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci COMMENT='Product table: stores gym shop inventory';
 /*!40101 SET character_set_client = @saved_cs_client */;
@@ -529,14 +569,14 @@ CREATE TABLE `product` (
 LOCK TABLES `product` WRITE;
 /*!40000 ALTER TABLE `product` DISABLE KEYS */;
 INSERT INTO `product` VALUES 
-(1,'Mineral Water',3.00,150),
-(2,'Whey Protein Powder',450.00,25),
-(3,'Gym Towel',15.00,80),
-(4,'Energy Bar',12.00,100),
-(5,'Sports Drink',8.00,120),
-(6,'Resistance Band Set',35.00,40),
-(7,'Yoga Mat',65.00,30),
-(8,'Workout Gloves',28.00,45);
+(1,'Mineral Water',3.00,150,30),
+(2,'Whey Protein Powder',450.00,25,5),
+(3,'Gym Towel',15.00,80,10),
+(4,'Energy Bar',12.00,100,20),
+(5,'Sports Drink',8.00,120,20),
+(6,'Resistance Band Set',35.00,40,5),
+(7,'Yoga Mat',65.00,30,5),
+(8,'Workout Gloves',28.00,45,10);
 /*!40000 ALTER TABLE `product` ENABLE KEYS */;
 UNLOCK TABLES;
 
@@ -1,12 +1,34 @@
 import Ui.LoginUi;
-import com.formdev.flatlaf.themes.FlatMacLightLaf;
+import dao.MembershipTypeDAO;
+import dao.ProductCatalog;
+import dao.RoleRegistry;
+import service.AppContext;
 import utils.DBUtil;
+import utils.PasswordHasher;
+import utils.StartupProfiler;
+import utils.StyleUtils;
 
 import javax.swing.*;
-import java.awt.*;
 
+/**
+ * 程序入口
+ *
+ * 启动顺序：皮肤 -> 登录窗口 -> 后台预热，各阶段耗时由 {@link StartupProfiler} 记录
+ */
 public class Main {
+
+    /** 预热登录查询用的账号（不存在，查询必然落空） */
+    private static final String WARMUP_USERNAME = "__warmup__";
+
+    /** 登录后常用界面，预热时提前加载 */
+    private static final String[] WARMUP_CLASSES = {
+            "Ui.MainUi", "Ui.MemberManageUi", "Ui.CheckInUi", "Ui.ShopUi", "Ui.ReportUi",
+            "org.jfree.chart.ChartFactory"
+    };
+
     public static void main(String[] args) {
+        StartupProfiler.phase("jvm start");
+
         // ==========================================
         //  大招 1：开启“一体化标题栏” (Window Decorations)
         //  让标题栏变成扁平风格，不再是 Windows 默认的那个白条
@@ -14,63 +36,75 @@ public class Main {
         System.setProperty("flatlaf.useWindowDecorations", "true");
         System.setProperty("flatlaf.menuBarEmbedded", "true");
 
-        try {
-            // ==========================================
-            //  大招 2：选择更高级的皮肤 (四选一)
-            // ==========================================
-
-            // 选项 A: Mac 风格-亮色 (推荐！按钮圆润，看着很舒服)
-            FlatMacLightLaf.setup();
+        // ==========================================
+        //  大招 2：皮肤 + 全局字体
+        //  统一由 StyleUtils 安装 FlatLaf（只安装一次），并通过 defaultFont 设置全局字体，
+        //  不再逐个遍历 UIManager 的所有字体键
+        // ==========================================
+        StyleUtils.initGlobalTheme();
+        StartupProfiler.phase("look and feel");
 
-            // 选项 B: Mac 风格-暗色 (如果你喜欢黑客风/夜间模式)
-            // FlatMacDarkLaf.setup();
+        // 启动系统：登录窗口显示后记录可交互时间
+        SwingUtilities.invokeLater(() -> {
+            new LoginUi().LoginJFrame();
+            StartupProfiler.phase("build login");
+            SwingUtilities.invokeLater(StartupProfiler::interactive);
+        });
 
-            // 选项 C: 经典的 FlatLaf 亮色 (你刚才用的那个)
-            // FlatLightLaf.setup();
+        // 登录界面显示期间在后台预热（见 warmUp）
+        Thread warmUp = new Thread(Main::warmUp, "startup-warmup");
+        warmUp.setDaemon(true);
+        warmUp.start();
+    }
 
-            // 选项 D: 经典的 FlatLaf 暗色
-            // FlatDarkLaf.setup();
+    /**
+     * 后台预热：用户输入账号密码的这段时间里，把登录后第一次操作要付出的代价提前付掉
+     */
+    private static void warmUp() {
+        // 启动后台组件：重放本地日志中未写入数据库的订单和签到，加载报表用的列式分析库
+        AppContext.getInstance().start();
+        StartupProfiler.background("后台组件");
 
-            System.out.println("✅ 皮肤加载成功");
+        // 建立一次数据库连接（加载驱动、完成握手），用完即关
+        try {
+            DBUtil.getConnection().close();
+            StartupProfiler.background("数据库连接");
         } catch (Exception e) {
-            System.err.println("❌ 皮肤加载失败");
             e.printStackTrace();
         }
 
-        // ==========================================
-        //  大招 3：全局字体优化 (解决中文字体细、小的问题)
-        // ==========================================
-        optimizeFont();
+        try {
+            // 登录路径：登录查询；按本机速度校准密码哈希的迭代次数
+            AppContext.getInstance().getUserService().login(WARMUP_USERNAME, WARMUP_USERNAME);
+            PasswordHasher.getInstance().calibrate();
+            StartupProfiler.background("密码哈希校准（" + PasswordHasher.getInstance().getIterations() + " 次迭代）");
 
-        // 启动系统
-        SwingUtilities.invokeLater(() -> {
-            new LoginUi().LoginJFrame();
-        });
+            // 参考数据：会员卡类型、商品目录、角色权限
+            new MembershipTypeDAO().primeCache();
+            ProductCatalog.snapshot();
+            RoleRegistry.snapshot();
+            StartupProfiler.background("参考数据");
 
-        // 后台连接数据库
-        new Thread(() -> {
-            try {
-                DBUtil.getConnection();
-            } catch (Exception e) {
-                e.printStackTrace();
+            // 登录后的常用界面：提前加载类
+            ClassLoader loader = Main.class.getClassLoader();
+            for (String name : WARMUP_CLASSES) {
+                Class.forName(name, false, loader);
             }
-        }).start();
-    }
+            StartupProfiler.background("预热");
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
 
-    /**
-     * 设置全局字体：使用微软雅黑，字号加大到 14 (默认12太小)
-     */
-    private static void optimizeFont() {
-        // 这里的字体名字可以改，比如 "Microsoft YaHei", "SimHei" 等
-        // 14 是字体大小，12 太费眼，14 刚刚好
-        Font font = new Font("Microsoft YaHei", Font.PLAIN, 14);
-        java.util.Enumeration<Object> keys = UIManager.getDefaults().keys();
-        while (keys.hasMoreElements()) {
-            Object key = keys.nextElement();
-            Object value = UIManager.get(key);
-            if (value instanceof javax.swing.plaf.FontUIResource) {
-                UIManager.put(key, new javax.swing.plaf.FontUIResource(font));
+        if (StartupProfiler.EXIT_WHEN_READY) {
+            // 生成 AppCDS 归档：等登录窗口显示后退出，JVM 退出时写出归档
+            while (StartupProfiler.getInteractiveMillis() < 0) {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                    return;
+                }
             }
+            System.exit(0);
         }
     }
-}
\ No newline at end of file
+}
@@ -3,6 +3,7 @@ package Ui;
 import entity.Booking;
 import entity.Course;
 import entity.Member;
+import service.AppContext;
 import service.BookingService;
 import service.CourseService;
 import utils.LanguageUtils; // 引入
@@ -24,8 +25,8 @@ public class BookCourseUi extends JFrame {
 
     public BookCourseUi(Member member) {
         this.member = member;
-        this.courseService = new CourseService();
-        this.bookingService = new BookingService();
+        this.courseService = AppContext.getInstance().getCourseService();
+        this.bookingService = AppContext.getInstance().getBookingService();
         StyleUtils.initGlobalTheme();
         setTitle("📅 " + LanguageUtils.getText("book.title"));
         setSize(900, 600);
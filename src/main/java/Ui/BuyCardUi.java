@@ -2,6 +2,7 @@ package Ui;
 
 import dao.MembershipCardDAO;
 import entity.Member;
+import service.AppContext;
 import service.MemberService;
 import utils.LanguageUtils; // 引入
 import utils.StyleUtils;
@@ -21,7 +22,7 @@ public class BuyCardUi extends JFrame {
 
     public BuyCardUi(Member member) {
         this.member = member;
-        this.memberService = new MemberService();
+        this.memberService = AppContext.getInstance().getMemberService();
         StyleUtils.initGlobalTheme();
         setTitle("💳 " + LanguageUtils.getText("buy.title"));
         setSize(700, 500);
@@ -2,9 +2,11 @@ package Ui;
 
 import entity.CheckIn;
 import entity.Member;
+import service.AppContext;
 import service.CheckInService;
 import service.MemberService;
 import utils.LanguageUtils; // 导入
+import utils.SearchPipeline;
 import utils.StyleUtils;
 
 import javax.swing.*;
@@ -19,10 +21,13 @@ public class CheckInUi extends JFrame {
     private MemberService memberService;
     private JTextField inputField;
     private JTextArea resultArea;
+    /** 输入时预览将要签到的会员 */
+    private JLabel previewLabel;
+    private SearchPipeline<List<Member>> previewPipeline;
 
     public CheckInUi() {
-        this.checkInService = new CheckInService();
-        this.memberService = new MemberService();
+        this.checkInService = AppContext.getInstance().getCheckInService();
+        this.memberService = AppContext.getInstance().getMemberService();
         StyleUtils.initGlobalTheme();
 
         setTitle("✅ " + LanguageUtils.getText("checkin.title"));
@@ -77,6 +82,14 @@ public class CheckInUi extends JFrame {
         checkBtn.addActionListener(e -> performCheckIn());
         add(checkBtn);
 
+        previewLabel = new JLabel(" ", SwingConstants.CENTER);
+        previewLabel.setFont(StyleUtils.FONT_NORMAL);
+        previewLabel.setForeground(Color.GRAY);
+        previewLabel.setBounds(100, 303, 400, 22);
+        add(previewLabel);
+        previewPipeline = new SearchPipeline<>(SearchPipeline.DEFAULT_DEBOUNCE_MILLIS, SearchPipeline.DEFAULT_CACHE_SIZE,
+                text -> text.isEmpty() ? null : memberService.search(text), this::showPreview).attach(inputField);
+
         resultArea = new JTextArea();
         resultArea.setEditable(false);
         resultArea.setFont(StyleUtils.FONT_NORMAL);
@@ -112,6 +125,30 @@ public class CheckInUi extends JFrame {
         }
     }
 
+    /**
+     * 显示预览：与回车签到一致，多个结果时签到第一个
+     */
+    private void showPreview(List<Member> list) {
+        if (list == null) {
+            previewLabel.setText(" ");
+        } else if (list.isEmpty()) {
+            previewLabel.setText(LanguageUtils.getText("checkin.preview.none"));
+        } else {
+            Member first = list.get(0);
+            String text = String.format(LanguageUtils.getText("checkin.preview"), first.getName(), first.getPhone());
+            if (list.size() > 1) {
+                text += String.format(LanguageUtils.getText("checkin.preview.more"), list.size() - 1);
+            }
+            previewLabel.setText(text);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        previewPipeline.close();
+        super.dispose();
+    }
+
     private void showMsg(String msg, boolean success) {
         resultArea.append(String.format("[%tT] %s\n", System.currentTimeMillis(), msg));
         resultArea.setCaretPosition(resultArea.getDocument().getLength());
@@ -1,8 +1,9 @@
 package Ui;
 
 import com.toedter.calendar.JDateChooser;
+import dao.EmployeeDAO;
 import entity.Course;
-import entity.Employee;
+import service.AppContext;
 import service.CourseService;
 import service.EmployeeService;
 import utils.LanguageUtils; // 引入
@@ -10,9 +11,11 @@ import utils.StyleUtils;
 
 import javax.swing.*;
 import java.awt.*;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class CourseAddUi extends JFrame {
 
@@ -21,7 +24,11 @@ public class CourseAddUi extends JFrame {
     private EmployeeService employeeService;
     private JTextField nameField;
     private JComboBox<String> typeBox;
-    private JComboBox<TrainerItem> trainerBox;
+    private JComboBox<EmployeeDAO.Option> trainerBox;
+    private JLabel suggestLabel;
+    /** 用户已手动选择教练后不再自动选中推荐的教练 */
+    private boolean trainerPicked;
+    private boolean applyingSuggestion;
     private JDateChooser dateChooser;
     private JSpinner timeSpinner;
     private JTextField durationField;
@@ -29,8 +36,8 @@ public class CourseAddUi extends JFrame {
 
     public CourseAddUi(CourseManageUi parent) {
         this.parentUi = parent;
-        this.courseService = new CourseService();
-        this.employeeService = new EmployeeService();
+        this.courseService = AppContext.getInstance().getCourseService();
+        this.employeeService = AppContext.getInstance().getEmployeeService();
         StyleUtils.initGlobalTheme();
         setTitle("📝 " + LanguageUtils.getText("cm.add"));
         setSize(500, 650);
@@ -83,6 +90,11 @@ public class CourseAddUi extends JFrame {
         trainerBox.setBackground(Color.WHITE);
         trainerBox.setBounds(x, y, w, h);
         formPanel.add(trainerBox);
+        suggestLabel = new JLabel("", SwingConstants.RIGHT);
+        suggestLabel.setFont(StyleUtils.FONT_NORMAL);
+        suggestLabel.setForeground(StyleUtils.COLOR_SUCCESS);
+        suggestLabel.setBounds(x + 100, y - 25, w - 100, 20);
+        formPanel.add(suggestLabel);
 
         y += gap;
         addLabel(formPanel, LanguageUtils.getText("ca.date"), x, y - 25);
@@ -95,6 +107,8 @@ public class CourseAddUi extends JFrame {
             ((JTextField)dateChooser.getDateEditor().getUiComponent()).setBorder(BorderFactory.createEmptyBorder());
         }
         dateChooser.setBorder(BorderFactory.createLineBorder(Color.LIGHT_GRAY));
+        // 换了上课日期就按那一周重新推荐
+        dateChooser.addPropertyChangeListener("date", e -> suggestTrainer());
         formPanel.add(dateChooser);
 
         SpinnerDateModel model = new SpinnerDateModel();
@@ -133,25 +147,50 @@ public class CourseAddUi extends JFrame {
         p.add(l);
     }
 
-    private static class TrainerItem {
-        Employee emp;
-        public TrainerItem(Employee emp) { this.emp = emp; }
-        @Override public String toString() { return emp.getName() + " (ID:" + emp.getId() + ")"; }
-    }
-
     private void loadTrainers() {
-        List<Employee> list = employeeService.getAllEmployees();
-        for (Employee e : list) {
-            if (e.getRoleId() == dao.EmployeeRoleDAO.ROLE_ID_TRAINER) {
-                trainerBox.addItem(new TrainerItem(e));
-            }
+        // 只查教练的ID和姓名，不加载全部员工
+        for (EmployeeDAO.Option option : employeeService.getTrainerOptions()) {
+            trainerBox.addItem(option);
         }
+        trainerBox.addActionListener(e -> {
+            if (!applyingSuggestion) trainerPicked = true;
+        });
+        suggestTrainer();
+    }
+
+    /**
+     * 推荐上课日期所在周课程最少的教练（工作量报告有缓存，在后台线程读取）
+     */
+    private void suggestTrainer() {
+        Date date = dateChooser.getDate();
+        LocalDate day = date == null ? LocalDate.now() : date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        CompletableFuture.supplyAsync(() -> employeeService.suggestTrainer(day))
+                .whenComplete((workload, ex) -> SwingUtilities.invokeLater(() -> {
+                    if (ex != null) {
+                        ex.printStackTrace();
+                        return;
+                    }
+                    if (workload == null) {
+                        suggestLabel.setText("");
+                        return;
+                    }
+                    suggestLabel.setText(LanguageUtils.getText("ca.suggest") + workload.getName());
+                    if (trainerPicked) return;
+                    for (int i = 0; i < trainerBox.getItemCount(); i++) {
+                        if (trainerBox.getItemAt(i).getId() == workload.getTrainerId()) {
+                            applyingSuggestion = true;
+                            trainerBox.setSelectedIndex(i);
+                            applyingSuggestion = false;
+                            break;
+                        }
+                    }
+                }));
     }
 
     private void performAdd() {
         String name = nameField.getText().trim();
         String type = (String) typeBox.getSelectedItem();
-        TrainerItem trainerItem = (TrainerItem) trainerBox.getSelectedItem();
+        EmployeeDAO.Option trainerItem = (EmployeeDAO.Option) trainerBox.getSelectedItem();
         Date date = dateChooser.getDate();
         Date time = (Date) timeSpinner.getValue();
 
@@ -169,7 +208,7 @@ public class CourseAddUi extends JFrame {
             calDate.set(Calendar.MINUTE, calTime.get(Calendar.MINUTE));
             Date finalDate = calDate.getTime();
 
-            CourseService.ServiceResult<Course> result = courseService.createCourse(name, type, duration, capacity, trainerItem.emp.getId(), finalDate);
+            CourseService.ServiceResult<Course> result = courseService.createCourse(name, type, duration, capacity, trainerItem.getId(), finalDate);
             if (result.isSuccess()) {
                 JOptionPane.showMessageDialog(this, LanguageUtils.getText("msg.success"));
                 if (parentUi != null) parentUi.loadData();
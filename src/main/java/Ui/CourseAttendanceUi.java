@@ -3,6 +3,7 @@ package Ui;
 import entity.Booking;
 import entity.Course;
 import entity.Employee;
+import service.AppContext;
 import service.BookingService;
 import service.CourseService;
 import utils.LanguageUtils;
@@ -28,8 +29,8 @@ public class CourseAttendanceUi extends JFrame {
 
     public CourseAttendanceUi(Employee trainer) {
         this.trainer = trainer;
-        this.courseService = new CourseService();
-        this.bookingService = new BookingService();
+        this.courseService = AppContext.getInstance().getCourseService();
+        this.bookingService = AppContext.getInstance().getBookingService();
 
         StyleUtils.initGlobalTheme();
         setTitle("📋 " + LanguageUtils.getText("att.title"));
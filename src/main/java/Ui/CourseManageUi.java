@@ -2,13 +2,16 @@ package Ui;
 
 import entity.Course;
 import entity.Employee;
+import service.AppContext;
 import service.CourseService;
 import utils.LanguageUtils; // 引入
+import utils.SearchPipeline;
 import utils.StyleUtils;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.util.ArrayList;
 import java.util.List;
 
 public class CourseManageUi extends JFrame {
@@ -18,10 +21,12 @@ public class CourseManageUi extends JFrame {
     private JTable courseTable;
     private DefaultTableModel tableModel;
     private JTextField searchField;
+    /** 边输入边搜索：查询和课程详情都在后台线程完成，事件线程只填表 */
+    private SearchPipeline<List<Object[]>> searchPipeline;
 
     public CourseManageUi(Employee user) {
         this.currentUser = user;
-        this.courseService = new CourseService();
+        this.courseService = AppContext.getInstance().getCourseService();
         StyleUtils.initGlobalTheme();
         setTitle("📅 " + LanguageUtils.getText("cm.title"));
         setSize(1100, 650);
@@ -44,6 +49,9 @@ public class CourseManageUi extends JFrame {
         toolBar.add(new JLabel("🔍 " + LanguageUtils.getText("cm.search") + ":"));
         searchField = new JTextField(15);
         StyleUtils.styleTextField(searchField);
+        searchField.addActionListener(e -> searchCourse());
+        searchPipeline = new SearchPipeline<>(SearchPipeline.DEFAULT_DEBOUNCE_MILLIS, SearchPipeline.DEFAULT_CACHE_SIZE,
+                keyword -> buildRows(courseService.searchByName(keyword)), this::showRows).attach(searchField);
         toolBar.add(searchField);
 
         JButton searchBtn = new JButton(LanguageUtils.getText("btn.search"));
@@ -82,29 +90,40 @@ public class CourseManageUi extends JFrame {
     }
 
     public void loadData() {
-        tableModel.setRowCount(0);
-        List<Course> list = courseService.getAllCourses();
+        // 数据可能已被修改，搜索缓存作废
+        searchPipeline.invalidate();
+        showRows(buildRows(courseService.getAllCourses()));
+    }
+
+    private void searchCourse() {
+        // 回车 / 搜索按钮：跳过防抖立即查询（空关键字时查询全部）
+        searchPipeline.searchNow(searchField.getText());
+    }
+
+    private List<Object[]> buildRows(List<Course> list) {
+        List<Object[]> rows = new ArrayList<>();
         for (Course c : list) {
             service.CourseService.CourseDetail detail = courseService.getCourseDetail(c.getCourseId());
             String trainerName = (detail != null) ? detail.getTrainerName() : "?";
             String status = (detail != null && detail.isFull()) ? "🔴 Full" : "🟢 Open";
-            tableModel.addRow(new Object[]{c.getCourseId(), c.getName(), c.getType(), trainerName, c.getCourseTime(), c.getDuration(), c.getMaxCapacity(), status});
+            rows.add(new Object[]{c.getCourseId(), c.getName(), c.getType(), trainerName, c.getCourseTime(), c.getDuration(), c.getMaxCapacity(), status});
         }
+        return rows;
     }
 
-    private void searchCourse() {
-        String keyword = searchField.getText().trim();
-        if (keyword.isEmpty()) { loadData(); return; }
+    private void showRows(List<Object[]> rows) {
         tableModel.setRowCount(0);
-        List<Course> list = courseService.searchByName(keyword);
-        for (Course c : list) {
-            service.CourseService.CourseDetail detail = courseService.getCourseDetail(c.getCourseId());
-            String trainerName = (detail != null) ? detail.getTrainerName() : "?";
-            String status = (detail != null && detail.isFull()) ? "🔴 Full" : "🟢 Open";
-            tableModel.addRow(new Object[]{c.getCourseId(), c.getName(), c.getType(), trainerName, c.getCourseTime(), c.getDuration(), c.getMaxCapacity(), status});
+        for (Object[] row : rows) {
+            tableModel.addRow(row);
         }
     }
 
+    @Override
+    public void dispose() {
+        searchPipeline.close();
+        super.dispose();
+    }
+
     private void deleteCourse() {
         int row = courseTable.getSelectedRow();
         if (row == -1) { JOptionPane.showMessageDialog(this, "Select a course!"); return; }
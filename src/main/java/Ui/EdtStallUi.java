@@ -0,0 +1,116 @@
+package Ui;
+
+import utils.DateUtils;
+import utils.EdtWatchdog;
+import utils.LanguageUtils;
+import utils.StyleUtils;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.util.List;
+
+/**
+ * 界面卡顿热点（管理员）
+ *
+ * 显示 {@link EdtWatchdog} 归并的卡顿热点：位置、次数、累计 / 最长耗时、卡顿时执行的 SQL，
+ * 选中一行查看耗时最长一次的调用栈
+ */
+public class EdtStallUi extends JFrame {
+
+    private final EdtWatchdog watchdog = EdtWatchdog.getInstance();
+    private DefaultTableModel tableModel;
+    private JTable stallTable;
+    private JTextArea stackArea;
+    private JLabel summaryLabel;
+    private List<EdtWatchdog.Hotspot> shown;
+
+    public EdtStallUi() {
+        StyleUtils.initGlobalTheme();
+        setTitle("🐢 " + LanguageUtils.getText("edt.title"));
+        setSize(1000, 650);
+        setLocationRelativeTo(null);
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+        getContentPane().setBackground(StyleUtils.COLOR_BG);
+        setLayout(new BorderLayout(10, 10));
+        initView();
+        loadData();
+        setVisible(true);
+    }
+
+    private void initView() {
+        JPanel topPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 15, 15));
+        topPanel.setBackground(Color.WHITE);
+        topPanel.setBorder(BorderFactory.createMatteBorder(0, 0, 1, 0, new Color(220, 220, 220)));
+        add(topPanel, BorderLayout.NORTH);
+
+        JButton refreshBtn = new JButton("🔄 " + LanguageUtils.getText("btn.refresh"));
+        StyleUtils.styleButton(refreshBtn, StyleUtils.COLOR_INFO);
+        refreshBtn.addActionListener(e -> loadData());
+        topPanel.add(refreshBtn);
+
+        JButton clearBtn = new JButton("🗑️ " + LanguageUtils.getText("edt.clear"));
+        StyleUtils.styleButton(clearBtn, StyleUtils.COLOR_DANGER);
+        clearBtn.addActionListener(e -> { watchdog.clear(); loadData(); });
+        topPanel.add(clearBtn);
+
+        summaryLabel = new JLabel();
+        summaryLabel.setFont(StyleUtils.FONT_NORMAL);
+        topPanel.add(summaryLabel);
+
+        String[] columns = {
+                LanguageUtils.getText("edt.col.location"), LanguageUtils.getText("edt.col.count"),
+                LanguageUtils.getText("edt.col.total"), LanguageUtils.getText("edt.col.max"),
+                LanguageUtils.getText("edt.col.last"), "SQL"
+        };
+        tableModel = new DefaultTableModel(columns, 0) { @Override public boolean isCellEditable(int r, int c) { return false; } };
+        stallTable = new JTable(tableModel);
+        StyleUtils.styleTable(stallTable);
+        stallTable.getColumnModel().getColumn(0).setPreferredWidth(360);
+        stallTable.getColumnModel().getColumn(5).setPreferredWidth(260);
+        stallTable.getSelectionModel().addListSelectionListener(e -> showStack());
+
+        stackArea = new JTextArea();
+        stackArea.setEditable(false);
+        stackArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+
+        JScrollPane tableScroll = new JScrollPane(stallTable);
+        tableScroll.getViewport().setBackground(Color.WHITE);
+        JScrollPane stackScroll = new JScrollPane(stackArea);
+        stackScroll.setBorder(BorderFactory.createTitledBorder(LanguageUtils.getText("edt.stack")));
+        JSplitPane split = new JSplitPane(JSplitPane.VERTICAL_SPLIT, tableScroll, stackScroll);
+        split.setResizeWeight(0.55);
+        split.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        add(split, BorderLayout.CENTER);
+    }
+
+    private void loadData() {
+        shown = watchdog.getHotspots();
+        tableModel.setRowCount(0);
+        for (EdtWatchdog.Hotspot h : shown) {
+            tableModel.addRow(new Object[]{
+                    h.getLocation(), h.getCount(), h.getTotalMillis(), h.getMaxMillis(),
+                    DateUtils.formatDateTime(h.getLastAt()), h.getLastSql() != null ? h.getLastSql() : ""
+            });
+        }
+        stackArea.setText("");
+        String state = watchdog.isRunning() ? "" : " (" + LanguageUtils.getText("edt.off") + ")";
+        summaryLabel.setText(String.format(LanguageUtils.getText("edt.summary"),
+                watchdog.getStallCount(), watchdog.getThresholdMillis(), watchdog.getLogFile()) + state);
+    }
+
+    private void showStack() {
+        int row = stallTable.getSelectedRow();
+        if (row < 0 || shown == null || row >= shown.size()) {
+            return;
+        }
+        EdtWatchdog.Hotspot h = shown.get(row);
+        StringBuilder sb = new StringBuilder(h.getLocation()).append('\n');
+        if (h.getLastSql() != null) {
+            sb.append("SQL: ").append(h.getLastSql()).append('\n');
+        }
+        sb.append(h.getStack());
+        stackArea.setText(sb.toString());
+        stackArea.setCaretPosition(0);
+    }
+}
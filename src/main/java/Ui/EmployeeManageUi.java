@@ -1,30 +1,37 @@
 package Ui;
 
 import dao.EmployeeDAO;
-import dao.EmployeeRoleDAO;
+import dao.RoleRegistry;
 import entity.Employee;
 import utils.LanguageUtils; // 导入
+import utils.SearchPipeline;
 import utils.StyleUtils;
+import service.AppContext;
+import service.EmployeeService;
 import service.UserService;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class EmployeeManageUi extends JFrame {
 
     private EmployeeDAO employeeDAO;
-    private EmployeeRoleDAO roleDAO;
     private UserService userService;
+    private EmployeeService employeeService;
     private JTable employeeTable;
     private DefaultTableModel tableModel;
     private JTextField searchField;
+    /** 边输入边搜索：查询和角色名称都在后台线程完成，事件线程只填表 */
+    private SearchPipeline<List<Object[]>> searchPipeline;
 
     public EmployeeManageUi() {
-        this.employeeDAO = new EmployeeDAO();
-        this.roleDAO = new EmployeeRoleDAO();
-        this.userService = new UserService();
+        this.employeeDAO = AppContext.getInstance().getEmployeeDAO();
+        this.userService = AppContext.getInstance().getUserService();
+        this.employeeService = AppContext.getInstance().getEmployeeService();
         StyleUtils.initGlobalTheme();
         setTitle("👔 " + LanguageUtils.getText("em.title"));
         setSize(1000, 650);
@@ -46,6 +53,10 @@ public class EmployeeManageUi extends JFrame {
         toolBar.add(new JLabel("🔍 " + LanguageUtils.getText("mm.col.name") + ":"));
         searchField = new JTextField(15);
         StyleUtils.styleTextField(searchField);
+        searchField.addActionListener(e -> searchEmployee());
+        searchPipeline = new SearchPipeline<>(SearchPipeline.DEFAULT_DEBOUNCE_MILLIS, SearchPipeline.DEFAULT_CACHE_SIZE,
+                kw -> buildRows(kw.isEmpty() ? employeeDAO.getAllEmployees() : employeeDAO.searchEmployeeByName(kw)),
+                this::showRows).attach(searchField);
         toolBar.add(searchField);
 
         JButton searchBtn = new JButton(LanguageUtils.getText("btn.search"));
@@ -82,6 +93,11 @@ public class EmployeeManageUi extends JFrame {
         delBtn.addActionListener(e -> deleteEmployee());
         toolBar.add(delBtn);
 
+        JButton workloadBtn = new JButton("📊 " + LanguageUtils.getText("em.workload"));
+        StyleUtils.styleButton(workloadBtn, StyleUtils.COLOR_INFO);
+        workloadBtn.addActionListener(e -> showWorkload());
+        toolBar.add(workloadBtn);
+
         JButton langBtn = LanguageUtils.createLanguageButton(this, () -> new EmployeeManageUi());
         toolBar.add(langBtn);
 
@@ -96,21 +112,67 @@ public class EmployeeManageUi extends JFrame {
     }
 
     private void loadData() {
-        tableModel.setRowCount(0);
-        List<Employee> list = employeeDAO.getAllEmployees();
-        for (Employee e : list) addEmployeeToTable(e);
+        // 数据可能已被修改，搜索缓存作废
+        searchPipeline.invalidate();
+        showRows(buildRows(employeeDAO.getAllEmployees()));
     }
 
     private void searchEmployee() {
-        String kw = searchField.getText().trim();
-        if (kw.isEmpty()) { loadData(); return; }
+        // 回车 / 搜索按钮：跳过防抖立即查询（空关键字时查询全部）
+        searchPipeline.searchNow(searchField.getText());
+    }
+
+    private List<Object[]> buildRows(List<Employee> list) {
+        // 角色名称读同一份内存快照，不按行查询
+        RoleRegistry.Snapshot roles = RoleRegistry.snapshot();
+        List<Object[]> rows = new ArrayList<>();
+        for (Employee e : list) {
+            rows.add(new Object[]{e.getId(), e.getName(), roles.getDisplayName(e.getRoleId()), e.getPhone(), e.getHireDate()});
+        }
+        return rows;
+    }
+
+    private void showRows(List<Object[]> rows) {
         tableModel.setRowCount(0);
-        List<Employee> list = employeeDAO.searchEmployeeByName(kw);
-        for (Employee e : list) addEmployeeToTable(e);
+        for (Object[] row : rows) tableModel.addRow(row);
+    }
+
+    @Override
+    public void dispose() {
+        searchPipeline.close();
+        super.dispose();
     }
 
-    private void addEmployeeToTable(Employee e) {
-        tableModel.addRow(new Object[]{e.getId(), e.getName(), roleDAO.getRoleDisplayName(e.getRoleId()), e.getPhone(), e.getHireDate()});
+    /**
+     * 教练工作量：全部教练一次分组查询（结果有缓存），在后台线程读取
+     */
+    private void showWorkload() {
+        String[] columns = {"ID", LanguageUtils.getText("mm.col.name"), LanguageUtils.getText("em.wl.courses"),
+                LanguageUtils.getText("em.wl.booked"), LanguageUtils.getText("em.wl.fill"), LanguageUtils.getText("em.wl.today")};
+        DefaultTableModel model = new DefaultTableModel(columns, 0) { @Override public boolean isCellEditable(int r, int c) { return false; } };
+        JTable table = new JTable(model);
+        StyleUtils.styleTable(table);
+
+        JDialog dialog = new JDialog(this, "📊 " + LanguageUtils.getText("em.workload"), false);
+        dialog.setSize(700, 400);
+        dialog.setLocationRelativeTo(this);
+        dialog.add(new JScrollPane(table));
+
+        CompletableFuture.supplyAsync(employeeService::getTrainerWorkloads)
+                .whenComplete((list, ex) -> SwingUtilities.invokeLater(() -> {
+                    if (ex != null || list == null) {
+                        if (ex != null) ex.printStackTrace();
+                        dialog.dispose();
+                        JOptionPane.showMessageDialog(this, LanguageUtils.getText("msg.error"));
+                        return;
+                    }
+                    for (EmployeeDAO.Workload w : list) {
+                        model.addRow(new Object[]{w.getTrainerId(), w.getName(), w.getCourseCount(),
+                                w.getBookedSeats() + " / " + w.getCapacity(),
+                                String.format("%.0f%%", w.getFillRate() * 100), w.getTodayAttendees()});
+                    }
+                }));
+        dialog.setVisible(true);
     }
 
     private void addEmployee() {
@@ -129,8 +191,12 @@ public class EmployeeManageUi extends JFrame {
             int roleId = (idx==0)?3:(idx==1?2:1);
             Employee emp = new Employee(); emp.setName(name); emp.setPhone(phone); emp.setRoleId(roleId); emp.setHireDate(new java.util.Date());
             if(employeeDAO.addEmployee(emp)){
-                userService.setEmployeeAccount(emp.getId(), emp.getPhone(), "123456");
-                JOptionPane.showMessageDialog(this, "Success!"); loadData();
+                // 密码哈希较慢，开通账号放到后台线程
+                CompletableFuture.runAsync(() -> userService.setEmployeeAccount(emp.getId(), emp.getPhone(), "123456"))
+                        .whenComplete((v, ex) -> SwingUtilities.invokeLater(() -> {
+                            if (ex != null) ex.printStackTrace();
+                            JOptionPane.showMessageDialog(this, "Success!"); loadData();
+                        }));
             }
         }
     }
@@ -145,8 +211,19 @@ public class EmployeeManageUi extends JFrame {
         JTextField pF = new JTextField();
         Object[] msg = { "User ["+name+"]", LanguageUtils.getText("login.user"), uF, LanguageUtils.getText("login.pass"), pF };
         if(JOptionPane.showConfirmDialog(this, msg, LanguageUtils.getText("em.account"), JOptionPane.OK_CANCEL_OPTION) == JOptionPane.OK_OPTION){
-            userService.setEmployeeAccount(empId, uF.getText(), pF.getText());
-            JOptionPane.showMessageDialog(this, "Done");
+            String username = uF.getText();
+            String password = pF.getText();
+            CompletableFuture.supplyAsync(() -> userService.setEmployeeAccount(empId, username, password))
+                    .whenComplete((result, ex) -> SwingUtilities.invokeLater(() -> {
+                        if (ex != null) {
+                            ex.printStackTrace();
+                            JOptionPane.showMessageDialog(this, LanguageUtils.getText("msg.error"));
+                        } else if (result.isSuccess()) {
+                            JOptionPane.showMessageDialog(this, "Done");
+                        } else {
+                            JOptionPane.showMessageDialog(this, result.getMessage());
+                        }
+                    }));
         }
     }
 
@@ -2,6 +2,7 @@ package Ui;
 
 import entity.Member;
 import utils.LanguageUtils; // 引入
+import utils.Money;
 import utils.StyleUtils;
 
 import javax.swing.*;
@@ -70,7 +71,7 @@ public class InfoUi extends JFrame {
         balanceKey.setBounds(50, startY + gap * 3, 100, 20);
         cardPanel.add(balanceKey);
 
-        JLabel balanceVal = new JLabel("¥ " + member.getBalance());
+        JLabel balanceVal = new JLabel(Money.formatWithSymbol(member.getBalanceCents()));
         balanceVal.setFont(new Font("Arial", Font.BOLD, 16));
         balanceVal.setForeground(StyleUtils.COLOR_DANGER);
         balanceVal.setHorizontalAlignment(SwingConstants.RIGHT);
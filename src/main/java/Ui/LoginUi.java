@@ -1,5 +1,6 @@
 package Ui;
 
+import service.AppContext;
 import service.UserService;
 import utils.LanguageUtils; // 引入
 import utils.StyleUtils;
@@ -8,12 +9,15 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
+import java.util.concurrent.CompletableFuture;
 
 public class LoginUi extends JFrame implements MouseListener {
 
     private JTextField usernameField;
     private JPasswordField passwordField;
     private JButton loginButton;
+    /** 登录请求进行中（密码验证在后台线程执行） */
+    private boolean loggingIn;
     private JLabel registerLabel;
 
     public void LoginJFrame() {
@@ -118,15 +122,29 @@ public class LoginUi extends JFrame implements MouseListener {
             return;
         }
 
-        UserService userService = new UserService();
-        UserService.LoginResult result = userService.login(username, password);
-
-        if (result.isSuccess()) {
-            this.dispose();
-            new MainUi(result.getUserType(), result.getUserData());
-        } else {
-            JOptionPane.showMessageDialog(this, result.getMessage(), LanguageUtils.getText("msg.error"), JOptionPane.ERROR_MESSAGE);
+        if (loggingIn) {
+            return;
         }
+        loggingIn = true;
+        loginButton.setEnabled(false);
+
+        // 查询和密码验证都不在界面线程上执行
+        UserService userService = AppContext.getInstance().getUserService();
+        CompletableFuture.supplyAsync(() -> userService.login(username, password))
+                .whenComplete((result, ex) -> SwingUtilities.invokeLater(() -> {
+                    loggingIn = false;
+                    loginButton.setEnabled(true);
+                    if (ex != null) {
+                        ex.printStackTrace();
+                        JOptionPane.showMessageDialog(this, ex.getMessage(), LanguageUtils.getText("msg.error"), JOptionPane.ERROR_MESSAGE);
+                    } else if (result.isSuccess()) {
+                        AppContext.getInstance().setSession(result.getSession());
+                        this.dispose();
+                        new MainUi(result.getUserType(), result.getUserData());
+                    } else {
+                        JOptionPane.showMessageDialog(this, result.getMessage(), LanguageUtils.getText("msg.error"), JOptionPane.ERROR_MESSAGE);
+                    }
+                }));
     }
 
     public void mousePressed(MouseEvent e) {}
@@ -1,8 +1,11 @@
 package Ui;
 
 import dao.EmployeeRoleDAO;
+import dao.ProductCatalog;
+import dao.StockAlerts;
 import entity.Employee;
 import entity.Member;
+import service.AppContext;
 import utils.LanguageUtils;
 import utils.StyleUtils;
 
@@ -12,6 +15,7 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.List;
 
 public class MainUi extends JFrame {
 
@@ -19,6 +23,9 @@ public class MainUi extends JFrame {
     private Object userData;
     private JLabel timeLbl;
     private Timer timer;
+    private JButton alertBtn;
+    private StockAlerts.Listener alertListener;
+    private StockAlerts.Alert latestAlert;
 
     // === 布局常量配置 ===
     private final int WIN_WIDTH = 1000;
@@ -37,7 +44,7 @@ public class MainUi extends JFrame {
 
     private void initView() {
         this.setSize(WIN_WIDTH, 750);
-        this.setTitle("💪 " + LanguageUtils.getText("main.title"));
+        LanguageUtils.bind(this, () -> setTitle("💪 " + LanguageUtils.getText("main.title")));
         this.setLocationRelativeTo(null);
         this.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
         this.getContentPane().setLayout(null);
@@ -65,13 +72,15 @@ public class MainUi extends JFrame {
         startClock();
 
         // 用户信息
-        String welcomeText = LanguageUtils.getText("main.welcome");
+        String userName = "";
         if ("member".equals(userType) && userData instanceof Member) {
-            welcomeText += ((Member) userData).getName();
+            userName = ((Member) userData).getName();
         } else if ("employee".equals(userType) && userData instanceof Employee) {
-            welcomeText += ((Employee) userData).getName();
+            userName = ((Employee) userData).getName();
         }
-        JLabel userLbl = new JLabel(welcomeText);
+        String welcomeName = userName;
+        JLabel userLbl = new JLabel();
+        LanguageUtils.bind(this, () -> userLbl.setText(LanguageUtils.getText("main.welcome") + welcomeName));
         userLbl.setFont(StyleUtils.FONT_NORMAL);
         userLbl.setHorizontalAlignment(SwingConstants.RIGHT);
         userLbl.setBounds(460, 20, 240, 30);
@@ -83,12 +92,14 @@ public class MainUi extends JFrame {
         header.add(langBtn);
 
         // 退出
-        JButton logoutBtn = new JButton(LanguageUtils.getText("main.logout") + " ❌");
+        JButton logoutBtn = new JButton();
+        LanguageUtils.bind(this, () -> logoutBtn.setText(LanguageUtils.getText("main.logout") + " ❌"));
         StyleUtils.styleButton(logoutBtn, StyleUtils.COLOR_DANGER);
         logoutBtn.setBounds(800, 18, 160, 35);
         logoutBtn.addActionListener(e -> {
             if (JOptionPane.showConfirmDialog(this, LanguageUtils.getText("main.exit_confirm"), LanguageUtils.getText("main.logout"), JOptionPane.YES_NO_OPTION) == 0) {
                 if (timer != null) timer.stop();
+                AppContext.getInstance().setSession(null);
                 dispose();
                 new LoginUi().LoginJFrame();
             }
@@ -124,22 +135,22 @@ public class MainUi extends JFrame {
         int y = START_Y;
 
         // --- 第一行 ---
-        addSectionTitle(LanguageUtils.getText("main.sec.service"), startX, y - 35);
+        addSectionTitle("main.sec.service", startX, y - 35);
 
-        createMenuBtn(LanguageUtils.getText("menu.profile"), "👤", StyleUtils.COLOR_PRIMARY, startX, y,
+        createMenuBtn("menu.profile", "👤", StyleUtils.COLOR_PRIMARY, startX, y,
                 () -> new Ui.InfoUi((Member) userData).setVisible(true));
 
-        createMenuBtn(LanguageUtils.getText("menu.book"), "📅", StyleUtils.COLOR_SUCCESS, startX + BTN_W + GAP_X, y,
+        createMenuBtn("menu.book", "📅", StyleUtils.COLOR_SUCCESS, startX + BTN_W + GAP_X, y,
                 () -> new BookCourseUi((Member) userData));
 
-        createMenuBtn(LanguageUtils.getText("menu.mybook"), "📋", StyleUtils.COLOR_WARNING, startX + (BTN_W + GAP_X) * 2, y,
+        createMenuBtn("menu.mybook", "📋", StyleUtils.COLOR_WARNING, startX + (BTN_W + GAP_X) * 2, y,
                 () -> new Ui.MyBookingUi((Member) userData));
 
         // --- 第二行 ---
         y += GAP_Y;
-        createMenuBtn(LanguageUtils.getText("menu.card"), "💳", StyleUtils.COLOR_DANGER, startX, y, () -> {
+        createMenuBtn("menu.card", "💳", StyleUtils.COLOR_DANGER, startX, y, () -> {
             Member mem = (Member) userData;
-            dao.MembershipCardDAO cardDAO = new dao.MembershipCardDAO();
+            dao.MembershipCardDAO cardDAO = AppContext.getInstance().getMembershipCardDAO();
             if (cardDAO.hasMemberValidCard(mem.getId())) {
                 new RenewUi(this, mem, false);
             } else {
@@ -159,8 +170,8 @@ public class MainUi extends JFrame {
             int startX = calculateStartX(3); // 保持与前台一致的左边距
             int y = START_Y;
 
-            addSectionTitle(LanguageUtils.getText("main.sec.trainer"), startX, y - 35);
-            createMenuBtn(LanguageUtils.getText("menu.att"), "📝", StyleUtils.COLOR_PRIMARY, startX, y,
+            addSectionTitle("main.sec.trainer", startX, y - 35);
+            createMenuBtn("menu.att", "📝", StyleUtils.COLOR_PRIMARY, startX, y,
                     () -> new Ui.CourseAttendanceUi((Employee) userData));
         }
 
@@ -170,23 +181,25 @@ public class MainUi extends JFrame {
             int y = START_Y;
 
             // Row 1: 前台高频 (签到、收银、充值)
-            addSectionTitle(LanguageUtils.getText("main.sec.front"), startX, y - 35);
-            createMenuBtn(LanguageUtils.getText("menu.checkin"), "✅", StyleUtils.COLOR_PRIMARY, startX, y, () -> new CheckInUi());
-            createMenuBtn(LanguageUtils.getText("menu.shop"), "🛒", StyleUtils.COLOR_WARNING, startX + BTN_W + GAP_X, y, () -> new ShopUi());
-            createMenuBtn(LanguageUtils.getText("menu.recharge"), "💰", StyleUtils.COLOR_SUCCESS, startX + (BTN_W + GAP_X) * 2, y, () -> new RechargeUi());
+            addSectionTitle("main.sec.front", startX, y - 35);
+            createMenuBtn("menu.checkin", "✅", StyleUtils.COLOR_PRIMARY, startX, y, () -> new CheckInUi());
+            createMenuBtn("menu.shop", "🛒", StyleUtils.COLOR_WARNING, startX + BTN_W + GAP_X, y, () -> new ShopUi());
+            createMenuBtn("menu.recharge", "💰", StyleUtils.COLOR_SUCCESS, startX + (BTN_W + GAP_X) * 2, y, () -> new RechargeUi());
 
             // Row 2: 会籍服务
             y += GAP_Y;
-            addSectionTitle(LanguageUtils.getText("main.sec.member"), startX, y - 35);
-            createMenuBtn(LanguageUtils.getText("menu.mm"), "📂", StyleUtils.COLOR_INFO, startX, y, () -> new Ui.MemberManageUi());
-            createMenuBtn(LanguageUtils.getText("menu.newcard"), "🆕", StyleUtils.COLOR_DANGER, startX + BTN_W + GAP_X, y, () -> handleStaffCardAction("buy"));
-            createMenuBtn(LanguageUtils.getText("menu.renew"), "🔄", StyleUtils.COLOR_DANGER, startX + (BTN_W + GAP_X) * 2, y, () -> handleStaffCardAction("renew"));
+            addSectionTitle("main.sec.member", startX, y - 35);
+            createMenuBtn("menu.mm", "📂", StyleUtils.COLOR_INFO, startX, y, () -> new Ui.MemberManageUi());
+            createMenuBtn("menu.newcard", "🆕", StyleUtils.COLOR_DANGER, startX + BTN_W + GAP_X, y, () -> handleStaffCardAction("buy"));
+            createMenuBtn("menu.renew", "🔄", StyleUtils.COLOR_DANGER, startX + (BTN_W + GAP_X) * 2, y, () -> handleStaffCardAction("renew"));
 
             // Row 3: 后台管理
             y += GAP_Y;
-            addSectionTitle(LanguageUtils.getText("main.sec.backend"), startX, y - 35);
-            createMenuBtn(LanguageUtils.getText("menu.cm"), "📅", StyleUtils.COLOR_INFO, startX, y, () -> new Ui.CourseManageUi((Employee) userData));
-            createMenuBtn(LanguageUtils.getText("menu.stock"), "📊", StyleUtils.COLOR_INFO, startX + BTN_W + GAP_X, y, () -> new ProductManageUi());
+            addSectionTitle("main.sec.backend", startX, y - 35);
+            createMenuBtn("menu.cm", "📅", StyleUtils.COLOR_INFO, startX, y, () -> new Ui.CourseManageUi((Employee) userData));
+            createMenuBtn("menu.stock", "📊", StyleUtils.COLOR_INFO, startX + BTN_W + GAP_X, y, () -> new ProductManageUi());
+
+            initStockAlertBar(y + BTN_H + 30);
         }
 
         // ------------------ 管理员视图 (4列布局 - 优化展示更多功能) ------------------
@@ -198,30 +211,99 @@ public class MainUi extends JFrame {
             int col4 = startX + (BTN_W + GAP_X) * 3;
 
             // Row 1: 核心管理 (签到, 排课, 会员, 员工)
-            addSectionTitle(LanguageUtils.getText("main.sec.admin"), startX, y - 35);
-            createMenuBtn(LanguageUtils.getText("menu.checkin"), "✅", StyleUtils.COLOR_PRIMARY, startX, y, () -> new CheckInUi());
-            createMenuBtn(LanguageUtils.getText("menu.cm"), "📅", StyleUtils.COLOR_PRIMARY, col2, y, () -> new Ui.CourseManageUi((Employee) userData));
-            createMenuBtn(LanguageUtils.getText("menu.mm"), "👥", StyleUtils.COLOR_PRIMARY, col3, y, () -> new Ui.MemberManageUi());
-            createMenuBtn(LanguageUtils.getText("menu.emp"), "👔", StyleUtils.COLOR_DANGER, col4, y, () -> new Ui.EmployeeManageUi());
+            addSectionTitle("main.sec.admin", startX, y - 35);
+            createMenuBtn("menu.checkin", "✅", StyleUtils.COLOR_PRIMARY, startX, y, () -> new CheckInUi());
+            createMenuBtn("menu.cm", "📅", StyleUtils.COLOR_PRIMARY, col2, y, () -> new Ui.CourseManageUi((Employee) userData));
+            createMenuBtn("menu.mm", "👥", StyleUtils.COLOR_PRIMARY, col3, y, () -> new Ui.MemberManageUi());
+            createMenuBtn("menu.emp", "👔", StyleUtils.COLOR_DANGER, col4, y, () -> new Ui.EmployeeManageUi());
 
             // Row 2: 业务运营 (点名, 库存, 商品, 充值)
             y += GAP_Y;
-            createMenuBtn(LanguageUtils.getText("menu.att"), "📝", StyleUtils.COLOR_INFO, startX, y, () -> new Ui.CourseAttendanceUi((Employee) userData));
-            createMenuBtn(LanguageUtils.getText("menu.stock"), "📦", StyleUtils.COLOR_WARNING, col2, y, () -> new ProductManageUi());
-            createMenuBtn(LanguageUtils.getText("menu.shop"), "🛒", StyleUtils.COLOR_SUCCESS, col3, y, () -> new ShopUi());
-            createMenuBtn(LanguageUtils.getText("menu.recharge"), "💰", StyleUtils.COLOR_SUCCESS, col4, y, () -> new RechargeUi());
+            createMenuBtn("menu.att", "📝", StyleUtils.COLOR_INFO, startX, y, () -> new Ui.CourseAttendanceUi((Employee) userData));
+            createMenuBtn("menu.stock", "📦", StyleUtils.COLOR_WARNING, col2, y, () -> new ProductManageUi());
+            createMenuBtn("menu.shop", "🛒", StyleUtils.COLOR_SUCCESS, col3, y, () -> new ShopUi());
+            createMenuBtn("menu.recharge", "💰", StyleUtils.COLOR_SUCCESS, col4, y, () -> new RechargeUi());
 
             // Row 3: 决策与开卡
             y += GAP_Y;
-            createMenuBtn(LanguageUtils.getText("menu.card"), "💳", StyleUtils.COLOR_DANGER, startX, y, () -> {
+            createMenuBtn("menu.card", "💳", StyleUtils.COLOR_DANGER, startX, y, () -> {
                 Object[] options = {LanguageUtils.getText("menu.newcard"), LanguageUtils.getText("menu.renew")};
                 int choice = JOptionPane.showOptionDialog(this, "Select:", "Card", JOptionPane.DEFAULT_OPTION, JOptionPane.INFORMATION_MESSAGE, null, options, options[0]);
                 if (choice == 0) handleStaffCardAction("buy");
                 if (choice == 1) handleStaffCardAction("renew");
             });
 
-            createMenuBtn(LanguageUtils.getText("menu.report"), "📊", new Color(100, 100, 255), col2, y, () -> new ReportUi());
+            createMenuBtn("menu.report", "📊", new Color(100, 100, 255), col2, y, () -> new ReportUi());
+            createMenuBtn("menu.edt", "🐢", StyleUtils.COLOR_INFO, col3, y, () -> new EdtStallUi());
+
+            initStockAlertBar(y + BTN_H + 30);
+        }
+    }
+
+    // ==================== 3. 库存提醒通知栏 ====================
+
+    /**
+     * 库存提醒通知栏（前台/管理员）
+     * 订阅库存越线事件，有变化时才刷新，不做定时查询
+     */
+    private void initStockAlertBar(int y) {
+        alertBtn = new JButton();
+        alertBtn.setBounds((WIN_WIDTH - 500) / 2, y, 500, 40);
+        alertBtn.addActionListener(e -> showAlertHistory());
+        this.getContentPane().add(alertBtn);
+        // 切换语言时按最近一条提醒重新设置文字（只读内存中的商品目录）
+        LanguageUtils.bind(this, () -> refreshAlertBar(latestAlert));
+
+        // 回调可能来自任意线程，切换到事件分发线程更新界面
+        alertListener = alert -> SwingUtilities.invokeLater(() -> refreshAlertBar(alert));
+        StockAlerts.subscribe(alertListener);
+    }
+
+    private void refreshAlertBar(StockAlerts.Alert latest) {
+        if (alertBtn == null) return;
+        latestAlert = latest;
+        int lowCount = ProductCatalog.snapshot().getLowStockCount();
+        String text;
+        if (lowCount == 0) {
+            text = "✅ " + LanguageUtils.getText("main.alert.ok");
+        } else {
+            text = "⚠ " + lowCount + LanguageUtils.getText("main.alert.low");
+        }
+        if (latest != null) {
+            text += "  |  " + formatAlert(latest);
+        }
+        alertBtn.setText(text);
+        StyleUtils.styleButton(alertBtn, lowCount == 0 ? StyleUtils.COLOR_SUCCESS : StyleUtils.COLOR_WARNING);
+    }
+
+    private void showAlertHistory() {
+        List<StockAlerts.Alert> alerts = StockAlerts.getRecentAlerts();
+        StringBuilder sb = new StringBuilder();
+        if (alerts.isEmpty()) {
+            sb.append(LanguageUtils.getText("main.alert.none"));
+        }
+        SimpleDateFormat sdf = new SimpleDateFormat("HH:mm:ss");
+        for (StockAlerts.Alert alert : alerts) {
+            sb.append(sdf.format(alert.getTime())).append("  ").append(formatAlert(alert)).append("\n");
+        }
+        JOptionPane.showMessageDialog(this, sb.toString(), LanguageUtils.getText("main.alert.title"), JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    private String formatAlert(StockAlerts.Alert alert) {
+        String type = alert.getType() == StockAlerts.Type.LOW
+                ? LanguageUtils.getText("main.alert.type.low")
+                : LanguageUtils.getText("main.alert.type.restocked");
+        return "[" + type + "] " + alert.getProductName() + " (" + alert.getStock() + "/" + alert.getReorderThreshold() + ")";
+    }
+
+    @Override
+    public void dispose() {
+        // 退出登录时窗口会被销毁，取消订阅避免旧窗口继续接收提醒
+        if (alertListener != null) {
+            StockAlerts.unsubscribe(alertListener);
+            alertListener = null;
         }
+        super.dispose();
     }
 
     // === 辅助方法 ===
@@ -235,9 +317,10 @@ public class MainUi extends JFrame {
         return (WIN_WIDTH - totalWidth) / 2;
     }
 
-    private void createMenuBtn(String text, String icon, Color color, int x, int y, Runnable action) {
-        String html = "<html><center><font size='6'>" + icon + "</font><br><font size='4'>" + text + "</font></center></html>";
-        JButton btn = new JButton(html);
+    private void createMenuBtn(String textKey, String icon, Color color, int x, int y, Runnable action) {
+        JButton btn = new JButton();
+        LanguageUtils.bind(this, () -> btn.setText("<html><center><font size='6'>" + icon + "</font><br><font size='4'>"
+                + LanguageUtils.getText(textKey) + "</font></center></html>"));
         btn.setBounds(x, y, BTN_W, BTN_H); // 使用常量大小
         StyleUtils.styleButton(btn, color);
 
@@ -251,8 +334,9 @@ public class MainUi extends JFrame {
         this.getContentPane().add(btn);
     }
 
-    private void addSectionTitle(String title, int x, int y) {
-        JLabel lbl = new JLabel(title);
+    private void addSectionTitle(String titleKey, int x, int y) {
+        JLabel lbl = new JLabel();
+        LanguageUtils.bind(this, () -> lbl.setText(LanguageUtils.getText(titleKey)));
         lbl.setFont(new Font("微软雅黑", Font.BOLD, 16));
         lbl.setForeground(Color.GRAY);
         lbl.setBounds(x, y, 300, 30);
@@ -262,12 +346,12 @@ public class MainUi extends JFrame {
     private void handleStaffCardAction(String actionType) {
         String input = JOptionPane.showInputDialog(this, "Enter ID/Phone:");
         if (input == null || input.trim().isEmpty()) return;
-        service.MemberService ms = new service.MemberService();
+        service.MemberService ms = AppContext.getInstance().getMemberService();
         java.util.List<Member> list = ms.search(input);
         if (list.isEmpty()) { JOptionPane.showMessageDialog(this, "Not Found!"); return; }
         Member targetMember = list.get(0);
         if ("buy".equals(actionType)) {
-            dao.MembershipCardDAO cardDAO = new dao.MembershipCardDAO();
+            dao.MembershipCardDAO cardDAO = AppContext.getInstance().getMembershipCardDAO();
             if (cardDAO.hasMemberValidCard(targetMember.getId())) JOptionPane.showMessageDialog(this, "Already has card!");
             else new Ui.BuyCardUi(targetMember);
         } else if ("renew".equals(actionType)) new RenewUi(this, targetMember, true);
@@ -3,9 +3,12 @@ package Ui;
 import com.toedter.calendar.JDateChooser;
 import dao.MemberDAO; // 仍然需要 MemberDAO 可能是为了 searchField 的一些兼容，或者可以移除如果完全用 Service
 import entity.Member;
+import service.AppContext;
 import service.MemberService;
 import service.ServiceResult; // 核心修复：引入独立的 ServiceResult
 import utils.LanguageUtils;
+import utils.Money;
+import utils.SearchPipeline;
 import utils.StyleUtils;
 
 import javax.swing.*;
@@ -20,9 +23,11 @@ public class MemberManageUi extends JFrame {
     private JTable memberTable;
     private DefaultTableModel tableModel;
     private JTextField searchField;
+    /** 边输入边搜索（后台查询，结果回到事件线程） */
+    private SearchPipeline<List<Member>> searchPipeline;
 
     public MemberManageUi() {
-        this.memberService = new MemberService();
+        this.memberService = AppContext.getInstance().getMemberService();
 
         // 1. 初始化主题
         StyleUtils.initGlobalTheme();
@@ -56,6 +61,8 @@ public class MemberManageUi extends JFrame {
         StyleUtils.styleTextField(searchField);
         // 回车搜索
         searchField.addActionListener(e -> searchMember());
+        searchPipeline = new SearchPipeline<>(SearchPipeline.DEFAULT_DEBOUNCE_MILLIS, SearchPipeline.DEFAULT_CACHE_SIZE,
+                memberService::search, this::showMembers).attach(searchField);
         toolBar.add(searchField);
 
         JButton searchBtn = new JButton(LanguageUtils.getText("btn.search"));
@@ -118,21 +125,18 @@ public class MemberManageUi extends JFrame {
     }
 
     private void loadData() {
-        tableModel.setRowCount(0);
-        List<Member> members = memberService.getAllMembers();
-        for (Member m : members) {
-            addMemberToTable(m);
-        }
+        // 数据可能已被修改，搜索缓存作废
+        searchPipeline.invalidate();
+        showMembers(memberService.getAllMembers());
     }
 
     private void searchMember() {
-        String keyword = searchField.getText().trim();
-        if (keyword.isEmpty()) {
-            loadData();
-            return;
-        }
+        // 回车 / 搜索按钮：跳过防抖立即查询（空关键字时查询全部）
+        searchPipeline.searchNow(searchField.getText());
+    }
+
+    private void showMembers(List<Member> members) {
         tableModel.setRowCount(0);
-        List<Member> members = memberService.search(keyword);
         for (Member m : members) {
             addMemberToTable(m);
         }
@@ -150,10 +154,16 @@ public class MemberManageUi extends JFrame {
                 genderShow,
                 m.getRegisterDate(),
                 m.getStatus(),
-                String.format("%.2f", m.getBalance())
+                Money.format(m.getBalanceCents())
         });
     }
 
+    @Override
+    public void dispose() {
+        searchPipeline.close();
+        super.dispose();
+    }
+
     // ==================== 新增会员 ====================
     private void addMember() {
         JDialog dialog = new JDialog(this, LanguageUtils.getText("mm.dialog.add"), true);
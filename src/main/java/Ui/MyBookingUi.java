@@ -2,6 +2,7 @@ package Ui;
 
 import entity.Booking;
 import entity.Member;
+import service.AppContext;
 import service.BookingService;
 import utils.LanguageUtils; // 引入
 import utils.StyleUtils;
@@ -20,7 +21,7 @@ public class MyBookingUi extends JFrame {
 
     public MyBookingUi(Member member) {
         this.member = member;
-        this.bookingService = new BookingService();
+        this.bookingService = AppContext.getInstance().getBookingService();
         StyleUtils.initGlobalTheme();
         setTitle("📋 " + LanguageUtils.getText("mybook.title"));
         setSize(900, 600);
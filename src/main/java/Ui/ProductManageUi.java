@@ -1,8 +1,11 @@
 package Ui;
 
+import dao.ProductCatalog;
 import entity.Product;
+import service.AppContext;
 import service.ProductService;
 import utils.LanguageUtils; // 导入
+import utils.Money;
 import utils.StyleUtils;
 
 import javax.swing.*;
@@ -18,7 +21,7 @@ public class ProductManageUi extends JFrame {
     private JTextField searchField;
 
     public ProductManageUi() {
-        this.productService = new ProductService();
+        this.productService = AppContext.getInstance().getProductService();
         StyleUtils.initGlobalTheme();
         setTitle("📦 " + LanguageUtils.getText("pm.title"));
         setSize(950, 600);
@@ -50,7 +53,7 @@ public class ProductManageUi extends JFrame {
 
         JButton refreshBtn = new JButton("🔄 " + LanguageUtils.getText("btn.refresh"));
         StyleUtils.styleButton(refreshBtn, StyleUtils.COLOR_INFO);
-        refreshBtn.addActionListener(e -> loadProductsToTable());
+        refreshBtn.addActionListener(e -> { productService.refreshCatalog(); loadProductsToTable(); });
         topPanel.add(refreshBtn);
 
         topPanel.add(new JSeparator(SwingConstants.VERTICAL));
@@ -76,7 +79,7 @@ public class ProductManageUi extends JFrame {
         topPanel.add(langBtn);
 
         // 修复表头
-        String[] columns = {"ID", LanguageUtils.getText("shop.col.name"), LanguageUtils.getText("shop.col.price"), LanguageUtils.getText("shop.col.stock")};
+        String[] columns = {"ID", LanguageUtils.getText("shop.col.name"), LanguageUtils.getText("shop.col.price"), LanguageUtils.getText("shop.col.stock"), LanguageUtils.getText("pm.col.threshold")};
         tableModel = new DefaultTableModel(columns, 0) { @Override public boolean isCellEditable(int r, int c) { return false; } };
         productTable = new JTable(tableModel);
         StyleUtils.styleTable(productTable);
@@ -89,7 +92,7 @@ public class ProductManageUi extends JFrame {
     private void loadProductsToTable() {
         tableModel.setRowCount(0);
         List<Product> list = productService.getAllProducts();
-        for (Product p : list) tableModel.addRow(new Object[]{p.getProductId(), p.getName(), p.getPrice(), p.getStock()});
+        for (Product p : list) tableModel.addRow(new Object[]{p.getProductId(), p.getName(), Money.format(p.getPriceCents()), p.getStock(), p.getReorderThreshold()});
     }
 
     private void searchProduct() {
@@ -97,7 +100,7 @@ public class ProductManageUi extends JFrame {
         if (kw.isEmpty()) { loadProductsToTable(); return; }
         tableModel.setRowCount(0);
         List<Product> list = productService.searchProducts(kw);
-        for (Product p : list) tableModel.addRow(new Object[]{p.getProductId(), p.getName(), p.getPrice(), p.getStock()});
+        for (Product p : list) tableModel.addRow(new Object[]{p.getProductId(), p.getName(), Money.format(p.getPriceCents()), p.getStock(), p.getReorderThreshold()});
     }
 
     private void editProduct() {
@@ -105,9 +108,12 @@ public class ProductManageUi extends JFrame {
         if (row == -1) return;
         int id = (int) tableModel.getValueAt(row, 0);
         String name = (String) tableModel.getValueAt(row, 1);
-        double price = (double) tableModel.getValueAt(row, 2);
         int stock = (int) tableModel.getValueAt(row, 3);
-        Product p = new Product(); p.setProductId(id); p.setName(name); p.setPrice(price); p.setStock(stock);
+        int threshold = (int) tableModel.getValueAt(row, 4);
+        // 价格列是格式化后的文字，单价（分）从商品目录取
+        Product current = ProductCatalog.snapshot().getProduct(id);
+        if (current == null) { loadProductsToTable(); return; }
+        Product p = new Product(); p.setProductId(id); p.setName(name); p.setPriceCents(current.getPriceCents()); p.setStock(stock); p.setReorderThreshold(threshold);
         openAddEditDialog(p);
     }
 
@@ -123,22 +129,25 @@ public class ProductManageUi extends JFrame {
 
     private void openAddEditDialog(Product product) {
         boolean isEdit = (product != null);
-        JPanel panel = new JPanel(new GridLayout(3, 2, 10, 10));
+        JPanel panel = new JPanel(new GridLayout(4, 2, 10, 10));
         JTextField nameF = new JTextField(isEdit ? product.getName() : "");
-        JTextField priceF = new JTextField(isEdit ? String.valueOf(product.getPrice()) : "");
+        JTextField priceF = new JTextField(isEdit ? Money.format(product.getPriceCents()) : "");
         JTextField stockF = new JTextField(isEdit ? String.valueOf(product.getStock()) : "");
+        JTextField thresholdF = new JTextField(String.valueOf(isEdit ? product.getReorderThreshold() : new Product().getReorderThreshold()));
         panel.add(new JLabel(LanguageUtils.getText("shop.col.name") + ":")); panel.add(nameF);
         panel.add(new JLabel(LanguageUtils.getText("shop.col.price") + ":")); panel.add(priceF);
         panel.add(new JLabel(LanguageUtils.getText("shop.col.stock") + ":")); panel.add(stockF);
+        panel.add(new JLabel(LanguageUtils.getText("pm.col.threshold") + ":")); panel.add(thresholdF);
 
         String title = isEdit ? LanguageUtils.getText("pm.edit") : LanguageUtils.getText("pm.add");
         if (JOptionPane.showConfirmDialog(this, panel, title, JOptionPane.OK_CANCEL_OPTION) == JOptionPane.OK_OPTION) {
             try {
                 String name = nameF.getText().trim();
-                double price = Double.parseDouble(priceF.getText().trim());
+                long priceCents = Money.parse(priceF.getText());
                 int stock = Integer.parseInt(stockF.getText().trim());
+                int threshold = Integer.parseInt(thresholdF.getText().trim());
                 Product newP = isEdit ? product : new Product();
-                newP.setName(name); newP.setPrice(price); newP.setStock(stock);
+                newP.setName(name); newP.setPriceCents(priceCents); newP.setStock(stock); newP.setReorderThreshold(threshold);
                 if (isEdit) productService.updateProduct(newP); else productService.addProduct(newP);
                 loadProductsToTable();
             } catch (Exception e) { JOptionPane.showMessageDialog(this, "Invalid Input"); }
@@ -1,10 +1,12 @@
 package Ui;
 
 import entity.Member;
+import service.AppContext;
 import service.ShopService;
 import service.MemberService;
 import service.ServiceResult;
 import utils.LanguageUtils; // 引入
+import utils.Money;
 import utils.StyleUtils;
 
 import javax.swing.*;
@@ -23,8 +25,8 @@ public class RechargeUi extends JFrame {
     private JButton confirmBtn;
 
     public RechargeUi() {
-        this.memberService = new MemberService();
-        this.shopService = new ShopService();
+        this.memberService = AppContext.getInstance().getMemberService();
+        this.shopService = AppContext.getInstance().getShopService();
         StyleUtils.initGlobalTheme();
         setTitle("💰 " + LanguageUtils.getText("recharge.title"));
         setSize(600, 500);
@@ -133,7 +135,7 @@ public class RechargeUi extends JFrame {
         else {
             currentMember = list.get(0);
             infoLabel.setText(LanguageUtils.getText("mm.col.name") + ": " + currentMember.getName() + " | " + LanguageUtils.getText("mm.col.phone") + ": " + currentMember.getPhone());
-            balanceLabel.setText(LanguageUtils.getText("recharge.balance") + ": ¥ " + String.format("%,.2f", currentMember.getBalance()));
+            balanceLabel.setText(LanguageUtils.getText("recharge.balance") + ": ¥ " + Money.formatGrouped(currentMember.getBalanceCents()));
             confirmBtn.setEnabled(true);
             amountField.requestFocus();
         }
@@ -147,10 +149,10 @@ public class RechargeUi extends JFrame {
     private void performRecharge() {
         if (currentMember == null) return;
         try {
-            double amount = Double.parseDouble(amountField.getText().trim());
-            if (amount <= 0) return;
+            long amountCents = Money.parse(amountField.getText());
+            if (amountCents <= 0) return;
             if (JOptionPane.showConfirmDialog(this, LanguageUtils.getText("btn.confirm") + "?", "Confirm", JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION) {
-                ServiceResult<Void> result = shopService.recharge(currentMember.getId(), amount);
+                ServiceResult<Void> result = shopService.recharge(currentMember.getId(), amountCents);
                 if (result.isSuccess()) {
                     JOptionPane.showMessageDialog(this, "✅ " + result.getMessage());
                     searchMember();
@@ -2,6 +2,7 @@ package Ui;
 
 import com.toedter.calendar.JDateChooser;
 import entity.Member;
+import service.AppContext;
 import service.MemberService;
 import service.UserService;
 import utils.LanguageUtils;
@@ -13,6 +14,7 @@ import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.Date;
+import java.util.concurrent.CompletableFuture;
 
 public class RegisterUi extends JFrame {
 
@@ -26,6 +28,7 @@ public class RegisterUi extends JFrame {
     private JTextField codeField;
     private JLabel codeImageLbl;
     private String currentCode;
+    private JButton registerBtn;
 
     public void RegisterJFrame() {
         StyleUtils.initGlobalTheme();
@@ -143,7 +146,7 @@ public class RegisterUi extends JFrame {
         formPanel.add(codeImageLbl);
 
         y += gap + 10;
-        JButton registerBtn = new JButton(LanguageUtils.getText("reg.btn"));
+        registerBtn = new JButton(LanguageUtils.getText("reg.btn"));
         registerBtn.setBounds(x, y, w, 50);
         StyleUtils.styleButton(registerBtn, StyleUtils.COLOR_PRIMARY);
         registerBtn.setFont(new Font("微软雅黑", Font.BOLD, 18));
@@ -231,27 +234,32 @@ public class RegisterUi extends JFrame {
         }
 
         String gender = LanguageUtils.getText("mm.gender.male").equals(genderStr) ? "male" : "female";
-        MemberService memberService = new MemberService();
-
-        // >>> 修复点 1：使用 service.ServiceResult (独立类) <<<
-        service.ServiceResult<Member> memResult = memberService.register(name, phone, email, gender, birth);
-
-        if (memResult.isSuccess()) {
-            UserService userService = new UserService();
-            int memberId = memResult.getData().getId();
-
+        MemberService memberService = AppContext.getInstance().getMemberService();
+        UserService userService = AppContext.getInstance().getUserService();
+        registerBtn.setEnabled(false);
+
+        // 注册和密码哈希都不在界面线程上执行；返回null表示成功，否则为失败提示
+        CompletableFuture.supplyAsync(() -> {
+            // >>> 修复点 1：使用 service.ServiceResult (独立类) <<<
+            service.ServiceResult<Member> memResult = memberService.register(name, phone, email, gender, birth);
+            if (!memResult.isSuccess()) {
+                return "Register Failed: " + memResult.getMessage();
+            }
             // >>> 修复点 2：使用 UserService.ServiceResult (内部类) <<<
-            UserService.ServiceResult<Void> userResult = userService.registerMemberUser(memberId, name, pass);
-
-            if (userResult.isSuccess()) {
+            UserService.ServiceResult<Void> userResult = userService.registerMemberUser(memResult.getData().getId(), name, pass);
+            return userResult.isSuccess() ? null : "Member created but User failed: " + userResult.getMessage();
+        }).whenComplete((failure, ex) -> SwingUtilities.invokeLater(() -> {
+            registerBtn.setEnabled(true);
+            if (ex != null) {
+                ex.printStackTrace();
+                JOptionPane.showMessageDialog(this, ex.getMessage(), LanguageUtils.getText("msg.error"), JOptionPane.ERROR_MESSAGE);
+            } else if (failure == null) {
                 JOptionPane.showMessageDialog(this, "🎉 " + LanguageUtils.getText("msg.success"));
                 this.dispose();
                 new LoginUi().LoginJFrame();
             } else {
-                JOptionPane.showMessageDialog(this, "Member created but User failed: " + userResult.getMessage());
+                JOptionPane.showMessageDialog(this, failure, LanguageUtils.getText("msg.error"), JOptionPane.ERROR_MESSAGE);
             }
-        } else {
-            JOptionPane.showMessageDialog(this, "Register Failed: " + memResult.getMessage(), LanguageUtils.getText("msg.error"), JOptionPane.ERROR_MESSAGE);
-        }
+        }));
     }
 }
\ No newline at end of file
@@ -2,9 +2,11 @@ package Ui;
 
 import entity.Member;
 import entity.MembershipCard;
+import service.AppContext;
 import service.MemberService;
 import dao.MembershipCardDAO;
 import utils.LanguageUtils; // 引入
+import utils.Money;
 import utils.StyleUtils;
 
 import javax.swing.*;
@@ -25,8 +27,8 @@ public class RenewUi extends JDialog {
         super(owner, LanguageUtils.getText("renew.title"), true);
         this.currentMember = member;
         this.isStaffOperation = isStaffOperation;
-        this.memberService = new MemberService();
-        this.cardDAO = new MembershipCardDAO();
+        this.memberService = AppContext.getInstance().getMemberService();
+        this.cardDAO = AppContext.getInstance().getMembershipCardDAO();
         this.currentCard = cardDAO.getActiveMembershipCard(member.getId());
         StyleUtils.initGlobalTheme();
         setSize(500, 550);
@@ -103,16 +105,16 @@ public class RenewUi extends JDialog {
 
     private void updatePrice() {
         int idx = daysComboBox.getSelectedIndex();
-        priceField.setText(idx == 0 ? "200.0" : "1200.0");
+        priceField.setText(Money.format(idx == 0 ? MembershipCardDAO.PRICE_MONTHLY : MembershipCardDAO.PRICE_YEARLY));
     }
 
     private void performRenew() {
         try {
             int days = isStaffOperation ? Integer.parseInt(daysField.getText()) : (daysComboBox.getSelectedIndex() == 0 ? 30 : 365);
-            double price = Double.parseDouble(priceField.getText());
+            long priceCents = Money.parse(priceField.getText());
             boolean useBalance = isStaffOperation ? balanceRadio.isSelected() : true;
             if (JOptionPane.showConfirmDialog(this, LanguageUtils.getText("btn.confirm") + "?", "Confirm", JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION) {
-                memberService.renewMembership(currentMember.getId(), days, price, useBalance);
+                memberService.renewMembership(currentMember.getId(), days, priceCents, useBalance);
                 dispose();
             }
         } catch (Exception e) {}
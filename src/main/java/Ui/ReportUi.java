@@ -1,20 +1,43 @@
 package Ui;
 
+import dao.CourseDAO;
+import dao.ProductCatalog;
+import dao.RevenueRollupDAO;
 import dao.StatisticsDAO;
+import entity.Product;
 import org.jfree.chart.*;
+import org.jfree.chart.axis.CategoryLabelPositions;
 import org.jfree.chart.plot.*;
 import org.jfree.chart.renderer.category.BarRenderer;
+import org.jfree.chart.renderer.category.LineAndShapeRenderer;
 import org.jfree.chart.renderer.category.StandardBarPainter;
 import org.jfree.data.category.DefaultCategoryDataset;
 import org.jfree.data.general.DefaultPieDataset;
+import service.AnalyticsStore;
+import service.AppContext;
+import service.OccupancyHeatmap;
+import service.RetentionAnalyzer;
+import service.SalesLeaderboard;
+import utils.ColumnTable;
 import utils.LanguageUtils; // 导入
+import utils.Money;
 import utils.StyleUtils;
 
 import javax.swing.*;
+import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public class ReportUi extends JFrame {
 
@@ -24,13 +47,54 @@ public class ReportUi extends JFrame {
     private CardLayout cardLayout;
     private DefaultCategoryDataset barDataset;
     private DefaultPieDataset pieDataset;
+    private DefaultCategoryDataset trendDataset;
+    private JComboBox<String> granularityBox;
     private JScrollPane tableScroll;
+    private DefaultTableModel rankModel;
+    private JComboBox<String> rankWindowBox;
+    private static final int RANK_SIZE = 10;
+    private DefaultCategoryDataset activityDataset;
+    private JComboBox<String> activityBox;
+    /** 活跃分析统计近多少天 */
+    private static final int ACTIVITY_DAYS = 30;
+    private DefaultTableModel retentionModel;
+    private DefaultTableModel churnModel;
+    private final RetentionAnalyzer retentionAnalyzer = new RetentionAnalyzer();
+    private DefaultTableModel heatmapModel;
+    private JComboBox<String> heatmapRangeBox;
+    private JComboBox<String> heatmapOverlayBox;
+    private JLabel heatmapPeakLabel;
+    private OccupancyHeatmap.View shownHeatmap;
+    /** 热力图可选范围（周数） */
+    private static final int[] HEATMAP_WEEKS = {4, 12, 52};
+
+    /** 上次查询结果，跨窗口共享：切换语言重开窗口时立即显示 */
+    private static final Map<String, Object> CACHE = new ConcurrentHashMap<>();
+    /** 自动刷新间隔可选项（秒，0 为关闭） */
+    private static final int[] REFRESH_OPTIONS = {0, 10, 30, 60, 300};
+    /** 自动刷新间隔（秒），默认取系统属性 gym.report.refresh，跨窗口保留 */
+    private static int refreshSeconds = Integer.getInteger("gym.report.refresh", 30);
+
+    // 以下状态只在事件线程读写
+    private JLabel updatedLabel;
+    private Timer refreshTimer;
+    private boolean refreshing;
+    private boolean forceNext;
+    private String shownOrderStamp;
+    /** 发现已有订单被修改或删除，下次刷新分析库时整表重新加载 */
+    private boolean reloadAnalytics;
+    private long shownCatalogVersion = -1;
+    private long shownBoardVersion = -1;
+    private long shownActivityVersion = -1;
+    private LocalTime updatedAt;
+    private long requestSeq;
+    private final Map<String, Long> latestRequest = new HashMap<>();
 
     public ReportUi() {
-        this.statsDAO = new StatisticsDAO();
+        this.statsDAO = AppContext.getInstance().getStatisticsDAO();
         StyleUtils.initGlobalTheme(); // 关键：加载字体
 
-        setTitle("📊 " + LanguageUtils.getText("report.title"));
+        LanguageUtils.bind(this, () -> setTitle("📊 " + LanguageUtils.getText("report.title")));
         setSize(1100, 750);
         setLocationRelativeTo(null);
         setDefaultCloseOperation(DISPOSE_ON_CLOSE);
@@ -40,8 +104,11 @@ public class ReportUi extends JFrame {
         initTopCards();
         initCenterViews();
         initBottomToolbar();
-        refreshData();
+        // 切换语言时用缓存重新渲染图表和表格，不重新查询
+        LanguageUtils.bind(this, this::renderCached);
         setVisible(true);
+        refresh(CACHE.isEmpty());
+        startAutoRefresh();
     }
 
     private void initTopCards() {
@@ -51,6 +118,12 @@ public class ReportUi extends JFrame {
         // 语言切换按钮
         JPanel langPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         langPanel.setOpaque(false);
+        updatedLabel = new JLabel(" ");
+        updatedLabel.setFont(StyleUtils.FONT_NORMAL);
+        updatedLabel.setForeground(StyleUtils.COLOR_INFO);
+        LanguageUtils.bind(this, this::renderUpdated);
+        langPanel.add(updatedLabel);
+        langPanel.add(createRefreshBox());
         JButton langBtn = LanguageUtils.createLanguageButton(this, () -> new ReportUi());
         langPanel.add(langBtn);
         topContainer.add(langPanel, BorderLayout.NORTH);
@@ -60,22 +133,41 @@ public class ReportUi extends JFrame {
         topPanel.setBorder(BorderFactory.createEmptyBorder(0, 20, 0, 20));
 
         revenueLabel = new JLabel("Loading...");
-        topPanel.add(createCard("💰 " + LanguageUtils.getText("report.revenue"), revenueLabel, new Color(108, 92, 231)));
+        topPanel.add(createCard("💰 ", "report.revenue", revenueLabel, new Color(108, 92, 231)));
 
         memberLabel = new JLabel("Loading...");
-        topPanel.add(createCard("👥 " + LanguageUtils.getText("report.members"), memberLabel, new Color(0, 184, 148)));
+        topPanel.add(createCard("👥 ", "report.members", memberLabel, new Color(0, 184, 148)));
 
         orderLabel = new JLabel("Loading...");
-        topPanel.add(createCard("📝 " + LanguageUtils.getText("report.orders"), orderLabel, new Color(253, 203, 110)));
+        topPanel.add(createCard("📝 ", "report.orders", orderLabel, new Color(253, 203, 110)));
 
         stockLabel = new JLabel("Loading...");
-        topPanel.add(createCard("📦 " + LanguageUtils.getText("report.stock"), stockLabel, new Color(214, 48, 49)));
+        topPanel.add(createCard("📦 ", "report.stock", stockLabel, new Color(214, 48, 49)));
 
         topContainer.add(topPanel, BorderLayout.CENTER);
         add(topContainer, BorderLayout.NORTH);
     }
 
-    private JPanel createCard(String title, JLabel valueLabel, Color barColor) {
+    private JComboBox<String> createRefreshBox() {
+        JComboBox<String> box = new JComboBox<>();
+        LanguageUtils.bind(this, () -> {
+            String[] items = new String[REFRESH_OPTIONS.length];
+            for (int i = 0; i < REFRESH_OPTIONS.length; i++) {
+                items[i] = REFRESH_OPTIONS[i] == 0 ? LanguageUtils.getText("report.refresh.off")
+                        : String.format(LanguageUtils.getText("report.refresh.every"), REFRESH_OPTIONS[i]);
+            }
+            LanguageUtils.setItems(box, items);
+        });
+        int selected = 0;
+        for (int i = 0; i < REFRESH_OPTIONS.length; i++) {
+            if (REFRESH_OPTIONS[i] == refreshSeconds) selected = i;
+        }
+        box.setSelectedIndex(selected);
+        box.addActionListener(e -> changeRefreshInterval(REFRESH_OPTIONS[box.getSelectedIndex()]));
+        return box;
+    }
+
+    private JPanel createCard(String icon, String titleKey, JLabel valueLabel, Color barColor) {
         JPanel card = new JPanel(new BorderLayout());
         card.setBackground(Color.WHITE);
         card.setBorder(BorderFactory.createCompoundBorder(
@@ -88,7 +180,8 @@ public class ReportUi extends JFrame {
         JPanel content = new JPanel(new GridLayout(2, 1));
         content.setOpaque(false);
         content.setBorder(BorderFactory.createEmptyBorder(0, 10, 0, 0));
-        JLabel tLbl = new JLabel(title);
+        JLabel tLbl = new JLabel();
+        LanguageUtils.bind(this, () -> tLbl.setText(icon + LanguageUtils.getText(titleKey)));
         tLbl.setFont(StyleUtils.FONT_NORMAL);
         tLbl.setForeground(StyleUtils.COLOR_INFO);
         valueLabel.setFont(new Font("Arial", Font.BOLD, 24));
@@ -113,6 +206,7 @@ public class ReportUi extends JFrame {
 
         barDataset = new DefaultCategoryDataset();
         JFreeChart barChart = ChartFactory.createBarChart(LanguageUtils.getText("report.tab.bar"), "Type", "Amount", barDataset, PlotOrientation.VERTICAL, false, true, false);
+        LanguageUtils.bind(this, () -> barChart.setTitle(LanguageUtils.getText("report.tab.bar")));
         styleBarChart(barChart);
         ChartPanel barPanel = new ChartPanel(barChart);
         barPanel.setBorder(BorderFactory.createLineBorder(Color.LIGHT_GRAY));
@@ -120,53 +214,634 @@ public class ReportUi extends JFrame {
 
         pieDataset = new DefaultPieDataset();
         JFreeChart pieChart = ChartFactory.createPieChart(LanguageUtils.getText("report.tab.pie"), pieDataset, true, true, false);
+        LanguageUtils.bind(this, () -> pieChart.setTitle(LanguageUtils.getText("report.tab.pie")));
         stylePieChart(pieChart);
         ChartPanel piePanel = new ChartPanel(pieChart);
         piePanel.setBorder(BorderFactory.createLineBorder(Color.LIGHT_GRAY));
         centerPanel.add(piePanel, "PIE");
 
+        // 营收趋势：按日(近30天) / 按周(近12周) / 按月(近12个月)，数据来自每日汇总表
+        trendDataset = new DefaultCategoryDataset();
+        JFreeChart trendChart = ChartFactory.createLineChart(LanguageUtils.getText("report.tab.trend"), "Period", "Amount", trendDataset, PlotOrientation.VERTICAL, false, true, false);
+        LanguageUtils.bind(this, () -> trendChart.setTitle(LanguageUtils.getText("report.tab.trend")));
+        styleLineChart(trendChart);
+        ChartPanel trendChartPanel = new ChartPanel(trendChart);
+        granularityBox = new JComboBox<>();
+        LanguageUtils.bind(this, () -> LanguageUtils.setItems(granularityBox,
+                LanguageUtils.getText("report.gran.day"), LanguageUtils.getText("report.gran.week"), LanguageUtils.getText("report.gran.month")));
+        granularityBox.addActionListener(e -> loadTrend());
+        JPanel trendToolbar = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        trendToolbar.setBackground(Color.WHITE);
+        trendToolbar.add(granularityBox);
+        JPanel trendPanel = new JPanel(new BorderLayout());
+        trendPanel.setBorder(BorderFactory.createLineBorder(Color.LIGHT_GRAY));
+        trendPanel.add(trendToolbar, BorderLayout.NORTH);
+        trendPanel.add(trendChartPanel, BorderLayout.CENTER);
+        centerPanel.add(trendPanel, "TREND");
+
+        // 畅销榜：读进程内增量维护的排行榜，不访问数据库；"重建"按钮从历史订单重新统计
+        rankModel = new DefaultTableModel(new String[]{"", "", "", ""}, 0) {
+            @Override public boolean isCellEditable(int row, int column) { return false; }
+        };
+        JTable rankTable = new JTable(rankModel);
+        StyleUtils.styleTable(rankTable);
+        LanguageUtils.bind(this, () -> LanguageUtils.setHeaders(rankTable,
+                LanguageUtils.getText("report.rank.no"), LanguageUtils.getText("report.rank.id"),
+                LanguageUtils.getText("report.rank.name"), LanguageUtils.getText("report.rank.qty")));
+        rankWindowBox = new JComboBox<>();
+        LanguageUtils.bind(this, () -> LanguageUtils.setItems(rankWindowBox,
+                LanguageUtils.getText("report.rank.day"), LanguageUtils.getText("report.rank.week"), LanguageUtils.getText("report.rank.month")));
+        rankWindowBox.setSelectedIndex(1);
+        rankWindowBox.addActionListener(e -> loadRanking());
+        JButton rebuildBtn = new JButton();
+        LanguageUtils.bind(this, () -> rebuildBtn.setText(LanguageUtils.getText("report.rank.rebuild")));
+        StyleUtils.styleButton(rebuildBtn, StyleUtils.COLOR_PRIMARY);
+        rebuildBtn.addActionListener(e -> load("rank.rebuild", () -> SalesLeaderboard.getInstance().rebuild(), ok -> {
+            if (!ok) {
+                JOptionPane.showMessageDialog(this, LanguageUtils.getText("report.rank.rebuild.fail"));
+            }
+            loadRanking();
+        }, false));
+        JPanel rankToolbar = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        rankToolbar.setBackground(Color.WHITE);
+        rankToolbar.add(rankWindowBox);
+        rankToolbar.add(rebuildBtn);
+        JPanel rankPanel = new JPanel(new BorderLayout());
+        rankPanel.setBorder(BorderFactory.createLineBorder(Color.LIGHT_GRAY));
+        rankPanel.add(rankToolbar, BorderLayout.NORTH);
+        rankPanel.add(new JScrollPane(rankTable), BorderLayout.CENTER);
+        centerPanel.add(rankPanel, "RANK");
+
+        // 活跃分析：签到时段、星期分布、课程类型、订单类型，均在列式内存库中统计
+        activityDataset = new DefaultCategoryDataset();
+        JFreeChart activityChart = ChartFactory.createBarChart(LanguageUtils.getText("report.tab.activity"), "", "Count", activityDataset, PlotOrientation.VERTICAL, false, true, false);
+        LanguageUtils.bind(this, () -> activityChart.setTitle(LanguageUtils.getText("report.tab.activity")));
+        styleBarChart(activityChart);
+        activityBox = new JComboBox<>();
+        LanguageUtils.bind(this, () -> LanguageUtils.setItems(activityBox,
+                LanguageUtils.getText("report.activity.hour"), LanguageUtils.getText("report.activity.weekday"),
+                LanguageUtils.getText("report.activity.course"), LanguageUtils.getText("report.activity.order")));
+        activityBox.addActionListener(e -> loadActivity());
+        JPanel activityToolbar = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        activityToolbar.setBackground(Color.WHITE);
+        activityToolbar.add(activityBox);
+        JPanel activityPanel = new JPanel(new BorderLayout());
+        activityPanel.setBorder(BorderFactory.createLineBorder(Color.LIGHT_GRAY));
+        activityPanel.add(activityToolbar, BorderLayout.NORTH);
+        activityPanel.add(new ChartPanel(activityChart), BorderLayout.CENTER);
+        centerPanel.add(activityPanel, "ACTIVITY");
+
+        // 会员留存：上方为注册月 × 注册后第N月的留存率，下方为流失风险名单（结果按天缓存）
+        String[] retentionColumns = new String[RetentionAnalyzer.COHORT_MONTHS + 2];
+        for (int i = 0; i < RetentionAnalyzer.COHORT_MONTHS; i++) {
+            retentionColumns[i + 2] = "M" + i;
+        }
+        retentionModel = new DefaultTableModel(retentionColumns, 0) {
+            @Override public boolean isCellEditable(int row, int column) { return false; }
+        };
+        JTable retentionTable = new JTable(retentionModel);
+        StyleUtils.styleTable(retentionTable);
+        LanguageUtils.bind(this, () -> LanguageUtils.setHeaders(retentionTable,
+                LanguageUtils.getText("report.retention.cohort"), LanguageUtils.getText("report.retention.size")));
+        churnModel = new DefaultTableModel(new String[]{"", "", "", "", "", ""}, 0) {
+            @Override public boolean isCellEditable(int row, int column) { return false; }
+        };
+        JTable churnTable = new JTable(churnModel);
+        StyleUtils.styleTable(churnTable);
+        LanguageUtils.bind(this, () -> LanguageUtils.setHeaders(churnTable,
+                LanguageUtils.getText("report.retention.id"), LanguageUtils.getText("report.retention.name"),
+                LanguageUtils.getText("report.retention.phone"), LanguageUtils.getText("report.retention.last"),
+                LanguageUtils.getText("report.retention.visits"), LanguageUtils.getText("report.retention.absent")));
+        JPanel churnPanel = new JPanel(new BorderLayout());
+        churnPanel.setBackground(Color.WHITE);
+        JLabel churnTitle = new JLabel();
+        LanguageUtils.bind(this, () -> churnTitle.setText(" ⚠ " + LanguageUtils.getText("report.retention.churn")));
+        churnTitle.setFont(StyleUtils.FONT_NORMAL);
+        churnPanel.add(churnTitle, BorderLayout.NORTH);
+        churnPanel.add(new JScrollPane(churnTable), BorderLayout.CENTER);
+        JSplitPane retentionPanel = new JSplitPane(JSplitPane.VERTICAL_SPLIT, new JScrollPane(retentionTable), churnPanel);
+        retentionPanel.setResizeWeight(0.55);
+        retentionPanel.setBorder(BorderFactory.createLineBorder(Color.LIGHT_GRAY));
+        centerPanel.add(retentionPanel, "RETENTION");
+
+        // 到店热力图：星期 × 小时的签到次数，颜色越深人越多；可叠加某类课程的排课（▲节数）
+        String[] heatmapColumns = new String[25];
+        heatmapColumns[0] = "";
+        for (int h = 0; h < 24; h++) {
+            heatmapColumns[h + 1] = String.format("%02d", h);
+        }
+        heatmapModel = new DefaultTableModel(heatmapColumns, 0) {
+            @Override public boolean isCellEditable(int row, int column) { return false; }
+        };
+        for (int d = 0; d < 7; d++) {
+            heatmapModel.addRow(new Object[25]);
+        }
+        LanguageUtils.bind(this, () -> {
+            String[] weekdays = LanguageUtils.getText("report.activity.weekdays").split(",");
+            for (int d = 0; d < weekdays.length && d < 7; d++) {
+                heatmapModel.setValueAt(weekdays[d], d, 0);
+            }
+        });
+        JTable heatmapTable = new JTable(heatmapModel);
+        heatmapTable.setRowHeight(42);
+        heatmapTable.getTableHeader().setReorderingAllowed(false);
+        heatmapTable.setDefaultRenderer(Object.class, new HeatmapCellRenderer());
+        heatmapRangeBox = new JComboBox<>();
+        LanguageUtils.bind(this, () -> {
+            String[] items = new String[HEATMAP_WEEKS.length];
+            for (int i = 0; i < HEATMAP_WEEKS.length; i++) {
+                items[i] = String.format(LanguageUtils.getText("report.heatmap.range"), HEATMAP_WEEKS[i]);
+            }
+            LanguageUtils.setItems(heatmapRangeBox, items);
+        });
+        heatmapRangeBox.addActionListener(e -> loadHeatmap());
+        heatmapOverlayBox = new JComboBox<>();
+        LanguageUtils.bind(this, () -> {
+            List<String> items = new ArrayList<>();
+            items.add(LanguageUtils.getText("report.heatmap.overlay.none"));
+            for (String type : CourseDAO.VALID_TYPES) {
+                items.add(type);
+            }
+            LanguageUtils.setItems(heatmapOverlayBox, items.toArray(new String[0]));
+        });
+        heatmapOverlayBox.addActionListener(e -> {
+            if (shownHeatmap != null) renderHeatmap(heatmapRangeBox.getSelectedIndex(), shownHeatmap);
+        });
+        heatmapPeakLabel = new JLabel(" ");
+        heatmapPeakLabel.setFont(StyleUtils.FONT_NORMAL);
+        JPanel heatmapToolbar = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        heatmapToolbar.setBackground(Color.WHITE);
+        heatmapToolbar.add(heatmapPeakLabel);
+        heatmapToolbar.add(heatmapOverlayBox);
+        heatmapToolbar.add(heatmapRangeBox);
+        JPanel heatmapPanel = new JPanel(new BorderLayout());
+        heatmapPanel.setBorder(BorderFactory.createLineBorder(Color.LIGHT_GRAY));
+        heatmapPanel.add(heatmapToolbar, BorderLayout.NORTH);
+        heatmapPanel.add(new JScrollPane(heatmapTable), BorderLayout.CENTER);
+        centerPanel.add(heatmapPanel, "HEATMAP");
+
         add(centerPanel, BorderLayout.CENTER);
     }
 
     private void initBottomToolbar() {
-        JPanel bottomPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 30, 15));
+        JPanel bottomPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 15));
         bottomPanel.setBackground(Color.WHITE);
         bottomPanel.setBorder(BorderFactory.createMatteBorder(1, 0, 0, 0, new Color(230, 230, 230)));
-        bottomPanel.add(createSwitchBtn("📋 " + LanguageUtils.getText("report.tab.table"), "TABLE", StyleUtils.COLOR_PRIMARY));
-        bottomPanel.add(createSwitchBtn("📊 " + LanguageUtils.getText("report.tab.bar"), "BAR", new Color(255, 159, 67)));
-        bottomPanel.add(createSwitchBtn("🍰 " + LanguageUtils.getText("report.tab.pie"), "PIE", new Color(72, 219, 251)));
+        bottomPanel.add(createSwitchBtn("📋 ", "report.tab.table", "TABLE", StyleUtils.COLOR_PRIMARY));
+        bottomPanel.add(createSwitchBtn("📊 ", "report.tab.bar", "BAR", new Color(255, 159, 67)));
+        bottomPanel.add(createSwitchBtn("🍰 ", "report.tab.pie", "PIE", new Color(72, 219, 251)));
+        bottomPanel.add(createSwitchBtn("📈 ", "report.tab.trend", "TREND", new Color(0, 184, 148)));
+        bottomPanel.add(createSwitchBtn("🔥 ", "report.tab.rank", "RANK", new Color(255, 107, 107)));
+        bottomPanel.add(createSwitchBtn("⏱ ", "report.tab.activity", "ACTIVITY", new Color(9, 132, 227)));
+        bottomPanel.add(createSwitchBtn("🧲 ", "report.tab.retention", "RETENTION", new Color(162, 155, 254)));
+        bottomPanel.add(createSwitchBtn("🌡 ", "report.tab.heatmap", "HEATMAP", new Color(225, 112, 85)));
         add(bottomPanel, BorderLayout.SOUTH);
     }
 
-    private JButton createSwitchBtn(String text, String cardName, Color color) {
-        JButton btn = new JButton(text);
+    private JButton createSwitchBtn(String icon, String textKey, String cardName, Color color) {
+        JButton btn = new JButton();
+        LanguageUtils.bind(this, () -> btn.setText(icon + LanguageUtils.getText(textKey)));
         StyleUtils.styleButton(btn, color);
-        btn.setPreferredSize(new Dimension(160, 45));
+        btn.setPreferredSize(new Dimension(118, 45));
         btn.addActionListener(e -> cardLayout.show(centerPanel, cardName));
         return btn;
     }
 
-    private void refreshData() {
-        revenueLabel.setText("¥ " + String.format("%,.2f", statsDAO.getTotalRevenue()));
-        memberLabel.setText(String.valueOf(statsDAO.getTotalMembers()));
-        orderLabel.setText(String.valueOf(statsDAO.getTodayOrderCount()));
-        stockLabel.setText(String.valueOf(statsDAO.getLowStockProductCount()));
+    // ==================== 异步加载 ====================
+
+    /**
+     * 刷新一次：先在后台取订单变更戳（单行汇总查询），
+     * 只有订单相关数据变化、商品目录或排行榜版本变化时才重新查询对应指标
+     *
+     * @param force 忽略变更戳，全部重新查询
+     */
+    private void refresh(boolean force) {
+        if (refreshing) {
+            return;
+        }
+        refreshing = true;
+        CompletableFuture.supplyAsync(statsDAO::getOrderChangeStamp, AppContext.getInstance().getReportExecutor())
+                .whenComplete((stamp, ex) -> SwingUtilities.invokeLater(() -> {
+                    refreshing = false;
+                    if (!isDisplayable()) {
+                        return;
+                    }
+                    boolean all = force || forceNext || stamp == null;
+                    forceNext = false;
+
+                    // 会员数本身就是单行计数，每次都查
+                    load("members", statsDAO::getTotalMembers, this::renderMembers);
+                    if (ordersEdited(shownOrderStamp, stamp)) {
+                        reloadAnalytics = true;
+                    }
+                    if (all || !stamp.equals(shownOrderStamp)) {
+                        // 已确知数据变化，不能再用统计缓存中的旧值
+                        if (stamp == null || !stamp.equals(CACHE.get("orders.stamp"))) {
+                            statsDAO.invalidateOrderMetrics();
+                        }
+                        shownOrderStamp = stamp;
+                        CACHE.put("orders.stamp", stamp != null ? stamp : "");
+                        loadOrderMetrics();
+                    }
+                    // 目录和排行榜都在内存中，比对版本号即可
+                    load("stock", () -> ProductCatalog.snapshot(), snapshot -> {
+                        if (all || snapshot.getVersion() != shownCatalogVersion) {
+                            shownCatalogVersion = snapshot.getVersion();
+                            renderStock(snapshot.getLowStockCount());
+                            CACHE.put("stock", snapshot.getLowStockCount());
+                        }
+                    }, false);
+                    load("rank.version", () -> SalesLeaderboard.getInstance().getVersion(), version -> {
+                        if (all || version != shownBoardVersion) {
+                            shownBoardVersion = version;
+                            loadRanking();
+                        }
+                    }, false);
+                    // 分析库按ID增量追加新行（定期或发现订单被改动时整表重新加载），版本变化才重新切片
+                    boolean reload = reloadAnalytics;
+                    reloadAnalytics = false;
+                    load("activity.version", () -> {
+                        AnalyticsStore store = AnalyticsStore.getInstance();
+                        if (reload) {
+                            store.reload();
+                        } else {
+                            store.refresh();
+                        }
+                        return store.getVersion();
+                    }, version -> {
+                        if (all || version != shownActivityVersion) {
+                            shownActivityVersion = version;
+                            loadActivity();
+                            load("retention", retentionAnalyzer::getReport, this::renderRetention);
+                            loadHeatmap();
+                        }
+                    }, false);
+                    updatedAt = LocalTime.now().withNano(0);
+                    renderUpdated();
+                }));
+    }
+
+    /**
+     * 订单相关的指标（均读每日汇总表或订单表），并行查询、各自完成后立即渲染
+     */
+    private void loadOrderMetrics() {
+        load("revenue", statsDAO::getTotalRevenueCents, this::renderRevenue);
+        load("today", statsDAO::getTodayOrderCount, this::renderTodayOrders);
+        load("recent", statsDAO::getRecentOrders, this::renderRecentOrders);
+        load("byType", statsDAO::getRevenueCentsByType, this::renderRevenueByType);
+        loadTrend();
+    }
+
+    private void loadTrend() {
+        int index = granularityBox.getSelectedIndex();
+        load("trend." + index, () -> queryTrend(index), points -> renderTrend(index, points));
+    }
+
+    private void loadRanking() {
+        int index = rankWindowBox.getSelectedIndex();
+        load("rank." + index, () -> queryRanking(index), this::renderRanking);
+    }
+
+    private void loadActivity() {
+        int index = activityBox.getSelectedIndex();
+        load("activity." + index, () -> queryActivity(index), data -> renderActivity(index, data));
+    }
+
+    private void loadHeatmap() {
+        int index = heatmapRangeBox.getSelectedIndex();
+        load("heatmap." + index, () -> {
+            LocalDate today = LocalDate.now();
+            return OccupancyHeatmap.getInstance().getView(today.minusWeeks(HEATMAP_WEEKS[index]).plusDays(1), today);
+        }, view -> renderHeatmap(index, view));
+    }
+
+    private <T> void load(String key, Supplier<T> query, Consumer<T> render) {
+        load(key, query, render, true);
+    }
+
+    /**
+     * 在后台线程执行查询，完成后回到事件线程渲染
+     *
+     * 同一指标有更新的请求发出时，较早返回的旧结果直接丢弃；
+     * 查询失败保留界面上的旧值，并在下次刷新时全部重查
+     *
+     * @param cache 是否缓存结果，重新打开窗口（如切换语言）时先显示缓存
+     */
+    private <T> void load(String key, Supplier<T> query, Consumer<T> render, boolean cache) {
+        long seq = ++requestSeq;
+        latestRequest.put(key, seq);
+        CompletableFuture.supplyAsync(query, AppContext.getInstance().getReportExecutor())
+                .whenComplete((value, ex) -> SwingUtilities.invokeLater(() -> {
+                    if (!isDisplayable() || latestRequest.get(key) != seq) {
+                        return;
+                    }
+                    if (ex != null || value == null) {
+                        if (ex != null) ex.printStackTrace();
+                        forceNext = true;
+                        return;
+                    }
+                    if (cache) {
+                        CACHE.put(key, value);
+                    }
+                    render.accept(value);
+                }));
+    }
+
+    /**
+     * 用上次的结果立即填充界面，后台刷新完成后再逐项更新
+     */
+    @SuppressWarnings("unchecked")
+    private void renderCached() {
+        if (CACHE.containsKey("revenue")) renderRevenue((Long) CACHE.get("revenue"));
+        if (CACHE.containsKey("members")) renderMembers((Integer) CACHE.get("members"));
+        if (CACHE.containsKey("today")) renderTodayOrders((Integer) CACHE.get("today"));
+        if (CACHE.containsKey("stock")) renderStock((Integer) CACHE.get("stock"));
+        if (CACHE.containsKey("recent")) renderRecentOrders((List<Map<String, Object>>) CACHE.get("recent"));
+        if (CACHE.containsKey("byType")) renderRevenueByType((Map<String, Long>) CACHE.get("byType"));
+        int trend = granularityBox.getSelectedIndex();
+        if (CACHE.containsKey("trend." + trend)) renderTrend(trend, (List<RevenueRollupDAO.Point>) CACHE.get("trend." + trend));
+        int rank = rankWindowBox.getSelectedIndex();
+        if (CACHE.containsKey("rank." + rank)) renderRanking((List<Object[]>) CACHE.get("rank." + rank));
+        if (CACHE.containsKey("retention")) renderRetention((RetentionAnalyzer.Report) CACHE.get("retention"));
+        int heatmap = heatmapRangeBox.getSelectedIndex();
+        if (CACHE.containsKey("heatmap." + heatmap)) renderHeatmap(heatmap, (OccupancyHeatmap.View) CACHE.get("heatmap." + heatmap));
+        int activity = activityBox.getSelectedIndex();
+        if (CACHE.containsKey("activity." + activity)) renderActivity(activity, (Map<String, Long>) CACHE.get("activity." + activity));
+        // 缓存齐全时沿用其变更戳，刷新时数据未变就不再重查
+        Object stamp = CACHE.get("orders.stamp");
+        if (stamp != null && !"".equals(stamp) && CACHE.containsKey("revenue") && CACHE.containsKey("recent")) {
+            shownOrderStamp = (String) stamp;
+        }
+    }
+
+    /**
+     * 两次订单变更戳之间是否有已有订单被修改或删除：汇总校验和变了但最大订单号没变
+     * （同时有新增时判断不出来，由分析库的定期整表加载兜底）
+     */
+    private static boolean ordersEdited(String oldStamp, String newStamp) {
+        if (oldStamp == null || newStamp == null || oldStamp.equals(newStamp)) {
+            return false;
+        }
+        String[] before = oldStamp.split("\\|");
+        String[] after = newStamp.split("\\|");
+        return before.length == 4 && after.length == 4 && !before[2].equals(after[2]) && before[3].equals(after[3]);
+    }
+
+    /**
+     * 按选择的间隔自动刷新（0 表示关闭）
+     */
+    private void startAutoRefresh() {
+        refreshTimer = new Timer(Math.max(refreshSeconds, 1) * 1000, e -> refresh(false));
+        refreshTimer.setRepeats(true);
+        if (refreshSeconds > 0) {
+            refreshTimer.start();
+        }
+    }
+
+    private void changeRefreshInterval(int seconds) {
+        refreshSeconds = seconds;
+        refreshTimer.stop();
+        if (seconds > 0) {
+            refreshTimer.setDelay(seconds * 1000);
+            refreshTimer.setInitialDelay(seconds * 1000);
+            refreshTimer.start();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        if (refreshTimer != null) {
+            refreshTimer.stop();
+        }
+        super.dispose();
+    }
+
+    // ==================== 后台查询 ====================
+
+    private List<RevenueRollupDAO.Point> queryTrend(int index) {
+        LocalDate today = LocalDate.now();
+        switch (index) {
+            case 1:
+                return statsDAO.getRevenueSeries(today.minusWeeks(11), today, RevenueRollupDAO.Granularity.WEEK);
+            case 2:
+                return statsDAO.getRevenueSeries(today.minusMonths(11), today, RevenueRollupDAO.Granularity.MONTH);
+            default:
+                return statsDAO.getRevenueSeries(today.minusDays(29), today, RevenueRollupDAO.Granularity.DAY);
+        }
+    }
+
+    private List<Object[]> queryRanking(int index) {
+        SalesLeaderboard.Window window = SalesLeaderboard.Window.values()[index];
+        ProductCatalog.Snapshot catalog = ProductCatalog.snapshot();
+        List<Object[]> rows = new ArrayList<>();
+        int rank = 1;
+        for (SalesLeaderboard.Entry entry : SalesLeaderboard.getInstance().getTop(window, RANK_SIZE)) {
+            Product p = catalog.getProduct(entry.getProductId());
+            rows.add(new Object[]{rank++, entry.getProductId(), p != null ? p.getName() : "-", entry.getQuantity()});
+        }
+        return rows;
+    }
+
+    /**
+     * 近 {@link #ACTIVITY_DAYS} 天的活跃切片，返回 Map<横轴标签, 次数>
+     */
+    private Map<String, Long> queryActivity(int index) {
+        AnalyticsStore store = AnalyticsStore.getInstance();
+        LocalDate to = LocalDate.now();
+        LocalDate from = to.minusDays(ACTIVITY_DAYS - 1);
+        Map<String, Long> data = new LinkedHashMap<>();
+        switch (index) {
+            case 1: {
+                long[] counts = new long[8];
+                for (ColumnTable.Row row : store.checkInsByWeekday(from, to).getRows()) {
+                    counts[row.getKey(0)] = row.getCount();
+                }
+                // 键用星期序号，渲染时再换成当前语言的名称，缓存的结果在切换语言后仍可直接使用
+                for (int day = 1; day <= 7; day++) {
+                    data.put(String.valueOf(day), counts[day]);
+                }
+                return data;
+            }
+            case 2:
+                return store.bookingsByCourseType(from, to).toCountMap();
+            case 3:
+                return store.ordersByType(from, to).toCountMap();
+            default: {
+                long[] counts = new long[24];
+                for (ColumnTable.Row row : store.checkInsByHour(from, to).getRows()) {
+                    counts[row.getKey(0)] = row.getCount();
+                }
+                for (int hour = 0; hour < 24; hour++) {
+                    data.put(String.format("%02d", hour), counts[hour]);
+                }
+                return data;
+            }
+        }
+    }
+
+    // ==================== 渲染（事件线程） ====================
+
+    private void renderRevenue(long cents) {
+        revenueLabel.setText(Money.formatWithSymbol(cents));
+    }
+
+    private void renderMembers(int count) {
+        memberLabel.setText(String.valueOf(count));
+    }
 
-        List<Map<String, Object>> orders = statsDAO.getRecentOrders();
+    private void renderTodayOrders(int count) {
+        orderLabel.setText(String.valueOf(count));
+    }
+
+    private void renderStock(int lowStockCount) {
+        stockLabel.setText(String.valueOf(lowStockCount));
+    }
+
+    private void renderRecentOrders(List<Map<String, Object>> orders) {
         JTable table = (JTable) tableScroll.getViewport().getView();
         DefaultTableModel model = (DefaultTableModel) table.getModel();
         model.setRowCount(0);
         for (Map<String, Object> o : orders) {
-            model.addRow(new Object[]{o.get("id"), o.get("name"), o.get("type"), String.format("¥ %.2f", o.get("amount")), o.get("time"), o.get("status")});
-        }
-        try {
-            Map<String, Double> data = statsDAO.getRevenueByType();
-            barDataset.clear(); pieDataset.clear();
-            for (Map.Entry<String, Double> entry : data.entrySet()) {
-                barDataset.setValue(entry.getValue(), "Revenue", entry.getKey());
-                pieDataset.setValue(entry.getKey(), entry.getValue());
+            model.addRow(new Object[]{o.get("id"), o.get("name"), o.get("type"), Money.formatWithSymbol((Long) o.get("amount")), o.get("time"), o.get("status")});
+        }
+    }
+
+    private void renderRevenueByType(Map<String, Long> data) {
+        barDataset.clear(); pieDataset.clear();
+        for (Map.Entry<String, Long> entry : data.entrySet()) {
+            double yuan = Money.toYuan(entry.getValue());
+            barDataset.setValue(yuan, "Revenue", entry.getKey());
+            pieDataset.setValue(entry.getKey(), yuan);
+        }
+    }
+
+    private void renderTrend(int index, List<RevenueRollupDAO.Point> points) {
+        // 选择在查询期间又变了，等新的查询结果
+        if (index != granularityBox.getSelectedIndex()) {
+            return;
+        }
+        trendDataset.clear();
+        for (RevenueRollupDAO.Point p : points) {
+            String label = index == 2
+                    ? p.getPeriodStart().toString().substring(0, 7)
+                    : p.getPeriodStart().toString().substring(5);
+            trendDataset.addValue(p.getAmount(), "Revenue", label);
+        }
+    }
+
+    private void renderActivity(int index, Map<String, Long> data) {
+        if (index != activityBox.getSelectedIndex()) {
+            return;
+        }
+        activityDataset.clear();
+        String[] weekdays = index == 1 ? LanguageUtils.getText("report.activity.weekdays").split(",") : null;
+        for (Map.Entry<String, Long> entry : data.entrySet()) {
+            String label = weekdays != null ? weekdays[Integer.parseInt(entry.getKey()) - 1] : entry.getKey();
+            activityDataset.addValue(entry.getValue(), "Count", label);
+        }
+    }
+
+    private void renderRetention(RetentionAnalyzer.Report report) {
+        retentionModel.setRowCount(0);
+        for (RetentionAnalyzer.Cohort cohort : report.getCohorts()) {
+            Object[] row = new Object[RetentionAnalyzer.COHORT_MONTHS + 2];
+            row[0] = cohort.getMonth().toString();
+            row[1] = cohort.getSize();
+            for (int i = 0; i < cohort.getMonthCount(); i++) {
+                row[i + 2] = cohort.getSize() > 0 ? String.format("%.0f%%", cohort.getRate(i)) : "-";
+            }
+            retentionModel.addRow(row);
+        }
+        churnModel.setRowCount(0);
+        for (RetentionAnalyzer.ChurnRisk risk : report.getChurnRisks()) {
+            churnModel.addRow(new Object[]{risk.getMemberId(), risk.getName(), risk.getPhone(),
+                    risk.getLastCheckIn().toString(), risk.getVisitDays(), risk.getDaysAbsent()});
+        }
+    }
+
+    private void renderHeatmap(int index, OccupancyHeatmap.View view) {
+        if (index != heatmapRangeBox.getSelectedIndex()) {
+            return;
+        }
+        shownHeatmap = view;
+        OccupancyHeatmap.Grid checkIns = view.getCheckIns();
+        OccupancyHeatmap.Grid courses = heatmapOverlayBox.getSelectedIndex() > 0
+                ? view.getCourses().get((String) heatmapOverlayBox.getSelectedItem()) : null;
+        for (int d = 1; d <= 7; d++) {
+            for (int h = 0; h < 24; h++) {
+                int classes = courses != null ? courses.get(d, h) : 0;
+                heatmapModel.setValueAt(new HeatCell(checkIns.get(d, h), checkIns.getMax(), classes), d - 1, h + 1);
+            }
+        }
+        int[] peak = checkIns.getPeak();
+        String[] weekdays = LanguageUtils.getText("report.activity.weekdays").split(",");
+        heatmapPeakLabel.setText(peak == null ? " " : LanguageUtils.getText("report.heatmap.peak") + ": "
+                + weekdays[peak[0] - 1] + " " + String.format("%02d:00", peak[1]) + " (" + checkIns.get(peak[0], peak[1]) + ")");
+    }
+
+    private void renderUpdated() {
+        if (updatedAt != null) {
+            updatedLabel.setText(LanguageUtils.getText("report.updated") + " " + updatedAt);
+        }
+    }
+
+    private void renderRanking(List<Object[]> rows) {
+        rankModel.setRowCount(0);
+        for (Object[] row : rows) {
+            rankModel.addRow(row);
+        }
+    }
+
+    /**
+     * 热力图单元格：签到次数、全图最大值（用于着色）、叠加的课程节数
+     */
+    private static class HeatCell {
+        final int count;
+        final int max;
+        final int classes;
+
+        HeatCell(int count, int max, int classes) {
+            this.count = count;
+            this.max = max;
+            this.classes = classes;
+        }
+
+        @Override
+        public String toString() {
+            String text = count > 0 ? String.valueOf(count) : "";
+            return classes > 0 ? text + " ▲" + classes : text;
+        }
+    }
+
+    /**
+     * 按签到次数由浅到深着色，有叠加课程的格子加粗
+     */
+    private static class HeatmapCellRenderer extends DefaultTableCellRenderer {
+        private static final Color LOW = new Color(255, 245, 235);
+        private static final Color HIGH = new Color(214, 48, 49);
+
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
+            super.getTableCellRendererComponent(table, value, false, false, row, column);
+            setHorizontalAlignment(CENTER);
+            setFont(getFont().deriveFont(Font.PLAIN));
+            if (value instanceof HeatCell) {
+                HeatCell cell = (HeatCell) value;
+                float ratio = cell.max > 0 ? (float) cell.count / cell.max : 0;
+                setBackground(new Color(
+                        (int) (LOW.getRed() + (HIGH.getRed() - LOW.getRed()) * ratio),
+                        (int) (LOW.getGreen() + (HIGH.getGreen() - LOW.getGreen()) * ratio),
+                        (int) (LOW.getBlue() + (HIGH.getBlue() - LOW.getBlue()) * ratio)));
+                setForeground(ratio > 0.6f ? Color.WHITE : StyleUtils.COLOR_TEXT_MAIN);
+                if (cell.classes > 0) {
+                    setFont(getFont().deriveFont(Font.BOLD));
+                }
+            } else {
+                setBackground(Color.WHITE);
+                setForeground(StyleUtils.COLOR_TEXT_MAIN);
             }
-        } catch (Exception e) {}
+            return this;
+        }
     }
 
     private void styleBarChart(JFreeChart chart) {
@@ -190,6 +865,26 @@ public class ReportUi extends JFrame {
         renderer.setShadowVisible(false);
     }
 
+    private void styleLineChart(JFreeChart chart) {
+        Font font = new Font("微软雅黑", Font.PLAIN, 12);
+        chart.getTitle().setFont(new Font("微软雅黑", Font.BOLD, 18));
+        CategoryPlot plot = chart.getCategoryPlot();
+        plot.getDomainAxis().setLabelFont(font);
+        plot.getDomainAxis().setTickLabelFont(font);
+        plot.getDomainAxis().setCategoryLabelPositions(CategoryLabelPositions.UP_45);
+        plot.getRangeAxis().setLabelFont(font);
+        plot.getRangeAxis().setTickLabelFont(font);
+
+        chart.setBackgroundPaint(Color.WHITE);
+        plot.setBackgroundPaint(Color.WHITE);
+        plot.setRangeGridlinePaint(new Color(220, 220, 220));
+        plot.setOutlineVisible(false);
+        LineAndShapeRenderer renderer = (LineAndShapeRenderer) plot.getRenderer();
+        renderer.setSeriesPaint(0, new Color(0, 184, 148));
+        renderer.setSeriesStroke(0, new BasicStroke(2.5f));
+        renderer.setDefaultShapesVisible(true);
+    }
+
     private void stylePieChart(JFreeChart chart) {
         Font font = new Font("微软雅黑", Font.PLAIN, 12);
         chart.getTitle().setFont(new Font("微软雅黑", Font.BOLD, 18));
@@ -1,16 +1,23 @@
 package Ui;
 
+import dao.ProductCatalog;
 import entity.Product;
+import service.AppContext;
 import service.ProductService;
+import service.SalesLeaderboard;
 import service.ShopService;
 import service.ServiceResult;
+import service.StockReservationLedger;
 import utils.LanguageUtils; // 导入
+import utils.Money;
+import utils.SearchPipeline;
 import utils.StyleUtils;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -24,12 +31,22 @@ public class ShopUi extends JFrame {
     private DefaultTableModel cartModel;
     private JLabel totalLabel;
     private JTextField searchField;
-    private Map<Integer, Integer> shoppingCart = new HashMap<>();
-    private Map<Integer, Product> productCache = new HashMap<>();
+    private Map<Integer, Integer> shoppingCart = new LinkedHashMap<>();
+    // 库存预留：加入购物车即占用数量，其他收银台立即可见
+    private StockReservationLedger ledger = StockReservationLedger.getInstance();
+    private String cartId;
+    private long shownReservationVersion;
+    private List<Integer> cartRowIds = new ArrayList<>();
+    // 共享目录快照：所有收银窗口读同一份内存数据，版本变化时自动重绘
+    private ProductCatalog.Snapshot catalog;
+    private Timer catalogWatcher;
+    // 置顶显示的畅销商品数量
+    private static final int HOT_COUNT = 5;
 
     public ShopUi() {
-        this.shopService = new ShopService();
-        this.productService = new ProductService();
+        this.shopService = AppContext.getInstance().getShopService();
+        this.productService = AppContext.getInstance().getProductService();
+        this.cartId = ledger.openCart();
         StyleUtils.initGlobalTheme();
         setTitle("🛒 " + LanguageUtils.getText("shop.title"));
         setSize(1100, 700);
@@ -40,9 +57,30 @@ public class ShopUi extends JFrame {
 
         initView();
         loadProducts();
+        startCatalogWatcher();
         setVisible(true);
     }
 
+    /**
+     * 每秒比对一次目录和预留版本号（纯内存），其他窗口售出、改价或预留后同步刷新
+     */
+    private void startCatalogWatcher() {
+        catalogWatcher = new Timer(1000, e -> {
+            if (productService.getCatalog().getVersion() != catalog.getVersion()
+                    || ledger.getVersion() != shownReservationVersion) {
+                loadProducts();
+                updateCartView();
+            }
+        });
+        catalogWatcher.start();
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override public void windowClosed(java.awt.event.WindowEvent e) {
+                catalogWatcher.stop();
+                ledger.closeCart(cartId); // 关窗即释放预留
+            }
+        });
+    }
+
     private void initView() {
         // === 左侧 ===
         JPanel leftPanel = new JPanel(new BorderLayout());
@@ -54,6 +92,14 @@ public class ShopUi extends JFrame {
         searchField = new JTextField(15);
         StyleUtils.styleTextField(searchField);
         searchField.addActionListener(e -> loadProducts());
+        // 商品目录在内存中，输入时只需防抖后重新过滤，不走后台查询
+        Timer searchDebounce = new Timer(SearchPipeline.DEFAULT_DEBOUNCE_MILLIS, e -> loadProducts());
+        searchDebounce.setRepeats(false);
+        searchField.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            @Override public void insertUpdate(javax.swing.event.DocumentEvent e) { searchDebounce.restart(); }
+            @Override public void removeUpdate(javax.swing.event.DocumentEvent e) { searchDebounce.restart(); }
+            @Override public void changedUpdate(javax.swing.event.DocumentEvent e) { searchDebounce.restart(); }
+        });
 
         JButton searchBtn = new JButton("🔍 " + LanguageUtils.getText("shop.search_btn"));
         StyleUtils.styleButton(searchBtn, StyleUtils.COLOR_PRIMARY);
@@ -144,52 +190,68 @@ public class ShopUi extends JFrame {
     }
 
     private void loadProducts() {
-        productModel.setRowCount(0); productCache.clear();
+        productModel.setRowCount(0);
+        catalog = productService.getCatalog();
+        shownReservationVersion = ledger.getVersion();
         String keyword = searchField.getText().trim();
-        List<Product> products = keyword.isEmpty() ? productService.getAllProducts() : productService.searchProducts(keyword);
-        for (Product p : products) {
-            productCache.put(p.getProductId(), p);
-            productModel.addRow(new Object[]{p.getProductId(), p.getName(), p.getPrice(), p.getStock(), "➕"});
+        List<Product> products = keyword.isEmpty() ? catalog.getAllProducts() : catalog.search(keyword);
+        // 近7天畅销商品置顶（按名次），其余保持原顺序；排行榜还在后台重建时先不置顶
+        List<Integer> hotIds = new ArrayList<>();
+        SalesLeaderboard board = SalesLeaderboard.getIfLoaded();
+        if (board != null) {
+            for (SalesLeaderboard.Entry entry : board.getTop(SalesLeaderboard.Window.WEEK, HOT_COUNT)) {
+                hotIds.add(entry.getProductId());
+            }
+        }
+        List<Product> ordered = new ArrayList<>(products);
+        ordered.sort((a, b) -> Integer.compare(hotRank(hotIds, a), hotRank(hotIds, b)));
+        for (Product p : ordered) {
+            String name = hotIds.contains(p.getProductId()) ? "🔥 " + p.getName() : p.getName();
+            // 库存列显示可售数量（已扣除所有购物车的预留）
+            productModel.addRow(new Object[]{p.getProductId(), name, Money.format(p.getPriceCents()), ledger.getAvailable(p.getProductId()), "➕"});
         }
     }
 
+    private static int hotRank(List<Integer> hotIds, Product p) {
+        int rank = hotIds.indexOf(p.getProductId());
+        return rank < 0 ? Integer.MAX_VALUE : rank;
+    }
+
     private void addToCart() {
         int row = productTable.getSelectedRow();
         if (row == -1) return;
         int pId = (int) productModel.getValueAt(row, 0);
-        Product p = productCache.get(pId);
+        Product p = productService.getCatalog().getProduct(pId);
+        if (p == null) { JOptionPane.showMessageDialog(this, "Product removed!"); loadProducts(); return; }
         if (p.getStock() <= 0) { JOptionPane.showMessageDialog(this, "Stock empty!"); return; }
-        int currentQty = shoppingCart.getOrDefault(pId, 0);
-        if (currentQty >= p.getStock()) { JOptionPane.showMessageDialog(this, "Not enough stock!"); return; }
-        shoppingCart.put(pId, currentQty + 1);
+        if (!ledger.reserve(cartId, pId, 1)) { JOptionPane.showMessageDialog(this, "Not enough stock!"); return; }
         updateCartView();
     }
 
     private void updateCartView() {
-        cartModel.setRowCount(0);
-        double total = 0.0;
+        // 以台账为准：超时被释放的预留会从购物车中消失
+        shoppingCart = new LinkedHashMap<>(ledger.getReservations(cartId));
+        cartModel.setRowCount(0); cartRowIds.clear();
+        long totalCents = 0;
         for (Map.Entry<Integer, Integer> entry : shoppingCart.entrySet()) {
-            Product p = productCache.get(entry.getKey());
+            Product p = catalog.getProduct(entry.getKey());
             if (p == null) continue;
+            cartRowIds.add(entry.getKey());
             int qty = entry.getValue();
-            double subtotal = p.getPrice() * qty;
-            total += subtotal;
-            cartModel.addRow(new Object[]{p.getName(), qty, String.format("%.2f", subtotal)});
+            long subtotalCents = Money.multiply(p.getPriceCents(), qty);
+            totalCents = Money.add(totalCents, subtotalCents);
+            cartModel.addRow(new Object[]{p.getName(), qty, Money.format(subtotalCents)});
         }
-        totalLabel.setText(LanguageUtils.getText("shop.total") + "¥ " + String.format("%.2f", total));
+        totalLabel.setText(LanguageUtils.getText("shop.total") + Money.formatWithSymbol(totalCents));
     }
 
-    private void clearCart() { shoppingCart.clear(); updateCartView(); }
+    private void clearCart() { ledger.clear(cartId); updateCartView(); }
 
     private void removeFromCart() {
         int row = cartTable.getSelectedRow();
         if (row == -1) { JOptionPane.showMessageDialog(this, "Select item!"); return; }
-        String pName = (String) cartModel.getValueAt(row, 0);
-        Integer targetId = null;
-        for (Map.Entry<Integer, Product> entry : productCache.entrySet()) {
-            if (entry.getValue().getName().equals(pName)) { targetId = entry.getKey(); break; }
-        }
-        if (targetId != null) { shoppingCart.remove(targetId); updateCartView(); }
+        ledger.release(cartId, cartRowIds.get(row));
+        updateCartView();
     }
 
     private void performCheckout() {
@@ -198,7 +260,7 @@ public class ShopUi extends JFrame {
         if (input == null) return;
         try {
             int memberId = Integer.parseInt(input);
-            ServiceResult<Void> result = shopService.checkout(memberId, shoppingCart);
+            ServiceResult<Void> result = shopService.checkout(memberId, cartId);
             if (result.isSuccess()) {
                 JOptionPane.showMessageDialog(this, "✅ " + result.getMessage());
                 clearCart(); loadProducts();
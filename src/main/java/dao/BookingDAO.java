@@ -98,6 +98,30 @@ public class BookingDAO {
         return bookings;
     }
 
+    /**
+     * 按预约ID升序查询ID大于 afterId 的预约（分析库增量加载）
+     *
+     * @param afterId 已加载的最大预约ID，0 表示全部
+     * @return 预约列表，查询失败返回null
+     */
+    public List<Booking> getBookingsAfter(int afterId) {
+        List<Booking> bookings = new ArrayList<>();
+        String sql = "SELECT * FROM booking WHERE booking_id > ? ORDER BY booking_id";
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, afterId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    bookings.add(extractBookingFromResultSet(rs));
+                }
+            }
+            return bookings;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
     /**
      * 根据会员ID查询所有预约
      *
@@ -710,6 +734,35 @@ public class BookingDAO {
         return 0;
     }
 
+    /**
+     * 预约统计概览（一次扫描 booking 表，条件聚合出全部计数）
+     *
+     * @return 统计概览，查询失败返回null
+     */
+    public Summary getSummary() {
+        String sql = "SELECT COUNT(*) AS total, " +
+                "COALESCE(SUM(booking_status = ?), 0) AS pending, " +
+                "COALESCE(SUM(booking_status = ?), 0) AS confirmed, " +
+                "COALESCE(SUM(booking_status = ?), 0) AS cancelled, " +
+                "COALESCE(SUM(booking_time >= CURDATE() AND booking_time < CURDATE() + INTERVAL 1 DAY), 0) AS today " +
+                "FROM booking";
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, STATUS_PENDING);
+            pstmt.setString(2, STATUS_CONFIRMED);
+            pstmt.setString(3, STATUS_CANCELLED);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return new Summary(rs.getInt("total"), rs.getInt("pending"), rs.getInt("confirmed"),
+                            rs.getInt("cancelled"), rs.getInt("today"));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
     /**
      * 获取会员的预约统计
      *
@@ -772,4 +825,51 @@ public class BookingDAO {
     public int getComfirmedBookingCount(int courseId) {
         return getConfirmedBookingCount(courseId);
     }
+
+    // ==================== 内部类 ====================
+
+    /**
+     * 预约统计概览（不可变）
+     */
+    public static class Summary {
+        private final int totalCount;
+        private final int pendingCount;
+        private final int confirmedCount;
+        private final int cancelledCount;
+        private final int todayCount;
+
+        public Summary(int totalCount, int pendingCount, int confirmedCount, int cancelledCount, int todayCount) {
+            this.totalCount = totalCount;
+            this.pendingCount = pendingCount;
+            this.confirmedCount = confirmedCount;
+            this.cancelledCount = cancelledCount;
+            this.todayCount = todayCount;
+        }
+
+        public int getTotalCount() {
+            return totalCount;
+        }
+
+        public int getPendingCount() {
+            return pendingCount;
+        }
+
+        public int getConfirmedCount() {
+            return confirmedCount;
+        }
+
+        public int getCancelledCount() {
+            return cancelledCount;
+        }
+
+        public int getTodayCount() {
+            return todayCount;
+        }
+
+        @Override
+        public String toString() {
+            return "Summary{total = " + totalCount + ", pending = " + pendingCount + ", confirmed = " + confirmedCount
+                    + ", cancelled = " + cancelledCount + ", today = " + todayCount + "}";
+        }
+    }
 }
@@ -135,6 +135,31 @@ public class CheckInDAO {
         return false;
     }
 
+    /**
+     * 批量写入签到记录（使用调用方连接，一次批处理写入）
+     * 供本地日志后台刷写使用，业务校验已在提交日志前完成
+     *
+     * @param conn     调用方连接（不会在此关闭或提交）
+     * @param checkIns 签到记录列表
+     * @throws SQLException SQL异常
+     */
+    public void addCheckInsBatch(Connection conn, List<CheckIn> checkIns) throws SQLException {
+        if (checkIns == null || checkIns.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO check_in (member_id, checkin_time) VALUES (?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (CheckIn checkIn : checkIns) {
+                pstmt.setInt(1, checkIn.getMemberId());
+                pstmt.setTimestamp(2, checkIn.getCheckinTime() != null
+                        ? DateUtils.toSqlTimestamp(checkIn.getCheckinTime())
+                        : DateUtils.nowTimestamp());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
     // ==================== 签退操作 ====================
 
     /**
@@ -222,6 +247,31 @@ public class CheckInDAO {
         return checkIns;
     }
 
+    /**
+     * 按签到ID升序查询ID大于 afterId 的签到记录（分析库增量加载）
+     * 
+     * @param afterId 已加载的最大签到ID，0 表示全部
+     * @return 签到记录列表，查询失败返回null
+     */
+    public List<CheckIn> getCheckInsAfter(int afterId) {
+        List<CheckIn> checkIns = new ArrayList<>();
+        String sql = "SELECT * FROM check_in WHERE checkin_id > ? ORDER BY checkin_id";
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, afterId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    checkIns.add(extractCheckInFromResultSet(rs));
+                }
+            }
+            return checkIns;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
     /**
      * 删除签到记录（管理员功能）
      * 
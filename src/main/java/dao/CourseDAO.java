@@ -1,6 +1,7 @@
 package dao;
 
 import entity.Course;
+import utils.CancellationToken;
 import utils.DBUtil;
 
 import java.sql.Connection;
@@ -8,6 +9,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -119,6 +121,8 @@ public class CourseDAO {
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
+            // 搜索框的后台查询可被新输入取消
+            CancellationToken.register(pstmt);
             pstmt.setString(1, "%" + name + "%");
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
@@ -126,7 +130,9 @@ public class CourseDAO {
                 }
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            if (!CancellationToken.isCurrentCancelled()) {
+                e.printStackTrace();
+            }
         }
         return courses;
     }
@@ -511,6 +517,49 @@ public class CourseDAO {
         return countMap;
     }
 
+    /**
+     * 课程统计概览（一次查询）
+     *
+     * 课程表关联每门课的有效预约数，按 类型 x 教练 分组取课程数和有空位的课程数，
+     * 再在内存中汇总出总数、各类型数量、有空位数量和各教练课程数，
+     * 不再为了计数而加载完整的课程对象
+     *
+     * @return 统计概览，查询失败返回null
+     */
+    public Summary getSummary() {
+        String sql = "SELECT c.type, c.employee_id, COUNT(*) AS course_count, " +
+                "SUM(c.max_capacity > COALESCE(b.active_count, 0)) AS available_count " +
+                "FROM course c " +
+                "LEFT JOIN (SELECT course_id, COUNT(*) AS active_count FROM booking " +
+                "WHERE booking_status IN ('confirmed', 'pending') GROUP BY course_id) b ON b.course_id = c.course_id " +
+                "GROUP BY c.type, c.employee_id";
+
+        Map<String, Integer> countByType = new HashMap<>();
+        for (String type : VALID_TYPES) {
+            countByType.put(type, 0);
+        }
+        Map<Integer, Integer> countByEmployee = new HashMap<>();
+        int total = 0;
+        int available = 0;
+
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            while (rs.next()) {
+                int count = rs.getInt("course_count");
+                total += count;
+                available += rs.getInt("available_count");
+                countByType.merge(rs.getString("type"), count, Integer::sum);
+                countByEmployee.merge(rs.getInt("employee_id"), count, Integer::sum);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+        return new Summary(total, available, countByType, countByEmployee);
+    }
+
     /**
      * 获取指定类型的课程数量
      *
@@ -645,4 +694,56 @@ public class CourseDAO {
             return new ArrayList<>();
         }
     }
+
+    // ==================== 内部类 ====================
+
+    /**
+     * 课程统计概览（不可变）
+     */
+    public static class Summary {
+        private final int totalCount;
+        private final int availableCount;
+        private final Map<String, Integer> countByType;
+        private final Map<Integer, Integer> countByEmployee;
+
+        public Summary(int totalCount, int availableCount, Map<String, Integer> countByType, Map<Integer, Integer> countByEmployee) {
+            this.totalCount = totalCount;
+            this.availableCount = availableCount;
+            this.countByType = Collections.unmodifiableMap(new HashMap<>(countByType));
+            this.countByEmployee = Collections.unmodifiableMap(new HashMap<>(countByEmployee));
+        }
+
+        public int getTotalCount() {
+            return totalCount;
+        }
+
+        /** 仍有空位（有效预约数小于容量）的课程数 */
+        public int getAvailableCount() {
+            return availableCount;
+        }
+
+        public int getFullCount() {
+            return totalCount - availableCount;
+        }
+
+        /** 某类型的课程数，未知类型返回0 */
+        public int getCountByType(String type) {
+            return countByType.getOrDefault(type, 0);
+        }
+
+        public Map<String, Integer> getCountByType() {
+            return countByType;
+        }
+
+        /** Map<教练ID, 课程数> */
+        public Map<Integer, Integer> getCountByEmployee() {
+            return countByEmployee;
+        }
+
+        @Override
+        public String toString() {
+            return "Summary{total = " + totalCount + ", available = " + availableCount + ", byType = " + countByType
+                    + ", trainers = " + countByEmployee.size() + "}";
+        }
+    }
 }
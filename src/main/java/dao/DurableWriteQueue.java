@@ -0,0 +1,513 @@
+package dao;
+
+import entity.CheckIn;
+import entity.Order;
+import utils.DBUtil;
+import utils.DateUtils;
+import utils.WriteAheadJournal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 订单和签到的本地日志写入队列
+ *
+ * 原来数据库抖动时，充值/开卡/续费的订单流水只打印异常就丢了，前台签到直接失败。
+ * 现在这两类写入先追加到本地日志（{@link WriteAheadJournal}）后立即返回，
+ * 由后台线程按批写入数据库：
+ * - 组提交：取出队列中积压的条目（最多 BATCH_SIZE 条），先刷盘再在一个事务内批量写入
+ * - 数据库不可用时按指数退避重试，条目保留在日志中不会丢失
+ * - 启动时重放日志中未确认的条目；每条有唯一键，写入时同一事务登记到 journal_applied 表，
+ *   已登记的键直接跳过，保证崩溃后重放不会重复写入
+ * - 单条数据本身有误（如会员已被删除）时写入 rejected.log 留待人工核对，不阻塞后续条目
+ *
+ * 本地日志无法打开时退回到直接写数据库
+ */
+public class DurableWriteQueue {
+
+    /** 日志目录的系统属性，默认为工作目录下的 journal */
+    public static final String DIR_PROPERTY = "gym.journal.dir";
+
+    /** 每批最多写入的条目数 */
+    private static final int BATCH_SIZE = 200;
+    /** 取到第一条后稍等片刻，让同时到达的写入凑成一批 */
+    private static final long LINGER_MILLIS = 2;
+    private static final long MIN_BACKOFF_MILLIS = 500;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    private static final byte TYPE_CHECK_IN = 2;
+    /** 订单（金额为 long 分） */
+    private static final byte TYPE_ORDER_CENTS = 3;
+
+    private static final OrderDAO ORDER_DAO = new OrderDAO();
+    private static final CheckInDAO CHECK_IN_DAO = new CheckInDAO();
+
+    // ==================== 状态 ====================
+
+    private static WriteAheadJournal journal;
+    private static File journalDir;
+    private static Thread flusher;
+    private static volatile boolean running;
+
+    private static final LinkedBlockingQueue<Entry> QUEUE = new LinkedBlockingQueue<>();
+    /** 已写入日志、尚未写入数据库的条目数（含正在刷写的批次） */
+    private static final AtomicInteger PENDING = new AtomicInteger();
+    /** 会员ID -> 尚未写入数据库的签到数 */
+    private static final ConcurrentHashMap<Integer, Integer> PENDING_CHECK_INS = new ConcurrentHashMap<>();
+    private static final Object FLUSHED = new Object();
+
+    private DurableWriteQueue() {
+    }
+
+    // ==================== 启动与关闭 ====================
+
+    /**
+     * 打开本地日志，重放未确认的条目并启动后台刷写线程（重复调用无副作用）
+     *
+     * @return 是否已启动
+     */
+    public static synchronized boolean start() {
+        if (running) {
+            return true;
+        }
+        journalDir = new File(System.getProperty(DIR_PROPERTY, new File(System.getProperty("user.dir"), "journal").getPath()));
+        try {
+            journal = new WriteAheadJournal(journalDir, WriteAheadJournal.DEFAULT_SEGMENT_SIZE);
+        } catch (IOException e) {
+            System.err.println("本地日志打开失败，订单和签到将直接写入数据库: " + journalDir);
+            e.printStackTrace();
+            return false;
+        }
+
+        Map<String, byte[]> pending = journal.getPendingEntries();
+        for (Map.Entry<String, byte[]> item : pending.entrySet()) {
+            Entry entry = decode(item.getKey(), item.getValue());
+            if (entry != null) {
+                enqueue(entry);
+            } else {
+                System.err.println("无法解析的日志条目，已跳过: " + item.getKey());
+                ackQuietly(Collections.singletonList(item.getKey()));
+            }
+        }
+        if (!pending.isEmpty()) {
+            System.out.println("本地日志恢复：" + pending.size() + " 条待写入数据库");
+        }
+
+        running = true;
+        flusher = new Thread(DurableWriteQueue::flushLoop, "journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        return true;
+    }
+
+    /**
+     * 停止后台线程并关闭日志（未写入数据库的条目留在日志中，下次启动重放）
+     */
+    public static synchronized void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            flusher.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.force();
+        journal.close();
+        QUEUE.clear();
+        PENDING.set(0);
+        PENDING_CHECK_INS.clear();
+    }
+
+    /**
+     * 退出前调用：等待积压条目写入数据库（最多 timeoutMillis），然后停止
+     *
+     * 超时未写入的条目留在日志中，下次启动重放
+     *
+     * @return 是否已全部写入
+     */
+    public static boolean drain(long timeoutMillis) {
+        boolean flushed = !running || flush(timeoutMillis);
+        if (!flushed) {
+            System.err.println("退出时仍有 " + PENDING.get() + " 条未写入数据库，已保留在本地日志中");
+        }
+        shutdown();
+        return flushed;
+    }
+
+    // ==================== 提交写入 ====================
+
+    /**
+     * 提交订单：写入本地日志后立即返回，由后台线程写入数据库
+     *
+     * @param order 订单（下单时间为空时取当前时间）
+     * @return 是否已接收（日志不可用且直接写库也失败时返回false）
+     */
+    public static boolean submitOrder(Order order) {
+        if (order == null || !ORDER_DAO.isValidType(order.getOrderType())) {
+            System.err.println("提交失败：无效的订单");
+            return false;
+        }
+        if (order.getOrderTime() == null) {
+            order.setOrderTime(DateUtils.now());
+        }
+        return submit(new Entry(UUID.randomUUID().toString(), order, null));
+    }
+
+    /**
+     * 提交签到：写入本地日志后立即返回，由后台线程写入数据库
+     * 调用前需完成会员卡和重复签到校验
+     *
+     * @param checkIn 签到记录（签到时间为空时取当前时间）
+     * @return 是否已接收
+     */
+    public static boolean submitCheckIn(CheckIn checkIn) {
+        if (checkIn == null) {
+            return false;
+        }
+        if (checkIn.getCheckinTime() == null) {
+            checkIn.setCheckinTime(DateUtils.now());
+        }
+        return submit(new Entry(UUID.randomUUID().toString(), null, checkIn));
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 该会员是否有尚未写入数据库的签到
+     */
+    public static boolean hasPendingCheckIn(int memberId) {
+        return PENDING_CHECK_INS.containsKey(memberId);
+    }
+
+    /**
+     * 尚未写入数据库的条目数
+     */
+    public static int getPendingCount() {
+        return PENDING.get();
+    }
+
+    /**
+     * 等待积压条目全部写入数据库
+     *
+     * @param timeoutMillis 最长等待时间（毫秒）
+     * @return 是否已全部写入
+     */
+    public static boolean flush(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (FLUSHED) {
+            while (PENDING.get() > 0) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    FLUSHED.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // ==================== 内部方法：提交 ====================
+
+    private static boolean submit(Entry entry) {
+        if (!start()) {
+            return writeDirect(entry);
+        }
+        try {
+            journal.append(entry.key, encode(entry));
+        } catch (IOException | IllegalStateException e) {
+            e.printStackTrace();
+            return writeDirect(entry);
+        }
+        enqueue(entry);
+        return true;
+    }
+
+    private static void enqueue(Entry entry) {
+        PENDING.incrementAndGet();
+        if (entry.checkIn != null) {
+            PENDING_CHECK_INS.merge(entry.checkIn.getMemberId(), 1, Integer::sum);
+        }
+        QUEUE.offer(entry);
+    }
+
+    /**
+     * 日志不可用时直接写数据库
+     */
+    private static boolean writeDirect(Entry entry) {
+        if (entry.order != null) {
+            return ORDER_DAO.addOrder(entry.order);
+        }
+        try (Connection conn = DBUtil.getConnection()) {
+            CHECK_IN_DAO.addCheckInsBatch(conn, Collections.singletonList(entry.checkIn));
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // ==================== 内部方法：后台刷写 ====================
+
+    private static void flushLoop() {
+        List<Entry> batch = new ArrayList<>();
+        long backoff = MIN_BACKOFF_MILLIS;
+        while (running) {
+            try {
+                if (batch.isEmpty()) {
+                    Entry first = QUEUE.poll(1, TimeUnit.SECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    Thread.sleep(LINGER_MILLIS);
+                    QUEUE.drainTo(batch, BATCH_SIZE - 1);
+                }
+                // 组提交：一次刷盘覆盖整批条目
+                journal.force();
+                if (writeBatch(batch)) {
+                    backoff = MIN_BACKOFF_MILLIS;
+                } else {
+                    Thread.sleep(backoff);
+                    backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 写入一批条目，成功写入（或被拒绝）的条目会从 batch 中移除
+     *
+     * @return false 表示数据库暂时不可用，batch 中剩余条目需要稍后重试
+     */
+    private static boolean writeBatch(List<Entry> batch) {
+        try {
+            commit(batch);
+            complete(batch);
+            batch.clear();
+            return true;
+        } catch (SQLException e) {
+            if (isRetryable(e)) {
+                System.err.println("本地日志写入数据库失败，稍后重试 (" + batch.size() + " 条): " + e.getMessage());
+                return false;
+            }
+            if (batch.size() == 1) {
+                reject(batch.get(0), e);
+                batch.clear();
+                return true;
+            }
+            // 批次中有数据错误：逐条写入找出问题条目
+            Iterator<Entry> it = batch.iterator();
+            while (it.hasNext()) {
+                List<Entry> single = new ArrayList<>();
+                single.add(it.next());
+                if (!writeBatch(single)) {
+                    return false;
+                }
+                it.remove();
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 在一个事务内登记幂等键并批量写入
+     */
+    private static void commit(List<Entry> batch) throws SQLException {
+        try (Connection conn = DBUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                List<Order> orders = new ArrayList<>();
+                List<CheckIn> checkIns = new ArrayList<>();
+                for (Entry entry : markApplied(conn, batch)) {
+                    if (entry.order != null) {
+                        orders.add(entry.order);
+                    } else {
+                        checkIns.add(entry.checkIn);
+                    }
+                }
+                ORDER_DAO.addOrdersBatch(conn, orders);
+                CHECK_IN_DAO.addCheckInsBatch(conn, checkIns);
+                conn.commit();
+            } catch (SQLException e) {
+                try {
+                    conn.rollback();
+                } catch (SQLException ignored) {
+                    // 连接已断开时回滚也会失败，事务由数据库自动回滚
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 登记幂等键，返回此前未写入过的条目
+     */
+    private static List<Entry> markApplied(Connection conn, List<Entry> batch) throws SQLException {
+        String sql = "INSERT IGNORE INTO journal_applied (journal_key) VALUES (?)";
+        List<Entry> fresh = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (Entry entry : batch) {
+                pstmt.setString(1, entry.key);
+                pstmt.addBatch();
+            }
+            int[] counts = pstmt.executeBatch();
+            for (int i = 0; i < batch.size(); i++) {
+                // 0 表示键已存在（上次写入后崩溃，尚未来得及确认）
+                if (counts[i] != 0) {
+                    fresh.add(batch.get(i));
+                }
+            }
+        }
+        return fresh;
+    }
+
+    /**
+     * 连接中断、超时、死锁等可重试的错误
+     */
+    private static boolean isRetryable(SQLException e) {
+        String state = e.getSQLState();
+        return e instanceof SQLTransientException
+                || e instanceof SQLRecoverableException
+                || state == null
+                || state.startsWith("08")
+                || state.startsWith("40");
+    }
+
+    private static void complete(List<Entry> entries) {
+        List<String> keys = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            keys.add(entry.key);
+            if (entry.checkIn != null) {
+                PENDING_CHECK_INS.computeIfPresent(entry.checkIn.getMemberId(), (id, count) -> count > 1 ? count - 1 : null);
+            }
+        }
+        ackQuietly(keys);
+        PENDING.addAndGet(-entries.size());
+        synchronized (FLUSHED) {
+            FLUSHED.notifyAll();
+        }
+    }
+
+    /**
+     * 数据本身有误的条目：记录到 rejected.log 后确认，不再重试
+     */
+    private static void reject(Entry entry, SQLException e) {
+        System.err.println("本地日志条目被数据库拒绝，已记录到 rejected.log: " + entry.key + " (" + e.getMessage() + ")");
+        try (PrintWriter out = new PrintWriter(new FileWriter(new File(journalDir, "rejected.log"), true))) {
+            out.println(DateUtils.formatDateTime(new Date()) + "\t" + entry + "\t" + e.getMessage());
+        } catch (IOException io) {
+            io.printStackTrace();
+        }
+        complete(Collections.singletonList(entry));
+    }
+
+    private static void ackQuietly(List<String> keys) {
+        try {
+            journal.ack(keys);
+        } catch (IOException | IllegalStateException e) {
+            // 确认失败只会导致下次启动重放，由幂等键去重
+            e.printStackTrace();
+        }
+    }
+
+    // ==================== 序列化 ====================
+
+    private static byte[] encode(Entry entry) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        if (entry.order != null) {
+            Order order = entry.order;
+            out.writeByte(TYPE_ORDER_CENTS);
+            out.writeInt(order.getMemberId());
+            out.writeUTF(order.getOrderType());
+            out.writeLong(order.getAmountCents());
+            out.writeLong(order.getOrderTime().getTime());
+            out.writeUTF(order.getPaymentStatus() != null ? order.getPaymentStatus() : "");
+        } else {
+            out.writeByte(TYPE_CHECK_IN);
+            out.writeInt(entry.checkIn.getMemberId());
+            out.writeLong(entry.checkIn.getCheckinTime().getTime());
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static Entry decode(String key, byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            byte type = in.readByte();
+            if (type == TYPE_ORDER_CENTS) {
+                Order order = new Order();
+                order.setMemberId(in.readInt());
+                order.setOrderType(in.readUTF());
+                order.setAmountCents(in.readLong());
+                order.setOrderTime(new Date(in.readLong()));
+                String status = in.readUTF();
+                order.setPaymentStatus(status.isEmpty() ? null : status);
+                return new Entry(key, order, null);
+            }
+            if (type == TYPE_CHECK_IN) {
+                CheckIn checkIn = new CheckIn();
+                checkIn.setMemberId(in.readInt());
+                checkIn.setCheckinTime(new Date(in.readLong()));
+                return new Entry(key, null, checkIn);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    // ==================== 内部类 ====================
+
+    /**
+     * 一条待写入数据库的条目（订单或签到二选一）
+     */
+    private static class Entry {
+        final String key;
+        final Order order;
+        final CheckIn checkIn;
+
+        Entry(String key, Order order, CheckIn checkIn) {
+            this.key = key;
+            this.order = order;
+            this.checkIn = checkIn;
+        }
+
+        @Override
+        public String toString() {
+            return order != null ? "order " + key + " " + order : "check_in " + key + " " + checkIn;
+        }
+    }
+}
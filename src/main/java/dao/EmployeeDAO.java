@@ -3,13 +3,16 @@ package dao;
 import entity.Course;
 import entity.Employee;
 import entity.EmployeeRole;
+import utils.CancellationToken;
 import utils.DBUtil;
 import utils.DateUtils;
+import utils.Lazy;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
@@ -36,13 +39,20 @@ public class EmployeeDAO {
     /** 管理员角色ID */
     public static final int ROLE_ID_ADMIN = EmployeeRoleDAO.ROLE_ID_ADMIN;
 
-    private EmployeeRoleDAO roleDAO;
+    /**
+     * 员工 + 角色的查询前缀：角色字段和员工从同一行取出，不再逐行查询角色
+     */
+    private static final String SELECT_WITH_ROLE =
+            "SELECT e.*, r.role_name, r.description, r.permissions FROM employee e " +
+            "LEFT JOIN employee_role r ON r.role_id = e.role_id ";
+
+    /** 角色DAO，只有查询角色信息时才创建 */
+    private final Lazy<EmployeeRoleDAO> roleDAO = Lazy.of(EmployeeRoleDAO::new);
 
     /**
      * 默认构造函数
      */
     public EmployeeDAO() {
-        this.roleDAO = new EmployeeRoleDAO();
     }
 
     // ==================== 结果集提取 ====================
@@ -55,27 +65,50 @@ public class EmployeeDAO {
      * @throws SQLException SQL异常
      */
     private Employee extractEmployeeFromResultSet(ResultSet rs) throws SQLException {
+        return extractEmployee(rs, "");
+    }
+
+    /**
+     * 从结果集中提取员工信息（列名带前缀，用于与其他表连接查询时区分同名列）
+     *
+     * @param rs     数据库结果集
+     * @param prefix 列名前缀，如 "e_" 对应 e_employee_id、e_name ...
+     * @return 员工对象
+     * @throws SQLException SQL异常
+     */
+    static Employee extractEmployee(ResultSet rs, String prefix) throws SQLException {
         Employee employee = new Employee();
-        employee.setEmployeeId(rs.getInt("employee_id"));
-        employee.setName(rs.getString("name"));
-        employee.setRoleId(rs.getInt("role_id"));
-        employee.setPhone(rs.getString("phone"));
-        employee.setHireDate(rs.getDate("hire_date"));
+        employee.setEmployeeId(rs.getInt(prefix + "employee_id"));
+        employee.setName(rs.getString(prefix + "name"));
+        employee.setRoleId(rs.getInt(prefix + "role_id"));
+        employee.setPhone(rs.getString(prefix + "phone"));
+        employee.setHireDate(rs.getDate(prefix + "hire_date"));
         return employee;
     }
 
     /**
      * 从结果集中提取员工信息（包含角色对象）
+     *
+     * <p>结果集须来自 {@link #SELECT_WITH_ROLE}，角色字段与员工在同一行</p>
      * 
      * @param rs 数据库结果集
-     * @return 员工对象（包含关联的角色信息）
+     * @return 员工对象（包含关联的角色信息，角色不存在时为null）
      * @throws SQLException SQL异常
      */
     private Employee extractEmployeeWithRoleFromResultSet(ResultSet rs) throws SQLException {
-        Employee employee = extractEmployeeFromResultSet(rs);
-        // 加载关联的角色对象
-        EmployeeRole role = roleDAO.getRoleById(employee.getRoleId());
-        employee.setEmployeeRole(role);
+        return extractEmployeeWithRole(rs, "");
+    }
+
+    /**
+     * 从结果集中提取员工及角色（列名带前缀，角色列为 前缀 + role_name / description / permissions）
+     */
+    static Employee extractEmployeeWithRole(ResultSet rs, String prefix) throws SQLException {
+        Employee employee = extractEmployee(rs, prefix);
+        String roleName = rs.getString(prefix + "role_name");
+        if (roleName != null) {
+            employee.setEmployeeRole(new EmployeeRole(employee.getRoleId(), roleName,
+                    rs.getString(prefix + "description"), rs.getString(prefix + "permissions")));
+        }
         return employee;
     }
 
@@ -147,7 +180,7 @@ public class EmployeeDAO {
      * @return 员工对象（包含角色信息），不存在返回null
      */
     public Employee getEmployeeById(int employeeId) {
-        String sql = "SELECT * FROM employee WHERE employee_id = ?";
+        String sql = SELECT_WITH_ROLE + "WHERE e.employee_id = ?";
 
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -172,7 +205,7 @@ public class EmployeeDAO {
      */
     public List<Employee> getAllEmployees() {
         List<Employee> employees = new ArrayList<>();
-        String sql = "SELECT * FROM employee ORDER BY employee_id";
+        String sql = SELECT_WITH_ROLE + "ORDER BY e.employee_id";
 
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql);
@@ -355,7 +388,7 @@ public class EmployeeDAO {
      */
     public List<Employee> getEmployeesByRoleId(int roleId) {
         List<Employee> employees = new ArrayList<>();
-        String sql = "SELECT * FROM employee WHERE role_id = ? ORDER BY employee_id";
+        String sql = SELECT_WITH_ROLE + "WHERE e.role_id = ? ORDER BY e.employee_id";
 
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -373,6 +406,34 @@ public class EmployeeDAO {
         return employees;
     }
 
+    /**
+     * 下拉框用的员工选项：只取ID、姓名和角色，不构造完整的员工对象
+     *
+     * @param roleId 角色ID
+     * @return 选项列表（按员工ID升序）
+     */
+    public List<Option> getEmployeeOptions(int roleId) {
+        List<Option> options = new ArrayList<>();
+        String sql = "SELECT e.employee_id, e.name, e.role_id, r.role_name FROM employee e " +
+                "LEFT JOIN employee_role r ON r.role_id = e.role_id WHERE e.role_id = ? ORDER BY e.employee_id";
+
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, roleId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    options.add(new Option(rs.getInt("employee_id"), rs.getString("name"),
+                            rs.getInt("role_id"), rs.getString("role_name")));
+                }
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return options;
+    }
+
     // ==================== 业务查询 ====================
 
     /**
@@ -386,7 +447,7 @@ public class EmployeeDAO {
             return null;
         }
         
-        String sql = "SELECT * FROM employee WHERE phone = ?";
+        String sql = SELECT_WITH_ROLE + "WHERE e.phone = ?";
 
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -416,11 +477,13 @@ public class EmployeeDAO {
             return employees;
         }
         
-        String sql = "SELECT * FROM employee WHERE name LIKE ? ORDER BY employee_id";
+        String sql = SELECT_WITH_ROLE + "WHERE e.name LIKE ? ORDER BY e.employee_id";
 
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
+            // 搜索框的后台查询可被新输入取消
+            CancellationToken.register(pstmt);
             pstmt.setString(1, "%" + name + "%");
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
@@ -429,7 +492,9 @@ public class EmployeeDAO {
             }
 
         } catch (SQLException e) {
-            e.printStackTrace();
+            if (!CancellationToken.isCurrentCancelled()) {
+                e.printStackTrace();
+            }
         }
         return employees;
     }
@@ -451,7 +516,7 @@ public class EmployeeDAO {
             return employees;
         }
         
-        String sql = "SELECT * FROM employee WHERE hire_date BETWEEN ? AND ? ORDER BY hire_date";
+        String sql = SELECT_WITH_ROLE + "WHERE e.hire_date BETWEEN ? AND ? ORDER BY e.hire_date";
 
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -557,6 +622,60 @@ public class EmployeeDAO {
         return 0;
     }
 
+    /**
+     * 全部教练在一个时间段内的工作量（一次分组查询）
+     *
+     * 先把时间段内课程的有效预约（pending/confirmed）按课程汇总，再与课程、教练连接后按教练分组，
+     * 没有课程的教练也会出现（各项为0）
+     *
+     * @param from     时间段开始（含），通常为周一 00:00
+     * @param to       时间段结束（不含）
+     * @param dayStart "今日"开始（含），用于统计今日上课人数
+     * @param dayEnd   "今日"结束（不含）
+     * @return 工作量列表（按教练ID升序），查询失败返回null
+     */
+    public List<Workload> getTrainerWorkloads(Date from, Date to, Date dayStart, Date dayEnd) {
+        String sql = "SELECT e.employee_id, e.name, " +
+                "COUNT(c.course_id) AS course_count, " +
+                "COALESCE(SUM(c.max_capacity), 0) AS capacity, " +
+                "COALESCE(SUM(b.booked), 0) AS booked, " +
+                "COALESCE(SUM(CASE WHEN c.course_time >= ? AND c.course_time < ? THEN b.booked END), 0) AS today_attendees " +
+                "FROM employee e " +
+                "LEFT JOIN course c ON c.employee_id = e.employee_id AND c.course_time >= ? AND c.course_time < ? " +
+                "LEFT JOIN (SELECT bk.course_id, COUNT(*) AS booked FROM booking bk " +
+                "JOIN course bc ON bc.course_id = bk.course_id " +
+                "WHERE bc.course_time >= ? AND bc.course_time < ? AND bk.booking_status IN ('pending', 'confirmed') " +
+                "GROUP BY bk.course_id) b ON b.course_id = c.course_id " +
+                "WHERE e.role_id = ? " +
+                "GROUP BY e.employee_id, e.name " +
+                "ORDER BY e.employee_id";
+
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setTimestamp(1, new Timestamp(dayStart.getTime()));
+            pstmt.setTimestamp(2, new Timestamp(dayEnd.getTime()));
+            pstmt.setTimestamp(3, new Timestamp(from.getTime()));
+            pstmt.setTimestamp(4, new Timestamp(to.getTime()));
+            pstmt.setTimestamp(5, new Timestamp(from.getTime()));
+            pstmt.setTimestamp(6, new Timestamp(to.getTime()));
+            pstmt.setInt(7, ROLE_ID_TRAINER);
+            List<Workload> workloads = new ArrayList<>();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    workloads.add(new Workload(rs.getInt("employee_id"), rs.getString("name"),
+                            rs.getInt("course_count"), rs.getInt("capacity"),
+                            rs.getInt("booked"), rs.getInt("today_attendees")));
+                }
+            }
+            return workloads;
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
     // ==================== 权限检查 ====================
 
     /**
@@ -569,7 +688,7 @@ public class EmployeeDAO {
     public boolean hasPermission(int employeeId, String permission) {
         Employee employee = getEmployeeById(employeeId);
         if (employee != null) {
-            return roleDAO.hasPermission(employee.getRoleId(), permission);
+            return roleDAO.get().hasPermission(employee.getRoleId(), permission);
         }
         return false;
     }
@@ -782,7 +901,7 @@ public class EmployeeDAO {
      * @return true表示有效
      */
     public boolean isValidRoleId(int roleId) {
-        return roleDAO.isValidRoleId(roleId);
+        return roleDAO.get().isValidRoleId(roleId);
     }
 
     /**
@@ -826,7 +945,7 @@ public class EmployeeDAO {
      * @return 中文显示名称
      */
     public String getRoleDisplayName(int roleId) {
-        return roleDAO.getRoleDisplayName(roleId);
+        return roleDAO.get().getRoleDisplayName(roleId);
     }
 
     /**
@@ -835,7 +954,7 @@ public class EmployeeDAO {
      * @return 教练角色
      */
     public EmployeeRole getTrainerRole() {
-        return roleDAO.getTrainerRole();
+        return roleDAO.get().getTrainerRole();
     }
 
     /**
@@ -844,7 +963,7 @@ public class EmployeeDAO {
      * @return 前台角色
      */
     public EmployeeRole getReceptionistRole() {
-        return roleDAO.getReceptionistRole();
+        return roleDAO.get().getReceptionistRole();
     }
 
     /**
@@ -853,6 +972,106 @@ public class EmployeeDAO {
      * @return 管理员角色
      */
     public EmployeeRole getAdminRole() {
-        return roleDAO.getAdminRole();
+        return roleDAO.get().getAdminRole();
+    }
+
+    /**
+     * 员工选项（ID、姓名、角色），用于下拉框
+     */
+    public static class Option {
+        private final int id;
+        private final String name;
+        private final int roleId;
+        private final String roleName;
+
+        public Option(int id, String name, int roleId, String roleName) {
+            this.id = id;
+            this.name = name;
+            this.roleId = roleId;
+            this.roleName = roleName;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getRoleId() {
+            return roleId;
+        }
+
+        public String getRoleName() {
+            return roleName;
+        }
+
+        @Override
+        public String toString() {
+            return name + " (ID:" + id + ")";
+        }
+    }
+
+    /**
+     * 教练在某个时间段内的工作量
+     */
+    public static class Workload {
+        private final int trainerId;
+        private final String name;
+        private final int courseCount;
+        private final int capacity;
+        private final int bookedSeats;
+        private final int todayAttendees;
+
+        public Workload(int trainerId, String name, int courseCount, int capacity, int bookedSeats, int todayAttendees) {
+            this.trainerId = trainerId;
+            this.name = name;
+            this.courseCount = courseCount;
+            this.capacity = capacity;
+            this.bookedSeats = bookedSeats;
+            this.todayAttendees = todayAttendees;
+        }
+
+        public int getTrainerId() {
+            return trainerId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /** 时间段内的课程数 */
+        public int getCourseCount() {
+            return courseCount;
+        }
+
+        /** 时间段内课程的总名额 */
+        public int getCapacity() {
+            return capacity;
+        }
+
+        /** 已预约名额（pending/confirmed） */
+        public int getBookedSeats() {
+            return bookedSeats;
+        }
+
+        /** 今日课程的上课人数 */
+        public int getTodayAttendees() {
+            return todayAttendees;
+        }
+
+        /**
+         * 满座率（已预约 / 总名额），没有课程时为0
+         */
+        public double getFillRate() {
+            return capacity > 0 ? (double) bookedSeats / capacity : 0;
+        }
+
+        @Override
+        public String toString() {
+            return "Workload{trainerId = " + trainerId + ", name = " + name + ", courses = " + courseCount
+                    + ", booked = " + bookedSeats + "/" + capacity + ", today = " + todayAttendees + "}";
+        }
     }
 }
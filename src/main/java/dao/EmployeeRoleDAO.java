@@ -16,6 +16,8 @@ import java.util.List;
  * 对应数据库 employee_role 表
  * 
  * <p>提供员工角色的CRUD操作、权限管理和统计功能</p>
+ *
+ * <p>角色查询、权限判断和显示名称读 {@link RoleRegistry} 的内存快照，写操作成功后更新快照</p>
  * 
  * @author GymSystem
  * @version 2.0
@@ -81,6 +83,15 @@ public class EmployeeRoleDAO {
      * @return 角色列表，查询失败返回空列表
      */
     public List<EmployeeRole> getAllRoles() {
+        return RoleRegistry.snapshot().getAllRoles();
+    }
+
+    /**
+     * 从数据库读取所有角色（供 RoleRegistry 加载）
+     *
+     * @return 角色列表，查询失败返回空列表
+     */
+    List<EmployeeRole> loadAllRoles() {
         List<EmployeeRole> roles = new ArrayList<>();
         String sql = "SELECT * FROM employee_role ORDER BY role_id";
 
@@ -105,22 +116,7 @@ public class EmployeeRoleDAO {
      * @return 角色对象，不存在返回null
      */
     public EmployeeRole getRoleById(int roleId) {
-        String sql = "SELECT * FROM employee_role WHERE role_id = ?";
-
-        try (Connection conn = DBUtil.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setInt(1, roleId);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return extractRoleFromResultSet(rs);
-                }
-            }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return null;
+        return RoleRegistry.snapshot().getRole(roleId);
     }
 
     /**
@@ -133,23 +129,7 @@ public class EmployeeRoleDAO {
         if (roleName == null || roleName.trim().isEmpty()) {
             return null;
         }
-        
-        String sql = "SELECT * FROM employee_role WHERE role_name = ?";
-
-        try (Connection conn = DBUtil.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setString(1, roleName);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return extractRoleFromResultSet(rs);
-                }
-            }
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return null;
+        return RoleRegistry.snapshot().getRoleByName(roleName);
     }
 
     // ==================== 便捷获取方法 ====================
@@ -223,6 +203,9 @@ public class EmployeeRoleDAO {
             pstmt.setString(4, role.getPermissions());
 
             int rowsAffected = pstmt.executeUpdate();
+            if (rowsAffected > 0) {
+                RoleRegistry.put(role);
+            }
             return rowsAffected > 0;
 
         } catch (SQLException e) {
@@ -261,6 +244,9 @@ public class EmployeeRoleDAO {
             pstmt.setInt(4, role.getRoleId());
 
             int rowsAffected = pstmt.executeUpdate();
+            if (rowsAffected > 0) {
+                RoleRegistry.put(role);
+            }
             return rowsAffected > 0;
 
         } catch (SQLException e) {
@@ -286,6 +272,9 @@ public class EmployeeRoleDAO {
             pstmt.setInt(2, roleId);
 
             int rowsAffected = pstmt.executeUpdate();
+            if (rowsAffected > 0) {
+                RoleRegistry.setPermissions(roleId, permissions);
+            }
             return rowsAffected > 0;
 
         } catch (SQLException e) {
@@ -319,6 +308,9 @@ public class EmployeeRoleDAO {
 
             pstmt.setInt(1, roleId);
             int rowsAffected = pstmt.executeUpdate();
+            if (rowsAffected > 0) {
+                RoleRegistry.remove(roleId);
+            }
             return rowsAffected > 0;
 
         } catch (SQLException e) {
@@ -340,17 +332,7 @@ public class EmployeeRoleDAO {
         if (permission == null || permission.trim().isEmpty()) {
             return false;
         }
-        
-        EmployeeRole role = getRoleById(roleId);
-        if (role != null && role.getPermissions() != null) {
-            String[] permissions = role.getPermissions().split(",");
-            for (String p : permissions) {
-                if (p.trim().equals(permission)) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return RoleRegistry.snapshot().hasPermission(roleId, permission);
     }
 
     /**
@@ -360,16 +342,7 @@ public class EmployeeRoleDAO {
      * @return 权限列表，角色不存在或无权限返回空列表
      */
     public List<String> getAllPermissions(int roleId) {
-        List<String> permissionList = new ArrayList<>();
-        EmployeeRole role = getRoleById(roleId);
-        
-        if (role != null && role.getPermissions() != null && !role.getPermissions().isEmpty()) {
-            String[] permissions = role.getPermissions().split(",");
-            for (String p : permissions) {
-                permissionList.add(p.trim());
-            }
-        }
-        return permissionList;
+        return new ArrayList<>(RoleRegistry.snapshot().getPermissions(roleId));
     }
 
     /**
@@ -526,7 +499,7 @@ public class EmployeeRoleDAO {
      * @return true表示有效
      */
     public boolean isValidRoleId(int roleId) {
-        return getRoleById(roleId) != null;
+        return RoleRegistry.snapshot().contains(roleId);
     }
 
     /**
@@ -572,22 +545,13 @@ public class EmployeeRoleDAO {
     // ==================== 工具方法 ====================
 
     /**
-     * 根据角色ID获取角色中文显示名称
+     * 根据角色ID获取角色显示名称（内置角色为中文，其他角色为角色名称）
      * 
      * @param roleId 角色ID
-     * @return 中文显示名称
+     * @return 显示名称，角色不存在返回"未知"
      */
     public String getRoleDisplayName(int roleId) {
-        switch (roleId) {
-            case ROLE_ID_TRAINER:
-                return "教练";
-            case ROLE_ID_RECEPTIONIST:
-                return "前台";
-            case ROLE_ID_ADMIN:
-                return "管理员";
-            default:
-                return "未知";
-        }
+        return RoleRegistry.snapshot().getDisplayName(roleId);
     }
 
     /**
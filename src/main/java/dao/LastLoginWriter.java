@@ -0,0 +1,158 @@
+package dao;
+
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 最后登录时间的延迟批量写入
+ *
+ * 原来每次登录都在登录连接上同步执行一条 UPDATE，登录要多等一次数据库往返。
+ * 最后登录时间只用于展示，不需要立即落库：登录时只记到内存，
+ * 后台线程每隔 {@link #DEFAULT_FLUSH_MILLIS} 毫秒把积攒的记录合并成一批写入
+ * （同一账号多次登录只保留最后一次），退出时再写一次。
+ *
+ * 写入失败的记录放回内存，下一轮重试（期间有更新的登录时间则以新的为准）；
+ * 进程异常终止时未写入的登录时间会丢失，这是可以接受的
+ */
+public class LastLoginWriter {
+
+    /** 批量写入间隔（毫秒） */
+    public static final long DEFAULT_FLUSH_MILLIS = 10_000;
+
+    private static volatile LastLoginWriter instance;
+
+    private final long flushMillis;
+    /** 批量写入动作，返回是否成功 */
+    private final Predicate<Map<Integer, Timestamp>> sink;
+
+    /** 用户ID -> 尚未写入的登录时间 */
+    private final Map<Integer, Timestamp> pending = new HashMap<>();
+    private Thread flusher;
+    private volatile boolean running;
+
+    // ==================== 构造方法 ====================
+
+    /**
+     * @param flushMillis 批量写入间隔（毫秒）
+     * @param sink        批量写入动作，返回是否成功
+     */
+    public LastLoginWriter(long flushMillis, Predicate<Map<Integer, Timestamp>> sink) {
+        this.flushMillis = flushMillis;
+        this.sink = sink;
+    }
+
+    /**
+     * 进程内共享的写入器，写入 users 表
+     */
+    public static LastLoginWriter getInstance() {
+        LastLoginWriter writer = instance;
+        if (writer == null) {
+            synchronized (LastLoginWriter.class) {
+                if (instance == null) {
+                    UserDAO userDAO = new UserDAO();
+                    instance = new LastLoginWriter(DEFAULT_FLUSH_MILLIS, userDAO::updateLastLogins);
+                }
+                writer = instance;
+            }
+        }
+        return writer;
+    }
+
+    // ==================== 启动与停止 ====================
+
+    /**
+     * 启动后台写入线程（重复调用无副作用）
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::flushLoop, "last-login-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * 停止后台线程，并把积攒的记录写入一次
+     */
+    public void stop() {
+        synchronized (this) {
+            if (running) {
+                running = false;
+                flusher.interrupt();
+            }
+        }
+        flush();
+    }
+
+    private void flushLoop() {
+        while (running) {
+            try {
+                Thread.sleep(flushMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            flush();
+        }
+    }
+
+    // ==================== 记录与写入 ====================
+
+    /**
+     * 记录一次登录（只写内存，立即返回）
+     */
+    public void record(int userId, Timestamp loginAt) {
+        synchronized (pending) {
+            pending.put(userId, loginAt);
+        }
+    }
+
+    /**
+     * 把积攒的记录合并成一批写入
+     *
+     * @return 本批写入的记录数，没有记录返回0，写入失败返回-1
+     */
+    public synchronized int flush() {
+        Map<Integer, Timestamp> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return 0;
+            }
+            batch = new HashMap<>(pending);
+            pending.clear();
+        }
+        boolean ok;
+        try {
+            ok = sink.test(batch);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            ok = false;
+        }
+        if (!ok) {
+            // 放回去下一轮重试，不覆盖期间新记录的登录时间
+            synchronized (pending) {
+                for (Map.Entry<Integer, Timestamp> entry : batch.entrySet()) {
+                    pending.putIfAbsent(entry.getKey(), entry.getValue());
+                }
+            }
+            return -1;
+        }
+        return batch.size();
+    }
+
+    /**
+     * 尚未写入的记录数
+     */
+    public int getPendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+}
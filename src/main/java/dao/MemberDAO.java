@@ -1,14 +1,18 @@
 package dao;
 
 import entity.Member;
+import utils.CancellationToken;
 import utils.DBUtil;
 import utils.DateUtils;
+import utils.LruCache;
+import utils.Money;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -20,6 +24,9 @@ import java.util.Map;
  * 
  * 会员状态：active（活跃）、frozen（冻结）、inactive（停用）
  * 性别：male（男）、female（女）
+ * 
+ * 缓存：getMemberById / getMemberByPhone 走进程内 LRU 缓存，
+ * 本类所有写操作（更新、改余额、改状态、删除）完成后立即失效对应会员
  */
 public class MemberDAO {
 
@@ -45,6 +52,21 @@ public class MemberDAO {
     /** 所有有效性别 */
     public static final String[] VALID_GENDERS = {GENDER_MALE, GENDER_FEMALE};
 
+    // ==================== 会员缓存 ====================
+
+    /** 缓存最大条目数 */
+    public static final int CACHE_MAX_SIZE = 1000;
+    /** 缓存存活时间（毫秒），兜底防止漏失效导致的长期脏读 */
+    public static final long CACHE_TTL_MILLIS = 5 * 60 * 1000L;
+
+    /**
+     * 按ID缓存的会员（进程内共享，所有 MemberDAO 实例共用）
+     * 存入和取出的都是副本，调用方修改返回对象不会污染缓存
+     */
+    private static final LruCache<Integer, Member> MEMBER_CACHE = new LruCache<>(CACHE_MAX_SIZE, CACHE_TTL_MILLIS);
+    /** 手机号 -> 会员ID 索引，命中后仍需校验缓存中会员的手机号 */
+    private static final LruCache<String, Integer> PHONE_INDEX = new LruCache<>(CACHE_MAX_SIZE, CACHE_TTL_MILLIS);
+
     // ==================== 构造方法 ====================
 
     public MemberDAO() {
@@ -60,28 +82,55 @@ public class MemberDAO {
      * @throws SQLException SQL异常
      */
     private Member extractMemberFromResultSet(ResultSet rs) throws SQLException {
+        return extractMember(rs, "");
+    }
+
+    /**
+     * 从结果集中提取会员信息（列名带前缀，用于与其他表连接查询时区分同名列）
+     *
+     * @param rs     结果集
+     * @param prefix 列名前缀，如 "m_" 对应 m_member_id、m_name ...
+     * @return Member对象
+     * @throws SQLException SQL异常
+     */
+    static Member extractMember(ResultSet rs, String prefix) throws SQLException {
         Member member = new Member();
-        member.setId(rs.getInt("member_id"));
-        member.setName(rs.getString("name"));
-        member.setPhone(rs.getString("phone"));
-        member.setEmail(rs.getString("email"));
-        member.setGender(rs.getString("gender"));
-        member.setBirthDate(rs.getDate("birth_date"));
-        member.setRegisterDate(rs.getTimestamp("register_date"));
-        member.setStatus(rs.getString("status"));
-        member.setBalance(rs.getDouble("balance"));
+        member.setId(rs.getInt(prefix + "member_id"));
+        member.setName(rs.getString(prefix + "name"));
+        member.setPhone(rs.getString(prefix + "phone"));
+        member.setEmail(rs.getString(prefix + "email"));
+        member.setGender(rs.getString(prefix + "gender"));
+        member.setBirthDate(rs.getDate(prefix + "birth_date"));
+        member.setRegisterDate(rs.getTimestamp(prefix + "register_date"));
+        member.setStatus(rs.getString(prefix + "status"));
+        member.setBalanceCents(Money.getCents(rs, prefix + "balance"));
         return member;
     }
 
     // ==================== 基础查询 ====================
 
     /**
-     * 根据ID查询会员
+     * 根据ID查询会员（读穿透缓存）
      * 
      * @param memberId 会员ID
      * @return Member对象，不存在返回null
      */
     public Member getMemberById(int memberId) {
+        Member cached = MEMBER_CACHE.get(memberId);
+        if (cached != null) {
+            return copyOf(cached);
+        }
+        Member member = loadMemberById(memberId);
+        if (member != null) {
+            cacheMember(member);
+        }
+        return member;
+    }
+
+    /**
+     * 从数据库查询会员（不经过缓存）
+     */
+    private Member loadMemberById(int memberId) {
         String sql = "SELECT * FROM member WHERE member_id = ?";
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -155,6 +204,8 @@ public class MemberDAO {
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
+            // 搜索框的后台查询可被新输入取消
+            CancellationToken.register(pstmt);
             pstmt.setString(1, "%" + name + "%");
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
@@ -162,18 +213,38 @@ public class MemberDAO {
                 }
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            if (!CancellationToken.isCurrentCancelled()) {
+                e.printStackTrace();
+            }
         }
         return members;
     }
 
     /**
-     * 根据手机号查询会员（精确匹配，用于登录验证）
+     * 根据手机号查询会员（精确匹配，用于登录验证；读穿透缓存）
      * 
      * @param phone 手机号
      * @return Member对象，不存在返回null
      */
     public Member getMemberByPhone(String phone) {
+        Integer memberId = PHONE_INDEX.get(phone);
+        if (memberId != null) {
+            Member cached = MEMBER_CACHE.get(memberId);
+            if (cached != null && cached.getPhone() != null && cached.getPhone().equals(phone)) {
+                return copyOf(cached);
+            }
+        }
+        Member member = loadMemberByPhone(phone);
+        if (member != null) {
+            cacheMember(member);
+        }
+        return member;
+    }
+
+    /**
+     * 从数据库按手机号查询会员（不经过缓存）
+     */
+    private Member loadMemberByPhone(String phone) {
         String sql = "SELECT * FROM member WHERE phone = ?";
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -328,18 +399,27 @@ public class MemberDAO {
     /**
      * 更新指定会员的余额
      * @param memberId 会员ID
-     * @param newBalance 新的余额值
+     * @param newBalance 新的余额值（元）
      * @return 是否更新成功
      */
     public boolean updateBalance(int memberId, double newBalance) {
+        return updateBalanceCents(memberId, Money.ofYuan(newBalance));
+    }
+
+    /**
+     * 更新指定会员的余额
+     * @param memberId 会员ID
+     * @param newBalanceCents 新的余额值（分）
+     * @return 是否更新成功
+     */
+    public boolean updateBalanceCents(int memberId, long newBalanceCents) {
         String sql = "UPDATE member SET balance = ? WHERE member_id = ?";
 
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            // 确保使用 DECIMAL 精度
-            // 注意：如果你在 Member 实体里用的是 double，这里直接设 double
-            pstmt.setDouble(1, newBalance);
+            // 以 DECIMAL 精度写入
+            Money.setCents(pstmt, 1, newBalanceCents);
             pstmt.setInt(2, memberId);
 
             return pstmt.executeUpdate() > 0;
@@ -347,10 +427,71 @@ public class MemberDAO {
         } catch (SQLException e) {
             e.printStackTrace();
             return false;
+        } finally {
+            invalidateCache(memberId);
+        }
+    }
+
+
+
+    /**
+     * 扣减会员余额（事务内调用，带余额守卫条件）
+     *
+     * 单条 UPDATE 完成"校验余额 + 扣款"，余额不足时不修改任何数据
+     * 注意：调用方提交或回滚事务后还需再调用 {@link #invalidateCache(int)}，
+     * 否则提交前被其他线程读入缓存的旧余额会一直保留到 TTL 过期
+     *
+     * @param conn     调用方的事务连接（不会在此关闭或提交）
+     * @param memberId 会员ID
+     * @param amountCents 扣款金额（分，必须大于等于0）
+     * @return 扣款成功返回true；会员不存在或余额不足返回false
+     * @throws SQLException SQL异常
+     */
+    public boolean debitBalance(Connection conn, int memberId, long amountCents) throws SQLException {
+        if (amountCents < 0) {
+            System.err.println("扣款失败：金额无效 (amount=" + Money.format(amountCents) + ")");
+            return false;
+        }
+
+        String sql = "UPDATE member SET balance = balance - ? WHERE member_id = ? AND balance >= ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            Money.setCents(pstmt, 1, amountCents);
+            pstmt.setInt(2, memberId);
+            Money.setCents(pstmt, 3, amountCents);
+            return pstmt.executeUpdate() > 0;
+        } finally {
+            invalidateCache(memberId);
         }
     }
 
+    /**
+     * 增加会员余额（充值）
+     *
+     * 在数据库端累加，不依赖调用方读到的旧余额，并发充值不会互相覆盖
+     *
+     * @param memberId    会员ID
+     * @param amountCents 充值金额（分，必须大于0）
+     * @return 是否成功（会员不存在返回false）
+     */
+    public boolean creditBalance(int memberId, long amountCents) {
+        if (amountCents <= 0) {
+            System.err.println("充值失败：金额无效 (amount=" + Money.format(amountCents) + ")");
+            return false;
+        }
 
+        String sql = "UPDATE member SET balance = balance + ? WHERE member_id = ?";
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            Money.setCents(pstmt, 1, amountCents);
+            pstmt.setInt(2, memberId);
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        } finally {
+            invalidateCache(memberId);
+        }
+    }
 
     /**
      * 获取拥有有效会员卡的会员
@@ -424,6 +565,8 @@ public class MemberDAO {
             pstmt.setString(7, member.getStatus());
 
             int affectedRows = pstmt.executeUpdate();
+            // 新手机号可能残留旧的索引项，直接清掉
+            PHONE_INDEX.invalidate(member.getPhone());
 
             // 获取自动生成的ID
             if (affectedRows > 0) {
@@ -482,6 +625,9 @@ public class MemberDAO {
 
         } catch (SQLException e) {
             e.printStackTrace();
+        } finally {
+            invalidateCache(member.getId());
+            PHONE_INDEX.invalidate(member.getPhone());
         }
         return false;
     }
@@ -511,6 +657,8 @@ public class MemberDAO {
 
         } catch (SQLException e) {
             e.printStackTrace();
+        } finally {
+            invalidateCache(memberId);
         }
         return false;
     }
@@ -556,6 +704,8 @@ public class MemberDAO {
 
         } catch (SQLException e) {
             e.printStackTrace();
+        } finally {
+            invalidateCache(memberId);
         }
         return false;
     }
@@ -710,6 +860,51 @@ public class MemberDAO {
         return 0;
     }
 
+    /**
+     * 会员统计概览（一次扫描 member 表）
+     *
+     * 按 状态 x 性别 分组，同时条件聚合今日、本月新注册数，在内存中汇总
+     *
+     * @return 统计概览，查询失败返回null
+     */
+    public Summary getSummary() {
+        String sql = "SELECT status, gender, COUNT(*) AS count, " +
+                "COALESCE(SUM(register_date >= CURDATE() AND register_date < CURDATE() + INTERVAL 1 DAY), 0) AS today_count, " +
+                "COALESCE(SUM(register_date >= CURDATE() - INTERVAL (DAYOFMONTH(CURDATE()) - 1) DAY " +
+                "AND register_date < CURDATE() - INTERVAL (DAYOFMONTH(CURDATE()) - 1) DAY + INTERVAL 1 MONTH), 0) AS month_count " +
+                "FROM member GROUP BY status, gender";
+
+        Map<String, Integer> countByStatus = new HashMap<>();
+        for (String status : VALID_STATUSES) {
+            countByStatus.put(status, 0);
+        }
+        Map<String, Integer> countByGender = new HashMap<>();
+        for (String gender : VALID_GENDERS) {
+            countByGender.put(gender, 0);
+        }
+        int total = 0;
+        int today = 0;
+        int month = 0;
+
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            while (rs.next()) {
+                int count = rs.getInt("count");
+                total += count;
+                today += rs.getInt("today_count");
+                month += rs.getInt("month_count");
+                countByStatus.merge(rs.getString("status"), count, Integer::sum);
+                countByGender.merge(rs.getString("gender"), count, Integer::sum);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+        return new Summary(total, countByStatus, countByGender, today, month);
+    }
+
     // ==================== 年龄相关 ====================
 
     /**
@@ -831,6 +1026,69 @@ public class MemberDAO {
         return false;
     }
 
+    // ==================== 缓存管理 ====================
+
+    /**
+     * 放入缓存（存副本）并建立手机号索引
+     */
+    private static void cacheMember(Member member) {
+        MEMBER_CACHE.put(member.getId(), copyOf(member));
+        if (member.getPhone() != null) {
+            PHONE_INDEX.put(member.getPhone(), member.getId());
+        }
+    }
+
+    /**
+     * 使指定会员的缓存失效（所有写操作之后调用）
+     *
+     * @param memberId 会员ID
+     */
+    public static void invalidateCache(int memberId) {
+        Member removed = MEMBER_CACHE.invalidate(memberId);
+        if (removed != null && removed.getPhone() != null) {
+            PHONE_INDEX.invalidate(removed.getPhone());
+        }
+    }
+
+    /**
+     * 清空会员缓存（例如直接改库之后）
+     */
+    public static void clearCache() {
+        MEMBER_CACHE.clear();
+        PHONE_INDEX.clear();
+    }
+
+    /**
+     * 获取按ID缓存的统计信息（命中/未命中/淘汰）
+     */
+    public static LruCache.Stats getCacheStats() {
+        return MEMBER_CACHE.getStats();
+    }
+
+    /**
+     * 获取手机号索引的统计信息
+     */
+    public static LruCache.Stats getPhoneIndexStats() {
+        return PHONE_INDEX.getStats();
+    }
+
+    /**
+     * 复制会员对象（日期字段一并复制，保留 java.sql 子类型）
+     */
+    private static Member copyOf(Member source) {
+        Member copy = new Member();
+        copy.setId(source.getId());
+        copy.setName(source.getName());
+        copy.setPhone(source.getPhone());
+        copy.setEmail(source.getEmail());
+        copy.setGender(source.getGender());
+        copy.setBirthDate(source.getBirthDate() != null ? (Date) source.getBirthDate().clone() : null);
+        copy.setRegisterDate(source.getRegisterDate() != null ? (Date) source.getRegisterDate().clone() : null);
+        copy.setStatus(source.getStatus());
+        copy.setBalanceCents(source.getBalanceCents());
+        return copy;
+    }
+
     // ==================== 工具方法 ====================
 
     /**
@@ -908,4 +1166,58 @@ public class MemberDAO {
     public List<Member> getMemberByStatus(String status) {
         return getMembersByStatus(status);
     }
+
+    // ==================== 统计概览 ====================
+
+    /**
+     * 会员统计概览（不可变）
+     */
+    public static class Summary {
+        private final int totalCount;
+        private final Map<String, Integer> countByStatus;
+        private final Map<String, Integer> countByGender;
+        private final int todayNewCount;
+        private final int monthlyNewCount;
+
+        public Summary(int totalCount, Map<String, Integer> countByStatus, Map<String, Integer> countByGender,
+                       int todayNewCount, int monthlyNewCount) {
+            this.totalCount = totalCount;
+            this.countByStatus = Collections.unmodifiableMap(new HashMap<>(countByStatus));
+            this.countByGender = Collections.unmodifiableMap(new HashMap<>(countByGender));
+            this.todayNewCount = todayNewCount;
+            this.monthlyNewCount = monthlyNewCount;
+        }
+
+        public int getTotalCount() {
+            return totalCount;
+        }
+
+        public int getActiveCount() {
+            return countByStatus.getOrDefault(STATUS_ACTIVE, 0);
+        }
+
+        /** Map<状态, 数量> */
+        public Map<String, Integer> getCountByStatus() {
+            return countByStatus;
+        }
+
+        /** Map<性别, 数量> */
+        public Map<String, Integer> getCountByGender() {
+            return countByGender;
+        }
+
+        public int getTodayNewCount() {
+            return todayNewCount;
+        }
+
+        public int getMonthlyNewCount() {
+            return monthlyNewCount;
+        }
+
+        @Override
+        public String toString() {
+            return "Summary{total = " + totalCount + ", byStatus = " + countByStatus + ", byGender = " + countByGender
+                    + ", todayNew = " + todayNewCount + ", monthlyNew = " + monthlyNewCount + "}";
+        }
+    }
 }
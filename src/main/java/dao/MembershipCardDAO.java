@@ -4,6 +4,7 @@ import entity.MembershipCard;
 import entity.MembershipType;
 import utils.DBUtil;
 import utils.DateUtils;
+import utils.Lazy;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -28,18 +29,18 @@ public class MembershipCardDAO {
     public static final int TYPE_MONTHLY = 1;
     public static final int TYPE_YEARLY = 2;
 
-    // >>> 新增：价格常量 <<<
-    public static final double PRICE_MONTHLY = 200.0;
-    public static final double PRICE_YEARLY = 1200.0;
+    // >>> 新增：价格常量（单位：分）<<<
+    public static final long PRICE_MONTHLY = 200_00L;
+    public static final long PRICE_YEARLY = 1200_00L;
 
     // ==================== 依赖 ====================
-    private MembershipTypeDAO typeDAO;
+    /** 类型DAO，只有需要带出卡类型时才创建 */
+    private final Lazy<MembershipTypeDAO> typeDAO = Lazy.of(MembershipTypeDAO::new);
 
     // ❌ 删除了 memberDAO, orderDAO, cardDAO 等字段
     // DAO 只专注做自己的表的增删改查，解耦！
 
     public MembershipCardDAO() {
-        this.typeDAO = new MembershipTypeDAO();
     }
 
     // ==================== 结果集映射 ====================
@@ -57,7 +58,7 @@ public class MembershipCardDAO {
 
     private MembershipCard mapResultSetToEntityWithType(ResultSet rs) throws SQLException {
         MembershipCard mc = mapResultSetToEntity(rs);
-        MembershipType type = typeDAO.getTypeById(mc.getTypeId());
+        MembershipType type = typeDAO.get().getTypeById(mc.getTypeId());
         mc.setMembershipType(type);
         return mc;
     }
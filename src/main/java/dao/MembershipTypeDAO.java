@@ -2,6 +2,8 @@ package dao;
 
 import entity.MembershipType;
 import utils.DBUtil;
+import utils.LruCache;
+import utils.Money;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -41,11 +43,43 @@ public class MembershipTypeDAO {
     /** 年卡默认天数 */
     public static final int DEFAULT_YEARLY_DAYS = 365;
 
+    // ==================== 参考数据缓存 ====================
+
+    /** 类型缓存的存活时间（毫秒），其他客户端改价后最多延迟这么久可见 */
+    public static final long TYPE_CACHE_TTL_MILLIS = 10 * 60_000L;
+
+    /**
+     * 类型ID -> 类型（进程内共享）
+     *
+     * 会员卡列表每一行都要带出卡类型，类型只有几条且极少修改，缓存后不再逐行查库；
+     * 本类的增删改成功后清空。缓存的是副本，返回给调用方的也是副本
+     */
+    private static final LruCache<Integer, MembershipType> TYPE_CACHE = new LruCache<>(32, TYPE_CACHE_TTL_MILLIS);
+
     // ==================== 构造方法 ====================
 
     public MembershipTypeDAO() {
     }
 
+    /**
+     * 预先把所有类型装入缓存（启动预热用）
+     *
+     * @return 装入的类型数
+     */
+    public int primeCache() {
+        return getAllTypes().size();
+    }
+
+    private static MembershipType copyOf(MembershipType type) {
+        MembershipType copy = new MembershipType();
+        copy.setTypeId(type.getTypeId());
+        copy.setTypeName(type.getTypeName());
+        copy.setDurationDays(type.getDurationDays());
+        copy.setPriceCents(type.getPriceCents());
+        copy.setDescription(type.getDescription());
+        return copy;
+    }
+
     // ==================== 结果集映射 ====================
 
     /**
@@ -60,7 +94,7 @@ public class MembershipTypeDAO {
         type.setTypeId(rs.getInt("type_id"));
         type.setTypeName(rs.getString("type_name"));
         type.setDurationDays(rs.getInt("duration_days"));
-        type.setPrice(rs.getDouble("price"));
+        type.setPriceCents(Money.getCents(rs, "price"));
         type.setDescription(rs.getString("description"));
         return type;
     }
@@ -74,6 +108,10 @@ public class MembershipTypeDAO {
      * @return MembershipType对象，不存在返回null
      */
     public MembershipType getTypeById(int typeId) {
+        MembershipType cached = TYPE_CACHE.get(typeId);
+        if (cached != null) {
+            return copyOf(cached);
+        }
         String sql = "SELECT * FROM membership_type WHERE type_id = ?";
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -81,7 +119,9 @@ public class MembershipTypeDAO {
             pstmt.setInt(1, typeId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return extractTypeFromResultSet(rs);
+                    MembershipType type = extractTypeFromResultSet(rs);
+                    TYPE_CACHE.put(typeId, copyOf(type));
+                    return type;
                 }
             }
         } catch (SQLException e) {
@@ -126,7 +166,9 @@ public class MembershipTypeDAO {
              ResultSet rs = pstmt.executeQuery()) {
 
             while (rs.next()) {
-                types.add(extractTypeFromResultSet(rs));
+                MembershipType type = extractTypeFromResultSet(rs);
+                TYPE_CACHE.put(type.getTypeId(), copyOf(type));
+                types.add(type);
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -170,7 +212,7 @@ public class MembershipTypeDAO {
             System.err.println("添加失败：有效期天数必须大于0");
             return false;
         }
-        if (type.getPrice() < 0) {
+        if (type.getPriceCents() < 0) {
             System.err.println("添加失败：价格不能为负数");
             return false;
         }
@@ -187,13 +229,14 @@ public class MembershipTypeDAO {
 
             pstmt.setString(1, type.getTypeName());
             pstmt.setInt(2, type.getDurationDays());
-            pstmt.setDouble(3, type.getPrice());
+            Money.setCents(pstmt, 3, type.getPriceCents());
             pstmt.setString(4, type.getDescription());
 
             int affectedRows = pstmt.executeUpdate();
 
             // 获取自动生成的ID
             if (affectedRows > 0) {
+                TYPE_CACHE.clear();
                 try (ResultSet rs = pstmt.getGeneratedKeys()) {
                     if (rs.next()) {
                         type.setTypeId(rs.getInt(1));
@@ -227,10 +270,13 @@ public class MembershipTypeDAO {
             pstmt.setInt(1, type.getTypeId());
             pstmt.setString(2, type.getTypeName());
             pstmt.setInt(3, type.getDurationDays());
-            pstmt.setDouble(4, type.getPrice());
+            Money.setCents(pstmt, 4, type.getPriceCents());
             pstmt.setString(5, type.getDescription());
 
             int affectedRows = pstmt.executeUpdate();
+            if (affectedRows > 0) {
+                TYPE_CACHE.clear();
+            }
             return affectedRows > 0;
 
         } catch (SQLException e) {
@@ -253,7 +299,7 @@ public class MembershipTypeDAO {
             System.err.println("更新失败：有效期天数必须大于0");
             return false;
         }
-        if (type.getPrice() < 0) {
+        if (type.getPriceCents() < 0) {
             System.err.println("更新失败：价格不能为负数");
             return false;
         }
@@ -264,11 +310,14 @@ public class MembershipTypeDAO {
 
             pstmt.setString(1, type.getTypeName());
             pstmt.setInt(2, type.getDurationDays());
-            pstmt.setDouble(3, type.getPrice());
+            Money.setCents(pstmt, 3, type.getPriceCents());
             pstmt.setString(4, type.getDescription());
             pstmt.setInt(5, type.getTypeId());
 
             int affectedRows = pstmt.executeUpdate();
+            if (affectedRows > 0) {
+                TYPE_CACHE.clear();
+            }
             return affectedRows > 0;
 
         } catch (SQLException e) {
@@ -281,11 +330,22 @@ public class MembershipTypeDAO {
      * 更新类型价格
      * 
      * @param typeId 类型ID
-     * @param newPrice 新价格
+     * @param newPrice 新价格（元）
      * @return 是否更新成功
      */
     public boolean updatePrice(int typeId, double newPrice) {
-        if (newPrice < 0) {
+        return updatePriceCents(typeId, Money.ofYuan(newPrice));
+    }
+
+    /**
+     * 更新类型价格
+     *
+     * @param typeId 类型ID
+     * @param newPriceCents 新价格（分）
+     * @return 是否更新成功
+     */
+    public boolean updatePriceCents(int typeId, long newPriceCents) {
+        if (newPriceCents < 0) {
             System.err.println("更新失败：价格不能为负数");
             return false;
         }
@@ -294,10 +354,13 @@ public class MembershipTypeDAO {
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            pstmt.setDouble(1, newPrice);
+            Money.setCents(pstmt, 1, newPriceCents);
             pstmt.setInt(2, typeId);
 
             int affectedRows = pstmt.executeUpdate();
+            if (affectedRows > 0) {
+                TYPE_CACHE.clear();
+            }
             return affectedRows > 0;
 
         } catch (SQLException e) {
@@ -329,6 +392,9 @@ public class MembershipTypeDAO {
 
             pstmt.setInt(1, typeId);
             int affectedRows = pstmt.executeUpdate();
+            if (affectedRows > 0) {
+                TYPE_CACHE.clear();
+            }
             return affectedRows > 0;
 
         } catch (SQLException e) {
@@ -350,6 +416,17 @@ public class MembershipTypeDAO {
         return type != null ? type.getPrice() : 0.0;
     }
 
+    /**
+     * 根据类型ID获取价格（分）
+     *
+     * @param typeId 类型ID
+     * @return 价格（分），类型不存在返回0
+     */
+    public long getPriceCentsByTypeId(int typeId) {
+        MembershipType type = getTypeById(typeId);
+        return type != null ? type.getPriceCents() : 0;
+    }
+
     /**
      * 根据类型ID获取有效期天数
      * 
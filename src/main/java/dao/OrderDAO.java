@@ -3,14 +3,19 @@ package dao;
 import entity.Order;
 import utils.DBUtil;
 import utils.DateUtils;
+import utils.Money;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * 订单数据访问对象
  * 对应数据库 order 表
+ *
+ * 增删改在同一事务内同步维护 revenue_daily 汇总表（见 {@link RevenueRollupDAO}）；
+ * 修改和删除提交后通知 {@link #subscribe(ChangeListener)} 注册的订阅者（如报表分析库）
  */
 public class OrderDAO {
 
@@ -36,21 +41,40 @@ public class OrderDAO {
     // 有效的支付状态
     public static final String[] VALID_STATUSES = {STATUS_PENDING, STATUS_PAID, STATUS_CANCELLED, STATUS_REFUNDED};
 
+    private static final List<ChangeListener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private final RevenueRollupDAO rollupDAO = new RevenueRollupDAO();
+
     public OrderDAO() {
     }
 
+    /**
+     * 订阅订单的修改和删除（新增订单按ID增量同步即可，不通知）
+     *
+     * 回调在执行修改的线程中、事务提交后同步调用
+     */
+    public static void subscribe(ChangeListener listener) {
+        if (listener != null) {
+            LISTENERS.add(listener);
+        }
+    }
+
+    public static void unsubscribe(ChangeListener listener) {
+        LISTENERS.remove(listener);
+    }
+
     private Order extractOrderFromResultSet(ResultSet rs) throws SQLException {
         Order order = new Order();
         order.setOrderId(rs.getInt("order_id"));
         order.setMemberId(rs.getInt("member_id"));
         order.setOrderType(rs.getString("order_type"));
-        order.setAmount(rs.getDouble("amount"));
+        order.setAmountCents(Money.getCents(rs, "amount"));
         order.setOrderTime(rs.getTimestamp("order_time"));
         order.setPaymentStatus(rs.getString("payment_status"));
         return order;
     }
 
-    private boolean isValidType(String type) {
+    boolean isValidType(String type) {
         if (type == null) return false;
         for (String validType : VALID_TYPES) {
             if (validType.equals(type)) return true;
@@ -76,10 +100,42 @@ public class OrderDAO {
             return false;
         }
 
+        try (Connection conn = DBUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                boolean success = addOrder(conn, order);
+                if (success) conn.commit(); else conn.rollback();
+                return success;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * 添加订单（使用调用方连接，可参与事务）
+     *
+     * 同一连接内累加营收汇总
+     *
+     * @param conn  调用方连接（不会在此关闭或提交）
+     * @param order 订单，成功后回填 orderId
+     * @return 是否添加成功
+     * @throws SQLException SQL异常
+     */
+    public boolean addOrder(Connection conn, Order order) throws SQLException {
+        if (order == null) return false;
+        if (!isValidType(order.getOrderType())) {
+            System.err.println("添加失败：无效的订单类型 (type=" + order.getOrderType() + ")");
+            return false;
+        }
+
         String sql = "INSERT INTO `order` (member_id, order_type, amount, order_time, payment_status) VALUES (?, ?, ?, ?, ?)";
 
-        try (Connection conn = DBUtil.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
 
             // 处理散客 (ID<=0 存 NULL)
             if (order.getMemberId() <= 0) {
@@ -88,7 +144,7 @@ public class OrderDAO {
                 pstmt.setInt(1, order.getMemberId());
             }
             pstmt.setString(2, order.getOrderType());
-            pstmt.setDouble(3, order.getAmount());
+            Money.setCents(pstmt, 3, order.getAmountCents());
             pstmt.setTimestamp(4, order.getOrderTime() != null ?
                     DateUtils.toSqlTimestamp(order.getOrderTime()) : DateUtils.nowTimestamp());
             pstmt.setString(5, order.getPaymentStatus() != null ?
@@ -99,14 +155,43 @@ public class OrderDAO {
                 try (ResultSet rs = pstmt.getGeneratedKeys()) {
                     if (rs.next()) order.setOrderId(rs.getInt(1));
                 }
+                rollupDAO.applyOrder(conn, order, 1);
             }
             return rowsAffected > 0;
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
         }
     }
 
+    /**
+     * 批量添加订单（使用调用方连接，一次批处理写入，同时累加营收汇总）
+     * 供本地日志后台刷写使用，订单已在提交日志前校验过类型
+     *
+     * @param conn   调用方连接（不会在此关闭或提交）
+     * @param orders 订单列表
+     * @throws SQLException SQL异常
+     */
+    public void addOrdersBatch(Connection conn, List<Order> orders) throws SQLException {
+        if (orders == null || orders.isEmpty()) return;
+        String sql = "INSERT INTO `order` (member_id, order_type, amount, order_time, payment_status) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (Order order : orders) {
+                if (order.getMemberId() <= 0) {
+                    pstmt.setNull(1, java.sql.Types.INTEGER);
+                } else {
+                    pstmt.setInt(1, order.getMemberId());
+                }
+                pstmt.setString(2, order.getOrderType());
+                Money.setCents(pstmt, 3, order.getAmountCents());
+                pstmt.setTimestamp(4, order.getOrderTime() != null ?
+                        DateUtils.toSqlTimestamp(order.getOrderTime()) : DateUtils.nowTimestamp());
+                pstmt.setString(5, order.getPaymentStatus() != null ?
+                        order.getPaymentStatus() : STATUS_PENDING);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+        rollupDAO.applyOrders(conn, orders, 1);
+    }
+
     public Order getOrderById(int orderId) {
         String sql = "SELECT * FROM `order` WHERE order_id = ?";
         try (Connection conn = DBUtil.getConnection();
@@ -130,27 +215,109 @@ public class OrderDAO {
         return orders;
     }
 
-    public boolean updateOrder(Order order) {
-        String sql = "UPDATE `order` SET member_id = ?, order_type = ?, amount = ?, order_time = ?, payment_status = ? WHERE order_id = ?";
+    /**
+     * 按订单ID升序查询ID大于 afterId 的订单（分析库增量加载）
+     *
+     * @param afterId 已加载的最大订单ID，0 表示全部
+     * @return 订单列表，查询失败返回null
+     */
+    public List<Order> getOrdersAfter(int afterId) {
+        List<Order> orders = new ArrayList<>();
+        String sql = "SELECT * FROM `order` WHERE order_id > ? ORDER BY order_id";
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, order.getMemberId());
-            pstmt.setString(2, order.getOrderType());
-            pstmt.setDouble(3, order.getAmount());
-            pstmt.setTimestamp(4, DateUtils.toSqlTimestamp(order.getOrderTime()));
-            pstmt.setString(5, order.getPaymentStatus());
-            pstmt.setInt(6, order.getOrderId());
-            return pstmt.executeUpdate() > 0;
-        } catch (SQLException e) { return false; }
+            pstmt.setInt(1, afterId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) orders.add(extractOrderFromResultSet(rs));
+            }
+            return orders;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * 更新订单（先锁定旧记录，汇总表中减去旧值、加上新值）
+     */
+    public boolean updateOrder(Order order) {
+        String sql = "UPDATE `order` SET member_id = ?, order_type = ?, amount = ?, order_time = ?, payment_status = ? WHERE order_id = ?";
+        try (Connection conn = DBUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                Order old = lockOrder(conn, order.getOrderId());
+                if (old == null) {
+                    conn.rollback();
+                    return false;
+                }
+                pstmt.setInt(1, order.getMemberId());
+                pstmt.setString(2, order.getOrderType());
+                Money.setCents(pstmt, 3, order.getAmountCents());
+                pstmt.setTimestamp(4, DateUtils.toSqlTimestamp(order.getOrderTime()));
+                pstmt.setString(5, order.getPaymentStatus());
+                pstmt.setInt(6, order.getOrderId());
+                pstmt.executeUpdate();
+                rollupDAO.applyOrder(conn, old, -1);
+                rollupDAO.applyOrder(conn, order, 1);
+                conn.commit();
+                for (ChangeListener listener : LISTENERS) {
+                    try {
+                        listener.onOrderUpdated(order);
+                    } catch (RuntimeException e) {
+                        e.printStackTrace();
+                    }
+                }
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) { e.printStackTrace(); return false; }
     }
 
+    /**
+     * 删除订单（汇总表中减去该订单）
+     */
     public boolean deleteOrder(int orderId) {
         String sql = "DELETE FROM `order` WHERE order_id = ?";
-        try (Connection conn = DBUtil.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DBUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                Order old = lockOrder(conn, orderId);
+                if (old == null) {
+                    conn.rollback();
+                    return false;
+                }
+                pstmt.setInt(1, orderId);
+                pstmt.executeUpdate();
+                rollupDAO.applyOrder(conn, old, -1);
+                conn.commit();
+                for (ChangeListener listener : LISTENERS) {
+                    try {
+                        listener.onOrderDeleted(orderId);
+                    } catch (RuntimeException e) {
+                        e.printStackTrace();
+                    }
+                }
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) { e.printStackTrace(); return false; }
+    }
+
+    /**
+     * 事务内锁定并读取订单（SELECT ... FOR UPDATE）
+     */
+    private Order lockOrder(Connection conn, int orderId) throws SQLException {
+        String sql = "SELECT * FROM `order` WHERE order_id = ? FOR UPDATE";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, orderId);
-            return pstmt.executeUpdate() > 0;
-        } catch (SQLException e) { return false; }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? extractOrderFromResultSet(rs) : null;
+            }
+        }
     }
 
     // ========== 查询功能 ==========
@@ -169,16 +336,32 @@ public class OrderDAO {
 
     // ========== 统计功能 ==========
     public double getTotalRevenue() {
+        return Money.toYuan(getTotalRevenueCents());
+    }
+
+    /**
+     * 已支付订单总额（分，DECIMAL 精确求和）
+     */
+    public long getTotalRevenueCents() {
         String sql = "SELECT COALESCE(SUM(amount), 0) AS revenue FROM `order` WHERE payment_status = ?";
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, STATUS_PAID);
             try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) return rs.getDouble("revenue");
+                if (rs.next()) return Money.getCents(rs, "revenue");
             }
         } catch (SQLException e) { e.printStackTrace(); }
-        return 0.0;
+        return 0;
     }
 
     // ... (其他查询方法如 getOrdersByType 等保留原样即可，不影响核心功能)
-}
\ No newline at end of file
+
+    /**
+     * 订单修改 / 删除的订阅者
+     */
+    public interface ChangeListener {
+        void onOrderUpdated(Order order);
+
+        void onOrderDeleted(int orderId);
+    }
+}
@@ -3,13 +3,19 @@ package dao;
 import entity.OrderProduct;
 import entity.Product;
 import utils.DBUtil;
+import utils.Money;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * 订单产品关联数据访问对象
@@ -82,11 +88,31 @@ public class OrderProductDAO {
             return false;
         }
 
-        String sql = "INSERT INTO order_product (order_id, product_id, quantity) VALUES (?, ?, ?)";
+        try (Connection conn = DBUtil.getConnection()) {
+            return addOrderProducts(conn, orderId, items);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
 
-        try (Connection conn = DBUtil.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    /**
+     * 批量添加订单产品关联（使用调用方连接，可参与事务）
+     *
+     * @param conn    调用方连接（不会在此关闭或提交）
+     * @param orderId 订单ID
+     * @param items   订单产品列表
+     * @return 是否全部添加成功
+     * @throws SQLException SQL异常
+     */
+    public boolean addOrderProducts(Connection conn, int orderId, List<OrderProduct> items) throws SQLException {
+        if (items == null || items.isEmpty()) {
+            return false;
+        }
+
+        String sql = "INSERT INTO order_product (order_id, product_id, quantity) VALUES (?, ?, ?)";
 
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             for (OrderProduct item : items) {
                 pstmt.setInt(1, orderId);
                 pstmt.setInt(2, item.getProductId());
@@ -96,15 +122,12 @@ public class OrderProductDAO {
 
             int[] results = pstmt.executeBatch();
             for (int result : results) {
-                if (result <= 0) {
+                // 开启 rewriteBatchedStatements 时驱动返回 SUCCESS_NO_INFO（负数）
+                if (result == 0) {
                     return false;
                 }
             }
             return true;
-
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return false;
         }
     }
 
@@ -255,7 +278,7 @@ public class OrderProductDAO {
                     Product product = new Product();
                     product.setProductId(rs.getInt("product_id"));
                     product.setName(rs.getString("name"));
-                    product.setPrice(rs.getDouble("price"));
+                    product.setPriceCents(Money.getCents(rs, "price"));
                     // 使用stock字段临时存储购买数量
                     product.setStock(rs.getInt("quantity"));
                     products.add(product);
@@ -272,9 +295,19 @@ public class OrderProductDAO {
      * 计算订单产品总金额
      *
      * @param orderId 订单ID
-     * @return 总金额
+     * @return 总金额（元）
      */
     public double calculateOrderTotal(int orderId) {
+        return Money.toYuan(calculateOrderTotalCents(orderId));
+    }
+
+    /**
+     * 计算订单产品总金额（DECIMAL 精确求和）
+     *
+     * @param orderId 订单ID
+     * @return 总金额（分）
+     */
+    public long calculateOrderTotalCents(int orderId) {
         String sql = "SELECT COALESCE(SUM(p.price * op.quantity), 0) AS total " +
                 "FROM order_product op " +
                 "JOIN product p ON op.product_id = p.product_id " +
@@ -286,14 +319,14 @@ public class OrderProductDAO {
             pstmt.setInt(1, orderId);
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    return rs.getDouble("total");
+                    return Money.getCents(rs, "total");
                 }
             }
 
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return 0.0;
+        return 0;
     }
 
     /**
@@ -321,6 +354,39 @@ public class OrderProductDAO {
         return 0;
     }
 
+    /**
+     * 按天汇总某日期以来各产品的销量（用于重建销量排行榜）
+     *
+     * 日期按本地时区由下单时间换算，与结账时记录排行榜使用的日期一致
+     *
+     * @param from 起始日期（含）
+     * @return Map<日期, Map<产品ID, 数量>>，查询失败返回null
+     */
+    public Map<LocalDate, Map<Integer, Integer>> getDailySalesSince(LocalDate from) {
+        String sql = "SELECT op.product_id, o.order_time, op.quantity FROM order_product op " +
+                "JOIN `order` o ON o.order_id = op.order_id " +
+                "WHERE o.order_time >= ?";
+        Map<LocalDate, Map<Integer, Integer>> result = new TreeMap<>();
+
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setTimestamp(1, Timestamp.valueOf(from.atStartOfDay()));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    LocalDate day = rs.getTimestamp("order_time").toLocalDateTime().toLocalDate();
+                    result.computeIfAbsent(day, d -> new HashMap<>())
+                            .merge(rs.getInt("product_id"), rs.getInt("quantity"), Integer::sum);
+                }
+            }
+            return result;
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
     /**
      * 检查订单是否包含某产品
      *
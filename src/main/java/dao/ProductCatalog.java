@@ -0,0 +1,346 @@
+package dao;
+
+import entity.Product;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 进程内共享的商品目录快照
+ *
+ * 设计要点：
+ * - 首次访问时从数据库整表加载一次，之后名称搜索、价格查询、库存展示全部走内存
+ * - 快照不可变，每次变更复制出新快照并整体替换（copy-on-write），版本号 +1
+ * - 读操作无锁：拿到的快照在整个使用期间保持一致；写操作串行
+ * - 所有收银窗口共享同一份快照，可通过版本号判断是否需要重绘
+ *
+ * 变更入口：
+ * - ProductDAO 的单行写操作（新增/修改/删除/库存增减）成功后直接更新
+ * - 结账事务提交后由 ShopService 写入锁定时读到的库存减去售出数量
+ *
+ * 库存越过补货线时通过 {@link StockAlerts} 发布低库存提醒
+ */
+public class ProductCatalog {
+
+    /** 当前快照，未加载时为null */
+    private static volatile Snapshot current;
+
+    /** 版本号计数，reload 也会递增，保证版本单调 */
+    private static long versionCounter;
+
+    private ProductCatalog() {
+    }
+
+    // ==================== 读取 ====================
+
+    /**
+     * 获取当前快照（首次调用时从数据库加载）
+     *
+     * @return 当前快照，永不为null（加载失败时返回空目录但不缓存，下次调用再尝试加载）
+     */
+    public static Snapshot snapshot() {
+        Snapshot snapshot = current;
+        if (snapshot == null) {
+            synchronized (ProductCatalog.class) {
+                if (current == null) {
+                    Snapshot loaded = load();
+                    if (loaded == null) {
+                        return new Snapshot(0, new LinkedHashMap<>());
+                    }
+                    current = loaded;
+                }
+                snapshot = current;
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * 当前版本号，未加载时返回0（不会触发加载）
+     */
+    public static long getVersion() {
+        Snapshot snapshot = current;
+        return snapshot == null ? 0 : snapshot.getVersion();
+    }
+
+    // ==================== 变更 ====================
+    // 写操作在类锁内替换快照，越过补货线的提醒在释放锁之后再发布
+
+    /**
+     * 从数据库重新加载整个目录（加载失败时保留原快照）
+     */
+    public static void reload() {
+        StockAlerts.publish(doReload());
+    }
+
+    /**
+     * 新增或覆盖商品（addProduct / updateProduct 成功后调用）
+     */
+    public static void put(Product product) {
+        StockAlerts.publish(doPut(product));
+    }
+
+    /**
+     * 移除商品（deleteProduct 成功后调用）
+     */
+    public static synchronized void remove(int productId) {
+        if (current == null || current.getProduct(productId) == null) {
+            return;
+        }
+        Map<Integer, Product> products = current.copyOfProducts();
+        products.remove(productId);
+        current = new Snapshot(++versionCounter, products);
+    }
+
+    /**
+     * 设置库存绝对值（updateStock 或结账提交后调用）
+     */
+    public static void setStock(int productId, int stock) {
+        setStocks(Collections.singletonMap(productId, stock));
+    }
+
+    /**
+     * 批量设置库存绝对值，只产生一个新版本
+     *
+     * @param stocks Map<产品ID, 新库存>
+     */
+    public static void setStocks(Map<Integer, Integer> stocks) {
+        StockAlerts.publish(doSetStocks(stocks, false));
+    }
+
+    /**
+     * 按增量调整库存（decreaseStock / increaseStock 成功后调用）
+     *
+     * @param productId 产品ID
+     * @param delta     变化量，减少为负数
+     */
+    public static void adjustStock(int productId, int delta) {
+        StockAlerts.publish(doSetStocks(Collections.singletonMap(productId, delta), true));
+    }
+
+    // ==================== 内部方法 ====================
+
+    private static synchronized List<StockAlerts.Alert> doReload() {
+        List<StockAlerts.Alert> alerts = new ArrayList<>();
+        Snapshot loaded = load();
+        if (loaded == null) {
+            return alerts;
+        }
+        Snapshot previous = current;
+        current = loaded;
+        if (previous != null) {
+            for (Product product : current.products.values()) {
+                addAlert(alerts, previous.products.get(product.getProductId()), product);
+            }
+        }
+        return alerts;
+    }
+
+    private static synchronized List<StockAlerts.Alert> doPut(Product product) {
+        List<StockAlerts.Alert> alerts = new ArrayList<>();
+        if (current == null || product == null) {
+            return alerts;
+        }
+        Map<Integer, Product> products = current.copyOfProducts();
+        Product updated = copyOf(product);
+        addAlert(alerts, products.put(product.getProductId(), updated), updated);
+        current = new Snapshot(++versionCounter, products);
+        return alerts;
+    }
+
+    /**
+     * @param values   Map<产品ID, 新库存或增量>
+     * @param relative true 表示 values 为增量
+     */
+    private static synchronized List<StockAlerts.Alert> doSetStocks(Map<Integer, Integer> values, boolean relative) {
+        List<StockAlerts.Alert> alerts = new ArrayList<>();
+        if (current == null || values == null || values.isEmpty()) {
+            return alerts;
+        }
+        Map<Integer, Product> products = current.copyOfProducts();
+        boolean changed = false;
+        for (Map.Entry<Integer, Integer> entry : values.entrySet()) {
+            Product old = products.get(entry.getKey());
+            if (old == null) {
+                continue;
+            }
+            int stock = relative ? Math.max(0, old.getStock() + entry.getValue()) : entry.getValue();
+            if (old.getStock() != stock) {
+                Product updated = copyOf(old);
+                updated.setStock(stock);
+                products.put(entry.getKey(), updated);
+                addAlert(alerts, old, updated);
+                changed = true;
+            }
+        }
+        if (changed) {
+            current = new Snapshot(++versionCounter, products);
+        }
+        return alerts;
+    }
+
+    private static void addAlert(List<StockAlerts.Alert> alerts, Product before, Product after) {
+        StockAlerts.Alert alert = StockAlerts.detect(before, after);
+        if (alert != null) {
+            alerts.add(alert);
+        }
+    }
+
+    /**
+     * @return 新快照，查询失败返回null
+     */
+    private static Snapshot load() {
+        List<Product> all = new ProductDAO().getAllProducts();
+        if (all == null) {
+            return null;
+        }
+        Map<Integer, Product> products = new LinkedHashMap<>();
+        for (Product product : all) {
+            products.put(product.getProductId(), product);
+        }
+        return new Snapshot(++versionCounter, products);
+    }
+
+    private static Product copyOf(Product product) {
+        Product copy = new Product(product.getProductId(), product.getName(), 0, product.getStock());
+        copy.setPriceCents(product.getPriceCents());
+        copy.setReorderThreshold(product.getReorderThreshold());
+        return copy;
+    }
+
+    // ==================== 快照 ====================
+
+    /**
+     * 不可变的目录快照
+     *
+     * 对外返回的 Product 都是副本，调用方可以随意修改
+     */
+    public static class Snapshot {
+        private final long version;
+        private final long loadedAt;
+        /** 按产品ID升序 */
+        private final Map<Integer, Product> products;
+
+        private Snapshot(long version, Map<Integer, Product> products) {
+            this.version = version;
+            this.loadedAt = System.currentTimeMillis();
+            List<Integer> ids = new ArrayList<>(products.keySet());
+            Collections.sort(ids);
+            Map<Integer, Product> sorted = new LinkedHashMap<>();
+            for (Integer id : ids) {
+                sorted.put(id, products.get(id));
+            }
+            this.products = Collections.unmodifiableMap(sorted);
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public long getLoadedAt() {
+            return loadedAt;
+        }
+
+        public int size() {
+            return products.size();
+        }
+
+        /**
+         * 根据ID获取商品
+         *
+         * @return 商品副本，不存在返回null
+         */
+        public Product getProduct(int productId) {
+            Product product = products.get(productId);
+            return product == null ? null : copyOf(product);
+        }
+
+        /**
+         * 商品单价（元），不存在返回-1
+         */
+        public double getPrice(int productId) {
+            Product product = products.get(productId);
+            return product == null ? -1 : product.getPrice();
+        }
+
+        /**
+         * 商品单价（分），不存在返回-1
+         */
+        public long getPriceCents(int productId) {
+            Product product = products.get(productId);
+            return product == null ? -1 : product.getPriceCents();
+        }
+
+        /**
+         * 商品库存，不存在返回0
+         */
+        public int getStock(int productId) {
+            Product product = products.get(productId);
+            return product == null ? 0 : product.getStock();
+        }
+
+        /**
+         * 全部商品（按ID升序）
+         */
+        public List<Product> getAllProducts() {
+            List<Product> list = new ArrayList<>(products.size());
+            for (Product product : products.values()) {
+                list.add(copyOf(product));
+            }
+            return list;
+        }
+
+        /**
+         * 低于补货线的商品（按ID升序）
+         */
+        public List<Product> getLowStockProducts() {
+            List<Product> list = new ArrayList<>();
+            for (Product product : products.values()) {
+                if (product.isLowStock()) {
+                    list.add(copyOf(product));
+                }
+            }
+            return list;
+        }
+
+        /**
+         * 低于补货线的商品数量
+         */
+        public int getLowStockCount() {
+            int count = 0;
+            for (Product product : products.values()) {
+                if (product.isLowStock()) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * 按名称模糊搜索（忽略大小写，与数据库 LIKE '%kw%' 行为一致）
+         *
+         * @param keyword 关键字，为空返回空列表
+         */
+        public List<Product> search(String keyword) {
+            List<Product> list = new ArrayList<>();
+            if (keyword == null || keyword.trim().isEmpty()) {
+                return list;
+            }
+            String kw = keyword.trim().toLowerCase(Locale.ROOT);
+            for (Product product : products.values()) {
+                if (product.getName() != null && product.getName().toLowerCase(Locale.ROOT).contains(kw)) {
+                    list.add(copyOf(product));
+                }
+            }
+            return list;
+        }
+
+        private Map<Integer, Product> copyOfProducts() {
+            return new LinkedHashMap<>(products);
+        }
+    }
+}
@@ -2,14 +2,25 @@ package dao;
 
 import entity.Product;
 import utils.DBUtil;
+import utils.Money;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 /**
  * 产品数据访问对象
  * 对应数据库 product 表
+ *
+ * 单行写操作成功后同步更新 {@link ProductCatalog} 内存快照；
+ * 带 Connection 参数的事务方法不更新快照，由调用方在提交后负责
+ *
+ * 每个产品有自己的补货线（reorder_threshold），库存越线时由快照发布低库存提醒
  */
 public class ProductDAO {
 
@@ -23,8 +34,9 @@ public class ProductDAO {
         Product product = new Product();
         product.setProductId(rs.getInt("product_id"));
         product.setName(rs.getString("name"));
-        product.setPrice(rs.getDouble("price"));
+        product.setPriceCents(Money.getCents(rs, "price"));
         product.setStock(rs.getInt("stock"));
+        product.setReorderThreshold(rs.getInt("reorder_threshold"));
         return product;
     }
 
@@ -41,7 +53,7 @@ public class ProductDAO {
             System.err.println("添加失败：产品名称不能为空");
             return false;
         }
-        if (product.getPrice() < 0) {
+        if (product.getPriceCents() < 0) {
             System.err.println("添加失败：价格不能为负数");
             return false;
         }
@@ -49,15 +61,20 @@ public class ProductDAO {
             System.err.println("添加失败：库存不能为负数");
             return false;
         }
+        if (product.getReorderThreshold() < 0) {
+            System.err.println("添加失败：补货线不能为负数");
+            return false;
+        }
 
-        String sql = "INSERT INTO product (name, price, stock) VALUES (?, ?, ?)";
+        String sql = "INSERT INTO product (name, price, stock, reorder_threshold) VALUES (?, ?, ?, ?)";
 
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
 
             pstmt.setString(1, product.getName());
-            pstmt.setDouble(2, product.getPrice());
+            Money.setCents(pstmt, 2, product.getPriceCents());
             pstmt.setInt(3, product.getStock());
+            pstmt.setInt(4, product.getReorderThreshold());
 
             int rowsAffected = pstmt.executeUpdate();
 
@@ -67,6 +84,7 @@ public class ProductDAO {
                         product.setProductId(rs.getInt(1));
                     }
                 }
+                ProductCatalog.put(product);
             }
             return rowsAffected > 0;
 
@@ -104,7 +122,7 @@ public class ProductDAO {
     /**
      * 查询所有产品
      *
-     * @return 产品列表
+     * @return 产品列表，查询失败返回null（与"没有商品"区分开，避免把空结果当成目录缓存）
      */
     public List<Product> getAllProducts() {
         List<Product> products = new ArrayList<>();
@@ -120,6 +138,7 @@ public class ProductDAO {
 
         } catch (SQLException e) {
             e.printStackTrace();
+            return null;
         }
         return products;
     }
@@ -135,7 +154,7 @@ public class ProductDAO {
             System.err.println("更新失败：产品名称不能为空");
             return false;
         }
-        if (product.getPrice() < 0) {
+        if (product.getPriceCents() < 0) {
             System.err.println("更新失败：价格不能为负数");
             return false;
         }
@@ -143,18 +162,26 @@ public class ProductDAO {
             System.err.println("更新失败：库存不能为负数");
             return false;
         }
+        if (product.getReorderThreshold() < 0) {
+            System.err.println("更新失败：补货线不能为负数");
+            return false;
+        }
 
-        String sql = "UPDATE product SET name = ?, price = ?, stock = ? WHERE product_id = ?";
+        String sql = "UPDATE product SET name = ?, price = ?, stock = ?, reorder_threshold = ? WHERE product_id = ?";
 
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, product.getName());
-            pstmt.setDouble(2, product.getPrice());
+            Money.setCents(pstmt, 2, product.getPriceCents());
             pstmt.setInt(3, product.getStock());
-            pstmt.setInt(4, product.getProductId());
+            pstmt.setInt(4, product.getReorderThreshold());
+            pstmt.setInt(5, product.getProductId());
 
             int rowsAffected = pstmt.executeUpdate();
+            if (rowsAffected > 0) {
+                ProductCatalog.put(product);
+            }
             return rowsAffected > 0;
 
         } catch (SQLException e) {
@@ -177,6 +204,9 @@ public class ProductDAO {
 
             pstmt.setInt(1, productId);
             int rowsAffected = pstmt.executeUpdate();
+            if (rowsAffected > 0) {
+                ProductCatalog.remove(productId);
+            }
             return rowsAffected > 0;
 
         } catch (SQLException e) {
@@ -209,6 +239,9 @@ public class ProductDAO {
             pstmt.setInt(2, productId);
 
             int rowsAffected = pstmt.executeUpdate();
+            if (rowsAffected > 0) {
+                ProductCatalog.setStock(productId, stock);
+            }
             return rowsAffected > 0;
 
         } catch (SQLException e) {
@@ -230,12 +263,7 @@ public class ProductDAO {
             return false;
         }
 
-        // 先检查库存是否充足
-        if (!isStockAvailable(productId, quantity)) {
-            System.err.println("操作失败：库存不足");
-            return false;
-        }
-
+        // 库存校验由 UPDATE 的 stock >= ? 条件保证，无需先查询
         String sql = "UPDATE product SET stock = stock - ? WHERE product_id = ? AND stock >= ?";
 
         try (Connection conn = DBUtil.getConnection();
@@ -246,6 +274,11 @@ public class ProductDAO {
             pstmt.setInt(3, quantity);
 
             int rowsAffected = pstmt.executeUpdate();
+            if (rowsAffected == 0) {
+                System.err.println("操作失败：库存不足或产品不存在 (productId=" + productId + ")");
+            } else {
+                ProductCatalog.adjustStock(productId, -quantity);
+            }
             return rowsAffected > 0;
 
         } catch (SQLException e) {
@@ -254,6 +287,46 @@ public class ProductDAO {
         }
     }
 
+    /**
+     * 批量减少库存（事务内调用，结账时使用）
+     *
+     * 每行都带 stock >= ? 守卫条件，按产品ID升序加入批处理，
+     * 与 {@link #lockProductsForUpdate} 的加锁顺序一致，避免死锁
+     *
+     * @param conn       调用方的事务连接（不会在此关闭或提交）
+     * @param quantities Map<产品ID, 减少数量>
+     * @return 全部扣减成功返回true；任意一行库存不足返回false，调用方应回滚
+     * @throws SQLException SQL异常
+     */
+    public boolean decreaseStockBatch(Connection conn, Map<Integer, Integer> quantities) throws SQLException {
+        if (quantities == null || quantities.isEmpty()) {
+            return false;
+        }
+
+        String sql = "UPDATE product SET stock = stock - ? WHERE product_id = ? AND stock >= ?";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (Map.Entry<Integer, Integer> entry : new TreeMap<>(quantities).entrySet()) {
+                if (entry.getValue() == null || entry.getValue() <= 0) {
+                    System.err.println("操作失败：数量必须大于0 (productId=" + entry.getKey() + ")");
+                    return false;
+                }
+                pstmt.setInt(1, entry.getValue());
+                pstmt.setInt(2, entry.getKey());
+                pstmt.setInt(3, entry.getValue());
+                pstmt.addBatch();
+            }
+
+            for (int result : pstmt.executeBatch()) {
+                // 开启 rewriteBatchedStatements 时驱动返回 SUCCESS_NO_INFO，无法逐行判断
+                if (result == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     /**
      * 增加库存
      *
@@ -276,6 +349,9 @@ public class ProductDAO {
             pstmt.setInt(2, productId);
 
             int rowsAffected = pstmt.executeUpdate();
+            if (rowsAffected > 0) {
+                ProductCatalog.adjustStock(productId, quantity);
+            }
             return rowsAffected > 0;
 
         } catch (SQLException e) {
@@ -296,6 +372,45 @@ public class ProductDAO {
         return product != null && product.getStock() >= quantity;
     }
 
+    /**
+     * 一次性锁定并读取多个产品（SELECT ... FOR UPDATE，事务内调用）
+     *
+     * 按产品ID升序加锁：所有结账事务都以相同顺序获取行锁，
+     * 两台收银机同时结账时只会排队，不会互相死锁
+     *
+     * @param conn       调用方的事务连接（autoCommit 必须为 false）
+     * @param productIds 产品ID集合
+     * @return Map<产品ID, 产品>，按ID升序；不存在的产品不在结果中
+     * @throws SQLException SQL异常
+     */
+    public Map<Integer, Product> lockProductsForUpdate(Connection conn, Collection<Integer> productIds) throws SQLException {
+        Map<Integer, Product> products = new LinkedHashMap<>();
+        if (productIds == null || productIds.isEmpty()) {
+            return products;
+        }
+
+        TreeSet<Integer> sortedIds = new TreeSet<>(productIds);
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i < sortedIds.size(); i++) {
+            placeholders.append(i == 0 ? "?" : ", ?");
+        }
+        String sql = "SELECT * FROM product WHERE product_id IN (" + placeholders + ") ORDER BY product_id FOR UPDATE";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            for (Integer id : sortedIds) {
+                pstmt.setInt(index++, id);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Product product = extractProductFromResultSet(rs);
+                    products.put(product.getProductId(), product);
+                }
+            }
+        }
+        return products;
+    }
+
     // ========== 查询功能 ==========
 
     /**
@@ -351,6 +466,29 @@ public class ProductDAO {
         return products;
     }
 
+    /**
+     * 获取低于补货线的产品
+     *
+     * @return 低库存产品列表
+     */
+    public List<Product> getLowStockProducts() {
+        List<Product> products = new ArrayList<>();
+        String sql = "SELECT * FROM product WHERE stock < reorder_threshold ORDER BY product_id";
+
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+
+            while (rs.next()) {
+                products.add(extractProductFromResultSet(rs));
+            }
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return products;
+    }
+
     // ========== 统计功能 ==========
 
     /**
@@ -378,23 +516,32 @@ public class ProductDAO {
     /**
      * 获取库存总价值
      *
-     * @return 库存总价值
+     * @return 库存总价值（元）
      */
     public double getTotalStockValue() {
-        String sql = "SELECT SUM(price * stock) AS total_value FROM product";
+        return Money.toYuan(getTotalStockValueCents());
+    }
+
+    /**
+     * 获取库存总价值（DECIMAL 精确求和）
+     *
+     * @return 库存总价值（分）
+     */
+    public long getTotalStockValueCents() {
+        String sql = "SELECT COALESCE(SUM(price * stock), 0) AS total_value FROM product";
 
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
 
             if (rs.next()) {
-                return rs.getDouble("total_value");
+                return Money.getCents(rs, "total_value");
             }
 
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return 0.0;
+        return 0;
     }
 }
 
@@ -0,0 +1,284 @@
+package dao;
+
+import entity.Order;
+import utils.DBUtil;
+import utils.DateUtils;
+import utils.Money;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 每日营收汇总数据访问对象
+ * 对应数据库 revenue_daily 表（日期 + 订单类型 + 支付状态 → 订单数、金额）
+ *
+ * 汇总表由 OrderDAO 的增删改在同一事务内增量维护，
+ * 报表只查汇总表，开销与天数相关，与订单总量无关
+ *
+ * 营收口径与原报表一致：支付状态以 paid 开头（paid / paid_by_balance / paid_by_cash）
+ */
+public class RevenueRollupDAO {
+
+    /** 计入营收的支付状态（LIKE 模式） */
+    private static final String PAID_PATTERN = "paid%";
+
+    /**
+     * 时间序列粒度
+     */
+    public enum Granularity {
+        DAY, WEEK, MONTH
+    }
+
+    // ==================== 增量维护 ====================
+
+    /**
+     * 累加一笔订单（新增时 sign = 1，删除时 sign = -1）
+     *
+     * @param conn  调用方连接（与订单写入同一事务）
+     * @param order 订单
+     * @param sign  1 或 -1
+     * @throws SQLException SQL异常
+     */
+    public void applyOrder(Connection conn, Order order, int sign) throws SQLException {
+        List<Order> orders = new ArrayList<>();
+        orders.add(order);
+        applyOrders(conn, orders, sign);
+    }
+
+    /**
+     * 批量累加订单（一次批处理）
+     *
+     * 日期由数据库对下单时间取 DATE()，与订单表中 order_time 的存储口径一致
+     *
+     * @param conn   调用方连接（与订单写入同一事务）
+     * @param orders 订单列表
+     * @param sign   1 或 -1
+     * @throws SQLException SQL异常
+     */
+    public void applyOrders(Connection conn, List<Order> orders, int sign) throws SQLException {
+        if (orders == null || orders.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO revenue_daily (day, order_type, payment_status, order_count, amount) VALUES (DATE(?), ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE order_count = order_count + ?, amount = amount + ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (Order order : orders) {
+                long amountCents = sign * order.getAmountCents();
+                pstmt.setTimestamp(1, order.getOrderTime() != null ?
+                        DateUtils.toSqlTimestamp(order.getOrderTime()) : DateUtils.nowTimestamp());
+                pstmt.setString(2, order.getOrderType());
+                pstmt.setString(3, order.getPaymentStatus() != null ? order.getPaymentStatus() : OrderDAO.STATUS_PENDING);
+                pstmt.setInt(4, sign);
+                Money.setCents(pstmt, 5, amountCents);
+                pstmt.setInt(6, sign);
+                Money.setCents(pstmt, 7, amountCents);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * 从订单表全量重建汇总表（首次上线或数据修复时使用）
+     *
+     * @return 是否重建成功
+     */
+    public boolean rebuild() {
+        String deleteSql = "DELETE FROM revenue_daily";
+        String insertSql = "INSERT INTO revenue_daily (day, order_type, payment_status, order_count, amount) " +
+                "SELECT DATE(order_time), order_type, payment_status, COUNT(*), SUM(amount) " +
+                "FROM `order` GROUP BY DATE(order_time), order_type, payment_status";
+        try (Connection conn = DBUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement delete = conn.prepareStatement(deleteSql);
+                 PreparedStatement insert = conn.prepareStatement(insertSql)) {
+                delete.executeUpdate();
+                insert.executeUpdate();
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // ==================== 汇总查询 ====================
+
+    /**
+     * 总营收（元）
+     */
+    public double getTotalRevenue() {
+        return Money.toYuan(getTotalRevenueCents());
+    }
+
+    /**
+     * 总营收（分，DECIMAL 精确求和）
+     */
+    public long getTotalRevenueCents() {
+        String sql = "SELECT COALESCE(SUM(amount), 0) FROM revenue_daily WHERE payment_status LIKE ?";
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, PAID_PATTERN);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) return Money.getCents(rs, 1);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    /**
+     * 各订单类型的营收
+     *
+     * @return Map<订单类型, 金额（分）>
+     */
+    public Map<String, Long> getRevenueCentsByType() {
+        Map<String, Long> map = new LinkedHashMap<>();
+        String sql = "SELECT order_type, SUM(amount) FROM revenue_daily WHERE payment_status LIKE ? " +
+                "GROUP BY order_type ORDER BY order_type";
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, PAID_PATTERN);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    map.put(rs.getString(1), Money.getCents(rs, 2));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return map;
+    }
+
+    /**
+     * 营收时间序列
+     *
+     * 没有订单的时间段补0，便于直接画图
+     *
+     * @param from        起始日期（含）
+     * @param to          结束日期（含）
+     * @param granularity 粒度：按日 / 按周（周一开始）/ 按月
+     * @param orderType   订单类型，null 表示全部
+     * @return 按时间升序的数据点
+     */
+    public List<Point> getRevenueSeries(LocalDate from, LocalDate to, Granularity granularity, String orderType) {
+        List<Point> points = new ArrayList<>();
+        if (from == null || to == null || from.isAfter(to)) {
+            return points;
+        }
+
+        String sql = "SELECT day, SUM(order_count), SUM(amount) FROM revenue_daily " +
+                "WHERE day BETWEEN ? AND ? AND payment_status LIKE ?" +
+                (orderType != null ? " AND order_type = ?" : "") +
+                " GROUP BY day";
+
+        // 先按天取回，再在内存中归并到周/月，天数有限，开销可以忽略
+        TreeMap<LocalDate, Point> buckets = new TreeMap<>();
+        for (LocalDate d = bucketStart(from, granularity); !d.isAfter(to); d = nextBucket(d, granularity)) {
+            buckets.put(d, new Point(d, 0, 0L));
+        }
+
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setDate(1, java.sql.Date.valueOf(from));
+            pstmt.setDate(2, java.sql.Date.valueOf(to));
+            pstmt.setString(3, PAID_PATTERN);
+            if (orderType != null) {
+                pstmt.setString(4, orderType);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    LocalDate start = bucketStart(rs.getDate(1).toLocalDate(), granularity);
+                    Point point = buckets.get(start);
+                    if (point != null) {
+                        buckets.put(start, new Point(start, point.getOrderCount() + rs.getInt(2), point.getAmountCents() + Money.getCents(rs, 3)));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        points.addAll(buckets.values());
+        return points;
+    }
+
+    // ==================== 内部方法 ====================
+
+    static LocalDate bucketStart(LocalDate day, Granularity granularity) {
+        switch (granularity) {
+            case WEEK:
+                return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH:
+                return day.withDayOfMonth(1);
+            default:
+                return day;
+        }
+    }
+
+    private static LocalDate nextBucket(LocalDate start, Granularity granularity) {
+        switch (granularity) {
+            case WEEK:
+                return start.plusWeeks(1);
+            case MONTH:
+                return start.plusMonths(1);
+            default:
+                return start.plusDays(1);
+        }
+    }
+
+    // ==================== 内部类 ====================
+
+    /**
+     * 时间序列中的一个数据点（不可变）
+     */
+    public static class Point {
+        private final LocalDate periodStart;
+        private final int orderCount;
+        private final long amountCents;
+
+        public Point(LocalDate periodStart, int orderCount, long amountCents) {
+            this.periodStart = periodStart;
+            this.orderCount = orderCount;
+            this.amountCents = amountCents;
+        }
+
+        /** 时间段起始日期（按周为周一，按月为1号） */
+        public LocalDate getPeriodStart() {
+            return periodStart;
+        }
+
+        public int getOrderCount() {
+            return orderCount;
+        }
+
+        /** 金额（分） */
+        public long getAmountCents() {
+            return amountCents;
+        }
+
+        /** 金额（元），供图表使用 */
+        public double getAmount() {
+            return Money.toYuan(amountCents);
+        }
+
+        @Override
+        public String toString() {
+            return "Point{periodStart = " + periodStart + ", orderCount = " + orderCount + ", amount = " + Money.format(amountCents) + "}";
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package dao;
+
+import entity.EmployeeRole;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 进程内共享的角色与权限表
+ *
+ * 原来每次权限判断都要查一次 employee_role 并拆分逗号分隔的权限字符串。现在：
+ * - 首次访问时整表加载一次（角色只有几行），之后角色查询、权限判断、显示名称全部走内存
+ * - 加载时把权限名编号，每个角色的权限编译成位集，判断权限只需一次哈希查找和一次位运算
+ * - 快照不可变，EmployeeRoleDAO 的写操作成功后复制出新快照整体替换（copy-on-write），
+ *   读操作无锁，任何时候看到的都是某一次写入之后的完整状态
+ *
+ * 加载失败（查询出错或表为空）时不缓存，下次访问重新加载
+ */
+public class RoleRegistry {
+
+    /** 当前快照，未加载时为null */
+    private static volatile Snapshot current;
+
+    /** 版本号计数，reload 也会递增，保证版本单调 */
+    private static long versionCounter;
+
+    private RoleRegistry() {
+    }
+
+    // ==================== 读取 ====================
+
+    /**
+     * 获取当前快照（首次调用时从数据库加载）
+     *
+     * @return 当前快照，永不为null（加载失败时为空表）
+     */
+    public static Snapshot snapshot() {
+        Snapshot snapshot = current;
+        if (snapshot == null) {
+            synchronized (RoleRegistry.class) {
+                if (current == null) {
+                    Snapshot loaded = load();
+                    if (loaded.size() == 0) {
+                        return loaded;
+                    }
+                    current = loaded;
+                }
+                snapshot = current;
+            }
+        }
+        return snapshot;
+    }
+
+    // ==================== 变更 ====================
+
+    /**
+     * 从数据库重新加载
+     */
+    public static synchronized void reload() {
+        Snapshot loaded = load();
+        current = loaded.size() == 0 ? null : loaded;
+    }
+
+    /**
+     * 新增或覆盖角色（addRole / updateRole 成功后调用）
+     */
+    public static synchronized void put(EmployeeRole role) {
+        if (current == null || role == null) {
+            return;
+        }
+        Map<Integer, EmployeeRole> roles = current.copyOfRoles();
+        roles.put(role.getRoleId(), copyOf(role));
+        current = new Snapshot(++versionCounter, roles);
+    }
+
+    /**
+     * 替换角色的权限（updatePermissions 成功后调用）
+     */
+    public static synchronized void setPermissions(int roleId, String permissions) {
+        if (current == null || current.roles.get(roleId) == null) {
+            return;
+        }
+        Map<Integer, EmployeeRole> roles = current.copyOfRoles();
+        EmployeeRole role = copyOf(roles.get(roleId));
+        role.setPermissions(permissions);
+        roles.put(roleId, role);
+        current = new Snapshot(++versionCounter, roles);
+    }
+
+    /**
+     * 移除角色（deleteRole 成功后调用）
+     */
+    public static synchronized void remove(int roleId) {
+        if (current == null || current.roles.get(roleId) == null) {
+            return;
+        }
+        Map<Integer, EmployeeRole> roles = current.copyOfRoles();
+        roles.remove(roleId);
+        current = new Snapshot(++versionCounter, roles);
+    }
+
+    /**
+     * 由角色列表编译出快照（不替换当前快照）
+     */
+    public static Snapshot compile(List<EmployeeRole> roles) {
+        Map<Integer, EmployeeRole> map = new LinkedHashMap<>();
+        for (EmployeeRole role : roles) {
+            map.put(role.getRoleId(), copyOf(role));
+        }
+        return new Snapshot(0, map);
+    }
+
+    // ==================== 内部方法 ====================
+
+    private static Snapshot load() {
+        Map<Integer, EmployeeRole> roles = new LinkedHashMap<>();
+        for (EmployeeRole role : new EmployeeRoleDAO().loadAllRoles()) {
+            roles.put(role.getRoleId(), role);
+        }
+        return new Snapshot(++versionCounter, roles);
+    }
+
+    static EmployeeRole copyOf(EmployeeRole role) {
+        return new EmployeeRole(role.getRoleId(), role.getRoleName(), role.getDescription(), role.getPermissions());
+    }
+
+    /**
+     * 内置角色的中文显示名称，其他角色用角色名称
+     */
+    private static String displayNameOf(EmployeeRole role) {
+        String builtIn = builtInDisplayName(role.getRoleId());
+        return builtIn != null ? builtIn : role.getRoleName();
+    }
+
+    /**
+     * 内置角色的中文名称，其他角色返回null
+     */
+    private static String builtInDisplayName(int roleId) {
+        switch (roleId) {
+            case EmployeeRoleDAO.ROLE_ID_TRAINER:
+                return "教练";
+            case EmployeeRoleDAO.ROLE_ID_RECEPTIONIST:
+                return "前台";
+            case EmployeeRoleDAO.ROLE_ID_ADMIN:
+                return "管理员";
+            default:
+                return null;
+        }
+    }
+
+    // ==================== 快照 ====================
+
+    /**
+     * 不可变的角色快照
+     *
+     * 对外返回的 EmployeeRole 都是副本，调用方可以随意修改
+     */
+    public static class Snapshot {
+        private final long version;
+        /** 按角色ID升序 */
+        private final Map<Integer, EmployeeRole> roles;
+        private final Map<String, Integer> roleIdsByName;
+        private final Map<Integer, String> displayNames;
+        /** 权限名 -> 位编号 */
+        private final Map<String, Integer> permissionBits;
+        /** 角色ID -> 权限位集（构造后不再修改） */
+        private final Map<Integer, BitSet> grants;
+        /** 角色ID -> 权限列表（按原顺序，已去空格） */
+        private final Map<Integer, List<String>> permissionLists;
+
+        private Snapshot(long version, Map<Integer, EmployeeRole> roles) {
+            this.version = version;
+            List<Integer> ids = new ArrayList<>(roles.keySet());
+            Collections.sort(ids);
+
+            Map<Integer, EmployeeRole> sorted = new LinkedHashMap<>();
+            Map<String, Integer> byName = new HashMap<>();
+            Map<Integer, String> names = new HashMap<>();
+            Map<String, Integer> bits = new HashMap<>();
+            Map<Integer, BitSet> grantMap = new HashMap<>();
+            Map<Integer, List<String>> lists = new HashMap<>();
+            for (Integer id : ids) {
+                EmployeeRole role = roles.get(id);
+                sorted.put(id, role);
+                if (role.getRoleName() != null) {
+                    byName.put(role.getRoleName(), id);
+                }
+                names.put(id, displayNameOf(role));
+
+                BitSet grant = new BitSet();
+                List<String> list = new ArrayList<>();
+                for (String p : role.getPermissionList()) {
+                    String permission = p.trim();
+                    if (permission.isEmpty()) {
+                        continue;
+                    }
+                    Integer bit = bits.get(permission);
+                    if (bit == null) {
+                        bit = bits.size();
+                        bits.put(permission, bit);
+                    }
+                    grant.set(bit);
+                    list.add(permission);
+                }
+                grantMap.put(id, grant);
+                lists.put(id, Collections.unmodifiableList(list));
+            }
+            this.roles = Collections.unmodifiableMap(sorted);
+            this.roleIdsByName = byName;
+            this.displayNames = names;
+            this.permissionBits = bits;
+            this.grants = grantMap;
+            this.permissionLists = lists;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public int size() {
+            return roles.size();
+        }
+
+        /**
+         * 根据ID获取角色
+         *
+         * @return 角色副本，不存在返回null
+         */
+        public EmployeeRole getRole(int roleId) {
+            EmployeeRole role = roles.get(roleId);
+            return role == null ? null : copyOf(role);
+        }
+
+        /**
+         * 根据角色名称获取角色
+         *
+         * @return 角色副本，不存在返回null
+         */
+        public EmployeeRole getRoleByName(String roleName) {
+            Integer id = roleName == null ? null : roleIdsByName.get(roleName);
+            return id == null ? null : getRole(id);
+        }
+
+        /**
+         * 全部角色（按ID升序）
+         */
+        public List<EmployeeRole> getAllRoles() {
+            List<EmployeeRole> list = new ArrayList<>(roles.size());
+            for (EmployeeRole role : roles.values()) {
+                list.add(copyOf(role));
+            }
+            return list;
+        }
+
+        public boolean contains(int roleId) {
+            return roles.containsKey(roleId);
+        }
+
+        /**
+         * 角色是否拥有某个权限
+         */
+        public boolean hasPermission(int roleId, String permission) {
+            if (permission == null) {
+                return false;
+            }
+            Integer bit = permissionBits.get(permission.trim());
+            BitSet grant = grants.get(roleId);
+            return bit != null && grant != null && grant.get(bit);
+        }
+
+        /**
+         * 角色的权限列表，角色不存在或无权限返回空列表
+         */
+        public List<String> getPermissions(int roleId) {
+            List<String> list = permissionLists.get(roleId);
+            return list == null ? Collections.emptyList() : list;
+        }
+
+        /**
+         * 角色显示名称（内置角色为中文），角色不存在返回"未知"
+         *
+         * 角色表加载失败时快照为空，内置角色仍按ID返回中文名称
+         */
+        public String getDisplayName(int roleId) {
+            String name = displayNames.get(roleId);
+            if (name == null) {
+                name = builtInDisplayName(roleId);
+            }
+            return name == null ? "未知" : name;
+        }
+
+        private Map<Integer, EmployeeRole> copyOfRoles() {
+            return new LinkedHashMap<>(roles);
+        }
+    }
+}
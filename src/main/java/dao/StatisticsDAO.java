@@ -1,36 +1,93 @@
 package dao;
 
 import utils.DBUtil;
+import utils.Money;
+import utils.StatsCache;
+
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * 面板统计数据访问对象
+ *
+ * 各指标经 {@link StatsCache} 缓存：过期后先返回旧值并在后台刷新，
+ * 多个面板同时读取同一指标时只查询一次
+ */
 public class StatisticsDAO {
 
+    /** 订单相关指标的缓存键前缀（订单变化时整体失效） */
+    public static final String ORDER_METRICS = "stats.order.";
+
+    // ==================== 各指标缓存时间（毫秒） ====================
+    private static final long REVENUE_TTL = 10_000;
+    private static final long RECENT_ORDERS_TTL = 10_000;
+    private static final long SERIES_TTL = 60_000;
+    private static final long MEMBER_TTL = 30_000;
+    private static final long STOCK_TTL = 30_000;
+
+    private final RevenueRollupDAO rollupDAO = new RevenueRollupDAO();
+    private final StatsCache cache = StatsCache.getInstance();
+
+    /**
+     * 使订单相关指标的缓存失效（调用方已确知订单数据变化时使用）
+     */
+    public void invalidateOrderMetrics() {
+        cache.invalidate(ORDER_METRICS);
+    }
+
+    /**
+     * 获取总收入（读每日汇总表）
+     *
+     * @return 总收入（分）
+     */
+    public long getTotalRevenueCents() {
+        return cache.get(ORDER_METRICS + "revenue", REVENUE_TTL, rollupDAO::getTotalRevenueCents);
+    }
+
     /**
-     * 获取总收入
+     * 订单数据变更戳（报表自动刷新时判断是否需要重查）
+     *
+     * 订单的增删改都会同步改动每日汇总表，对汇总表逐行取校验和即可感知变化；
+     * 附带当前日期，跨天时"今日订单"也会刷新。汇总表行数与天数相关，查询开销很小
+     *
+     * @return 变更戳，查询失败返回null
      */
-    public double getTotalRevenue() {
-        String sql = "SELECT COALESCE(SUM(amount), 0) FROM `order` WHERE payment_status LIKE 'paid%'";
+    public String getOrderChangeStamp() {
+        String sql = "SELECT CURDATE(), COUNT(*), " +
+                "COALESCE(SUM(CRC32(CONCAT_WS(',', day, order_type, payment_status, order_count, amount))), 0), " +
+                "(SELECT COALESCE(MAX(order_id), 0) FROM `order`) " +
+                "FROM revenue_daily";
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
-            if (rs.next()) return rs.getDouble(1);
+            if (rs.next()) {
+                return rs.getString(1) + "|" + rs.getLong(2) + "|" + rs.getLong(3) + "|" + rs.getLong(4);
+            }
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return 0.0;
+        return null;
     }
 
     /**
      * 获取总会员数
      */
     public int getTotalMembers() {
+        Integer count = cache.get("stats.members", MEMBER_TTL, this::queryTotalMembers);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * @return 查询失败返回null（不进缓存）
+     */
+    private Integer queryTotalMembers() {
         String sql = "SELECT COUNT(*) FROM member";
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql);
@@ -39,14 +96,22 @@ public class StatisticsDAO {
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return 0;
+        return null;
     }
 
     /**
-     * 获取今日订单数
+     * 获取今日订单数（读每日汇总表）
      */
     public int getTodayOrderCount() {
-        String sql = "SELECT COUNT(*) FROM `order` WHERE DATE(order_time) = CURDATE()";
+        Integer count = cache.get(ORDER_METRICS + "today", REVENUE_TTL, this::queryTodayOrderCount);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * @return 查询失败返回null（不进缓存）
+     */
+    private Integer queryTodayOrderCount() {
+        String sql = "SELECT COALESCE(SUM(order_count), 0) FROM revenue_daily WHERE day = CURDATE()";
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
@@ -54,14 +119,22 @@ public class StatisticsDAO {
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return 0;
+        return null;
     }
 
     /**
-     * 获取库存紧张商品数
+     * 获取库存紧张商品数（库存低于各自补货线）
      */
     public int getLowStockProductCount() {
-        String sql = "SELECT COUNT(*) FROM product WHERE stock < 10";
+        Integer count = cache.get("stats.lowStock", STOCK_TTL, this::queryLowStockProductCount);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * @return 查询失败返回null（不进缓存）
+     */
+    private Integer queryLowStockProductCount() {
+        String sql = "SELECT COUNT(*) FROM product WHERE stock < reorder_threshold";
         try (Connection conn = DBUtil.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
@@ -69,44 +142,55 @@ public class StatisticsDAO {
         } catch (SQLException e) {
             e.printStackTrace();
         }
-        return 0;
+        return null;
     }
 
     /**
-     * 【新增】获取各类型业务的营收占比 (用于画图)
-     * 返回: Map<业务类型, 总金额>
+     * 【新增】获取各类型业务的营收占比 (用于画图，读每日汇总表)
+     * 返回: Map<业务类型, 总金额（分）>
      */
-    public Map<String, Double> getRevenueByType() {
-        Map<String, Double> map = new HashMap<>();
-        String sql = "SELECT order_type, SUM(amount) FROM `order` WHERE payment_status LIKE 'paid%' GROUP BY order_type";
-
-        try (Connection conn = DBUtil.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql);
-             ResultSet rs = pstmt.executeQuery()) {
+    public Map<String, Long> getRevenueCentsByType() {
+        return cache.get(ORDER_METRICS + "byType", REVENUE_TTL, this::queryRevenueCentsByType);
+    }
 
-            while (rs.next()) {
-                String type = rs.getString(1);
-                double amount = rs.getDouble(2);
+    private Map<String, Long> queryRevenueCentsByType() {
+        Map<String, Long> map = new HashMap<>();
+        for (Map.Entry<String, Long> entry : rollupDAO.getRevenueCentsByType().entrySet()) {
+            String type = entry.getKey();
+            long amount = entry.getValue();
 
-                // 简单的类型名转换
-                if ("membership".equalsIgnoreCase(type)) type = "会员卡/续费";
-                else if ("product".equalsIgnoreCase(type)) type = "商品售卖";
-                else if ("course".equalsIgnoreCase(type)) type = "课程预约";
-                else if ("recharge".equalsIgnoreCase(type)) type = "余额充值";
-                else if ("renewal".equalsIgnoreCase(type)) type = "续费业务";
+            // 简单的类型名转换
+            if ("membership".equalsIgnoreCase(type)) type = "会员卡/续费";
+            else if ("product".equalsIgnoreCase(type)) type = "商品售卖";
+            else if ("course".equalsIgnoreCase(type)) type = "课程预约";
+            else if ("recharge".equalsIgnoreCase(type)) type = "余额充值";
+            else if ("renewal".equalsIgnoreCase(type)) type = "续费业务";
 
-                map.put(type, amount);
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
+            map.put(type, amount);
         }
         return map;
     }
 
+    /**
+     * 营收时间序列 (用于趋势图)
+     *
+     * @param from        起始日期（含）
+     * @param to          结束日期（含）
+     * @param granularity 按日 / 按周 / 按月
+     */
+    public List<RevenueRollupDAO.Point> getRevenueSeries(LocalDate from, LocalDate to, RevenueRollupDAO.Granularity granularity) {
+        return cache.get(StatsCache.key(ORDER_METRICS + "series", from, to, granularity), SERIES_TTL,
+                () -> rollupDAO.getRevenueSeries(from, to, granularity, null));
+    }
+
     /**
      * 获取最近订单 (用于表格)
      */
     public List<Map<String, Object>> getRecentOrders() {
+        return cache.get(ORDER_METRICS + "recent", RECENT_ORDERS_TTL, this::queryRecentOrders);
+    }
+
+    private List<Map<String, Object>> queryRecentOrders() {
         List<Map<String, Object>> list = new ArrayList<>();
         String sql = "SELECT o.order_id, m.name AS member_name, o.order_type, o.amount, o.order_time, o.payment_status " +
                 "FROM `order` o " +
@@ -123,7 +207,7 @@ public class StatisticsDAO {
                 String name = rs.getString("member_name");
                 map.put("name", name == null ? "散客" : name);
                 map.put("type", rs.getString("order_type"));
-                map.put("amount", rs.getDouble("amount"));
+                map.put("amount", Money.getCents(rs, "amount")); // 分
                 map.put("time", rs.getTimestamp("order_time"));
                 map.put("status", rs.getString("payment_status"));
                 list.add(map);
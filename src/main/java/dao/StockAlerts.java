@@ -0,0 +1,197 @@
+package dao;
+
+import entity.Product;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 低库存提醒（事件推送）
+ *
+ * 原来要靠定时查询全表统计低库存数量；现在由库存变更路径直接产生事件：
+ * 商品目录快照每次替换商品条目时比较新旧库存与补货线，
+ * 越过补货线时发布一条提醒，订阅者（主界面通知栏）即时收到。
+ *
+ * 事件类型：
+ * - LOW：库存从补货线以上降到补货线以下（含新增时已低于补货线）
+ * - RESTOCKED：库存从补货线以下回到补货线以上
+ *
+ * 同一商品停留在补货线以下时不会重复提醒，只有"越线"才提醒
+ */
+public class StockAlerts {
+
+    /** 保留最近提醒的条数 */
+    public static final int HISTORY_SIZE = 50;
+
+    private static final List<Listener> LISTENERS = new CopyOnWriteArrayList<>();
+    /** 最近的提醒，队尾为最新 */
+    private static final Deque<Alert> RECENT = new ArrayDeque<>();
+
+    private StockAlerts() {
+    }
+
+    // ==================== 订阅 ====================
+
+    /**
+     * 订阅提醒
+     *
+     * 注意：回调在执行库存变更的线程中同步调用，界面订阅者需要自行切换到事件分发线程
+     */
+    public static void subscribe(Listener listener) {
+        if (listener != null) {
+            LISTENERS.add(listener);
+        }
+    }
+
+    /**
+     * 取消订阅（窗口关闭时调用）
+     */
+    public static void unsubscribe(Listener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 最近的提醒（最新的在前）
+     */
+    public static List<Alert> getRecentAlerts() {
+        synchronized (RECENT) {
+            List<Alert> list = new ArrayList<>(RECENT);
+            Collections.reverse(list);
+            return list;
+        }
+    }
+
+    /**
+     * 清空提醒历史
+     */
+    public static void clearHistory() {
+        synchronized (RECENT) {
+            RECENT.clear();
+        }
+    }
+
+    // ==================== 发布 ====================
+
+    /**
+     * 比较同一商品变更前后的状态，判断是否越过补货线
+     *
+     * @param before 变更前（新增商品时为null）
+     * @param after  变更后（删除商品时为null，不提醒）
+     * @return 对应的提醒，没有越线返回null
+     */
+    static Alert detect(Product before, Product after) {
+        if (after == null) {
+            return null;
+        }
+        boolean wasLow = before != null && before.isLowStock();
+        boolean isLow = after.isLowStock();
+        if (isLow && !wasLow) {
+            return new Alert(Type.LOW, after);
+        }
+        if (!isLow && wasLow) {
+            return new Alert(Type.RESTOCKED, after);
+        }
+        return null;
+    }
+
+    /**
+     * 发布提醒：写入历史并通知订阅者（单个订阅者出错不影响其他订阅者）
+     */
+    static void publish(List<Alert> alerts) {
+        if (alerts == null || alerts.isEmpty()) {
+            return;
+        }
+        synchronized (RECENT) {
+            for (Alert alert : alerts) {
+                RECENT.addLast(alert);
+                while (RECENT.size() > HISTORY_SIZE) {
+                    RECENT.removeFirst();
+                }
+            }
+        }
+        for (Alert alert : alerts) {
+            for (Listener listener : LISTENERS) {
+                try {
+                    listener.onAlert(alert);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    // ==================== 内部类 ====================
+
+    /**
+     * 提醒类型
+     */
+    public enum Type {
+        LOW,
+        RESTOCKED
+    }
+
+    /**
+     * 订阅者
+     */
+    public interface Listener {
+        void onAlert(Alert alert);
+    }
+
+    /**
+     * 一条提醒（不可变）
+     */
+    public static class Alert {
+        private final Type type;
+        private final int productId;
+        private final String productName;
+        private final int stock;
+        private final int reorderThreshold;
+        private final Date time;
+
+        private Alert(Type type, Product product) {
+            this.type = type;
+            this.productId = product.getProductId();
+            this.productName = product.getName();
+            this.stock = product.getStock();
+            this.reorderThreshold = product.getReorderThreshold();
+            this.time = new Date();
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public int getProductId() {
+            return productId;
+        }
+
+        public String getProductName() {
+            return productName;
+        }
+
+        public int getStock() {
+            return stock;
+        }
+
+        public int getReorderThreshold() {
+            return reorderThreshold;
+        }
+
+        public Date getTime() {
+            return new Date(time.getTime());
+        }
+
+        @Override
+        public String toString() {
+            return "Alert{type = " + type + ", productId = " + productId + ", productName = " + productName
+                    + ", stock = " + stock + ", reorderThreshold = " + reorderThreshold + "}";
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package dao;
+
+import entity.Employee;
+import entity.Member;
+import utils.DBUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Map;
+
+/**
+ * 用户账号数据访问对象
+ * 对应数据库 users 表
+ *
+ * 登录时用一条连接查询同时取出账号、关联的会员或员工以及员工角色，
+ * 代替原来"查账号 -> 更新登录时间 -> 查会员/员工 -> 查角色"的多次往返
+ */
+public class UserDAO {
+
+    /**
+     * 登录查询：账号 + 会员 / 员工 + 角色（按 user_type 只会连上其中一边）
+     */
+    private static final String LOGIN_SQL =
+            "SELECT u.user_id, u.username, u.password, u.user_type, u.reference_id, " +
+            "m.member_id AS m_member_id, m.name AS m_name, m.phone AS m_phone, m.email AS m_email, " +
+            "m.gender AS m_gender, m.birth_date AS m_birth_date, m.register_date AS m_register_date, " +
+            "m.status AS m_status, m.balance AS m_balance, " +
+            "e.employee_id AS e_employee_id, e.name AS e_name, e.role_id AS e_role_id, e.phone AS e_phone, " +
+            "e.hire_date AS e_hire_date, r.role_name AS e_role_name, r.description AS e_description, " +
+            "r.permissions AS e_permissions " +
+            "FROM users u " +
+            "LEFT JOIN member m ON u.user_type = 'member' AND m.member_id = u.reference_id " +
+            "LEFT JOIN employee e ON u.user_type = 'employee' AND e.employee_id = u.reference_id " +
+            "LEFT JOIN employee_role r ON r.role_id = e.role_id " +
+            "WHERE u.username = ? AND u.status = 'active'";
+
+    public UserDAO() {
+    }
+
+    // ==================== 登录 ====================
+
+    /**
+     * 按用户名查询可登录的账号及其关联资料（一次查询）
+     *
+     * 查询出错时抛出异常而不是返回null，调用方据此区分"账号不存在"和"数据库不可用"
+     *
+     * @param username 用户名
+     * @return 登录记录，账号不存在或已停用返回null
+     * @throws SQLException 数据库连接或查询失败
+     */
+    public LoginRecord findLoginRecord(String username) throws SQLException {
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(LOGIN_SQL)) {
+
+            pstmt.setString(1, username);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? extractLoginRecord(rs) : null;
+            }
+        }
+    }
+
+    private LoginRecord extractLoginRecord(ResultSet rs) throws SQLException {
+        LoginRecord record = new LoginRecord();
+        record.userId = rs.getInt("user_id");
+        record.username = rs.getString("username");
+        record.passwordHash = rs.getString("password");
+        record.userType = rs.getString("user_type");
+        record.referenceId = rs.getInt("reference_id");
+
+        // 会员、员工列分别带 m_ / e_ 前缀，沿用 MemberDAO / EmployeeDAO 的映射
+        rs.getInt("m_member_id");
+        if (!rs.wasNull()) {
+            record.member = MemberDAO.extractMember(rs, "m_");
+        }
+
+        rs.getInt("e_employee_id");
+        if (!rs.wasNull()) {
+            record.employee = EmployeeDAO.extractEmployeeWithRole(rs, "e_");
+        }
+        return record;
+    }
+
+    // ==================== 登录时间 ====================
+
+    /**
+     * 批量更新最后登录时间（一个事务、一次批量执行）
+     *
+     * @param lastLogins 用户ID -> 登录时间
+     * @return 是否全部写入
+     */
+    public boolean updateLastLogins(Map<Integer, Timestamp> lastLogins) {
+        if (lastLogins.isEmpty()) {
+            return true;
+        }
+        String sql = "UPDATE users SET last_login = ? WHERE user_id = ?";
+
+        try (Connection conn = DBUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (Map.Entry<Integer, Timestamp> entry : lastLogins.entrySet()) {
+                    pstmt.setTimestamp(1, entry.getValue());
+                    pstmt.setInt(2, entry.getKey());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    // ==================== 密码 ====================
+
+    /**
+     * 替换密码哈希（升级哈希格式用）：只在存储的哈希仍为 oldHash 时更新，避免覆盖期间修改的密码
+     *
+     * @return 是否更新
+     */
+    public boolean updatePasswordHash(int userId, String oldHash, String newHash) {
+        String sql = "UPDATE users SET password = ? WHERE user_id = ? AND password = ?";
+
+        try (Connection conn = DBUtil.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setString(1, newHash);
+            pstmt.setInt(2, userId);
+            pstmt.setString(3, oldHash);
+            return pstmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * 登录记录：账号信息和关联资料（会员或员工，员工带角色）
+     */
+    public static class LoginRecord {
+        private int userId;
+        private String username;
+        private String passwordHash;
+        private String userType;
+        private int referenceId;
+        private Member member;
+        private Employee employee;
+
+        public int getUserId() {
+            return userId;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getPasswordHash() {
+            return passwordHash;
+        }
+
+        public String getUserType() {
+            return userType;
+        }
+
+        public int getReferenceId() {
+            return referenceId;
+        }
+
+        /** 关联的会员，不是会员账号或会员已删除时为null */
+        public Member getMember() {
+            return member;
+        }
+
+        /** 关联的员工（含角色），不是员工账号或员工已删除时为null */
+        public Employee getEmployee() {
+            return employee;
+        }
+    }
+}
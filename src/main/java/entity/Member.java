@@ -1,5 +1,7 @@
 package entity;
 
+import utils.Money;
+
 import java.util.Date;
 
 public class Member implements Person {
@@ -11,7 +13,7 @@ public class Member implements Person {
     private Date birthDate;
     private Date registerDate;
     private String status;//active/frozen/inactive
-    private double balance;
+    private long balanceCents; // 余额（分）
 
     public Member() {
     }
@@ -116,12 +118,26 @@ public class Member implements Person {
     }
 
 
+    /**
+     * 余额（元，兼容旧代码；计算请用 {@link #getBalanceCents()}）
+     */
     public double getBalance() {
-        return balance;
+        return Money.toYuan(balanceCents);
     }
 
     public void setBalance(double balance) {
-        this.balance = balance;
+        this.balanceCents = Money.ofYuan(balance);
+    }
+
+    /**
+     * 余额（分）
+     */
+    public long getBalanceCents() {
+        return balanceCents;
+    }
+
+    public void setBalanceCents(long balanceCents) {
+        this.balanceCents = balanceCents;
     }
 
     @Override
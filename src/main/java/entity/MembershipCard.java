@@ -1,5 +1,7 @@
 package entity;
 
+import utils.Money;
+
 import java.util.Date;
 
 public class MembershipCard {
@@ -138,11 +140,18 @@ public class MembershipCard {
      * 获取卡的价格
      */
     public double getPrice() {
+        return Money.toYuan(getPriceCents());
+    }
+
+    /**
+     * 获取卡的价格（分）
+     */
+    public long getPriceCents() {
         if (membershipType != null) {
-            return membershipType.getPrice();
+            return membershipType.getPriceCents();
         }
         // 默认价格
-        return isMonthly() ? 200.0 : 1200.0;
+        return isMonthly() ? 200_00L : 1200_00L;
     }
 
     /**
@@ -1,5 +1,7 @@
 package entity;
 
+import utils.Money;
+
 /**
  * 会员卡类型实体类：体现继承关系
  * 对应数据库 membership_type 表
@@ -8,7 +10,7 @@ public class MembershipType {
     private int typeId;
     private String typeName;      // 'Monthly' | 'Yearly'
     private int durationDays;     // 有效期天数
-    private double price;         // 价格
+    private long priceCents;      // 价格（分）
     private String description;   // 描述
 
     public MembershipType() {
@@ -24,7 +26,7 @@ public class MembershipType {
         this.typeId = typeId;
         this.typeName = typeName;
         this.durationDays = durationDays;
-        this.price = price;
+        this.priceCents = Money.ofYuan(price);
         this.description = description;
     }
 
@@ -52,12 +54,26 @@ public class MembershipType {
         this.durationDays = durationDays;
     }
 
+    /**
+     * 价格（元，兼容旧代码；计算请用 {@link #getPriceCents()}）
+     */
     public double getPrice() {
-        return price;
+        return Money.toYuan(priceCents);
     }
 
     public void setPrice(double price) {
-        this.price = price;
+        this.priceCents = Money.ofYuan(price);
+    }
+
+    /**
+     * 价格（分）
+     */
+    public long getPriceCents() {
+        return priceCents;
+    }
+
+    public void setPriceCents(long priceCents) {
+        this.priceCents = priceCents;
     }
 
     public String getDescription() {
@@ -88,7 +104,7 @@ public class MembershipType {
                 "typeId=" + typeId +
                 ", typeName='" + typeName + '\'' +
                 ", durationDays=" + durationDays +
-                ", price=" + price +
+                ", price=" + Money.format(priceCents) +
                 ", description='" + description + '\'' +
                 '}';
     }
@@ -1,12 +1,14 @@
 package entity;
 
+import utils.Money;
+
 import java.util.Date;
 
 public class Order {
     private int orderId;
     private int memberId;
     private String orderType; // 'membership','product','course'
-    private double amount;
+    private long amountCents; // 金额（分）
     private Date orderTime;
     private String paymentStatus; // 'pending','paid','cancelled','refunded'
 
@@ -18,7 +20,7 @@ public class Order {
         this.orderId = orderId;
         this.memberId = memberId;
         this.orderType = orderType;
-        this.amount = amount;
+        this.amountCents = Money.ofYuan(amount);
         this.orderTime = orderTime;
         this.paymentStatus = paymentStatus;
     }
@@ -78,21 +80,39 @@ public class Order {
     }
 
     /**
-     * 获取
+     * 获取金额（元，兼容旧代码；计算请用 {@link #getAmountCents()}）
      *
      * @return amount
      */
     public double getAmount() {
-        return amount;
+        return Money.toYuan(amountCents);
     }
 
     /**
-     * 设置
+     * 设置金额（元，四舍五入到分）
      *
      * @param amount
      */
     public void setAmount(double amount) {
-        this.amount = amount;
+        this.amountCents = Money.ofYuan(amount);
+    }
+
+    /**
+     * 获取金额（分）
+     *
+     * @return amountCents
+     */
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    /**
+     * 设置金额（分）
+     *
+     * @param amountCents
+     */
+    public void setAmountCents(long amountCents) {
+        this.amountCents = amountCents;
     }
 
     /**
@@ -132,7 +152,7 @@ public class Order {
     }
 
     public String toString() {
-        return "Order{orderId = " + orderId + ", memberId = " + memberId + ", orderType = " + orderType + ", amount = " + amount + ", orderTime = " + orderTime + ", paymentStatus = " + paymentStatus + "}";
+        return "Order{orderId = " + orderId + ", memberId = " + memberId + ", orderType = " + orderType + ", amount = " + Money.format(amountCents) + ", orderTime = " + orderTime + ", paymentStatus = " + paymentStatus + "}";
     }
 
 
@@ -1,11 +1,14 @@
 package entity;
 
+import utils.Money;
+
 public class Product {
 
     private int productId;
     private String name;
-    private double price;
+    private long priceCents; // 单价（分）
     private int stock;
+    private int reorderThreshold = 10; // 库存低于此值触发补货提醒
 
 
     public Product() {
@@ -14,7 +17,7 @@ public class Product {
     public Product(int productId, String name, double price, int stock) {
         this.productId = productId;
         this.name = name;
-        this.price = price;
+        this.priceCents = Money.ofYuan(price);
         this.stock = stock;
     }
 
@@ -55,21 +58,39 @@ public class Product {
     }
 
     /**
-     * 获取
+     * 获取单价（元，兼容旧代码；计算请用 {@link #getPriceCents()}）
      *
      * @return price
      */
     public double getPrice() {
-        return price;
+        return Money.toYuan(priceCents);
     }
 
     /**
-     * 设置
+     * 设置单价（元，四舍五入到分）
      *
      * @param price
      */
     public void setPrice(double price) {
-        this.price = price;
+        this.priceCents = Money.ofYuan(price);
+    }
+
+    /**
+     * 获取单价（分）
+     *
+     * @return priceCents
+     */
+    public long getPriceCents() {
+        return priceCents;
+    }
+
+    /**
+     * 设置单价（分）
+     *
+     * @param priceCents
+     */
+    public void setPriceCents(long priceCents) {
+        this.priceCents = priceCents;
     }
 
     /**
@@ -90,8 +111,33 @@ public class Product {
         this.stock = stock;
     }
 
+    /**
+     * 获取
+     *
+     * @return reorderThreshold
+     */
+    public int getReorderThreshold() {
+        return reorderThreshold;
+    }
+
+    /**
+     * 设置
+     *
+     * @param reorderThreshold
+     */
+    public void setReorderThreshold(int reorderThreshold) {
+        this.reorderThreshold = reorderThreshold;
+    }
+
+    /**
+     * 是否低于补货线
+     */
+    public boolean isLowStock() {
+        return stock < reorderThreshold;
+    }
+
     public String toString() {
-        return "Product{productId = " + productId + ", name = " + name + ", price = " + price + ", stock = " + stock + "}";
+        return "Product{productId = " + productId + ", name = " + name + ", price = " + Money.format(priceCents) + ", stock = " + stock + ", reorderThreshold = " + reorderThreshold + "}";
     }
 
 }
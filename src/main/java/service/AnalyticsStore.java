@@ -0,0 +1,410 @@
+package service;
+
+import dao.BookingDAO;
+import dao.CheckInDAO;
+import dao.CourseDAO;
+import dao.OrderDAO;
+import entity.Booking;
+import entity.CheckIn;
+import entity.Course;
+import entity.Order;
+import utils.ColumnTable;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 报表分析用的列式内存库（签到、预约、订单）
+ *
+ * 报表反复按小时、星期、课程类型、订单类型、会员切分同一批历史数据，
+ * 这里把三张表各加载一份到 {@link ColumnTable}，切片统计全部在内存中完成，不再访问 MySQL。
+ *
+ * 数据维护：
+ * - 首次访问时整表加载（Main 启动时在后台预热）
+ * - {@link #sync()} 只追加ID大于已加载最大ID的新行
+ * - 本进程内的预约状态变化、预约删除由 BookingService 调用 {@link #onBookingStatusChanged(int, String)}、
+ *   {@link #onBookingDeleted(int)} 直接改写；订单的修改和删除通过 {@link OrderDAO#subscribe} 收到后改写
+ * - 其他客户端的修改、删除不会增量同步：报表刷新时调用 {@link #refresh()}，
+ *   距上次整表加载超过 {@link #RELOAD_INTERVAL_MILLIS} 时 {@link #reload()}，否则只 sync；
+ *   报表发现订单被修改或删除时也会直接 reload
+ *
+ * 时间列均按本地时区拆分：day 为 epochDay，weekday 为 1（周一）~ 7（周日），hour 为 0 ~ 23，
+ * 签到表另有 month 列便于按月分组
+ */
+public class AnalyticsStore {
+
+    // ==================== 列名 ====================
+
+    public static final String COL_ID = "id";
+    public static final String COL_MEMBER = "member_id";
+    public static final String COL_DAY = "day";
+    public static final String COL_WEEKDAY = "weekday";
+    public static final String COL_HOUR = "hour";
+    /** 签到：月份序号（年 * 12 + 月 - 1），见 {@link #monthIndex(YearMonth)} */
+    public static final String COL_MONTH = "month";
+    /** 预约：课程ID */
+    public static final String COL_COURSE = "course_id";
+    /** 预约：课程类型；订单：订单类型 */
+    public static final String COL_TYPE = "type";
+    /** 预约状态 */
+    public static final String COL_STATUS = "status";
+    /** 订单金额（分） */
+    public static final String COL_AMOUNT = "amount";
+
+    /** 整表重新加载的间隔（毫秒），用于同步其他客户端的修改和删除 */
+    public static final long RELOAD_INTERVAL_MILLIS = 10 * 60 * 1000L;
+
+    /** 课程已删除时预约记录的类型 */
+    private static final String UNKNOWN_COURSE_TYPE = "other";
+
+    private static volatile AnalyticsStore instance;
+
+    // ==================== 状态 ====================
+
+    private final CheckInDAO checkInDAO = new CheckInDAO();
+    private final BookingDAO bookingDAO = new BookingDAO();
+    private final CourseDAO courseDAO = new CourseDAO();
+    private final OrderDAO orderDAO = new OrderDAO();
+
+    private volatile ColumnTable checkIns;
+    private volatile ColumnTable bookings;
+    private volatile ColumnTable orders;
+    /** 每次 reload 递增，与各表版本一起组成 {@link #getVersion()} */
+    private volatile long generation;
+    /** 上次整表加载的时间（毫秒） */
+    private volatile long loadedAt = System.currentTimeMillis();
+
+    // ==================== 构造方法 ====================
+
+    /**
+     * 创建空库（测试时可直接 append，不访问数据库）
+     */
+    public AnalyticsStore() {
+        resetTables();
+    }
+
+    /**
+     * 获取进程内共享的分析库（首次调用时从数据库整表加载）
+     */
+    public static AnalyticsStore getInstance() {
+        AnalyticsStore store = instance;
+        if (store == null) {
+            synchronized (AnalyticsStore.class) {
+                if (instance == null) {
+                    AnalyticsStore created = new AnalyticsStore();
+                    created.sync();
+                    instance = created;
+                    OrderDAO.subscribe(new OrderDAO.ChangeListener() {
+                        @Override
+                        public void onOrderUpdated(Order order) {
+                            instance.updateOrder(order.getOrderId(), order.getMemberId(), order.getOrderType(),
+                                    order.getAmountCents(), order.getOrderTime());
+                        }
+
+                        @Override
+                        public void onOrderDeleted(int orderId) {
+                            instance.deleteOrder(orderId);
+                        }
+                    });
+                }
+                store = instance;
+            }
+        }
+        return store;
+    }
+
+    /**
+     * 本进程内预约状态变化后调用（分析库未加载时忽略）
+     */
+    public static void onBookingStatusChanged(int bookingId, String status) {
+        AnalyticsStore store = instance;
+        if (store != null) {
+            store.updateBookingStatus(bookingId, status);
+        }
+    }
+
+    /**
+     * 本进程内删除预约后调用（分析库未加载时忽略）
+     */
+    public static void onBookingDeleted(int bookingId) {
+        AnalyticsStore store = instance;
+        if (store != null) {
+            store.deleteBooking(bookingId);
+        }
+    }
+
+    // ==================== 加载 ====================
+
+    /**
+     * 报表刷新时调用：距上次整表加载超过 {@link #RELOAD_INTERVAL_MILLIS} 时重新加载，否则增量同步
+     *
+     * @return 是否成功
+     */
+    public boolean refresh() {
+        if (System.currentTimeMillis() - loadedAt >= RELOAD_INTERVAL_MILLIS) {
+            return reload();
+        }
+        return sync();
+    }
+
+    /**
+     * 追加数据库中的新行（按ID增量）
+     *
+     * @return 三张表是否都同步成功（失败的表保持原样，下次重试）
+     */
+    public synchronized boolean sync() {
+        boolean ok = true;
+
+        List<CheckIn> newCheckIns = checkInDAO.getCheckInsAfter(lastId(checkIns));
+        if (newCheckIns != null) {
+            for (CheckIn c : newCheckIns) {
+                appendCheckIn(c.getCheckinId(), c.getMemberId(), c.getCheckinTime());
+            }
+        } else {
+            ok = false;
+        }
+
+        List<Booking> newBookings = bookingDAO.getBookingsAfter(lastId(bookings));
+        if (newBookings != null) {
+            Map<Integer, String> courseTypes = newBookings.isEmpty() ? null : loadCourseTypes();
+            for (Booking b : newBookings) {
+                String type = courseTypes.getOrDefault(b.getCourseId(), UNKNOWN_COURSE_TYPE);
+                appendBooking(b.getBookingId(), b.getMemberId(), b.getCourseId(), type, b.getBookingStatus(), b.getBookingTime());
+            }
+        } else {
+            ok = false;
+        }
+
+        List<Order> newOrders = orderDAO.getOrdersAfter(lastId(orders));
+        if (newOrders != null) {
+            for (Order o : newOrders) {
+                appendOrder(o.getOrderId(), o.getMemberId(), o.getOrderType(), o.getAmountCents(), o.getOrderTime());
+            }
+        } else {
+            ok = false;
+        }
+        return ok;
+    }
+
+    /**
+     * 清空后从数据库整表重新加载（用于同步其他客户端的修改和删除）
+     *
+     * 加载期间查询读到的是旧表，加载完成后整体替换
+     */
+    public boolean reload() {
+        AnalyticsStore fresh = new AnalyticsStore();
+        if (!fresh.sync()) {
+            return false;
+        }
+        synchronized (this) {
+            checkIns = fresh.checkIns;
+            bookings = fresh.bookings;
+            orders = fresh.orders;
+            generation++;
+            loadedAt = System.currentTimeMillis();
+        }
+        return true;
+    }
+
+    // ==================== 追加（同步或测试时调用） ====================
+
+    public synchronized void appendCheckIn(int checkinId, int memberId, Date checkinTime) {
+        if (checkinTime == null) {
+            return;
+        }
+        LocalDateTime t = toLocal(checkinTime);
+        checkIns.append(checkinId, memberId, t.toLocalDate().toEpochDay(), t.getDayOfWeek().getValue(), t.getHour(),
+                monthIndex(YearMonth.from(t)));
+    }
+
+    public synchronized void appendBooking(int bookingId, int memberId, int courseId, String courseType, String status, Date bookingTime) {
+        if (bookingTime == null) {
+            return;
+        }
+        LocalDateTime t = toLocal(bookingTime);
+        bookings.append(bookingId, memberId, courseId,
+                bookings.encode(COL_TYPE, courseType), bookings.encode(COL_STATUS, status),
+                t.toLocalDate().toEpochDay(), t.getDayOfWeek().getValue(), t.getHour());
+    }
+
+    public synchronized void appendOrder(int orderId, int memberId, String orderType, long amountCents, Date orderTime) {
+        if (orderTime == null) {
+            return;
+        }
+        LocalDateTime t = toLocal(orderTime);
+        orders.append(orderId, memberId, orders.encode(COL_TYPE, orderType), amountCents,
+                t.toLocalDate().toEpochDay(), t.getDayOfWeek().getValue(), t.getHour());
+    }
+
+    /**
+     * 改写某条预约的状态（未加载到的预约忽略）
+     */
+    public synchronized void updateBookingStatus(int bookingId, String status) {
+        int row = bookings.findRow(COL_ID, bookingId);
+        if (row >= 0) {
+            bookings.set(COL_STATUS, row, bookings.encode(COL_STATUS, status));
+        }
+    }
+
+    /**
+     * 删除某条预约（未加载到的预约忽略）
+     */
+    public synchronized void deleteBooking(int bookingId) {
+        int row = bookings.findRow(COL_ID, bookingId);
+        if (row >= 0) {
+            bookings.delete(row);
+        }
+    }
+
+    /**
+     * 改写某条订单（未加载到的订单忽略，之后 sync 时按新值追加）
+     */
+    public synchronized void updateOrder(int orderId, int memberId, String orderType, long amountCents, Date orderTime) {
+        int row = orders.findRow(COL_ID, orderId);
+        if (row < 0) {
+            return;
+        }
+        if (orderTime == null) {
+            orders.delete(row);
+            return;
+        }
+        LocalDateTime t = toLocal(orderTime);
+        orders.set(COL_MEMBER, row, memberId);
+        orders.set(COL_TYPE, row, orders.encode(COL_TYPE, orderType));
+        orders.set(COL_AMOUNT, row, amountCents);
+        orders.set(COL_DAY, row, t.toLocalDate().toEpochDay());
+        orders.set(COL_WEEKDAY, row, t.getDayOfWeek().getValue());
+        orders.set(COL_HOUR, row, t.getHour());
+    }
+
+    /**
+     * 删除某条订单（未加载到的订单忽略）
+     */
+    public synchronized void deleteOrder(int orderId) {
+        int row = orders.findRow(COL_ID, orderId);
+        if (row >= 0) {
+            orders.delete(row);
+        }
+    }
+
+    // ==================== 读取 ====================
+
+    /** 签到表：id, member_id, day, weekday, hour, month */
+    public ColumnTable getCheckIns() {
+        return checkIns;
+    }
+
+    /** 预约表：id, member_id, course_id, type, status, day, weekday, hour */
+    public ColumnTable getBookings() {
+        return bookings;
+    }
+
+    /** 订单表：id, member_id, type, amount, day, weekday, hour */
+    public ColumnTable getOrders() {
+        return orders;
+    }
+
+    /**
+     * 版本号：任意表有追加、修改或整体重新加载后变化
+     */
+    public long getVersion() {
+        return generation + checkIns.getVersion() + bookings.getVersion() + orders.getVersion();
+    }
+
+    // ==================== 常用切片 ====================
+
+    /**
+     * 日期范围内（含两端）按小时统计签到次数
+     */
+    public ColumnTable.Result checkInsByHour(LocalDate from, LocalDate to) {
+        return checkIns.query().between(COL_DAY, from.toEpochDay(), to.toEpochDay()).groupBy(COL_HOUR).execute();
+    }
+
+    /**
+     * 日期范围内按星期统计签到次数
+     */
+    public ColumnTable.Result checkInsByWeekday(LocalDate from, LocalDate to) {
+        return checkIns.query().between(COL_DAY, from.toEpochDay(), to.toEpochDay()).groupBy(COL_WEEKDAY).execute();
+    }
+
+    /**
+     * 日期范围内按课程类型统计有效预约（待确认 + 已确认）
+     */
+    public ColumnTable.Result bookingsByCourseType(LocalDate from, LocalDate to) {
+        return bookings.query()
+                .between(COL_DAY, from.toEpochDay(), to.toEpochDay())
+                .whereIn(COL_STATUS, BookingDAO.STATUS_PENDING, BookingDAO.STATUS_CONFIRMED)
+                .groupBy(COL_TYPE)
+                .execute();
+    }
+
+    /**
+     * 日期范围内按订单类型统计笔数和金额（分）
+     */
+    public ColumnTable.Result ordersByType(LocalDate from, LocalDate to) {
+        return orders.query()
+                .between(COL_DAY, from.toEpochDay(), to.toEpochDay())
+                .groupBy(COL_TYPE)
+                .sum(COL_AMOUNT)
+                .execute();
+    }
+
+    // ==================== 内部方法 ====================
+
+    private void resetTables() {
+        checkIns = new ColumnTable("check_in")
+                .addColumn(COL_ID, ColumnTable.Type.INT)
+                .addColumn(COL_MEMBER, ColumnTable.Type.INT)
+                .addColumn(COL_DAY, ColumnTable.Type.INT)
+                .addColumn(COL_WEEKDAY, ColumnTable.Type.INT)
+                .addColumn(COL_HOUR, ColumnTable.Type.INT)
+                .addColumn(COL_MONTH, ColumnTable.Type.INT);
+        bookings = new ColumnTable("booking")
+                .addColumn(COL_ID, ColumnTable.Type.INT)
+                .addColumn(COL_MEMBER, ColumnTable.Type.INT)
+                .addColumn(COL_COURSE, ColumnTable.Type.INT)
+                .addColumn(COL_TYPE, ColumnTable.Type.DICT)
+                .addColumn(COL_STATUS, ColumnTable.Type.DICT)
+                .addColumn(COL_DAY, ColumnTable.Type.INT)
+                .addColumn(COL_WEEKDAY, ColumnTable.Type.INT)
+                .addColumn(COL_HOUR, ColumnTable.Type.INT);
+        orders = new ColumnTable("order")
+                .addColumn(COL_ID, ColumnTable.Type.INT)
+                .addColumn(COL_MEMBER, ColumnTable.Type.INT)
+                .addColumn(COL_TYPE, ColumnTable.Type.DICT)
+                .addColumn(COL_AMOUNT, ColumnTable.Type.LONG)
+                .addColumn(COL_DAY, ColumnTable.Type.INT)
+                .addColumn(COL_WEEKDAY, ColumnTable.Type.INT)
+                .addColumn(COL_HOUR, ColumnTable.Type.INT);
+    }
+
+    /**
+     * 月份序号：年 * 12 + 月 - 1，相邻月份相差 1
+     */
+    public static int monthIndex(YearMonth month) {
+        return month.getYear() * 12 + month.getMonthValue() - 1;
+    }
+
+    private static int lastId(ColumnTable table) {
+        return (int) table.getMax(COL_ID, 0);
+    }
+
+    private Map<Integer, String> loadCourseTypes() {
+        Map<Integer, String> types = new HashMap<>();
+        for (Course course : courseDAO.getAllCourses()) {
+            types.put(course.getCourseId(), course.getType());
+        }
+        return types;
+    }
+
+    private static LocalDateTime toLocal(Date date) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(date.getTime()), ZoneId.systemDefault());
+    }
+}
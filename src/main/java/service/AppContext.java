@@ -0,0 +1,298 @@
+package service;
+
+import dao.DurableWriteQueue;
+import dao.EmployeeDAO;
+import dao.EmployeeRoleDAO;
+import dao.LastLoginWriter;
+import dao.MembershipCardDAO;
+import dao.StatisticsDAO;
+import utils.EdtWatchdog;
+import utils.Lazy;
+import utils.PasswordHasher;
+import utils.SearchPipeline;
+import utils.StatsCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 应用上下文：进程内共享的 Service / DAO 单例和后台组件的启动、停止
+ *
+ * 原来每个窗口都 new 自己的 Service，Service 再 new 一套 DAO，窗口之间什么也共享不了，
+ * 退出时也没有统一关闭资源的地方。现在：
+ * - Service 和界面直接使用的 DAO 都从这里取，第一次使用时创建，之后所有窗口共用同一个对象
+ *   （Service 和 DAO 都不保存请求相关的状态，可以跨线程共用）
+ * - 后台组件按注册顺序启动、按相反顺序停止；JVM 退出时（关闭窗口、Ctrl+C）由关闭钩子执行停止，
+ *   先关掉各个后台线程池，最后把本地日志中积压的订单和签到写入数据库
+ *
+ * 进程内共享的缓存（统计缓存、分析库、商品目录等）本身已经是单例，这里只是统一入口
+ */
+public final class AppContext {
+
+    /** 退出时等待积压写入完成的最长时间（毫秒），超时的条目留在本地日志中下次启动重放 */
+    public static final long DRAIN_TIMEOUT_MILLIS = 5_000;
+
+    /** 报表并行查询的线程数 */
+    public static final int REPORT_THREADS = 4;
+
+    private static final AppContext INSTANCE = createDefault();
+
+    // ==================== Service ====================
+
+    private final Lazy<MemberService> memberService = Lazy.of(MemberService::new);
+    private final Lazy<CourseService> courseService = Lazy.of(CourseService::new);
+    private final Lazy<BookingService> bookingService = Lazy.of(BookingService::new);
+    private final Lazy<CheckInService> checkInService = Lazy.of(CheckInService::new);
+    private final Lazy<ShopService> shopService = Lazy.of(ShopService::new);
+    private final Lazy<ProductService> productService = Lazy.of(ProductService::new);
+    private final Lazy<EmployeeService> employeeService = Lazy.of(EmployeeService::new);
+    private final Lazy<UserService> userService = Lazy.of(UserService::new);
+
+    // ==================== DAO（界面直接使用的） ====================
+
+    private final Lazy<EmployeeDAO> employeeDAO = Lazy.of(EmployeeDAO::new);
+    private final Lazy<EmployeeRoleDAO> employeeRoleDAO = Lazy.of(EmployeeRoleDAO::new);
+    private final Lazy<MembershipCardDAO> membershipCardDAO = Lazy.of(MembershipCardDAO::new);
+    private final Lazy<StatisticsDAO> statisticsDAO = Lazy.of(StatisticsDAO::new);
+
+    // ==================== 线程池 ====================
+
+    /** 报表各指标并行查询用的后台线程（守护线程，不阻止退出） */
+    private final Lazy<ExecutorService> reportExecutor = Lazy.of(() -> {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(REPORT_THREADS, r -> {
+            Thread t = new Thread(r, "report-loader-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    });
+
+    // ==================== 生命周期 ====================
+
+    private final List<Component> components = new ArrayList<>();
+    /** 已启动完成的组件数（停止时从这里倒序停止） */
+    private int started;
+    private boolean running;
+    private boolean stopped;
+    private boolean shutdownHookInstalled;
+
+    /** 当前登录的会话，未登录时为null */
+    private volatile Session session;
+
+    /**
+     * 空的上下文（不含任何后台组件），一般使用 {@link #getInstance()}
+     */
+    public AppContext() {
+    }
+
+    private static AppContext createDefault() {
+        AppContext context = new AppContext();
+        // 启动顺序：本地写入队列 -> 登录时间写入 -> 分析库 -> 畅销榜 -> 各线程池 -> 界面卡顿监控；
+        // 停止时相反，线程池先关，最后把积压写入落库
+        context.register("journal", DurableWriteQueue::start, () -> DurableWriteQueue.drain(DRAIN_TIMEOUT_MILLIS));
+        context.register("last-login", () -> LastLoginWriter.getInstance().start(), () -> LastLoginWriter.getInstance().stop());
+        context.register("analytics", AnalyticsStore::getInstance, null);
+        context.register("sales-leaderboard", SalesLeaderboard::getInstance, null);
+        context.register("password-hasher", null, () -> PasswordHasher.getInstance().shutdown());
+        context.register("stats-refresh", null, () -> StatsCache.getInstance().shutdown());
+        context.register("report-loader", null, () -> {
+            if (context.reportExecutor.isInitialized()) {
+                context.reportExecutor.get().shutdownNow();
+            }
+        });
+        context.register("search", null, SearchPipeline::shutdown);
+        context.register("edt-watchdog", () -> EdtWatchdog.getInstance().start(), () -> EdtWatchdog.getInstance().stop());
+        return context;
+    }
+
+    /**
+     * 进程内共享的应用上下文
+     */
+    public static AppContext getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 注册后台组件（在 {@link #start()} 之前调用）
+     *
+     * @param name  名称（日志用）
+     * @param start 启动动作，可为null
+     * @param stop  停止动作，可为null
+     */
+    public synchronized void register(String name, Runnable start, Runnable stop) {
+        if (running || stopped) {
+            throw new IllegalStateException("应用已启动，不能再注册组件: " + name);
+        }
+        components.add(new Component(name, start, stop));
+    }
+
+    /**
+     * 按注册顺序启动全部组件，并安装关闭钩子（重复调用无副作用）
+     *
+     * 组件的启动动作（可能要整表加载数据）不在锁内执行，启动过程中窗口关闭时
+     * {@link #stop()} 不必等它们完成；停止后尚未启动的组件不再启动，
+     * 正在启动的组件启动完成后立即停止。某个组件启动失败只打印异常，不影响后面的组件
+     */
+    public void start() {
+        synchronized (this) {
+            if (running || stopped) {
+                return;
+            }
+            running = true;
+            if (!shutdownHookInstalled) {
+                Runtime.getRuntime().addShutdownHook(new Thread(this::stop, "app-shutdown"));
+                shutdownHookInstalled = true;
+            }
+        }
+        for (Component component : components) {
+            synchronized (this) {
+                if (stopped) {
+                    return;
+                }
+            }
+            run(component.name, component.start, "组件启动失败: ");
+            boolean stopNow;
+            synchronized (this) {
+                stopNow = stopped;
+                if (!stopNow) {
+                    started++;
+                }
+            }
+            if (stopNow) {
+                run(component.name, component.stop, "组件停止失败: ");
+                return;
+            }
+        }
+    }
+
+    /**
+     * 按相反顺序停止已启动完成的组件（只执行一次）
+     */
+    public synchronized void stop() {
+        if (stopped) {
+            return;
+        }
+        stopped = true;
+        running = false;
+        for (int i = started - 1; i >= 0; i--) {
+            Component component = components.get(i);
+            run(component.name, component.stop, "组件停止失败: ");
+        }
+        started = 0;
+    }
+
+    private static void run(String name, Runnable action, String failure) {
+        if (action == null) {
+            return;
+        }
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            System.err.println(failure + name);
+            e.printStackTrace();
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    // ==================== 访问 ====================
+
+    public MemberService getMemberService() {
+        return memberService.get();
+    }
+
+    public CourseService getCourseService() {
+        return courseService.get();
+    }
+
+    public BookingService getBookingService() {
+        return bookingService.get();
+    }
+
+    public CheckInService getCheckInService() {
+        return checkInService.get();
+    }
+
+    public ShopService getShopService() {
+        return shopService.get();
+    }
+
+    public ProductService getProductService() {
+        return productService.get();
+    }
+
+    public EmployeeService getEmployeeService() {
+        return employeeService.get();
+    }
+
+    public UserService getUserService() {
+        return userService.get();
+    }
+
+    public EmployeeDAO getEmployeeDAO() {
+        return employeeDAO.get();
+    }
+
+    public EmployeeRoleDAO getEmployeeRoleDAO() {
+        return employeeRoleDAO.get();
+    }
+
+    public MembershipCardDAO getMembershipCardDAO() {
+        return membershipCardDAO.get();
+    }
+
+    public StatisticsDAO getStatisticsDAO() {
+        return statisticsDAO.get();
+    }
+
+    /**
+     * 报表并行查询用的线程池（第一次使用时创建，应用停止时关闭）
+     */
+    public ExecutorService getReportExecutor() {
+        return reportExecutor.get();
+    }
+
+    // ==================== 会话 ====================
+
+    /**
+     * 当前登录的会话，未登录时为null
+     */
+    public Session getSession() {
+        return session;
+    }
+
+    /**
+     * 登录成功后保存会话，退出登录时传入null
+     */
+    public void setSession(Session session) {
+        this.session = session;
+    }
+
+    public StatsCache getStatsCache() {
+        return StatsCache.getInstance();
+    }
+
+    public AnalyticsStore getAnalyticsStore() {
+        return AnalyticsStore.getInstance();
+    }
+
+    /**
+     * 后台组件
+     */
+    private static class Component {
+        final String name;
+        final Runnable start;
+        final Runnable stop;
+
+        Component(String name, Runnable start, Runnable stop) {
+            this.name = name;
+            this.start = start;
+            this.stop = stop;
+        }
+    }
+}
@@ -10,6 +10,7 @@ import entity.Course;
 import entity.Member;
 import entity.Employee;
 import utils.DateUtils;
+import utils.StatsCache;
 
 import java.util.ArrayList;
 import java.util.Date;
@@ -55,6 +56,9 @@ public class BookingService {
     /** 预约状态：已取消 */
     public static final String STATUS_CANCELLED = BookingDAO.STATUS_CANCELLED;
 
+    /** 统计概览缓存时间（毫秒） */
+    private static final long STATISTICS_TTL_MILLIS = 30_000;
+
     // ==================== 构造方法 ====================
 
     public BookingService() {
@@ -181,6 +185,7 @@ public class BookingService {
 
         if (bookingDAO.confirmBooking(bookingId)) {
             booking.setBookingStatus(STATUS_CONFIRMED);
+            AnalyticsStore.onBookingStatusChanged(bookingId, STATUS_CONFIRMED);
             return ServiceResult.success("预约已确认", booking);
         } else {
             return ServiceResult.failure("确认失败：数据库操作失败");
@@ -237,6 +242,7 @@ public class BookingService {
 
         if (bookingDAO.cancelBooking(bookingId)) {
             booking.setBookingStatus(STATUS_CANCELLED);
+            AnalyticsStore.onBookingStatusChanged(bookingId, STATUS_CANCELLED);
             String message = "预约已取消";
             if (reason != null && !reason.trim().isEmpty()) {
                 message += "，原因：" + reason;
@@ -318,6 +324,7 @@ public class BookingService {
             if (STATUS_PENDING.equals(booking.getBookingStatus()) || 
                 STATUS_CONFIRMED.equals(booking.getBookingStatus())) {
                 if (bookingDAO.cancelBooking(booking.getBookingId())) {
+                    AnalyticsStore.onBookingStatusChanged(booking.getBookingId(), STATUS_CANCELLED);
                     cancelledCount++;
                 }
             }
@@ -346,6 +353,7 @@ public class BookingService {
         }
 
         if (bookingDAO.deleteBooking(bookingId)) {
+            AnalyticsStore.onBookingDeleted(bookingId);
             return ServiceResult.success("预约已删除");
         } else {
             return ServiceResult.failure("删除失败：数据库操作失败");
@@ -708,17 +716,31 @@ public class BookingService {
 
     /**
      * 获取预约统计概览
-     * 
-     * @return 统计概览
+     *
+     * 结果缓存 {@link #STATISTICS_TTL_MILLIS}，过期后先返回旧值并在后台刷新
+     *
+     * @return 统计概览（共享实例，请勿修改）
      */
     public BookingStatistics getStatistics() {
+        BookingStatistics stats = StatsCache.getInstance().get("booking.statistics", STATISTICS_TTL_MILLIS, this::computeStatistics);
+        return stats != null ? stats : new BookingStatistics();
+    }
+
+    /**
+     * 一条条件聚合查询得出全部计数，查询失败返回null（不缓存）
+     */
+    private BookingStatistics computeStatistics() {
+        BookingDAO.Summary summary = bookingDAO.getSummary();
+        if (summary == null) {
+            return null;
+        }
         BookingStatistics stats = new BookingStatistics();
 
-        stats.setTotalCount(getTotalBookingCount());
-        stats.setPendingCount(getPendingBookingCount());
-        stats.setConfirmedCount(getConfirmedBookingCount());
-        stats.setCancelledCount(getCancelledBookingCount());
-        stats.setTodayCount(getTodayBookingCount());
+        stats.setTotalCount(summary.getTotalCount());
+        stats.setPendingCount(summary.getPendingCount());
+        stats.setConfirmedCount(summary.getConfirmedCount());
+        stats.setCancelledCount(summary.getCancelledCount());
+        stats.setTodayCount(summary.getTodayCount());
 
         return stats;
     }
@@ -1,11 +1,13 @@
 package service;
 
 import dao.CheckInDAO;
+import dao.DurableWriteQueue;
 import dao.MemberDAO;
 import dao.MembershipCardDAO;
 import entity.CheckIn;
 import entity.Member;
 import utils.DateUtils;
+import utils.StatsCache;
 
 import java.util.Date;
 import java.util.List;
@@ -42,6 +44,12 @@ public class CheckInService {
     /** 默认最大签到时长（小时），超过此时长自动签退 */
     public static final int DEFAULT_MAX_CHECKIN_HOURS = 12;
 
+    /** 签退时等待未同步签到写入数据库的最长时间（毫秒） */
+    private static final long CHECKOUT_FLUSH_WAIT_MILLIS = 2000;
+
+    /** 统计概览缓存时间（毫秒），签到变化较快，取短一些 */
+    private static final long STATISTICS_TTL_MILLIS = 15_000;
+
     // ==================== 构造方法 ====================
 
     public CheckInService() {
@@ -79,19 +87,22 @@ public class CheckInService {
             return ServiceResult.failure("签到失败：会员没有有效的会员卡，请先开卡或续费");
         }
 
-        // 检查是否已签到未签退
+        // 检查是否已签到未签退（包括刚签到、尚未写入数据库的记录）
+        if (DurableWriteQueue.hasPendingCheckIn(memberId)) {
+            return ServiceResult.failure("签到失败：您刚刚已签到，请先签退");
+        }
         if (checkInDAO.hasActiveCheckIn(memberId)) {
             CheckIn currentCheckIn = checkInDAO.getCurrentCheckIn(memberId);
             String checkinTime = DateUtils.formatDateTime(currentCheckIn.getCheckinTime());
             return ServiceResult.failure("签到失败：您已于 " + checkinTime + " 签到，请先签退");
         }
 
-        // 创建签到记录
+        // 创建签到记录：先写本地日志立即返回，由后台写入数据库
         CheckIn checkIn = new CheckIn();
         checkIn.setMemberId(memberId);
         checkIn.setCheckinTime(DateUtils.now());
 
-        if (checkInDAO.checkIn(checkIn)) {
+        if (DurableWriteQueue.submitCheckIn(checkIn)) {
             return ServiceResult.success("签到成功，欢迎光临！", checkIn);
         } else {
             return ServiceResult.failure("签到失败：数据库操作失败");
@@ -127,6 +138,11 @@ public class CheckInService {
             return ServiceResult.failure("签退失败：会员不存在");
         }
 
+        // 签到记录可能还在本地日志中，先等待写入数据库
+        if (DurableWriteQueue.hasPendingCheckIn(memberId) && !DurableWriteQueue.flush(CHECKOUT_FLUSH_WAIT_MILLIS)) {
+            return ServiceResult.failure("签退失败：签到记录尚未同步到数据库，请稍后重试");
+        }
+
         // 获取当前签到记录
         CheckIn currentCheckIn = checkInDAO.getCurrentCheckIn(memberId);
         if (currentCheckIn == null) {
@@ -457,10 +473,16 @@ public class CheckInService {
 
     /**
      * 获取签到统计概览
-     * 
-     * @return 统计概览
+     *
+     * 结果缓存 {@link #STATISTICS_TTL_MILLIS}，过期后先返回旧值并在后台刷新
+     *
+     * @return 统计概览（共享实例，请勿修改）
      */
     public CheckInStatistics getStatistics() {
+        return StatsCache.getInstance().get("checkin.statistics", STATISTICS_TTL_MILLIS, this::computeStatistics);
+    }
+
+    private CheckInStatistics computeStatistics() {
         CheckInStatistics stats = new CheckInStatistics();
 
         stats.setTodayCount(checkInDAO.getTodayCheckInCount());
@@ -7,6 +7,7 @@ import dao.EmployeeRoleDAO;
 import entity.Booking;
 import entity.Course;
 import entity.Employee;
+import utils.StatsCache;
 
 import java.util.ArrayList;
 import java.util.Date;
@@ -51,6 +52,9 @@ public class CourseService {
     /** 课程类型：其他 */
     public static final String TYPE_OTHER = CourseDAO.TYPE_OTHER;
 
+    /** 统计概览缓存时间（毫秒），课程变动不频繁 */
+    private static final long STATISTICS_TTL_MILLIS = 60_000;
+
     // ==================== 构造方法 ====================
 
     public CourseService() {
@@ -124,6 +128,7 @@ public class CourseService {
         course.setCourseTime(courseTime);
         // 保存到数据库
         if (courseDAO.addCourse(course)) {
+            TrainerWorkloadReport.invalidate();
             String typeName = courseDAO.getTypeDisplayName(type);
             return ServiceResult.success("课程创建成功，类型：" + typeName, course);
         } else {
@@ -181,7 +186,18 @@ public class CourseService {
             return false;
         }
         // 调用 DAO 层进行全字段更新
-        return courseDAO.updateCourse(course);
+        return saveCourse(course);
+    }
+
+    /**
+     * 保存课程修改，成功后使教练工作量报告失效（时间、容量、教练都可能变化）
+     */
+    private boolean saveCourse(Course course) {
+        if (courseDAO.updateCourse(course)) {
+            TrainerWorkloadReport.invalidate();
+            return true;
+        }
+        return false;
     }
 
 
@@ -229,7 +245,7 @@ public class CourseService {
         course.setDuration(duration);
         course.setMaxCapacity(maxCapacity);
 
-        if (courseDAO.updateCourse(course)) {
+        if (saveCourse(course)) {
             return ServiceResult.success("更新成功", course);
         } else {
             return ServiceResult.failure("更新失败：数据库操作失败");
@@ -255,7 +271,7 @@ public class CourseService {
 
         course.setName(newName.trim());
 
-        if (courseDAO.updateCourse(course)) {
+        if (saveCourse(course)) {
             return ServiceResult.success("课程名称更新成功", course);
         } else {
             return ServiceResult.failure("更新失败：数据库操作失败");
@@ -281,7 +297,7 @@ public class CourseService {
 
         course.setDuration(newDuration);
 
-        if (courseDAO.updateCourse(course)) {
+        if (saveCourse(course)) {
             return ServiceResult.success("课程时长更新成功", course);
         } else {
             return ServiceResult.failure("更新失败：数据库操作失败");
@@ -313,7 +329,7 @@ public class CourseService {
 
         course.setMaxCapacity(newCapacity);
 
-        if (courseDAO.updateCourse(course)) {
+        if (saveCourse(course)) {
             return ServiceResult.success("课程容量更新成功", course);
         } else {
             return ServiceResult.failure("更新失败：数据库操作失败");
@@ -354,7 +370,7 @@ public class CourseService {
 
         course.setEmployeeId(newTrainerId);
 
-        if (courseDAO.updateCourse(course)) {
+        if (saveCourse(course)) {
             return ServiceResult.success("教练更换成功：" + oldTrainerName + " → " + newTrainer.getName(), course);
         } else {
             return ServiceResult.failure("操作失败：数据库操作失败");
@@ -392,6 +408,7 @@ public class CourseService {
         }
 
         if (courseDAO.deleteCourse(courseId)) {
+            TrainerWorkloadReport.invalidate();
             return ServiceResult.success("课程「" + course.getName() + "」已删除");
         } else {
             return ServiceResult.failure("操作失败：数据库操作失败，可能存在关联数据");
@@ -663,30 +680,41 @@ public class CourseService {
     /**
      * 获取课程统计概览
      *
-     * @return 统计概览
+     * 结果缓存 {@link #STATISTICS_TTL_MILLIS}，过期后先返回旧值并在后台刷新
+     *
+     * @return 统计概览（共享实例，请勿修改）
      */
     public CourseStatistics getStatistics() {
+        CourseStatistics stats = StatsCache.getInstance().get("course.statistics", STATISTICS_TTL_MILLIS, this::computeStatistics);
+        return stats != null ? stats : new CourseStatistics();
+    }
+
+    /**
+     * 一条分组查询得出全部计数，查询失败返回null（不缓存）
+     */
+    private CourseStatistics computeStatistics() {
+        CourseDAO.Summary summary = courseDAO.getSummary();
+        if (summary == null) {
+            return null;
+        }
         CourseStatistics stats = new CourseStatistics();
 
-        stats.setTotalCount(courseDAO.getTotalCourseCount());
+        stats.setTotalCount(summary.getTotalCount());
 
         // 按类型统计
-        Map<String, Integer> typeCount = courseDAO.getCourseCountByType();
-        stats.setYogaCount(typeCount.getOrDefault(TYPE_YOGA, 0));
-        stats.setSpinningCount(typeCount.getOrDefault(TYPE_SPINNING, 0));
-        stats.setPilatesCount(typeCount.getOrDefault(TYPE_PILATES, 0));
-        stats.setAerobicsCount(typeCount.getOrDefault(TYPE_AEROBICS, 0));
-        stats.setStrengthCount(typeCount.getOrDefault(TYPE_STRENGTH, 0));
-        stats.setOtherCount(typeCount.getOrDefault(TYPE_OTHER, 0));
+        stats.setYogaCount(summary.getCountByType(TYPE_YOGA));
+        stats.setSpinningCount(summary.getCountByType(TYPE_SPINNING));
+        stats.setPilatesCount(summary.getCountByType(TYPE_PILATES));
+        stats.setAerobicsCount(summary.getCountByType(TYPE_AEROBICS));
+        stats.setStrengthCount(summary.getCountByType(TYPE_STRENGTH));
+        stats.setOtherCount(summary.getCountByType(TYPE_OTHER));
 
         // 可用/已满统计
-        List<Course> availableCourses = courseDAO.getAvailableCourses();
-        stats.setAvailableCount(availableCourses.size());
-        stats.setFullCount(stats.getTotalCount() - stats.getAvailableCount());
+        stats.setAvailableCount(summary.getAvailableCount());
+        stats.setFullCount(summary.getFullCount());
 
         // 教练数量
-        Map<Integer, Integer> trainerCount = courseDAO.getCourseCountByEmployee();
-        stats.setTrainerWithCourseCount(trainerCount.size());
+        stats.setTrainerWithCourseCount(summary.getCountByEmployee().size());
 
         return stats;
     }
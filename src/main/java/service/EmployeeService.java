@@ -9,6 +9,7 @@ import entity.Employee;
 import entity.EmployeeRole;
 import utils.DateUtils;
 
+import java.time.LocalDate;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -37,6 +38,7 @@ public class EmployeeService {
     private EmployeeRoleDAO roleDAO;
     private CourseDAO courseDAO;
     private BookingDAO bookingDAO;
+    private TrainerWorkloadReport workloadReport;
 
     // ==================== 角色常量（引用DAO） ====================
 
@@ -60,6 +62,7 @@ public class EmployeeService {
         this.roleDAO = new EmployeeRoleDAO();
         this.courseDAO = new CourseDAO();
         this.bookingDAO = new BookingDAO();
+        this.workloadReport = new TrainerWorkloadReport();
     }
 
     // ==================== 员工入职 ====================
@@ -267,6 +270,10 @@ public class EmployeeService {
         if (employeeDAO.updateEmployeeRole(employeeId, newRoleId)) {
             employee.setRoleId(newRoleId);
             employee.setEmployeeRole(roleDAO.getRoleById(newRoleId));
+            Session session = AppContext.getInstance().getSession();
+            if (session != null && session.isEmployee(employeeId)) {
+                session.setRoleId(newRoleId);
+            }
             return ServiceResult.success("角色变更成功：" + oldRoleName + " → " + newRoleName, employee);
         } else {
             return ServiceResult.failure("操作失败：数据库操作失败");
@@ -375,6 +382,15 @@ public class EmployeeService {
         return employeeDAO.getTrainers();
     }
 
+    /**
+     * 教练下拉框选项（只含ID、姓名和角色）
+     *
+     * @return 教练选项列表
+     */
+    public List<EmployeeDAO.Option> getTrainerOptions() {
+        return employeeDAO.getEmployeeOptions(ROLE_TRAINER);
+    }
+
     /**
      * 查询所有前台
      *
@@ -632,6 +648,11 @@ public class EmployeeService {
      * @return 是否拥有该权限
      */
     public boolean hasPermission(int employeeId, String permission) {
+        // 当前登录员工按会话中的角色ID查角色快照，不再查询数据库
+        Session session = AppContext.getInstance().getSession();
+        if (session != null && session.isEmployee(employeeId)) {
+            return session.hasPermission(permission);
+        }
         return employeeDAO.hasPermission(employeeId, permission);
     }
 
@@ -660,6 +681,10 @@ public class EmployeeService {
      * @return true表示是教练
      */
     public boolean isTrainer(int employeeId) {
+        Session session = AppContext.getInstance().getSession();
+        if (session != null && session.isEmployee(employeeId)) {
+            return session.getRoleId() == EmployeeDAO.ROLE_ID_TRAINER;
+        }
         return employeeDAO.isTrainer(employeeId);
     }
 
@@ -670,6 +695,10 @@ public class EmployeeService {
      * @return true表示是前台
      */
     public boolean isReceptionist(int employeeId) {
+        Session session = AppContext.getInstance().getSession();
+        if (session != null && session.isEmployee(employeeId)) {
+            return session.getRoleId() == EmployeeDAO.ROLE_ID_RECEPTIONIST;
+        }
         return employeeDAO.isReceptionist(employeeId);
     }
 
@@ -680,6 +709,10 @@ public class EmployeeService {
      * @return true表示是管理员
      */
     public boolean isAdmin(int employeeId) {
+        Session session = AppContext.getInstance().getSession();
+        if (session != null && session.isEmployee(employeeId)) {
+            return session.getRoleId() == EmployeeDAO.ROLE_ID_ADMIN;
+        }
         return employeeDAO.isAdmin(employeeId);
     }
 
@@ -745,6 +778,25 @@ public class EmployeeService {
         return bookingDAO.getTodayBookingsByTrainerId(trainerId);
     }
 
+    /**
+     * 获取全部教练本周的工作量（一次分组查询，结果有缓存）
+     *
+     * @return 工作量列表，查询失败返回null
+     */
+    public List<EmployeeDAO.Workload> getTrainerWorkloads() {
+        return workloadReport.getWorkloads();
+    }
+
+    /**
+     * 推荐某一天所在周工作量最少的教练
+     *
+     * @param day 上课日期
+     * @return 推荐的教练，没有教练或查询失败返回null
+     */
+    public EmployeeDAO.Workload suggestTrainer(LocalDate day) {
+        return workloadReport.suggestTrainer(day);
+    }
+
     // ==================== 工龄相关功能 ====================
 
     /**
@@ -1,5 +1,6 @@
 package service;
 
+import dao.DurableWriteQueue;
 import dao.MemberDAO;
 import dao.MembershipCardDAO;
 import dao.BookingDAO;
@@ -8,11 +9,18 @@ import dao.OrderDAO;
 import entity.Member;
 import entity.MembershipCard;
 import utils.DateUtils;
+import utils.Money;
+import utils.StatsCache;
 import java.util.Date;
 import java.util.List;
 
 public class MemberService {
 
+    // ==================== 常量 ====================
+
+    /** 统计概览缓存时间（毫秒） */
+    private static final long STATISTICS_TTL_MILLIS = 30_000;
+
     private MemberDAO memberDAO;
     private MembershipCardDAO cardDAO;
     private BookingDAO bookingDAO;
@@ -49,7 +57,10 @@ public class MemberService {
     }
 
     // ==================== 核心业务：开卡 ====================
-    public ServiceResult<Void> buyCard(int memberId, int cardType, double price) {
+    /**
+     * @param priceCents 实收金额（分）
+     */
+    public ServiceResult<Void> buyCard(int memberId, int cardType, long priceCents) {
         Member member = memberDAO.getMemberById(memberId);
         if (member == null) return ServiceResult.failure("会员不存在");
         if (cardDAO.hasMemberValidCard(memberId)) return ServiceResult.failure("已有有效会员卡，请使用续费！");
@@ -68,16 +79,15 @@ public class MemberService {
         }
 
         if (success) {
-            try {
-                entity.Order order = new entity.Order();
-                order.setMemberId(memberId);
-                order.setOrderType(OrderDAO.TYPE_MEMBERSHIP);
-                order.setAmount(price);
-                order.setPaymentStatus(OrderDAO.STATUS_PAID);
-                order.setOrderTime(utils.DateUtils.now());
-                orderDAO.addOrder(order);
-            } catch (Exception e) {
-                e.printStackTrace();
+            // 开卡流水先写本地日志，由后台写库
+            entity.Order order = new entity.Order();
+            order.setMemberId(memberId);
+            order.setOrderType(OrderDAO.TYPE_MEMBERSHIP);
+            order.setAmountCents(priceCents);
+            order.setPaymentStatus(OrderDAO.STATUS_PAID);
+            order.setOrderTime(utils.DateUtils.now());
+            if (!DurableWriteQueue.submitOrder(order)) {
+                System.err.println("开卡流水记录失败 (memberId=" + memberId + ")");
             }
             return ServiceResult.success("开卡成功！已开通 " + typeName);
         } else {
@@ -86,41 +96,44 @@ public class MemberService {
     }
 
     public ServiceResult<Void> buyCard(int memberId, int cardType) {
-        double price = 0.0;
+        long priceCents = 0;
         if (cardType == MembershipCardDAO.TYPE_MONTHLY) {
-            price = MembershipCardDAO.PRICE_MONTHLY;
+            priceCents = MembershipCardDAO.PRICE_MONTHLY;
         } else if (cardType == MembershipCardDAO.TYPE_YEARLY) {
-            price = MembershipCardDAO.PRICE_YEARLY;
+            priceCents = MembershipCardDAO.PRICE_YEARLY;
         }
-        return buyCard(memberId, cardType, price);
+        return buyCard(memberId, cardType, priceCents);
     }
 
     // ==================== 核心业务：续费 ====================
-    public ServiceResult<Void> renewMembership(int memberId, int days, double price, boolean useBalance) {
-        if (days <= 0 || price < 0) return ServiceResult.failure("参数错误");
+    /**
+     * @param priceCents 续费金额（分）
+     */
+    public ServiceResult<Void> renewMembership(int memberId, int days, long priceCents, boolean useBalance) {
+        if (days <= 0 || priceCents < 0) return ServiceResult.failure("参数错误");
         Member member = memberDAO.getMemberById(memberId);
         if (member == null) return ServiceResult.failure("会员不存在");
         MembershipCard activeCard = cardDAO.getActiveMembershipCard(memberId);
         if (activeCard == null) return ServiceResult.failure("无有效卡，请先开卡");
 
         if (useBalance) {
-            if (member.getBalance() < price) return ServiceResult.failure("余额不足: " + member.getBalance());
-            if (!memberDAO.updateBalance(memberId, member.getBalance() - price)) return ServiceResult.failure("扣款失败");
+            if (member.getBalanceCents() < priceCents) return ServiceResult.failure("余额不足: " + Money.format(member.getBalanceCents()));
+            if (!memberDAO.updateBalanceCents(memberId, Money.subtract(member.getBalanceCents(), priceCents))) return ServiceResult.failure("扣款失败");
         }
 
         if (cardDAO.extendValidity(activeCard.getCardId(), days)) {
-            try {
-                entity.Order order = new entity.Order();
-                order.setMemberId(memberId);
-                order.setOrderType(OrderDAO.TYPE_RENEWAL);
-                order.setAmount(price);
-                order.setOrderTime(utils.DateUtils.now());
-                order.setPaymentStatus(OrderDAO.STATUS_PAID);
-                orderDAO.addOrder(order);
-            } catch (Exception e) { e.printStackTrace(); }
+            entity.Order order = new entity.Order();
+            order.setMemberId(memberId);
+            order.setOrderType(OrderDAO.TYPE_RENEWAL);
+            order.setAmountCents(priceCents);
+            order.setOrderTime(utils.DateUtils.now());
+            order.setPaymentStatus(OrderDAO.STATUS_PAID);
+            if (!DurableWriteQueue.submitOrder(order)) {
+                System.err.println("续费流水记录失败 (memberId=" + memberId + ")");
+            }
             return ServiceResult.success("续费成功");
         } else {
-            if (useBalance) memberDAO.updateBalance(memberId, member.getBalance());
+            if (useBalance) memberDAO.updateBalanceCents(memberId, member.getBalanceCents());
             return ServiceResult.failure("续费失败");
         }
     }
@@ -210,4 +223,137 @@ public class MemberService {
             return ServiceResult.failure("删除失败，可能存在关联数据");
         }
     }
-}
\ No newline at end of file
+
+    // ==================== 统计 ====================
+
+    /**
+     * 获取会员统计概览（一条分组查询）
+     *
+     * 结果缓存 {@link #STATISTICS_TTL_MILLIS}，过期后先返回旧值并在后台刷新
+     *
+     * @return 统计概览（共享实例，请勿修改）
+     */
+    public MemberStatistics getStatistics() {
+        MemberStatistics stats = StatsCache.getInstance().get("member.statistics", STATISTICS_TTL_MILLIS, this::computeStatistics);
+        return stats != null ? stats : new MemberStatistics();
+    }
+
+    private MemberStatistics computeStatistics() {
+        MemberDAO.Summary summary = memberDAO.getSummary();
+        if (summary == null) {
+            return null;
+        }
+        MemberStatistics stats = new MemberStatistics();
+        stats.setTotalCount(summary.getTotalCount());
+        stats.setActiveCount(summary.getCountByStatus().getOrDefault(MemberDAO.STATUS_ACTIVE, 0));
+        stats.setFrozenCount(summary.getCountByStatus().getOrDefault(MemberDAO.STATUS_FROZEN, 0));
+        stats.setInactiveCount(summary.getCountByStatus().getOrDefault(MemberDAO.STATUS_INACTIVE, 0));
+        stats.setMaleCount(summary.getCountByGender().getOrDefault(MemberDAO.GENDER_MALE, 0));
+        stats.setFemaleCount(summary.getCountByGender().getOrDefault(MemberDAO.GENDER_FEMALE, 0));
+        stats.setTodayNewCount(summary.getTodayNewCount());
+        stats.setMonthlyNewCount(summary.getMonthlyNewCount());
+        return stats;
+    }
+
+    // ==================== 内部类 ====================
+
+    /**
+     * 会员统计信息
+     */
+    public static class MemberStatistics {
+        private int totalCount;
+        private int activeCount;
+        private int frozenCount;
+        private int inactiveCount;
+        private int maleCount;
+        private int femaleCount;
+        private int todayNewCount;
+        private int monthlyNewCount;
+
+        public int getTotalCount() {
+            return totalCount;
+        }
+
+        public void setTotalCount(int totalCount) {
+            this.totalCount = totalCount;
+        }
+
+        public int getActiveCount() {
+            return activeCount;
+        }
+
+        public void setActiveCount(int activeCount) {
+            this.activeCount = activeCount;
+        }
+
+        public int getFrozenCount() {
+            return frozenCount;
+        }
+
+        public void setFrozenCount(int frozenCount) {
+            this.frozenCount = frozenCount;
+        }
+
+        public int getInactiveCount() {
+            return inactiveCount;
+        }
+
+        public void setInactiveCount(int inactiveCount) {
+            this.inactiveCount = inactiveCount;
+        }
+
+        public int getMaleCount() {
+            return maleCount;
+        }
+
+        public void setMaleCount(int maleCount) {
+            this.maleCount = maleCount;
+        }
+
+        public int getFemaleCount() {
+            return femaleCount;
+        }
+
+        public void setFemaleCount(int femaleCount) {
+            this.femaleCount = femaleCount;
+        }
+
+        public int getTodayNewCount() {
+            return todayNewCount;
+        }
+
+        public void setTodayNewCount(int todayNewCount) {
+            this.todayNewCount = todayNewCount;
+        }
+
+        public int getMonthlyNewCount() {
+            return monthlyNewCount;
+        }
+
+        public void setMonthlyNewCount(int monthlyNewCount) {
+            this.monthlyNewCount = monthlyNewCount;
+        }
+
+        /**
+         * 活跃会员占比（百分比）
+         */
+        public double getActiveRate() {
+            return totalCount > 0 ? (double) activeCount / totalCount * 100 : 0;
+        }
+
+        @Override
+        public String toString() {
+            return "会员统计 {" +
+                    "总数=" + totalCount +
+                    ", 活跃=" + activeCount +
+                    ", 冻结=" + frozenCount +
+                    ", 停用=" + inactiveCount +
+                    ", 男=" + maleCount +
+                    ", 女=" + femaleCount +
+                    ", 今日新增=" + todayNewCount +
+                    ", 本月新增=" + monthlyNewCount +
+                    ", 活跃率=" + String.format("%.1f%%", getActiveRate()) +
+                    "}";
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package service;
+
+import dao.CourseDAO;
+import entity.Course;
+import utils.ColumnTable;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * 星期 × 小时 到店热力图（签到数据立方体）
+ *
+ * 原来只能用 CheckInDAO.getCheckInCountByHour 看单日分布。这里按 日期 × 小时 预先累计签到次数：
+ * - 首次使用时对列式签到表做一次 (日期, 小时) 分组扫描建立立方体
+ * - 之后只把签到表新追加的行累加进来（增量维护）
+ * - 任意日期范围的查询只需把范围内每天的 24 个计数按星期叠加，不再扫描签到记录
+ *
+ * 另外按课程类型叠加课程安排（course_time 落在哪个星期几、几点），
+ * 与到店人数对照，用于排班和排课
+ */
+public class OccupancyHeatmap {
+
+    private static volatile OccupancyHeatmap instance;
+
+    // ==================== 状态 ====================
+
+    private final Supplier<ColumnTable> source;
+    /** epochDay -> 当天 24 小时的签到次数 */
+    private final Map<Long, int[]> days = new HashMap<>();
+    /** 已累计的签到表（分析库 reload 后换成新表，需要重建） */
+    private ColumnTable builtFrom;
+    /** 已累计到的行数 */
+    private int builtRows;
+
+    // ==================== 构造方法 ====================
+
+    /**
+     * @param source 列式签到表来源（见 {@link AnalyticsStore#getCheckIns()}）
+     */
+    public OccupancyHeatmap(Supplier<ColumnTable> source) {
+        this.source = source;
+    }
+
+    /**
+     * 获取进程内共享的热力图（数据来自共享分析库）
+     */
+    public static OccupancyHeatmap getInstance() {
+        OccupancyHeatmap heatmap = instance;
+        if (heatmap == null) {
+            synchronized (OccupancyHeatmap.class) {
+                if (instance == null) {
+                    instance = new OccupancyHeatmap(() -> AnalyticsStore.getInstance().getCheckIns());
+                }
+                heatmap = instance;
+            }
+        }
+        return heatmap;
+    }
+
+    // ==================== 维护 ====================
+
+    /**
+     * 把签到表新追加的行累加进立方体（首次调用或签到表被整体替换时重建）
+     */
+    public synchronized void refresh() {
+        ColumnTable table = source.get();
+        int rows = table.size();
+        if (table != builtFrom) {
+            rebuild(table, rows);
+            return;
+        }
+        for (int row = builtRows; row < rows; row++) {
+            add(table.get(AnalyticsStore.COL_DAY, row), (int) table.get(AnalyticsStore.COL_HOUR, row), 1);
+        }
+        builtRows = rows;
+    }
+
+    /**
+     * 一次 (日期, 小时) 分组扫描建立立方体
+     */
+    private void rebuild(ColumnTable table, int rows) {
+        days.clear();
+        if (rows > 0) {
+            // 签到ID随行号递增，按ID截到 rows 行，扫描期间新追加的行留给下次增量累加
+            long lastId = table.get(AnalyticsStore.COL_ID, rows - 1);
+            ColumnTable.Result result = table.query()
+                    .between(AnalyticsStore.COL_ID, Long.MIN_VALUE, lastId)
+                    .groupBy(AnalyticsStore.COL_DAY, AnalyticsStore.COL_HOUR)
+                    .execute();
+            for (ColumnTable.Row row : result.getRows()) {
+                add(row.getKey(0), row.getKey(1), (int) row.getCount());
+            }
+        }
+        builtFrom = table;
+        builtRows = rows;
+    }
+
+    private void add(long epochDay, int hour, int count) {
+        days.computeIfAbsent(epochDay, d -> new int[24])[hour] += count;
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 日期范围内（含两端）的签到热力图
+     */
+    public synchronized Grid getCheckIns(LocalDate from, LocalDate to) {
+        Grid grid = new Grid();
+        for (long day = from.toEpochDay(); day <= to.toEpochDay(); day++) {
+            int[] hours = days.get(day);
+            if (hours != null) {
+                int[] target = grid.counts[LocalDate.ofEpochDay(day).getDayOfWeek().getValue() - 1];
+                for (int h = 0; h < 24; h++) {
+                    target[h] += hours[h];
+                }
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * 刷新后取日期范围内的签到热力图和课程安排叠加层
+     */
+    public View getView(LocalDate from, LocalDate to) {
+        refresh();
+        return new View(getCheckIns(from, to), courseOverlay(new CourseDAO().getAllCourses(), from, to));
+    }
+
+    /**
+     * 按课程类型统计日期范围内每个时段安排的课程节数
+     *
+     * @return Map<课程类型, 热力图>，按类型名排序
+     */
+    public static Map<String, Grid> courseOverlay(List<Course> courses, LocalDate from, LocalDate to) {
+        Map<String, Grid> overlay = new TreeMap<>();
+        for (Course course : courses) {
+            if (course.getCourseTime() == null) {
+                continue;
+            }
+            LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(course.getCourseTime().getTime()), ZoneId.systemDefault());
+            if (time.toLocalDate().isBefore(from) || time.toLocalDate().isAfter(to)) {
+                continue;
+            }
+            String type = course.getType() != null ? course.getType() : "other";
+            overlay.computeIfAbsent(type, t -> new Grid()).counts[time.getDayOfWeek().getValue() - 1][time.getHour()]++;
+        }
+        return overlay;
+    }
+
+    // ==================== 结果 ====================
+
+    /**
+     * 7 × 24 计数网格（星期一 ~ 星期日 × 0 ~ 23 点）
+     */
+    public static class Grid {
+        private final int[][] counts = new int[7][24];
+
+        /**
+         * @param weekday 1（周一）~ 7（周日）
+         * @param hour    0 ~ 23
+         */
+        public int get(int weekday, int hour) {
+            return counts[weekday - 1][hour];
+        }
+
+        public int getMax() {
+            int max = 0;
+            for (int[] row : counts) {
+                for (int c : row) {
+                    max = Math.max(max, c);
+                }
+            }
+            return max;
+        }
+
+        public int getTotal() {
+            int total = 0;
+            for (int[] row : counts) {
+                for (int c : row) {
+                    total += c;
+                }
+            }
+            return total;
+        }
+
+        /**
+         * 最繁忙的时段
+         *
+         * @return {星期(1~7), 小时}，没有数据时为null
+         */
+        public int[] getPeak() {
+            int[] peak = null;
+            int max = 0;
+            for (int d = 0; d < 7; d++) {
+                for (int h = 0; h < 24; h++) {
+                    if (counts[d][h] > max) {
+                        max = counts[d][h];
+                        peak = new int[]{d + 1, h};
+                    }
+                }
+            }
+            return peak;
+        }
+    }
+
+    /**
+     * 热力图视图：签到分布 + 各类型课程安排
+     */
+    public static class View {
+        private final Grid checkIns;
+        private final Map<String, Grid> courses;
+
+        View(Grid checkIns, Map<String, Grid> courses) {
+            this.checkIns = checkIns;
+            this.courses = courses;
+        }
+
+        public Grid getCheckIns() {
+            return checkIns;
+        }
+
+        /** Map<课程类型, 课程节数网格> */
+        public Map<String, Grid> getCourses() {
+            return courses;
+        }
+    }
+}
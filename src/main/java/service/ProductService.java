@@ -1,11 +1,13 @@
 package service;
 
+import dao.ProductCatalog;
 import dao.ProductDAO;
 import entity.Product;
 import java.util.List;
 
 /**
  * 产品业务服务层
+ * 查询走 {@link ProductCatalog} 内存快照，写操作经 ProductDAO 落库后同步更新快照
  */
 public class ProductService {
     private ProductDAO productDAO;
@@ -15,7 +17,21 @@ public class ProductService {
     }
 
     public List<Product> getAllProducts() {
-        return productDAO.getAllProducts();
+        return ProductCatalog.snapshot().getAllProducts();
+    }
+
+    /**
+     * 获取当前目录快照（同一快照内的价格、库存彼此一致）
+     */
+    public ProductCatalog.Snapshot getCatalog() {
+        return ProductCatalog.snapshot();
+    }
+
+    /**
+     * 从数据库重新加载目录（其他进程改库后手动同步）
+     */
+    public void refreshCatalog() {
+        ProductCatalog.reload();
     }
 
     public boolean addProduct(Product product) {
@@ -32,6 +48,6 @@ public class ProductService {
     }
 
     public List<Product> searchProducts(String keyword) {
-        return productDAO.searchProductsByName(keyword);
+        return ProductCatalog.snapshot().search(keyword);
     }
 }
\ No newline at end of file
@@ -0,0 +1,318 @@
+package service;
+
+import dao.MemberDAO;
+import entity.Member;
+import utils.ColumnTable;
+import utils.StatsCache;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 会员留存 / 流失分析
+ *
+ * 按注册月份把会员分成同期群（cohort），统计每个群在注册后第 N 个月仍有签到的人数，
+ * 并列出最近一段时间没来、但之前常来的活跃会员（流失风险名单）。
+ *
+ * 实现：签到数据取自 {@link AnalyticsStore} 的列式签到表，按 (会员, 月份) 分组去重（ForkJoin 并行扫描），
+ * 分组结果已按会员排序，顺序过一遍即可填出整张留存矩阵，不再逐个会员查询签到记录。
+ * 会员注册日期一次查询取出。
+ *
+ * 结果按天缓存（缓存键含日期），当天内重复打开报表不再重算
+ */
+public class RetentionAnalyzer {
+
+    /** 统计最近多少个注册月份 */
+    public static final int COHORT_MONTHS = 12;
+
+    /** 最近多少天没有签到视为有流失风险 */
+    public static final int CHURN_ABSENT_DAYS = 30;
+
+    /** 往前看多少天判断"之前常来"（含最近 {@link #CHURN_ABSENT_DAYS} 天） */
+    public static final int CHURN_LOOKBACK_DAYS = 90;
+
+    /** 流失风险名单最多条数 */
+    public static final int CHURN_LIST_SIZE = 50;
+
+    /** 缓存键前缀 */
+    public static final String CACHE_PREFIX = "retention.";
+
+    private static final long CACHE_TTL_MILLIS = 24 * 60 * 60 * 1000L;
+
+    private final MemberDAO memberDAO = new MemberDAO();
+
+    // ==================== 查询 ====================
+
+    /**
+     * 获取今天的留存报告（按天缓存）
+     *
+     * @return 留存报告，没有会员或查询失败时为null
+     */
+    public Report getReport() {
+        LocalDate today = LocalDate.now();
+        return StatsCache.getInstance().get(StatsCache.key(CACHE_PREFIX + "report", today), CACHE_TTL_MILLIS,
+                () -> compute(today));
+    }
+
+    /**
+     * 丢弃缓存的报告，下次读取时重新计算
+     */
+    public void invalidate() {
+        StatsCache.getInstance().invalidate(CACHE_PREFIX);
+    }
+
+    private Report compute(LocalDate today) {
+        // 查询失败时不返回结果，避免把不完整的报告缓存一整天
+        List<Member> members = memberDAO.getAllMembers();
+        if (members.isEmpty()) {
+            return null;
+        }
+        AnalyticsStore store = AnalyticsStore.getInstance();
+        if (!store.sync()) {
+            return null;
+        }
+        return analyze(members, store.getCheckIns(), today);
+    }
+
+    // ==================== 计算 ====================
+
+    /**
+     * 计算留存矩阵和流失风险名单
+     *
+     * @param members  全部会员（需要ID、注册日期、状态）
+     * @param checkIns 列式签到表（见 {@link AnalyticsStore#getCheckIns()}）
+     * @param today    统计日期
+     */
+    public static Report analyze(List<Member> members, ColumnTable checkIns, LocalDate today) {
+        YearMonth current = YearMonth.from(today);
+        YearMonth first = current.minusMonths(COHORT_MONTHS - 1);
+        int firstIndex = AnalyticsStore.monthIndex(first);
+
+        // 1. 会员 -> 所属同期群
+        Map<Integer, Integer> cohortOf = new HashMap<>();
+        Map<Integer, Member> membersById = new HashMap<>();
+        int[] sizes = new int[COHORT_MONTHS];
+        for (Member member : members) {
+            membersById.put(member.getId(), member);
+            if (member.getRegisterDate() == null) {
+                continue;
+            }
+            YearMonth joined = YearMonth.from(Instant.ofEpochMilli(member.getRegisterDate().getTime()).atZone(ZoneId.systemDefault()));
+            int cohort = AnalyticsStore.monthIndex(joined) - firstIndex;
+            if (cohort >= 0 && cohort < COHORT_MONTHS) {
+                cohortOf.put(member.getId(), cohort);
+                sizes[cohort]++;
+            }
+        }
+
+        // 2. (会员, 月份) 去重后按会员顺序扫描，填入 注册月 × 注册后第N月
+        int[][] retained = new int[COHORT_MONTHS][];
+        for (int c = 0; c < COHORT_MONTHS; c++) {
+            retained[c] = new int[COHORT_MONTHS - c];
+        }
+        ColumnTable.Result activeMonths = checkIns.query()
+                .between(AnalyticsStore.COL_MONTH, firstIndex, AnalyticsStore.monthIndex(current))
+                .groupBy(AnalyticsStore.COL_MEMBER, AnalyticsStore.COL_MONTH)
+                .execute();
+        for (ColumnTable.Row row : activeMonths.getRows()) {
+            Integer cohort = cohortOf.get(row.getKey(0));
+            if (cohort == null) {
+                continue;
+            }
+            int offset = row.getKey(1) - firstIndex - cohort;
+            // 注册前的签到（补录数据）不计入
+            if (offset >= 0 && offset < retained[cohort].length) {
+                retained[cohort][offset]++;
+            }
+        }
+
+        List<Cohort> cohorts = new ArrayList<>();
+        for (int c = 0; c < COHORT_MONTHS; c++) {
+            cohorts.add(new Cohort(first.plusMonths(c), sizes[c], retained[c]));
+        }
+        return new Report(today, cohorts, findChurnRisks(membersById, checkIns, today));
+    }
+
+    /**
+     * 最近 {@link #CHURN_ABSENT_DAYS} 天没有签到、但之前 {@link #CHURN_LOOKBACK_DAYS} 天内来过的正常状态会员，
+     * 按来访天数降序（越常来越值得挽留）
+     */
+    private static List<ChurnRisk> findChurnRisks(Map<Integer, Member> membersById, ColumnTable checkIns, LocalDate today) {
+        long recentFrom = today.minusDays(CHURN_ABSENT_DAYS - 1).toEpochDay();
+        long lookbackFrom = today.minusDays(CHURN_LOOKBACK_DAYS - 1).toEpochDay();
+
+        Set<Integer> recent = new HashSet<>();
+        for (ColumnTable.Row row : checkIns.query()
+                .between(AnalyticsStore.COL_DAY, recentFrom, today.toEpochDay())
+                .groupBy(AnalyticsStore.COL_MEMBER).execute().getRows()) {
+            recent.add(row.getKey(0));
+        }
+
+        // (会员, 日期) 按会员、日期升序：每个会员最后一行即最近一次签到
+        List<ChurnRisk> risks = new ArrayList<>();
+        int memberId = -1;
+        int visitDays = 0;
+        long lastDay = 0;
+        List<ColumnTable.Row> rows = checkIns.query()
+                .between(AnalyticsStore.COL_DAY, lookbackFrom, recentFrom - 1)
+                .groupBy(AnalyticsStore.COL_MEMBER, AnalyticsStore.COL_DAY).execute().getRows();
+        for (ColumnTable.Row row : rows) {
+            if (row.getKey(0) != memberId) {
+                addRisk(risks, membersById, recent, memberId, visitDays, lastDay, today);
+                memberId = row.getKey(0);
+                visitDays = 0;
+            }
+            visitDays++;
+            lastDay = row.getKey(1);
+        }
+        addRisk(risks, membersById, recent, memberId, visitDays, lastDay, today);
+
+        risks.sort((a, b) -> a.visitDays != b.visitDays
+                ? Integer.compare(b.visitDays, a.visitDays)
+                : b.lastCheckIn.compareTo(a.lastCheckIn));
+        return risks.size() > CHURN_LIST_SIZE ? new ArrayList<>(risks.subList(0, CHURN_LIST_SIZE)) : risks;
+    }
+
+    private static void addRisk(List<ChurnRisk> risks, Map<Integer, Member> membersById, Set<Integer> recent,
+                                int memberId, int visitDays, long lastDay, LocalDate today) {
+        if (memberId < 0 || recent.contains(memberId)) {
+            return;
+        }
+        Member member = membersById.get(memberId);
+        if (member == null || !MemberDAO.STATUS_ACTIVE.equals(member.getStatus())) {
+            return;
+        }
+        LocalDate last = LocalDate.ofEpochDay(lastDay);
+        risks.add(new ChurnRisk(memberId, member.getName(), member.getPhone(), last, visitDays,
+                (int) (today.toEpochDay() - lastDay)));
+    }
+
+    // ==================== 结果 ====================
+
+    /**
+     * 留存报告
+     */
+    public static class Report {
+        private final LocalDate asOf;
+        private final List<Cohort> cohorts;
+        private final List<ChurnRisk> churnRisks;
+
+        Report(LocalDate asOf, List<Cohort> cohorts, List<ChurnRisk> churnRisks) {
+            this.asOf = asOf;
+            this.cohorts = Collections.unmodifiableList(cohorts);
+            this.churnRisks = Collections.unmodifiableList(churnRisks);
+        }
+
+        public LocalDate getAsOf() {
+            return asOf;
+        }
+
+        /** 按注册月份升序，共 {@link #COHORT_MONTHS} 个 */
+        public List<Cohort> getCohorts() {
+            return cohorts;
+        }
+
+        public List<ChurnRisk> getChurnRisks() {
+            return churnRisks;
+        }
+    }
+
+    /**
+     * 一个注册月份的同期群
+     */
+    public static class Cohort {
+        private final YearMonth month;
+        private final int size;
+        private final int[] retained;
+
+        Cohort(YearMonth month, int size, int[] retained) {
+            this.month = month;
+            this.size = size;
+            this.retained = retained;
+        }
+
+        public YearMonth getMonth() {
+            return month;
+        }
+
+        /** 该月注册人数 */
+        public int getSize() {
+            return size;
+        }
+
+        /** 已经过去的月数（含注册当月），即可取的 offset 个数 */
+        public int getMonthCount() {
+            return retained.length;
+        }
+
+        /**
+         * 注册后第 offset 个月（0 为注册当月）有签到的人数
+         */
+        public int getRetained(int offset) {
+            return retained[offset];
+        }
+
+        /**
+         * 留存率（百分比），该月无人注册时为0
+         */
+        public double getRate(int offset) {
+            return size > 0 ? retained[offset] * 100.0 / size : 0;
+        }
+    }
+
+    /**
+     * 流失风险会员
+     */
+    public static class ChurnRisk {
+        private final int memberId;
+        private final String name;
+        private final String phone;
+        private final LocalDate lastCheckIn;
+        private final int visitDays;
+        private final int daysAbsent;
+
+        ChurnRisk(int memberId, String name, String phone, LocalDate lastCheckIn, int visitDays, int daysAbsent) {
+            this.memberId = memberId;
+            this.name = name;
+            this.phone = phone;
+            this.lastCheckIn = lastCheckIn;
+            this.visitDays = visitDays;
+            this.daysAbsent = daysAbsent;
+        }
+
+        public int getMemberId() {
+            return memberId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getPhone() {
+            return phone;
+        }
+
+        public LocalDate getLastCheckIn() {
+            return lastCheckIn;
+        }
+
+        /** 观察期内来访的天数 */
+        public int getVisitDays() {
+            return visitDays;
+        }
+
+        /** 距最近一次签到的天数 */
+        public int getDaysAbsent() {
+            return daysAbsent;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package service;
+
+import dao.OrderProductDAO;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 商品销量排行榜（进程内，增量维护）
+ *
+ * 原来统计畅销商品要对每个商品调用一次 getProductSalesCount；
+ * 现在结账成功后直接累加内存计数，排行榜查询不访问数据库。
+ *
+ * 结构：
+ * - 每个商品一个按天的环形计数器（保留最近 {@link #RETENTION_DAYS} 天），
+ *   窗口统计时只累加仍在窗口内的天，过期的天自然被覆盖
+ * - 每个窗口缓存一份 Top-K 结果（小顶堆选出），计数变化或跨天后才重新计算
+ *
+ * 窗口：今日 / 近7天 / 近30天（均含今天）
+ *
+ * 首次访问时从历史订单重建最近30天的计数（启动时由 {@link AppContext} 在后台预热，
+ * 事件线程用 {@link #getIfLoaded()} 读取，不会在界面上等待重建）；也可随时调用 {@link #rebuild()} 手动重建
+ */
+public class SalesLeaderboard {
+
+    /** 计数保留天数（需覆盖最长窗口） */
+    public static final int RETENTION_DAYS = 30;
+
+    /** 统计窗口 */
+    public enum Window {
+        DAY(1), WEEK(7), MONTH(30);
+
+        private final int days;
+
+        Window(int days) {
+            this.days = days;
+        }
+
+        public int getDays() {
+            return days;
+        }
+    }
+
+    private static volatile SalesLeaderboard instance;
+
+    // ==================== 状态 ====================
+
+    private final Supplier<LocalDate> clock;
+    /** 产品ID -> 按天环形计数（重建时整体替换） */
+    private volatile ConcurrentHashMap<Integer, DailyCounter> counters = new ConcurrentHashMap<>();
+    /** record 与重建换表之间的锁 */
+    private final Object recordLock = new Object();
+    /** 重建期间记录的销量 {产品ID, 数量, 日期}，换表前补记到新表；不在重建时为null */
+    private List<long[]> recordedDuringRebuild;
+    /** 任意计数变化后递增，用于判断缓存的 Top-K 是否过期 */
+    private final AtomicLong version = new AtomicLong();
+    /** 每个窗口缓存的 Top-K */
+    private final Map<Window, CachedTop> cachedTops = new EnumMap<>(Window.class);
+
+    // ==================== 构造方法 ====================
+
+    /**
+     * @param clock 当前日期来源（测试时可传入固定日期）
+     */
+    public SalesLeaderboard(Supplier<LocalDate> clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * 获取进程内共享的排行榜（首次调用时从历史订单重建）
+     */
+    public static SalesLeaderboard getInstance() {
+        SalesLeaderboard board = instance;
+        if (board == null) {
+            synchronized (SalesLeaderboard.class) {
+                if (instance == null) {
+                    SalesLeaderboard created = new SalesLeaderboard(LocalDate::now);
+                    created.rebuild();
+                    instance = created;
+                }
+                board = instance;
+            }
+        }
+        return board;
+    }
+
+    /**
+     * 已经重建好的共享排行榜，尚未创建时返回null（不触发重建）
+     */
+    public static SalesLeaderboard getIfLoaded() {
+        return instance;
+    }
+
+    // ==================== 记录销量 ====================
+
+    /**
+     * 记录一次结账的销量（结账事务提交后调用）
+     *
+     * @param quantities Map<产品ID, 数量>
+     */
+    public void record(Map<Integer, Integer> quantities) {
+        LocalDate today = clock.get();
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            record(entry.getKey(), entry.getValue(), today);
+        }
+    }
+
+    /**
+     * 记录某天某商品的销量
+     */
+    public void record(int productId, int quantity, LocalDate day) {
+        if (quantity <= 0 || day == null) {
+            return;
+        }
+        synchronized (recordLock) {
+            counters.computeIfAbsent(productId, id -> new DailyCounter()).add(day.toEpochDay(), quantity);
+            if (recordedDuringRebuild != null) {
+                recordedDuringRebuild.add(new long[]{productId, quantity, day.toEpochDay()});
+            }
+        }
+        version.incrementAndGet();
+    }
+
+    /**
+     * 从历史订单重建最近 {@link #RETENTION_DAYS} 天的计数
+     *
+     * @return 是否重建成功（读取失败时保留原计数）
+     */
+    public boolean rebuild() {
+        LocalDate since = clock.get().minusDays(RETENTION_DAYS - 1);
+        return rebuild(() -> new OrderProductDAO().getDailySalesSince(since));
+    }
+
+    /**
+     * 由给定的历史销量重建计数
+     *
+     * 新计数在旁边建好后整体替换；查询历史期间 record 的销量不一定在历史结果中，换表前补记到新表
+     *
+     * @param history 历史销量来源 Map<日期, Map<产品ID, 数量>>，读取失败返回null
+     * @return 是否重建成功（读取失败时保留原计数）
+     */
+    public synchronized boolean rebuild(Supplier<Map<LocalDate, Map<Integer, Integer>>> history) {
+        synchronized (recordLock) {
+            recordedDuringRebuild = new ArrayList<>();
+        }
+        Map<LocalDate, Map<Integer, Integer>> sales;
+        try {
+            sales = history.get();
+        } catch (RuntimeException e) {
+            synchronized (recordLock) {
+                recordedDuringRebuild = null;
+            }
+            throw e;
+        }
+        ConcurrentHashMap<Integer, DailyCounter> rebuilt = new ConcurrentHashMap<>();
+        if (sales != null) {
+            for (Map.Entry<LocalDate, Map<Integer, Integer>> day : sales.entrySet()) {
+                for (Map.Entry<Integer, Integer> item : day.getValue().entrySet()) {
+                    rebuilt.computeIfAbsent(item.getKey(), id -> new DailyCounter()).add(day.getKey().toEpochDay(), item.getValue());
+                }
+            }
+        }
+        synchronized (recordLock) {
+            List<long[]> recorded = recordedDuringRebuild;
+            recordedDuringRebuild = null;
+            if (sales == null) {
+                return false;
+            }
+            for (long[] r : recorded) {
+                rebuilt.computeIfAbsent((int) r[0], id -> new DailyCounter()).add(r[2], (int) r[1]);
+            }
+            counters = rebuilt;
+        }
+        version.incrementAndGet();
+        return true;
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 窗口内销量前K名
+     *
+     * @param window 统计窗口
+     * @param k      名次数量
+     * @return 按销量降序（销量相同按产品ID升序），不含销量为0的商品
+     */
+    public List<Entry> getTop(Window window, int k) {
+        if (k <= 0) {
+            return Collections.emptyList();
+        }
+        long today = clock.get().toEpochDay();
+        long currentVersion = version.get();
+        synchronized (cachedTops) {
+            CachedTop cached = cachedTops.get(window);
+            if (cached != null && cached.version == currentVersion && cached.epochDay == today && cached.k >= k) {
+                return new ArrayList<>(cached.entries.subList(0, Math.min(k, cached.entries.size())));
+            }
+        }
+
+        // 小顶堆保留当前最大的 K 个
+        Comparator<Entry> order = Comparator.comparingInt(Entry::getQuantity)
+                .thenComparing(Entry::getProductId, Comparator.reverseOrder());
+        PriorityQueue<Entry> heap = new PriorityQueue<>(k, order);
+        for (Map.Entry<Integer, DailyCounter> counter : counters.entrySet()) {
+            int quantity = counter.getValue().sum(today, window.getDays());
+            if (quantity <= 0) {
+                continue;
+            }
+            Entry candidate = new Entry(counter.getKey(), quantity);
+            if (heap.size() < k) {
+                heap.offer(candidate);
+            } else if (order.compare(candidate, heap.peek()) > 0) {
+                heap.poll();
+                heap.offer(candidate);
+            }
+        }
+        List<Entry> top = new ArrayList<>(heap);
+        top.sort(order.reversed());
+
+        synchronized (cachedTops) {
+            cachedTops.put(window, new CachedTop(currentVersion, today, k, top));
+        }
+        return new ArrayList<>(top);
+    }
+
+    /**
+     * 某商品在窗口内的销量
+     */
+    public int getQuantity(int productId, Window window) {
+        DailyCounter counter = counters.get(productId);
+        return counter == null ? 0 : counter.sum(clock.get().toEpochDay(), window.getDays());
+    }
+
+    /**
+     * 计数版本号，销量变化后递增
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    // ==================== 内部类 ====================
+
+    /**
+     * 按天环形计数：槽位 = 日期 % 保留天数，日期不符说明槽位属于已过期的某天
+     */
+    private static class DailyCounter {
+        private final long[] days = new long[RETENTION_DAYS];
+        private final int[] counts = new int[RETENTION_DAYS];
+
+        DailyCounter() {
+            Arrays.fill(days, Long.MIN_VALUE);
+        }
+
+        synchronized void add(long epochDay, int quantity) {
+            int slot = (int) Math.floorMod(epochDay, (long) RETENTION_DAYS);
+            if (days[slot] != epochDay) {
+                if (days[slot] > epochDay) {
+                    return; // 比槽位中的日期还早，已超出保留范围
+                }
+                days[slot] = epochDay;
+                counts[slot] = 0;
+            }
+            counts[slot] += quantity;
+        }
+
+        synchronized int sum(long today, int windowDays) {
+            int total = 0;
+            for (int i = 0; i < RETENTION_DAYS; i++) {
+                long age = today - days[i];
+                if (age >= 0 && age < windowDays) {
+                    total += counts[i];
+                }
+            }
+            return total;
+        }
+    }
+
+    private static class CachedTop {
+        final long version;
+        final long epochDay;
+        final int k;
+        final List<Entry> entries;
+
+        CachedTop(long version, long epochDay, int k, List<Entry> entries) {
+            this.version = version;
+            this.epochDay = epochDay;
+            this.k = k;
+            this.entries = entries;
+        }
+    }
+
+    /**
+     * 排行榜条目（不可变）
+     */
+    public static class Entry {
+        private final int productId;
+        private final int quantity;
+
+        public Entry(int productId, int quantity) {
+            this.productId = productId;
+            this.quantity = quantity;
+        }
+
+        public int getProductId() {
+            return productId;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        @Override
+        public String toString() {
+            return "Entry{productId = " + productId + ", quantity = " + quantity + "}";
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package service;
+
+import dao.RoleRegistry;
+import entity.Employee;
+import entity.EmployeeRole;
+import entity.Member;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 已登录的会话：账号、登录时解析出的会员 / 员工资料和角色
+ *
+ * 登录成功后保存在 {@link AppContext#getSession()}，之后的界面和权限判断直接读这里，
+ * 不再按员工ID重新查询员工。会话只保存角色ID，权限每次从 {@link RoleRegistry} 的当前快照判断，
+ * 角色权限修改后对已登录的员工立即生效；角色表加载失败（快照中没有该角色）时退回登录时取到的权限
+ */
+public final class Session {
+
+    public static final String TYPE_MEMBER = "member";
+    public static final String TYPE_EMPLOYEE = "employee";
+
+    private final int userId;
+    private final String username;
+    private final String userType;
+    private final Member member;
+    private final Employee employee;
+    /** 登录时取到的权限，只在角色快照中没有该角色时使用 */
+    private final Set<String> loginPermissions;
+    private final Date loginAt;
+    /** 员工角色ID，会员账号为0；本人角色被修改时更新 */
+    private volatile int roleId;
+
+    private Session(int userId, String username, String userType, Member member, Employee employee, Date loginAt) {
+        this.userId = userId;
+        this.username = username;
+        this.userType = userType;
+        this.member = member;
+        this.employee = employee;
+        this.loginAt = loginAt;
+        this.roleId = employee != null ? employee.getRoleId() : 0;
+
+        Set<String> perms = new LinkedHashSet<>();
+        EmployeeRole role = employee != null ? employee.getEmployeeRole() : null;
+        if (role != null) {
+            for (String p : role.getPermissionList()) {
+                if (!p.trim().isEmpty()) {
+                    perms.add(p.trim());
+                }
+            }
+        }
+        this.loginPermissions = Collections.unmodifiableSet(perms);
+    }
+
+    public static Session forMember(int userId, String username, Member member, Date loginAt) {
+        return new Session(userId, username, TYPE_MEMBER, member, null, loginAt);
+    }
+
+    public static Session forEmployee(int userId, String username, Employee employee, Date loginAt) {
+        return new Session(userId, username, TYPE_EMPLOYEE, null, employee, loginAt);
+    }
+
+    // ==================== 身份 ====================
+
+    public int getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    /** member 或 employee */
+    public String getUserType() {
+        return userType;
+    }
+
+    /** 会员账号的会员资料，员工账号为null */
+    public Member getMember() {
+        return member;
+    }
+
+    /** 员工账号的员工资料（含角色），会员账号为null */
+    public Employee getEmployee() {
+        return employee;
+    }
+
+    /** 会员或员工资料 */
+    public Object getProfile() {
+        return member != null ? member : employee;
+    }
+
+    public Date getLoginAt() {
+        return new Date(loginAt.getTime());
+    }
+
+    // ==================== 权限 ====================
+
+    /**
+     * 是否为指定员工的会话
+     */
+    public boolean isEmployee(int employeeId) {
+        return employee != null && employee.getId() == employeeId;
+    }
+
+    /**
+     * 员工角色ID，会员账号返回0
+     */
+    public int getRoleId() {
+        return roleId;
+    }
+
+    /**
+     * 本人角色变更后由 {@link EmployeeService} 调用
+     */
+    void setRoleId(int roleId) {
+        if (employee != null) {
+            this.roleId = roleId;
+        }
+    }
+
+    public boolean hasPermission(String permission) {
+        return hasPermission(RoleRegistry.snapshot(), permission);
+    }
+
+    /**
+     * 按给定的角色快照判断权限
+     */
+    public boolean hasPermission(RoleRegistry.Snapshot roles, String permission) {
+        if (employee == null) {
+            return false;
+        }
+        if (roles.contains(roleId)) {
+            return roles.hasPermission(roleId, permission);
+        }
+        return loginPermissions.contains(permission);
+    }
+
+    public Set<String> getPermissions() {
+        return getPermissions(RoleRegistry.snapshot());
+    }
+
+    /**
+     * 按给定的角色快照列出权限
+     */
+    public Set<String> getPermissions(RoleRegistry.Snapshot roles) {
+        if (employee == null) {
+            return Collections.emptySet();
+        }
+        if (roles.contains(roleId)) {
+            return Collections.unmodifiableSet(new LinkedHashSet<>(roles.getPermissions(roleId)));
+        }
+        return loginPermissions;
+    }
+}
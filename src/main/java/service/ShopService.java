@@ -1,17 +1,26 @@
 package service;
 
+import dao.DurableWriteQueue;
 import dao.MemberDAO;
 import dao.OrderDAO;
 import dao.OrderProductDAO;
+import dao.ProductCatalog;
 import dao.ProductDAO;
 import entity.Member;
 import entity.Order;
 import entity.OrderProduct;
 import entity.Product;
+import utils.DBUtil;
 import utils.DateUtils;
+import utils.Money;
 
-import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 public class ShopService {
 
@@ -28,81 +37,149 @@ public class ShopService {
     }
 
     public java.util.List<Product> getAllProducts() {
-        return productDAO.getAllProducts();
+        return ProductCatalog.snapshot().getAllProducts();
     }
 
     /**
-     * 购物结算 (Checkout) - 保持不变，逻辑是正确的
+     * 购物结算 (Checkout) - 单事务批处理流水线
+     *
+     * 一个事务内完成，10 行购物车约 5 条语句：
+     * 1. SELECT ... WHERE product_id IN (...) FOR UPDATE —— 按ID升序一次锁定全部商品（无死锁）
+     * 2. 整数分计价（无舍入、无对象分配）
+     * 3. 会员余额带守卫扣款（散客跳过）
+     * 4. 写入订单
+     * 5. 批量写入订单明细
+     * 6. 批量带守卫扣减库存
+     * 任一步失败整体回滚，不会出现"扣了钱没出库"或"出了库没记账"
      */
     public ServiceResult<Void> checkout(int memberId, Map<Integer, Integer> cart) {
         if (cart == null || cart.isEmpty()) return ServiceResult.failure("购物车为空");
-        BigDecimal totalAmount = BigDecimal.ZERO;
         for (Map.Entry<Integer, Integer> entry : cart.entrySet()) {
-            Product p = productDAO.getProductById(entry.getKey());
-            if (p == null || p.getStock() < entry.getValue()) return ServiceResult.failure("库存不足: " + (p!=null?p.getName():entry.getKey()));
-            totalAmount = totalAmount.add(BigDecimal.valueOf(p.getPrice()).multiply(BigDecimal.valueOf(entry.getValue())));
+            if (entry.getValue() == null || entry.getValue() <= 0) return ServiceResult.failure("商品数量无效: " + entry.getKey());
         }
 
-        double originalBalance = 0.0;
-        if (memberId > 0) {
-            Member m = memberDAO.getMemberById(memberId);
-            if (m == null) return ServiceResult.failure("会员不存在");
-            if (BigDecimal.valueOf(m.getBalance()).compareTo(totalAmount) < 0) return ServiceResult.failure("余额不足");
-            originalBalance = m.getBalance();
-            if (!memberDAO.updateBalance(memberId, m.getBalance() - totalAmount.doubleValue())) return ServiceResult.failure("扣款失败");
-        }
+        // 会员存在性走缓存预检，真正的余额校验由扣款语句保证
+        if (memberId > 0 && memberDAO.getMemberById(memberId) == null) return ServiceResult.failure("会员不存在");
 
-        try {
-            Order order = new Order();
-            order.setMemberId(memberId > 0 ? memberId : 0);
-            order.setOrderType(OrderDAO.TYPE_PRODUCT); // 商品类型
-            order.setAmount(totalAmount.doubleValue());
-            order.setPaymentStatus(OrderDAO.STATUS_PAID);
-            order.setOrderTime(DateUtils.now());
-            if (!orderDAO.addOrder(order)) throw new Exception("订单写入失败");
-
-            for (Map.Entry<Integer, Integer> entry : cart.entrySet()) {
-                OrderProduct item = new OrderProduct();
-                item.setOrderId(order.getOrderId());
-                item.setProductId(entry.getKey());
-                item.setQuantity(entry.getValue());
-                orderProductDAO.addOrderProduct(item);
-                productDAO.decreaseStock(entry.getKey(), entry.getValue());
+        try (Connection conn = DBUtil.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                Map<Integer, Integer> newStocks = new HashMap<>();
+                ServiceResult<Void> result = checkoutInTransaction(conn, memberId, cart, newStocks);
+                if (result.isSuccess()) {
+                    conn.commit();
+                    // 行锁保证了提交后的库存就是锁定时读到的值减去售出数量
+                    ProductCatalog.setStocks(newStocks);
+                    SalesLeaderboard.getInstance().record(cart);
+                } else {
+                    conn.rollback();
+                }
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                if (memberId > 0) MemberDAO.invalidateCache(memberId);
             }
-            return ServiceResult.success("交易成功: ¥" + totalAmount);
-        } catch (Exception e) {
-            if (memberId > 0) memberDAO.updateBalance(memberId, originalBalance); // 回滚
+        } catch (SQLException e) {
+            e.printStackTrace();
             return ServiceResult.failure("交易异常: " + e.getMessage());
         }
     }
 
+    /**
+     * 按库存预留结账：购物车内容取自预留台账，成功后预留转为实际出库
+     *
+     * @param memberId 会员ID（0 表示散客）
+     * @param cartId   {@link StockReservationLedger} 中的购物车ID
+     */
+    public ServiceResult<Void> checkout(int memberId, String cartId) {
+        StockReservationLedger ledger = StockReservationLedger.getInstance();
+        Map<Integer, Integer> cart = ledger.getReservations(cartId);
+        if (cart.isEmpty()) return ServiceResult.failure("购物车为空或预留已超时释放");
+
+        ServiceResult<Void> result = checkout(memberId, cart);
+        if (result.isSuccess()) {
+            // 快照库存已扣减，此时释放预留，可售数量保持不变
+            ledger.complete(cartId);
+        }
+        return result;
+    }
+
+    /**
+     * 结账流水线主体（在调用方事务内执行，返回失败时由调用方回滚）
+     *
+     * @param newStocks 输出参数：成功时填入各商品扣减后的库存，供提交后更新目录快照
+     */
+    private ServiceResult<Void> checkoutInTransaction(Connection conn, int memberId, Map<Integer, Integer> cart,
+                                                      Map<Integer, Integer> newStocks) throws SQLException {
+        // 1. 一次锁定全部商品
+        Map<Integer, Product> products = productDAO.lockProductsForUpdate(conn, cart.keySet());
+
+        // 2. 校验库存并计价
+        long totalCents = 0;
+        List<OrderProduct> items = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> entry : new TreeMap<>(cart).entrySet()) {
+            Product p = products.get(entry.getKey());
+            if (p == null) return ServiceResult.failure("商品不存在: " + entry.getKey());
+            if (p.getStock() < entry.getValue()) return ServiceResult.failure("库存不足: " + p.getName());
+            totalCents = Money.add(totalCents, Money.multiply(p.getPriceCents(), entry.getValue()));
+            items.add(new OrderProduct(0, entry.getKey(), entry.getValue()));
+            newStocks.put(entry.getKey(), p.getStock() - entry.getValue());
+        }
+
+        // 3. 会员扣款
+        if (memberId > 0 && !memberDAO.debitBalance(conn, memberId, totalCents)) {
+            return ServiceResult.failure("余额不足");
+        }
+
+        // 4. 订单
+        Order order = new Order();
+        order.setMemberId(memberId > 0 ? memberId : 0);
+        order.setOrderType(OrderDAO.TYPE_PRODUCT); // 商品类型
+        order.setAmountCents(totalCents);
+        order.setPaymentStatus(OrderDAO.STATUS_PAID);
+        order.setOrderTime(DateUtils.now());
+        if (!orderDAO.addOrder(conn, order)) return ServiceResult.failure("订单写入失败");
+
+        // 5. 订单明细
+        if (!orderProductDAO.addOrderProducts(conn, order.getOrderId(), items)) return ServiceResult.failure("订单明细写入失败");
+
+        // 6. 扣库存（行已锁定，守卫条件兜底）
+        if (!productDAO.decreaseStockBatch(conn, cart)) return ServiceResult.failure("库存扣减失败");
+
+        return ServiceResult.success("交易成功: ¥" + Money.format(totalCents));
+    }
+
     /**
      * 会员充值 (修复：使用正确的 OrderType)
+     *
+     * @param amountCents 充值金额（分）
      */
-    public ServiceResult<Void> recharge(int memberId, double amount) {
-        if (amount <= 0) return ServiceResult.failure("金额必须 > 0");
+    public ServiceResult<Void> recharge(int memberId, long amountCents) {
+        if (amountCents <= 0) return ServiceResult.failure("金额必须 > 0");
         Member member = memberDAO.getMemberById(memberId);
         if (member == null) return ServiceResult.failure("会员不存在");
 
-        double newBalance = member.getBalance() + amount;
-        if (!memberDAO.updateBalance(memberId, newBalance)) {
+        // 数据库端累加，并发充值不会互相覆盖
+        if (!memberDAO.creditBalance(memberId, amountCents)) {
             return ServiceResult.failure("余额更新失败");
         }
+        long newBalanceCents = Money.add(member.getBalanceCents(), amountCents);
 
         // >>> 关键修复：记录充值流水 <<<
-        try {
-            Order order = new Order();
-            order.setMemberId(memberId);
-            // 这里使用了修复后 OrderDAO 中的常量，不会再报 "type=recharge" 错误
-            order.setOrderType(OrderDAO.TYPE_RECHARGE);
-            order.setAmount(amount);
-            order.setOrderTime(DateUtils.now());
-            order.setPaymentStatus(OrderDAO.STATUS_PAID);
-            orderDAO.addOrder(order);
-        } catch (Exception e) {
-            e.printStackTrace();
+        // 先写本地日志再由后台写库，数据库抖动时流水不会丢失
+        Order order = new Order();
+        order.setMemberId(memberId);
+        // 这里使用了修复后 OrderDAO 中的常量，不会再报 "type=recharge" 错误
+        order.setOrderType(OrderDAO.TYPE_RECHARGE);
+        order.setAmountCents(amountCents);
+        order.setOrderTime(DateUtils.now());
+        order.setPaymentStatus(OrderDAO.STATUS_PAID);
+        if (!DurableWriteQueue.submitOrder(order)) {
+            System.err.println("充值流水记录失败 (memberId=" + memberId + ", amount=" + Money.format(amountCents) + ")");
         }
 
-        return ServiceResult.success("充值成功！当前余额: ¥" + String.format("%.2f", newBalance));
+        return ServiceResult.success("充值成功！当前余额: ¥" + Money.format(newBalanceCents));
     }
 }
\ No newline at end of file
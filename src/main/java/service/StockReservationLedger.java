@@ -0,0 +1,273 @@
+package service;
+
+import dao.ProductCatalog;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * 库存预留台账（进程内）
+ *
+ * 解决的问题：多台收银机同时卖同一件商品时，原来要到结账才发现库存不够。
+ * 现在加入购物车即预留数量，其他收银台看到的可售数量立即减少。
+ *
+ * 规则：
+ * - 可售数量 = 目录快照库存 - 所有购物车的预留总数，全程不查数据库
+ * - 每个购物车有存活时间（TTL），每次操作自动续期；超时未操作视为放弃，预留自动释放
+ * - 结账成功后调用 {@link #complete(String)} 释放预留（库存已在数据库和快照中扣减）
+ *
+ * 并发：按商品ID在 ConcurrentHashMap.compute 内完成"检查 + 预留"，
+ * 不同商品互不阻塞；同一购物车的操作在购物车对象上串行
+ */
+public class StockReservationLedger {
+
+    /** 默认购物车存活时间：15分钟无操作自动释放 */
+    public static final long DEFAULT_TTL_MILLIS = 15 * 60 * 1000L;
+
+    /** 过期清理的最小间隔，避免每次调用都遍历全部购物车 */
+    private static final long SWEEP_INTERVAL_MILLIS = 1000L;
+
+    private static final StockReservationLedger INSTANCE =
+            new StockReservationLedger(DEFAULT_TTL_MILLIS, productId -> ProductCatalog.snapshot().getStock(productId));
+
+    // ==================== 状态 ====================
+
+    private final long ttlMillis;
+    /** 库存来源：产品ID -> 当前库存 */
+    private final IntUnaryOperator stockLookup;
+
+    /** 产品ID -> 所有购物车的预留总数 */
+    private final ConcurrentHashMap<Integer, Integer> reservedByProduct = new ConcurrentHashMap<>();
+    /** 购物车ID -> 购物车 */
+    private final ConcurrentHashMap<String, Cart> carts = new ConcurrentHashMap<>();
+
+    /** 任意预留变化都会递增，界面据此判断是否需要刷新可售数量 */
+    private final AtomicLong version = new AtomicLong();
+    private volatile long lastSweepAt;
+
+    // ==================== 构造方法 ====================
+
+    /**
+     * @param ttlMillis   购物车存活时间（毫秒）
+     * @param stockLookup 库存来源（测试时可传入固定库存）
+     */
+    public StockReservationLedger(long ttlMillis, IntUnaryOperator stockLookup) {
+        this.ttlMillis = ttlMillis;
+        this.stockLookup = stockLookup;
+    }
+
+    /**
+     * 获取进程内共享的台账（库存来源为商品目录快照）
+     */
+    public static StockReservationLedger getInstance() {
+        return INSTANCE;
+    }
+
+    // ==================== 购物车 ====================
+
+    /**
+     * 开一个新购物车
+     *
+     * @return 购物车ID
+     */
+    public String openCart() {
+        String cartId = UUID.randomUUID().toString();
+        carts.put(cartId, new Cart(System.currentTimeMillis() + ttlMillis));
+        return cartId;
+    }
+
+    /**
+     * 关闭购物车并释放全部预留（收银窗口关闭时调用）
+     */
+    public void closeCart(String cartId) {
+        Cart cart = carts.remove(cartId);
+        if (cart != null) {
+            releaseCart(cart);
+        }
+    }
+
+    /**
+     * 预留商品
+     *
+     * @param cartId    购物车ID（已过期或不存在时自动重新开启）
+     * @param productId 产品ID
+     * @param quantity  预留数量
+     * @return 可售数量足够并预留成功返回true
+     */
+    public boolean reserve(String cartId, int productId, int quantity) {
+        if (quantity <= 0) {
+            return false;
+        }
+        sweepExpired();
+        Cart cart = carts.computeIfAbsent(cartId, id -> new Cart(System.currentTimeMillis() + ttlMillis));
+        synchronized (cart) {
+            if (cart.closed) {
+                // 刚好被过期清理掉，换一个新购物车对象重试
+                carts.remove(cartId, cart);
+                return reserve(cartId, productId, quantity);
+            }
+            boolean[] granted = {false};
+            reservedByProduct.compute(productId, (id, reserved) -> {
+                int current = reserved == null ? 0 : reserved;
+                if (stockLookup.applyAsInt(id) - current >= quantity) {
+                    granted[0] = true;
+                    return current + quantity;
+                }
+                return reserved;
+            });
+            if (granted[0]) {
+                cart.items.merge(productId, quantity, Integer::sum);
+                version.incrementAndGet();
+            }
+            cart.touch(ttlMillis);
+            return granted[0];
+        }
+    }
+
+    /**
+     * 释放购物车中某商品的全部预留
+     */
+    public void release(String cartId, int productId) {
+        Cart cart = carts.get(cartId);
+        if (cart == null) {
+            return;
+        }
+        synchronized (cart) {
+            Integer quantity = cart.items.remove(productId);
+            if (quantity != null) {
+                unreserve(productId, quantity);
+            }
+            cart.touch(ttlMillis);
+        }
+    }
+
+    /**
+     * 结账成功：释放预留，购物车保持打开可继续使用
+     * （此时库存已在数据库和目录快照中扣减，预留转化为实际出库）
+     */
+    public void complete(String cartId) {
+        Cart cart = carts.get(cartId);
+        if (cart != null) {
+            synchronized (cart) {
+                releaseItems(cart);
+                cart.touch(ttlMillis);
+            }
+        }
+    }
+
+    /**
+     * 清空购物车（释放全部预留）
+     */
+    public void clear(String cartId) {
+        complete(cartId);
+    }
+
+    /**
+     * 购物车当前预留（按加入顺序），已过期返回空
+     *
+     * @return Map<产品ID, 数量> 只读副本
+     */
+    public Map<Integer, Integer> getReservations(String cartId) {
+        sweepExpired();
+        Cart cart = carts.get(cartId);
+        if (cart == null) {
+            return Collections.emptyMap();
+        }
+        synchronized (cart) {
+            return Collections.unmodifiableMap(new LinkedHashMap<>(cart.items));
+        }
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 可售数量 = 库存 - 所有购物车的预留
+     */
+    public int getAvailable(int productId) {
+        sweepExpired();
+        return Math.max(0, stockLookup.applyAsInt(productId) - reservedByProduct.getOrDefault(productId, 0));
+    }
+
+    /**
+     * 某商品被预留的总数
+     */
+    public int getReserved(int productId) {
+        return reservedByProduct.getOrDefault(productId, 0);
+    }
+
+    /**
+     * 预留版本号，任意预留变化后递增
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * 当前打开的购物车数量
+     */
+    public int getOpenCartCount() {
+        return carts.size();
+    }
+
+    // ==================== 过期清理 ====================
+
+    /**
+     * 释放所有已过期购物车的预留（节流：最多每秒执行一次）
+     */
+    public void sweepExpired() {
+        long now = System.currentTimeMillis();
+        if (now - lastSweepAt < SWEEP_INTERVAL_MILLIS) {
+            return;
+        }
+        lastSweepAt = now;
+        for (Map.Entry<String, Cart> entry : carts.entrySet()) {
+            Cart cart = entry.getValue();
+            if (cart.expiresAt < now && carts.remove(entry.getKey(), cart)) {
+                releaseCart(cart);
+            }
+        }
+    }
+
+    // ==================== 内部方法 ====================
+
+    private void releaseCart(Cart cart) {
+        synchronized (cart) {
+            cart.closed = true;
+            releaseItems(cart);
+        }
+    }
+
+    private void releaseItems(Cart cart) {
+        for (Map.Entry<Integer, Integer> item : cart.items.entrySet()) {
+            unreserve(item.getKey(), item.getValue());
+        }
+        cart.items.clear();
+    }
+
+    private void unreserve(int productId, int quantity) {
+        reservedByProduct.computeIfPresent(productId, (id, reserved) -> reserved - quantity > 0 ? reserved - quantity : null);
+        version.incrementAndGet();
+    }
+
+    /**
+     * 购物车：预留明细 + 过期时间（字段访问需持有购物车锁）
+     */
+    private static class Cart {
+        final Map<Integer, Integer> items = new LinkedHashMap<>();
+        volatile long expiresAt;
+        boolean closed;
+
+        Cart(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+
+        void touch(long ttlMillis) {
+            expiresAt = System.currentTimeMillis() + ttlMillis;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package service;
+
+import dao.EmployeeDAO;
+import utils.StatsCache;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 教练工作量报告（本周课程数、已预约名额、满座率、今日上课人数）
+ *
+ * 原来要看一个教练的工作量需要分别查询课程、今日预约数、逐课程查询预约，
+ * 全部教练的概览就要按教练重复一遍。现在由 {@link EmployeeDAO#getTrainerWorkloads}
+ * 一次分组查询得到全部教练的数据，结果经 {@link StatsCache} 缓存，
+ * 员工管理界面和排课界面（推荐教练）共用同一份结果。
+ *
+ * 课程增删改后由 {@link CourseService} 调用 {@link #invalidate()}；
+ * 预约变化不主动失效，最多延迟 {@link #CACHE_TTL_MILLIS} 毫秒体现
+ */
+public class TrainerWorkloadReport {
+
+    /** 缓存键前缀 */
+    public static final String CACHE_PREFIX = "trainer.workload.";
+
+    /** 缓存时间（毫秒） */
+    public static final long CACHE_TTL_MILLIS = 30_000;
+
+    private final EmployeeDAO employeeDAO = new EmployeeDAO();
+
+    // ==================== 查询 ====================
+
+    /**
+     * 本周（周一开始）的教练工作量
+     *
+     * @return 工作量列表（按教练ID升序），查询失败返回null
+     */
+    public List<EmployeeDAO.Workload> getWorkloads() {
+        return getWorkloads(LocalDate.now());
+    }
+
+    /**
+     * 某一天所在周的教练工作量（今日上课人数始终按今天统计）
+     *
+     * @param day 周内任意一天
+     * @return 工作量列表（按教练ID升序），查询失败返回null
+     */
+    public List<EmployeeDAO.Workload> getWorkloads(LocalDate day) {
+        LocalDate weekStart = weekStart(day);
+        LocalDate today = LocalDate.now();
+        return StatsCache.getInstance().get(StatsCache.key(CACHE_PREFIX + "week", weekStart, today), CACHE_TTL_MILLIS,
+                () -> employeeDAO.getTrainerWorkloads(toDate(weekStart), toDate(weekStart.plusWeeks(1)),
+                        toDate(today), toDate(today.plusDays(1))));
+    }
+
+    /**
+     * 某一天所在周工作量最少的教练（用于排课时推荐）
+     *
+     * @param day 周内任意一天
+     * @return 推荐的教练，没有教练或查询失败返回null
+     */
+    public EmployeeDAO.Workload suggestTrainer(LocalDate day) {
+        return leastLoaded(getWorkloads(day));
+    }
+
+    /**
+     * 丢弃缓存的报告，下次读取时重新查询
+     */
+    public static void invalidate() {
+        StatsCache.getInstance().invalidate(CACHE_PREFIX);
+    }
+
+    // ==================== 计算 ====================
+
+    /**
+     * 选出工作量最少的教练：课程数最少，其次已预约名额最少，再按教练ID
+     *
+     * @param workloads 工作量列表，可为null
+     * @return 工作量最少的教练，列表为空或null时返回null
+     */
+    public static EmployeeDAO.Workload leastLoaded(List<EmployeeDAO.Workload> workloads) {
+        if (workloads == null) {
+            return null;
+        }
+        EmployeeDAO.Workload best = null;
+        for (EmployeeDAO.Workload w : workloads) {
+            if (best == null || compare(w, best) < 0) {
+                best = w;
+            }
+        }
+        return best;
+    }
+
+    private static int compare(EmployeeDAO.Workload a, EmployeeDAO.Workload b) {
+        if (a.getCourseCount() != b.getCourseCount()) {
+            return Integer.compare(a.getCourseCount(), b.getCourseCount());
+        }
+        if (a.getBookedSeats() != b.getBookedSeats()) {
+            return Integer.compare(a.getBookedSeats(), b.getBookedSeats());
+        }
+        return Integer.compare(a.getTrainerId(), b.getTrainerId());
+    }
+
+    /**
+     * 所在周的周一
+     */
+    public static LocalDate weekStart(LocalDate day) {
+        return day.minusDays(day.getDayOfWeek().getValue() - DayOfWeek.MONDAY.getValue());
+    }
+
+    private static Date toDate(LocalDate day) {
+        return Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
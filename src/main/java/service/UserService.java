@@ -1,13 +1,17 @@
 package service;
 
 
+import dao.LastLoginWriter;
 import dao.MemberDAO;
 import dao.EmployeeDAO;
+import dao.UserDAO;
 import entity.Member;
 import entity.Employee;
 import entity.UserInfo;
 import utils.DBUtil;
+import utils.PasswordHasher;
 import java.sql.*;
+import java.util.Date;
 
 public class UserService {
 
@@ -17,14 +21,22 @@ public class UserService {
 
     private MemberDAO memberDAO;
     private EmployeeDAO employeeDAO;
+    private UserDAO userDAO;
 
     public UserService() {
         this.memberDAO = new MemberDAO();
         this.employeeDAO = new EmployeeDAO();
+        this.userDAO = new UserDAO();
     }
 
     /**
      * 用户登录
+     *
+     * 一次连接查询取出账号和会员 / 员工（含角色）资料；最后登录时间交给 {@link LastLoginWriter} 延迟批量写入。
+     * 密码在 {@link PasswordHasher} 的有界线程池上验证，旧格式的哈希验证通过后在后台换成新哈希。
+     * 成功时结果中带有已登录的会话 {@link Session}
+     *
+     * 密码验证较慢（约 {@link PasswordHasher#DEFAULT_TARGET_MILLIS} 毫秒），不要在界面线程上调用
      */
     public LoginResult login(String username, String password) {
         if (username == null || username.trim().isEmpty()) {
@@ -34,52 +46,53 @@ public class UserService {
             return LoginResult.failure("密码不能为空");
         }
 
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD)) {
-            String sql = "SELECT * FROM users WHERE username = ? AND status = 'active'";
-            PreparedStatement stmt = conn.prepareStatement(sql);
-            stmt.setString(1, username.trim());
+        UserDAO.LoginRecord record;
+        try {
+            record = userDAO.findLoginRecord(username.trim());
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return LoginResult.failure("登录失败: " + e.getMessage());
+        }
+        if (record == null) {
+            return LoginResult.failure("用户名或密码错误");
+        }
 
-            ResultSet rs = stmt.executeQuery();
-            if (!rs.next()) {
+        PasswordHasher hasher = PasswordHasher.getInstance();
+        try {
+            if (!hasher.verify(password, record.getPasswordHash())) {
                 return LoginResult.failure("用户名或密码错误");
             }
+        } catch (PasswordHasher.BusyException e) {
+            return LoginResult.failure("登录人数较多，请稍后重试");
+        }
+        if (hasher.needsRehash(record.getPasswordHash())) {
+            // 旧哈希（或迭代次数偏低）：换成新哈希，只在密码未被修改时覆盖
+            String oldHash = record.getPasswordHash();
+            hasher.submit(() -> userDAO.updatePasswordHash(record.getUserId(), oldHash, hasher.hash(password)));
+        }
 
-            String storedPasswordHash = rs.getString("password");
-            String inputPasswordHash = DBUtil.hashPassword(password);
-
-            // 比较哈希值
-            if (!storedPasswordHash.equals(inputPasswordHash)) {
-                return LoginResult.failure("用户名或密码错误");
+        Date now = new Date();
+        Session session;
+        if ("member".equals(record.getUserType())) {
+            if (record.getMember() == null) {
+                return LoginResult.failure("关联会员不存在");
             }
-
-            updateLastLogin(conn, rs.getInt("user_id"));
-
-            String userType = rs.getString("user_type");
-            int referenceId = rs.getInt("reference_id");
-
-            if ("member".equals(userType)) {
-                Member member = memberDAO.getMemberById(referenceId);
-                if (member == null) {
-                    return LoginResult.failure("关联会员不存在");
-                }
-                return LoginResult.success("登录成功", userType, member);
-            } else if ("employee".equals(userType)) {
-                Employee employee = employeeDAO.getEmployeeById(referenceId);
-                if (employee == null) {
-                    return LoginResult.failure("关联员工不存在");
-                }
-                return LoginResult.success("登录成功", userType, employee);
+            session = Session.forMember(record.getUserId(), record.getUsername(), record.getMember(), now);
+        } else if ("employee".equals(record.getUserType())) {
+            if (record.getEmployee() == null) {
+                return LoginResult.failure("关联员工不存在");
             }
-
+            session = Session.forEmployee(record.getUserId(), record.getUsername(), record.getEmployee(), now);
+        } else {
             return LoginResult.failure("未知用户类型");
-
-        } catch (SQLException e) {
-            return LoginResult.failure("登录失败: " + e.getMessage());
         }
+
+        LastLoginWriter.getInstance().record(record.getUserId(), new Timestamp(now.getTime()));
+        return LoginResult.success("登录成功", session);
     }
 
     /**
-     * 为会员注册用户账号
+     * 为会员注册用户账号（密码哈希较慢，不要在界面线程上调用）
      */
     public ServiceResult<Void> registerMemberUser(int memberId, String username, String password) {
         Member member = memberDAO.getMemberById(memberId);
@@ -91,7 +104,7 @@ public class UserService {
     }
 
     /**
-     * 为员工注册用户账号
+     * 为员工注册用户账号（密码哈希较慢，不要在界面线程上调用）
      */
     public ServiceResult<Void> registerEmployeeUser(int employeeId, String username, String password) {
         Employee employee = employeeDAO.getEmployeeById(employeeId);
@@ -103,11 +116,10 @@ public class UserService {
     }
 
     /**
-     * 验证密码 - 比较明文密码与存储的哈希
+     * 验证密码 - 用存储的哈希中的盐和迭代次数重新计算后比较（兼容旧的 SHA-256 哈希）
      */
     public boolean verifyPassword(String plainPassword, String storedHash) {
-        String inputHash = DBUtil.hashPassword(plainPassword);
-        return inputHash.equals(storedHash);
+        return PasswordHasher.getInstance().matches(plainPassword, storedHash);
     }
 
     /**
@@ -147,7 +159,7 @@ public class UserService {
     }
 
     /**
-     * 修改密码
+     * 修改密码（密码验证和哈希较慢，不要在界面线程上调用）
      */
     public ServiceResult<Void> changePassword(String username, String oldPassword, String newPassword) {
         if (newPassword == null || newPassword.length() < 6) {
@@ -191,14 +203,6 @@ public class UserService {
         return rs.next() && rs.getInt(1) > 0;
     }
 
-    // 更新最后登录时间
-    private void updateLastLogin(Connection conn, int userId) throws SQLException {
-        String sql = "UPDATE users SET last_login = CURRENT_TIMESTAMP WHERE user_id = ?";
-        PreparedStatement stmt = conn.prepareStatement(sql);
-        stmt.setInt(1, userId);
-        stmt.executeUpdate();
-    }
-
     /**
      * 根据用户名查询用户信息
      */
@@ -266,29 +270,37 @@ public class UserService {
         private String message;
         private String userType;
         private Object userData;
+        private Session session;
 
-        private LoginResult(boolean success, String message, String userType, Object userData) {
+        private LoginResult(boolean success, String message, String userType, Object userData, Session session) {
             this.success = success;
             this.message = message;
             this.userType = userType;
             this.userData = userData;
+            this.session = session;
         }
 
         public static LoginResult success(String message, String userType, Object userData) {
-            return new LoginResult(true, message, userType, userData);
+            return new LoginResult(true, message, userType, userData, null);
+        }
+
+        public static LoginResult success(String message, Session session) {
+            return new LoginResult(true, message, session.getUserType(), session.getProfile(), session);
         }
 
         public static LoginResult failure(String message) {
-            return new LoginResult(false, message, null, null);
+            return new LoginResult(false, message, null, null, null);
         }
 
         public boolean isSuccess() { return success; }
         public String getMessage() { return message; }
         public String getUserType() { return userType; }
         public Object getUserData() { return userData; }
+        public Session getSession() { return session; }
     }
 
     // >>> 新增：管理员强制重置密码 (无需旧密码) <<<
+    // 密码哈希较慢，不要在界面线程上调用
     public ServiceResult<Void> resetPassword(String username, String newPassword) {
         if (username == null || username.trim().isEmpty()) {
             return ServiceResult.failure("用户名不能为空");
@@ -320,6 +332,7 @@ public class UserService {
      * 【新增】设置员工账号（创建 或 更新）
      * 功能：管理员手动管理员工账号。
      * 逻辑：如果员工已有账号，则更新用户名和密码；如果没有，则创建新账号。
+     * 密码哈希较慢，不要在界面线程上调用。
      */
     public ServiceResult<Void> setEmployeeAccount(int employeeId, String newUsername, String newPassword) {
         if (newUsername == null || newUsername.trim().isEmpty()) return ServiceResult.failure("用户名不能为空");
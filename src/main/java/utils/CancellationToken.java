@@ -0,0 +1,122 @@
+package utils;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 可取消的查询令牌
+ *
+ * 搜索框连续输入时，旧的查询结果已经没有用了。执行查询的线程先把令牌绑定到当前线程，
+ * DAO 在准备好 Statement 后调用 {@link #register(Statement)} 登记；
+ * 令牌被取消时对登记过的 Statement 调用 {@link Statement#cancel()}，数据库端立即停止执行。
+ *
+ * 没有绑定令牌的线程调用 register 不产生任何效果，DAO 可以无条件调用
+ */
+public final class CancellationToken {
+
+    private static final ThreadLocal<CancellationToken> CURRENT = new ThreadLocal<>();
+
+    private final List<Statement> statements = new ArrayList<>();
+    private boolean cancelled;
+    private boolean finished;
+
+    // ==================== 取消 ====================
+
+    /**
+     * 取消：正在执行的已登记查询会被中断
+     */
+    public void cancel() {
+        List<Statement> toCancel;
+        synchronized (this) {
+            if (cancelled || finished) {
+                cancelled = true;
+                return;
+            }
+            cancelled = true;
+            toCancel = new ArrayList<>(statements);
+            statements.clear();
+        }
+        for (Statement statement : toCancel) {
+            cancelQuietly(statement);
+        }
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 查询已结束：之后不再对登记的 Statement 调用 cancel（它们可能已被关闭）
+     */
+    public synchronized void finish() {
+        finished = true;
+        statements.clear();
+    }
+
+    // ==================== 线程绑定 ====================
+
+    /**
+     * 在当前线程绑定本令牌执行任务
+     */
+    public <T> T callBound(ThrowingSupplier<T> task) throws Exception {
+        CancellationToken previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return task.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+            finish();
+        }
+    }
+
+    /**
+     * 把 Statement 登记到当前线程的令牌（DAO 中 prepareStatement 之后调用）
+     *
+     * 令牌已取消时立即取消该 Statement
+     */
+    public static void register(Statement statement) {
+        CancellationToken token = CURRENT.get();
+        if (token == null) {
+            return;
+        }
+        synchronized (token) {
+            if (!token.cancelled) {
+                if (!token.finished) {
+                    token.statements.add(statement);
+                }
+                return;
+            }
+        }
+        cancelQuietly(statement);
+    }
+
+    /**
+     * 当前线程的查询是否已被取消（DAO 捕获 SQLException 时据此判断是否需要打印错误）
+     */
+    public static boolean isCurrentCancelled() {
+        CancellationToken token = CURRENT.get();
+        return token != null && token.isCancelled();
+    }
+
+    private static void cancelQuietly(Statement statement) {
+        try {
+            statement.cancel();
+        } catch (SQLException ignored) {
+            // 已关闭或驱动不支持，忽略
+        }
+    }
+
+    /**
+     * 可抛出受检异常的任务
+     */
+    @FunctionalInterface
+    public interface ThrowingSupplier<T> {
+        T get() throws Exception;
+    }
+}
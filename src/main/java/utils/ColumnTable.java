@@ -0,0 +1,828 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 列式内存表（以追加为主，供报表分析使用）
+ *
+ * 存储：
+ * - 每列一个基本类型数组（INT 列 int[]，LONG 列 long[]），按 {@link #CHUNK_SIZE} 行分块，追加时不复制旧数据
+ * - DICT 列是字典编码的字符串（如订单类型、预约状态），数组中只存编号
+ * - 删除只做标记（{@link #delete(int)}），行号不变，查询时跳过已删除的行
+ *
+ * 查询：过滤（等值 / 区间 / 枚举）+ 分组（最多两列）+ 计数 / 求和。
+ * 先逐列过滤得到选择向量，再按分组键累加；行数较多时按块拆分，在 ForkJoin 线程池中并行计算后合并。
+ * 分组键取值范围不大时用数组累加，否则用哈希表。
+ *
+ * 并发：追加和修改串行（加锁），查询不加锁，只读取开始查询时已发布的行。
+ * 查询期间被 {@link #set(String, int, long)} 修改的单元格可能读到新值或旧值，分析统计可以接受
+ */
+public class ColumnTable {
+
+    /** 每块行数 */
+    public static final int CHUNK_SIZE = 4096;
+
+    /** 分组键的取值空间不超过该值时用数组累加，否则用哈希表 */
+    public static final int DENSE_GROUP_LIMIT = 1 << 16;
+
+    /** 行数达到该值才拆分并行计算，否则在调用线程直接扫描 */
+    public static final int PARALLEL_THRESHOLD = CHUNK_SIZE * 4;
+
+    /** 列类型 */
+    public enum Type {
+        /** 32 位整数（ID、日期序号、小时等） */
+        INT,
+        /** 64 位整数（金额分等） */
+        LONG,
+        /** 字典编码的字符串 */
+        DICT
+    }
+
+    // ==================== 状态 ====================
+
+    private final String name;
+    private final List<Column> columns = new ArrayList<>();
+    private final Map<String, Column> columnsByName = new HashMap<>();
+    private int intSlots;
+    private int longSlots;
+
+    private volatile Chunk[] chunks = new Chunk[0];
+    private volatile int rowCount;
+    private int deletedCount;
+    /** 任意追加或修改后递增 */
+    private final AtomicLong version = new AtomicLong();
+
+    // ==================== 构造方法 ====================
+
+    /**
+     * @param name 表名（仅用于日志和 toString）
+     */
+    public ColumnTable(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 定义一列（必须在追加数据之前）
+     *
+     * @param columnName 列名
+     * @param type       列类型
+     * @return this，便于连续定义
+     */
+    public synchronized ColumnTable addColumn(String columnName, Type type) {
+        if (rowCount > 0) {
+            throw new IllegalStateException("表 " + name + " 已有数据，不能再增加列");
+        }
+        if (columnsByName.containsKey(columnName)) {
+            throw new IllegalArgumentException("列名重复: " + columnName);
+        }
+        int slot = type == Type.LONG ? longSlots++ : intSlots++;
+        Column column = new Column(columnName, type, columns.size(), slot);
+        columns.add(column);
+        columnsByName.put(columnName, column);
+        return this;
+    }
+
+    // ==================== 写入 ====================
+
+    /**
+     * 追加一行
+     *
+     * @param values 按列定义顺序的值；DICT 列传 {@link #encode(String, String)} 得到的编号
+     * @return 新行的行号
+     */
+    public synchronized int append(long... values) {
+        if (values.length != columns.size()) {
+            throw new IllegalArgumentException("表 " + name + " 有 " + columns.size() + " 列，传入 " + values.length + " 个值");
+        }
+        int row = rowCount;
+        int chunkIndex = row / CHUNK_SIZE;
+        Chunk[] current = chunks;
+        if (chunkIndex == current.length) {
+            current = Arrays.copyOf(current, chunkIndex + 1);
+            current[chunkIndex] = new Chunk(intSlots, longSlots);
+            chunks = current;
+        }
+        Chunk chunk = current[chunkIndex];
+        for (Column column : columns) {
+            write(chunk, column, row % CHUNK_SIZE, values[column.index]);
+        }
+        // 先写数据再发布行数，查询读到新行数时一定能看到完整的行
+        rowCount = row + 1;
+        version.incrementAndGet();
+        return row;
+    }
+
+    /**
+     * 修改已有行的某一列（如预约状态变化）
+     */
+    public synchronized void set(String columnName, int row, long value) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("行号越界: " + row);
+        }
+        write(chunks[row / CHUNK_SIZE], column(columnName), row % CHUNK_SIZE, value);
+        version.incrementAndGet();
+    }
+
+    /**
+     * 删除一行（只做标记，行号不变，之后的查询不再包含该行）
+     */
+    public synchronized void delete(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("行号越界: " + row);
+        }
+        Chunk chunk = chunks[row / CHUNK_SIZE];
+        if (!chunk.deleted[row % CHUNK_SIZE]) {
+            chunk.deleted[row % CHUNK_SIZE] = true;
+            deletedCount++;
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * 行是否已删除
+     */
+    public boolean isDeleted(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("行号越界: " + row);
+        }
+        return chunks[row / CHUNK_SIZE].deleted[row % CHUNK_SIZE];
+    }
+
+    /**
+     * 字符串编码为字典编号（新值自动加入字典）
+     *
+     * @param columnName DICT 列名
+     * @param value      原值，null 按空字符串处理
+     */
+    public int encode(String columnName, String value) {
+        return dictionary(columnName).encode(value);
+    }
+
+    /**
+     * 字典编号还原为字符串
+     */
+    public String decode(String columnName, int code) {
+        return dictionary(columnName).decode(code);
+    }
+
+    // ==================== 读取 ====================
+
+    public String getName() {
+        return name;
+    }
+
+    /** 行数（含已删除的行，即最大行号 + 1） */
+    public int size() {
+        return rowCount;
+    }
+
+    /** 已删除的行数 */
+    public synchronized int getDeletedCount() {
+        return deletedCount;
+    }
+
+    /** 当前版本号，追加或修改后变化 */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * 读取单元格
+     */
+    public long get(String columnName, int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("行号越界: " + row);
+        }
+        return read(chunks[row / CHUNK_SIZE], column(columnName), row % CHUNK_SIZE);
+    }
+
+    /**
+     * 在升序追加的列（如主键）中二分查找
+     *
+     * @return 行号，找不到返回 -1
+     */
+    public int findRow(String columnName, long value) {
+        Column column = column(columnName);
+        int low = 0;
+        int high = rowCount - 1;
+        Chunk[] current = chunks;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long v = read(current[mid / CHUNK_SIZE], column, mid % CHUNK_SIZE);
+            if (v < value) {
+                low = mid + 1;
+            } else if (v > value) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 某列当前的最大值，表为空时返回 defaultValue
+     */
+    public synchronized long getMax(String columnName, long defaultValue) {
+        Column column = column(columnName);
+        return rowCount == 0 ? defaultValue : column.max;
+    }
+
+    /**
+     * 开始构造查询
+     */
+    public Query query() {
+        return new Query();
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnTable{name = " + name + ", columns = " + columns.size() + ", rows = " + rowCount + "}";
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 查询：过滤条件之间为"与"关系，不分组时结果只有一行
+     */
+    public final class Query {
+        private final List<Filter> filters = new ArrayList<>();
+        private Column[] groupBy = new Column[0];
+        private Column sumColumn;
+
+        private Query() {
+        }
+
+        /**
+         * 等值过滤
+         */
+        public Query where(String columnName, long value) {
+            return between(columnName, value, value);
+        }
+
+        /**
+         * DICT 列等值过滤（字典中没有的值不匹配任何行）
+         */
+        public Query where(String columnName, String value) {
+            return whereIn(columnName, value);
+        }
+
+        /**
+         * DICT 列取值属于给定集合
+         */
+        public Query whereIn(String columnName, String... values) {
+            Dictionary dictionary = dictionary(columnName);
+            long[] codes = new long[values.length];
+            int n = 0;
+            for (String value : values) {
+                int code = dictionary.find(value);
+                if (code >= 0) {
+                    codes[n++] = code;
+                }
+            }
+            codes = Arrays.copyOf(codes, n);
+            Arrays.sort(codes);
+            filters.add(new Filter(column(columnName), 1, 0, codes));
+            return this;
+        }
+
+        /**
+         * 区间过滤（含两端）
+         */
+        public Query between(String columnName, long from, long to) {
+            filters.add(new Filter(column(columnName), from, to, null));
+            return this;
+        }
+
+        /**
+         * 分组（最多两列，只能是 INT 或 DICT 列）
+         */
+        public Query groupBy(String... columnNames) {
+            if (columnNames.length > 2) {
+                throw new IllegalArgumentException("最多按两列分组");
+            }
+            Column[] group = new Column[columnNames.length];
+            for (int i = 0; i < columnNames.length; i++) {
+                group[i] = column(columnNames[i]);
+                if (group[i].type == Type.LONG) {
+                    throw new IllegalArgumentException("不能按 LONG 列分组: " + columnNames[i]);
+                }
+            }
+            this.groupBy = group;
+            return this;
+        }
+
+        /**
+         * 求和列（不指定时只计数）
+         */
+        public Query sum(String columnName) {
+            this.sumColumn = column(columnName);
+            return this;
+        }
+
+        /**
+         * 执行查询
+         */
+        public Result execute() {
+            // 先读版本号再读行数：修改时写入的取值范围、追加的行都能看到
+            version.get();
+            int rows = rowCount;
+            Chunk[] snapshot = chunks;
+            KeySpace keys = new KeySpace(groupBy);
+            Scan scan = new Scan(this, keys, snapshot, rows);
+            int chunkCount = (rows + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+            Partial total;
+            if (rows < PARALLEL_THRESHOLD) {
+                total = scan.run(0, chunkCount);
+            } else {
+                ForkJoinPool pool = ForkJoinPool.commonPool();
+                int leafChunks = Math.max(1, chunkCount / (pool.getParallelism() * 4));
+                total = pool.invoke(new ScanTask(scan, 0, chunkCount, leafChunks));
+            }
+            return total.toResult(keys);
+        }
+    }
+
+    /**
+     * 查询结果，按分组键升序
+     */
+    public static final class Result {
+        private final List<Row> rows;
+
+        private Result(List<Row> rows) {
+            this.rows = Collections.unmodifiableList(rows);
+        }
+
+        public List<Row> getRows() {
+            return rows;
+        }
+
+        public int size() {
+            return rows.size();
+        }
+
+        /** 所有分组的行数合计 */
+        public long getCount() {
+            long count = 0;
+            for (Row row : rows) {
+                count += row.count;
+            }
+            return count;
+        }
+
+        /** 所有分组的求和合计 */
+        public long getSum() {
+            long sum = 0;
+            for (Row row : rows) {
+                sum += row.sum;
+            }
+            return sum;
+        }
+
+        /**
+         * 单列分组时转为 Map<分组标签, 行数>，保持键的顺序
+         */
+        public Map<String, Long> toCountMap() {
+            Map<String, Long> map = new LinkedHashMap<>();
+            for (Row row : rows) {
+                map.put(row.getLabel(0), row.count);
+            }
+            return map;
+        }
+
+        /**
+         * 单列分组时转为 Map<分组标签, 求和值>
+         */
+        public Map<String, Long> toSumMap() {
+            Map<String, Long> map = new LinkedHashMap<>();
+            for (Row row : rows) {
+                map.put(row.getLabel(0), row.sum);
+            }
+            return map;
+        }
+    }
+
+    /**
+     * 结果中的一个分组
+     */
+    public static final class Row {
+        private final int[] keys;
+        private final String[] labels;
+        private final long count;
+        private final long sum;
+
+        private Row(int[] keys, String[] labels, long count, long sum) {
+            this.keys = keys;
+            this.labels = labels;
+            this.count = count;
+            this.sum = sum;
+        }
+
+        /** 第 i 个分组列的值（DICT 列为编号） */
+        public int getKey(int i) {
+            return keys[i];
+        }
+
+        /** 第 i 个分组列的显示值（DICT 列为原字符串） */
+        public String getLabel(int i) {
+            return labels[i];
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(labels) + " count = " + count + ", sum = " + sum;
+        }
+    }
+
+    // ==================== 内部方法 ====================
+
+    private Column column(String columnName) {
+        Column column = columnsByName.get(columnName);
+        if (column == null) {
+            throw new IllegalArgumentException("表 " + name + " 没有列: " + columnName);
+        }
+        return column;
+    }
+
+    private Dictionary dictionary(String columnName) {
+        Column column = column(columnName);
+        if (column.dictionary == null) {
+            throw new IllegalArgumentException("不是 DICT 列: " + columnName);
+        }
+        return column.dictionary;
+    }
+
+    /** 已持有锁时调用 */
+    private static void write(Chunk chunk, Column column, int offset, long value) {
+        if (column.type == Type.LONG) {
+            chunk.longs[column.slot][offset] = value;
+        } else {
+            chunk.ints[column.slot][offset] = Math.toIntExact(value);
+        }
+        column.min = Math.min(column.min, value);
+        column.max = Math.max(column.max, value);
+    }
+
+    private static long read(Chunk chunk, Column column, int offset) {
+        return column.type == Type.LONG ? chunk.longs[column.slot][offset] : chunk.ints[column.slot][offset];
+    }
+
+    // ==================== 内部类 ====================
+
+    private static final class Column {
+        final String name;
+        final Type type;
+        final int index;
+        final int slot;
+        final Dictionary dictionary;
+        /** 取值范围，在表锁内更新，经 rowCount / version 发布给查询线程 */
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+
+        Column(String name, Type type, int index, int slot) {
+            this.name = name;
+            this.type = type;
+            this.index = index;
+            this.slot = slot;
+            this.dictionary = type == Type.DICT ? new Dictionary() : null;
+        }
+    }
+
+    private static final class Chunk {
+        final int[][] ints;
+        final long[][] longs;
+        /** 删除标记 */
+        final boolean[] deleted = new boolean[CHUNK_SIZE];
+
+        Chunk(int intSlots, int longSlots) {
+            ints = new int[intSlots][CHUNK_SIZE];
+            longs = new long[longSlots][CHUNK_SIZE];
+        }
+    }
+
+    /**
+     * 字符串字典：编号从 0 连续分配，只增不删
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+        private volatile String[] values = new String[0];
+
+        synchronized int encode(String value) {
+            String key = value == null ? "" : value;
+            Integer code = codes.get(key);
+            if (code != null) {
+                return code;
+            }
+            String[] grown = Arrays.copyOf(values, values.length + 1);
+            grown[values.length] = key;
+            values = grown;
+            codes.put(key, values.length - 1);
+            return values.length - 1;
+        }
+
+        int find(String value) {
+            Integer code = codes.get(value == null ? "" : value);
+            return code != null ? code : -1;
+        }
+
+        String decode(int code) {
+            String[] current = values;
+            return code >= 0 && code < current.length ? current[code] : null;
+        }
+    }
+
+    /**
+     * 过滤条件：codes 非空时为枚举集合，否则为 [from, to] 区间
+     */
+    private static final class Filter {
+        final Column column;
+        final long from;
+        final long to;
+        final long[] codes;
+
+        Filter(Column column, long from, long to, long[] codes) {
+            this.column = column;
+            this.from = from;
+            this.to = to;
+            this.codes = codes;
+        }
+
+        boolean test(long value) {
+            return codes != null ? Arrays.binarySearch(codes, value) >= 0 : value >= from && value <= to;
+        }
+    }
+
+    /**
+     * 分组键空间：各分组列取值都在 [0, max] 且组合数不超过 {@link #DENSE_GROUP_LIMIT} 时用数组下标，
+     * 否则把两列的值拼成一个 long 作为哈希键
+     */
+    private static final class KeySpace {
+        final Column[] columns;
+        final boolean dense;
+        final int size;
+        final int secondSize;
+
+        KeySpace(Column[] columns) {
+            this.columns = columns;
+            long combinations = 1;
+            boolean fits = true;
+            int second = 1;
+            for (int i = 0; i < columns.length; i++) {
+                Column c = columns[i];
+                if (c.max == Long.MIN_VALUE) {
+                    continue; // 空表
+                }
+                if (c.min < 0) {
+                    fits = false;
+                    break;
+                }
+                combinations *= c.max + 1;
+                if (combinations > DENSE_GROUP_LIMIT) {
+                    fits = false;
+                    break;
+                }
+                if (i == 1) {
+                    second = (int) (c.max + 1);
+                }
+            }
+            this.dense = fits;
+            this.size = fits ? (int) combinations : 0;
+            this.secondSize = second;
+        }
+
+        /** 稠密模式下的数组下标，超出范围（查询期间有并发修改）返回 -1 */
+        int denseIndex(int first, int second) {
+            if (columns.length == 0) {
+                return 0;
+            }
+            int index = columns.length == 1 ? first : first * secondSize + second;
+            return first < 0 || second < 0 || (columns.length == 2 && second >= secondSize) || index >= size ? -1 : index;
+        }
+
+        static long sparseKey(int first, int second) {
+            return ((long) first << 32) | (second & 0xffffffffL);
+        }
+
+        int[] unpackDense(int index) {
+            if (columns.length == 0) {
+                return new int[0];
+            }
+            return columns.length == 1 ? new int[]{index} : new int[]{index / secondSize, index % secondSize};
+        }
+
+        int[] unpackSparse(long key) {
+            if (columns.length == 0) {
+                return new int[0];
+            }
+            return columns.length == 1 ? new int[]{(int) key} : new int[]{(int) (key >> 32), (int) key};
+        }
+
+        String[] labels(int[] keys) {
+            String[] labels = new String[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                Dictionary dictionary = columns[i].dictionary;
+                labels[i] = dictionary != null ? dictionary.decode(keys[i]) : String.valueOf(keys[i]);
+            }
+            return labels;
+        }
+    }
+
+    /**
+     * 部分聚合结果（一个或多个块的计数与求和）
+     */
+    private static final class Partial {
+        final long[] counts;
+        final long[] sums;
+        final Map<Long, long[]> sparse;
+
+        Partial(KeySpace keys) {
+            if (keys.dense) {
+                counts = new long[Math.max(keys.size, 1)];
+                sums = new long[counts.length];
+                sparse = null;
+            } else {
+                counts = null;
+                sums = null;
+                sparse = new HashMap<>();
+            }
+        }
+
+        void merge(Partial other) {
+            if (sparse == null) {
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] += other.counts[i];
+                    sums[i] += other.sums[i];
+                }
+            } else {
+                for (Map.Entry<Long, long[]> e : other.sparse.entrySet()) {
+                    long[] acc = sparse.computeIfAbsent(e.getKey(), k -> new long[2]);
+                    acc[0] += e.getValue()[0];
+                    acc[1] += e.getValue()[1];
+                }
+            }
+        }
+
+        Result toResult(KeySpace keys) {
+            List<Row> rows = new ArrayList<>();
+            if (sparse == null) {
+                for (int i = 0; i < counts.length; i++) {
+                    // 不分组时即使没有匹配行也返回一行合计
+                    if (counts[i] > 0 || keys.columns.length == 0) {
+                        int[] k = keys.unpackDense(i);
+                        rows.add(new Row(k, keys.labels(k), counts[i], sums[i]));
+                    }
+                }
+            } else {
+                List<Long> sorted = new ArrayList<>(sparse.keySet());
+                Collections.sort(sorted);
+                for (Long key : sorted) {
+                    long[] acc = sparse.get(key);
+                    int[] k = keys.unpackSparse(key);
+                    rows.add(new Row(k, keys.labels(k), acc[0], acc[1]));
+                }
+            }
+            return new Result(rows);
+        }
+    }
+
+    /**
+     * 对一段块执行过滤和聚合
+     */
+    private static final class Scan {
+        final Filter[] filters;
+        final KeySpace keys;
+        final Column sumColumn;
+        final Chunk[] chunks;
+        final int rows;
+
+        Scan(Query query, KeySpace keys, Chunk[] chunks, int rows) {
+            this.filters = query.filters.toArray(new Filter[0]);
+            this.keys = keys;
+            this.sumColumn = query.sumColumn;
+            this.chunks = chunks;
+            this.rows = rows;
+        }
+
+        Partial run(int fromChunk, int toChunk) {
+            Partial partial = new Partial(keys);
+            int[] selection = new int[CHUNK_SIZE];
+            for (int c = fromChunk; c < toChunk; c++) {
+                int n = Math.min(CHUNK_SIZE, rows - c * CHUNK_SIZE);
+                int selected = select(chunks[c], n, selection);
+                aggregate(chunks[c], selection, selected, partial);
+            }
+            return partial;
+        }
+
+        /**
+         * 逐列过滤：先去掉已删除的行，每个条件在上一步留下的行号上再筛一遍
+         *
+         * @return 选中的行数，行号写入 selection 开头
+         */
+        private int select(Chunk chunk, int n, int[] selection) {
+            int selected = 0;
+            for (int i = 0; i < n; i++) {
+                if (!chunk.deleted[i]) {
+                    selection[selected++] = i;
+                }
+            }
+            for (Filter filter : filters) {
+                int kept = 0;
+                if (filter.column.type == Type.LONG) {
+                    long[] values = chunk.longs[filter.column.slot];
+                    for (int i = 0; i < selected; i++) {
+                        int row = selection[i];
+                        if (filter.test(values[row])) {
+                            selection[kept++] = row;
+                        }
+                    }
+                } else {
+                    int[] values = chunk.ints[filter.column.slot];
+                    for (int i = 0; i < selected; i++) {
+                        int row = selection[i];
+                        if (filter.test(values[row])) {
+                            selection[kept++] = row;
+                        }
+                    }
+                }
+                selected = kept;
+            }
+            return selected;
+        }
+
+        private void aggregate(Chunk chunk, int[] selection, int selected, Partial partial) {
+            int[] first = keys.columns.length > 0 ? chunk.ints[keys.columns[0].slot] : null;
+            int[] second = keys.columns.length > 1 ? chunk.ints[keys.columns[1].slot] : null;
+            long[] longValues = sumColumn != null && sumColumn.type == Type.LONG ? chunk.longs[sumColumn.slot] : null;
+            int[] intValues = sumColumn != null && sumColumn.type != Type.LONG ? chunk.ints[sumColumn.slot] : null;
+
+            for (int i = 0; i < selected; i++) {
+                int row = selection[i];
+                int a = first != null ? first[row] : 0;
+                int b = second != null ? second[row] : 0;
+                long value = longValues != null ? longValues[row] : intValues != null ? intValues[row] : 0;
+                if (partial.sparse == null) {
+                    int index = keys.denseIndex(a, b);
+                    if (index >= 0) {
+                        partial.counts[index]++;
+                        partial.sums[index] += value;
+                    }
+                } else {
+                    long[] acc = partial.sparse.computeIfAbsent(KeySpace.sparseKey(a, b), k -> new long[2]);
+                    acc[0]++;
+                    acc[1] += value;
+                }
+            }
+        }
+    }
+
+    /**
+     * 按块二分的并行扫描任务
+     */
+    private static final class ScanTask extends RecursiveTask<Partial> {
+        private final Scan scan;
+        private final int fromChunk;
+        private final int toChunk;
+        private final int leafChunks;
+
+        ScanTask(Scan scan, int fromChunk, int toChunk, int leafChunks) {
+            this.scan = scan;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+            this.leafChunks = leafChunks;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (toChunk - fromChunk <= leafChunks) {
+                return scan.run(fromChunk, toChunk);
+            }
+            int mid = (fromChunk + toChunk) >>> 1;
+            ScanTask left = new ScanTask(scan, fromChunk, mid, leafChunks);
+            left.fork();
+            Partial right = new ScanTask(scan, mid, toChunk, leafChunks).compute();
+            Partial merged = left.join();
+            merged.merge(right);
+            return merged;
+        }
+    }
+}
@@ -1,11 +1,8 @@
 package utils;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.Base64;
 
 public class DBUtil {
     // 数据库配置信息
@@ -30,7 +27,8 @@ public class DBUtil {
      * @throws SQLException 连接失败时抛出异常
      */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USER, PASSWORD);
+        // 界面线程上取得的连接记录所执行的 SQL，用于卡顿归因
+        return EdtWatchdog.trace(DriverManager.getConnection(URL, USER, PASSWORD));
     }
 
     /**
@@ -59,18 +57,14 @@ public class DBUtil {
     }
 
     /**
-     * 密码哈希 - 使用 SHA-256 加密
+     * 密码哈希 - PBKDF2 加盐哈希（见 {@link PasswordHasher}）
      * 输入: 明文密码
-     * 输出: Base64 编码的哈希值
+     * 输出: pbkdf2$迭代次数$盐$哈希
+     *
+     * 每次调用的盐都不同，验证密码请用 {@link PasswordHasher#matches(String, String)}，不要比较哈希字符串
      */
     public static String hashPassword(String plainPassword) {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] hash = md.digest(plainPassword.getBytes("UTF-8"));
-            return Base64.getEncoder().encodeToString(hash);
-        } catch (NoSuchAlgorithmException | java.io.UnsupportedEncodingException e) {
-            throw new RuntimeException("密码加密失败", e);
-        }
+        return PasswordHasher.getInstance().hash(plainPassword);
     }
 
 }
@@ -0,0 +1,360 @@
+package utils;
+
+import java.awt.EventQueue;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 事件分发线程（EDT）卡顿监控
+ *
+ * 前台反馈"系统卡住了"，但不知道是哪个调用堵住了界面线程。这里用一个守护线程定时往 EDT 投递心跳：
+ * - 心跳超过 {@link #getThresholdMillis()} 毫秒还没执行，说明 EDT 正忙，开始采样 EDT 的调用栈
+ * - 采样时如果 EDT 正在执行数据库操作，同时记下 SQL（EDT 上取得的连接会被包装以记录 SQL）
+ * - 卡顿结束后按"第一个业务代码栈帧"归并为热点，累计次数和耗时，并追加到本地日志
+ *
+ * 管理员可在"界面卡顿"窗口查看热点排行和调用栈（见 Ui.EdtStallUi）
+ */
+public class EdtWatchdog {
+
+    /** 卡顿阈值的系统属性（毫秒） */
+    public static final String THRESHOLD_PROPERTY = "gym.edt.threshold";
+    /** 默认卡顿阈值（毫秒） */
+    public static final long DEFAULT_THRESHOLD_MILLIS = 500;
+    /** 心跳间隔（毫秒） */
+    public static final long DEFAULT_SAMPLE_MILLIS = 100;
+    /** 日志文件名（位于工作目录） */
+    public static final String LOG_FILE = "edt-stalls.log";
+
+    /** 界面代码的包前缀 */
+    private static final String UI_PACKAGE = "Ui.";
+    /** 业务代码的包前缀，用于确定热点归属 */
+    private static final String[] APP_PACKAGES = {"service.", "dao.", "utils."};
+    /** 调用栈保留的帧数 */
+    private static final int MAX_FRAMES = 25;
+
+    /** EDT 上当前正在使用的 SQL（只有一个 EDT，不需要按线程区分） */
+    private static volatile String edtSql;
+
+    private static volatile EdtWatchdog instance;
+
+    // ==================== 状态 ====================
+
+    private final long thresholdMillis;
+    private final long sampleMillis;
+    private final File logFile;
+
+    private final Map<String, Hotspot> hotspots = new LinkedHashMap<>();
+    private Thread monitor;
+    private volatile boolean running;
+    private volatile Thread edt;
+    /** 当前心跳的投递时间，心跳执行后清零 */
+    private volatile long beatPostedAt;
+    private long stallCount;
+
+    // ==================== 构造方法 ====================
+
+    /**
+     * @param logFile 日志文件，为null时不写日志
+     */
+    public EdtWatchdog(long thresholdMillis, long sampleMillis, File logFile) {
+        this.thresholdMillis = thresholdMillis;
+        this.sampleMillis = sampleMillis;
+        this.logFile = logFile;
+    }
+
+    /**
+     * 进程内共享的监控（阈值取系统属性 gym.edt.threshold，日志写到工作目录下的 edt-stalls.log）
+     */
+    public static EdtWatchdog getInstance() {
+        EdtWatchdog watchdog = instance;
+        if (watchdog == null) {
+            synchronized (EdtWatchdog.class) {
+                if (instance == null) {
+                    instance = new EdtWatchdog(Long.getLong(THRESHOLD_PROPERTY, DEFAULT_THRESHOLD_MILLIS),
+                            DEFAULT_SAMPLE_MILLIS, new File(System.getProperty("user.dir"), LOG_FILE));
+                }
+                watchdog = instance;
+            }
+        }
+        return watchdog;
+    }
+
+    // ==================== 启动与停止 ====================
+
+    /**
+     * 启动监控线程（重复调用无副作用）
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        monitor = new Thread(this::monitorLoop, "edt-watchdog");
+        monitor.setDaemon(true);
+        monitor.start();
+    }
+
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        monitor.interrupt();
+    }
+
+    // ==================== SQL 归属 ====================
+
+    /**
+     * 包装 EDT 上取得的连接：prepareStatement / createStatement 时记下 SQL，连接关闭时清除
+     *
+     * 监控未启动或非 EDT 线程直接返回原连接，不产生任何开销
+     */
+    public static Connection trace(Connection conn) {
+        EdtWatchdog watchdog = instance;
+        if (watchdog == null || !watchdog.running || !EventQueue.isDispatchThread()) {
+            return conn;
+        }
+        InvocationHandler handler = (proxy, method, args) -> {
+            String name = method.getName();
+            if ((name.equals("prepareStatement") || name.equals("prepareCall")) && args != null && args[0] instanceof String) {
+                edtSql = (String) args[0];
+            } else if (name.equals("close")) {
+                edtSql = null;
+            }
+            try {
+                return method.invoke(conn, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+    }
+
+    // ==================== 监控 ====================
+
+    private void monitorLoop() {
+        long stallStart = 0;
+        List<StackTraceElement[]> samples = new ArrayList<>();
+        String stallSql = null;
+
+        while (running) {
+            try {
+                Thread.sleep(sampleMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long posted = beatPostedAt;
+            long now = System.currentTimeMillis();
+
+            if (posted == 0) {
+                // 上一个心跳已执行：如果之前在卡顿中，卡顿到此结束
+                if (stallStart != 0) {
+                    record(stallStart, now - stallStart, samples, stallSql);
+                    stallStart = 0;
+                    samples = new ArrayList<>();
+                    stallSql = null;
+                }
+                beatPostedAt = now;
+                EventQueue.invokeLater(() -> {
+                    edt = Thread.currentThread();
+                    beatPostedAt = 0;
+                });
+            } else if (now - posted >= thresholdMillis && edt != null) {
+                // 心跳超时未执行：EDT 正忙，采样调用栈
+                if (stallStart == 0) {
+                    stallStart = posted;
+                }
+                samples.add(edt.getStackTrace());
+                String sql = edtSql;
+                if (sql != null) {
+                    stallSql = sql;
+                }
+            }
+        }
+    }
+
+    /**
+     * 记录一次卡顿：按第一次采样的业务栈帧归并
+     */
+    private void record(long start, long durationMillis, List<StackTraceElement[]> samples, String sql) {
+        if (samples.isEmpty()) {
+            return;
+        }
+        StackTraceElement[] stack = samples.get(0);
+        String location = locate(stack);
+        String stackText = format(stack);
+        synchronized (this) {
+            stallCount++;
+            hotspots.computeIfAbsent(location, Hotspot::new).add(start, durationMillis, stackText, sql);
+        }
+        System.err.println("⚠️ 界面线程卡顿 " + durationMillis + " ms: " + location + (sql != null ? " SQL: " + sql : ""));
+        writeLog(start, durationMillis, location, sql, stackText);
+    }
+
+    /**
+     * 卡顿归属：优先取第一个界面代码栈帧（Ui 包，需要改的就是这里），
+     * 其次第一个业务代码栈帧（跳过 JDK 和第三方库），都没有时取栈顶
+     */
+    private static String locate(StackTraceElement[] stack) {
+        StackTraceElement app = null;
+        for (StackTraceElement frame : stack) {
+            String className = frame.getClassName();
+            if (className.startsWith(UI_PACKAGE)) {
+                return frame.toString();
+            }
+            if (app == null && !className.equals(EdtWatchdog.class.getName())) {
+                for (String prefix : APP_PACKAGES) {
+                    if (className.startsWith(prefix)) {
+                        app = frame;
+                        break;
+                    }
+                }
+            }
+        }
+        if (app != null) {
+            return app.toString();
+        }
+        return stack.length > 0 ? stack[0].toString() : "?";
+    }
+
+    private static String format(StackTraceElement[] stack) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < stack.length && i < MAX_FRAMES; i++) {
+            sb.append("    at ").append(stack[i]).append('\n');
+        }
+        if (stack.length > MAX_FRAMES) {
+            sb.append("    ... ").append(stack.length - MAX_FRAMES).append(" more\n");
+        }
+        return sb.toString();
+    }
+
+    private void writeLog(long start, long durationMillis, String location, String sql, String stackText) {
+        if (logFile == null) {
+            return;
+        }
+        try (PrintWriter out = new PrintWriter(new FileWriter(logFile, true))) {
+            out.println(DateUtils.formatDateTime(new Date(start)) + "\t" + durationMillis + " ms\t" + location
+                    + (sql != null ? "\tSQL: " + sql : ""));
+            out.print(stackText);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 卡顿热点，按累计耗时从高到低排序
+     */
+    public synchronized List<Hotspot> getHotspots() {
+        List<Hotspot> list = new ArrayList<>();
+        for (Hotspot hotspot : hotspots.values()) {
+            list.add(hotspot.copy());
+        }
+        list.sort((a, b) -> Long.compare(b.totalMillis, a.totalMillis));
+        return list;
+    }
+
+    public synchronized long getStallCount() {
+        return stallCount;
+    }
+
+    public synchronized void clear() {
+        hotspots.clear();
+        stallCount = 0;
+    }
+
+    public long getThresholdMillis() {
+        return thresholdMillis;
+    }
+
+    public File getLogFile() {
+        return logFile;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 卡顿热点：同一业务栈帧上发生的卡顿
+     */
+    public static class Hotspot {
+        private final String location;
+        private int count;
+        private long totalMillis;
+        private long maxMillis;
+        private long lastAt;
+        private String lastSql;
+        /** 耗时最长一次的调用栈 */
+        private String stack;
+
+        Hotspot(String location) {
+            this.location = location;
+        }
+
+        void add(long start, long durationMillis, String stackText, String sql) {
+            count++;
+            totalMillis += durationMillis;
+            if (durationMillis >= maxMillis) {
+                maxMillis = durationMillis;
+                stack = stackText;
+            }
+            lastAt = start;
+            if (sql != null) {
+                lastSql = sql;
+            }
+        }
+
+        Hotspot copy() {
+            Hotspot copy = new Hotspot(location);
+            copy.count = count;
+            copy.totalMillis = totalMillis;
+            copy.maxMillis = maxMillis;
+            copy.lastAt = lastAt;
+            copy.lastSql = lastSql;
+            copy.stack = stack;
+            return copy;
+        }
+
+        public String getLocation() {
+            return location;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public long getTotalMillis() {
+            return totalMillis;
+        }
+
+        public long getMaxMillis() {
+            return maxMillis;
+        }
+
+        public Date getLastAt() {
+            return new Date(lastAt);
+        }
+
+        /** 卡顿期间 EDT 上执行的 SQL，没有时为null */
+        public String getLastSql() {
+            return lastSql;
+        }
+
+        public String getStack() {
+            return stack;
+        }
+    }
+}
@@ -2,14 +2,42 @@ package utils;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * 界面文字（中 / 英）
+ *
+ * 词条在类加载时登记一次，之后固定为 键 -> 下标 和 [语言][下标] 的数组表：
+ * 查一条文字是一次哈希查找加一次数组访问；界面代码可以用 {@link #key(String)} 预先取得下标，之后只剩数组访问。
+ *
+ * 切换语言不再关闭并重建窗口（那会把窗口背后的查询全部重跑一遍）。窗口用 {@link #bind(Window, Runnable)}
+ * 登记"重新设置文字"的动作，切换时在事件线程原地执行，不访问数据库；窗口关闭后自动注销。
+ * 没有登记过的窗口仍按原来的方式重建
+ */
 public class LanguageUtils {
 
-    private static boolean isChinese = true;
-    private static final Map<String, String> CN = new HashMap<>();
-    private static final Map<String, String> EN = new HashMap<>();
+    /** 语言下标 */
+    private static final int CN = 0;
+    private static final int EN = 1;
+
+    private static volatile int language = CN;
+
+    /** 登记阶段使用，登记完成后转成数组表 */
+    private static final Map<String, String[]> ENTRIES = new LinkedHashMap<>();
+    /** 键 -> 词条 */
+    private static final Map<String, Key> KEYS = new HashMap<>();
+    /** [语言][下标] -> 文字 */
+    private static final String[][] TABLE;
+
+    /** 窗口 -> 重新设置文字的动作（只在事件线程访问） */
+    private static final Map<Window, List<Runnable>> BINDINGS = new LinkedHashMap<>();
 
     static {
         // === 公共 Common ===
@@ -59,6 +87,12 @@ public class LanguageUtils {
         put("main.sec.member", "会籍与会员服务", "Membership Services");
         put("main.sec.backend", "后台管理", "Backend Mgmt");
         put("main.sec.admin", "综合管理控制台", "Admin Console");
+        put("main.alert.ok", "库存充足", "Stock OK");
+        put("main.alert.low", "件商品低于补货线", " product(s) below reorder level");
+        put("main.alert.title", "库存提醒", "Stock Alerts");
+        put("main.alert.none", "暂无提醒", "No alerts");
+        put("main.alert.type.low", "低库存", "LOW");
+        put("main.alert.type.restocked", "已补货", "RESTOCKED");
         // 菜单 Menu
         put("menu.profile", "个人信息", "Profile");
         put("menu.book", "预约课程", "Book Course");
@@ -75,12 +109,28 @@ public class LanguageUtils {
         put("menu.stock", "库存管理", "Inventory");
         put("menu.emp", "员工/人事", "HR/Employees");
         put("menu.report", "经营报表", "Reports");
+        put("menu.edt", "界面卡顿", "UI Stalls");
 
         // === 3. 签到 CheckIn (修复: checkin.tip, checkin.btn) ===
         put("checkin.title", "会员进场签到", "Member Check-In");
         put("checkin.tip", "支持输入：会员ID / 姓名 / 手机号", "Input: ID / Name / Phone");
         put("checkin.btn", "搜索并签到", "Check-In Now");
         put("checkin.log", "操作日志", "Log");
+        put("checkin.preview", "将签到：%s（%s）", "Will check in: %s (%s)");
+        put("checkin.preview.more", "，另有 %d 个匹配", ", %d more match(es)");
+        put("checkin.preview.none", "未找到匹配的会员", "No matching member");
+
+        // === 界面卡顿 EdtStallUi ===
+        put("edt.title", "界面卡顿热点", "UI Stall Hotspots");
+        put("edt.clear", "清空", "Clear");
+        put("edt.summary", "共 %d 次卡顿（阈值 %d ms），日志：%s", "%d stalls (threshold %d ms), log: %s");
+        put("edt.off", "监控未启动", "monitor not running");
+        put("edt.stack", "调用栈（耗时最长的一次）", "Stack (longest stall)");
+        put("edt.col.location", "位置", "Location");
+        put("edt.col.count", "次数", "Count");
+        put("edt.col.total", "累计(ms)", "Total (ms)");
+        put("edt.col.max", "最长(ms)", "Max (ms)");
+        put("edt.col.last", "最近一次", "Last");
 
         // === 4. 课程管理 & 添加 (修复: cm.search) ===
         put("cm.title", "课程排期管理", "Course Scheduling");
@@ -101,6 +151,7 @@ public class LanguageUtils {
         put("ca.duration", "时长 (分钟)", "Duration (min)");
         put("ca.capacity", "最大人数", "Capacity");
         put("ca.btn", "确认发布", "Publish");
+        put("ca.suggest", "推荐教练（当周课程最少）：", "Suggested (least loaded): ");
 
         // === 5. 员工管理 (修复: em.add, em.account) ===
         put("em.title", "员工/人事档案", "HR Management");
@@ -108,6 +159,11 @@ public class LanguageUtils {
         put("em.account", "账号管理", "Account Mgmt");
         put("em.col.role", "角色", "Role");
         put("em.col.hiredate", "入职日期", "Hire Date");
+        put("em.workload", "教练工作量", "Trainer Workload");
+        put("em.wl.courses", "本周课程", "Courses (Week)");
+        put("em.wl.booked", "已约/名额", "Booked / Seats");
+        put("em.wl.fill", "满座率", "Fill Rate");
+        put("em.wl.today", "今日上课人数", "Attendees Today");
 
         // === 6. 上课点名 (修复: att.select, att.load) ===
         put("att.title", "上课点名系统", "Class Attendance");
@@ -120,6 +176,7 @@ public class LanguageUtils {
         put("pm.add", "新增商品", "Add Product");
         put("pm.edit", "修改信息", "Edit Info");
         put("pm.del", "下架/删除", "Delete");
+        put("pm.col.threshold", "补货线", "Reorder At");
         // Shop UI
         put("shop.title", "收银台 (POS)", "Cashier (POS)");
         put("shop.search_ph", "商品名称", "Product Name");
@@ -151,6 +208,43 @@ public class LanguageUtils {
         put("report.tab.table", "详细报表", "Table");
         put("report.tab.bar", "营收柱状图", "Bar Chart");
         put("report.tab.pie", "占比饼状图", "Pie Chart");
+        put("report.tab.trend", "营收趋势", "Revenue Trend");
+        put("report.gran.day", "按日 (近30天)", "Daily (30 days)");
+        put("report.gran.week", "按周 (近12周)", "Weekly (12 weeks)");
+        put("report.gran.month", "按月 (近12个月)", "Monthly (12 months)");
+        put("report.tab.rank", "畅销榜", "Best Sellers");
+        put("report.rank.day", "今日", "Today");
+        put("report.rank.week", "近7天", "Last 7 days");
+        put("report.rank.month", "近30天", "Last 30 days");
+        put("report.rank.rebuild", "从历史订单重建", "Rebuild from history");
+        put("report.rank.rebuild.fail", "重建失败，请检查数据库连接", "Rebuild failed, please check the database connection");
+        put("report.rank.no", "名次", "#");
+        put("report.rank.id", "商品ID", "ID");
+        put("report.rank.name", "商品名称", "Product");
+        put("report.rank.qty", "销量", "Qty");
+        put("report.refresh.off", "不自动刷新", "Auto refresh off");
+        put("report.refresh.every", "每 %d 秒刷新", "Every %d s");
+        put("report.updated", "更新于", "Updated");
+        put("report.tab.activity", "活跃分析", "Activity");
+        put("report.activity.hour", "签到时段 (近30天)", "Check-ins by hour (30 days)");
+        put("report.activity.weekday", "签到星期分布 (近30天)", "Check-ins by weekday (30 days)");
+        put("report.activity.course", "课程类型预约 (近30天)", "Bookings by course type (30 days)");
+        put("report.activity.order", "订单类型笔数 (近30天)", "Orders by type (30 days)");
+        put("report.tab.retention", "会员留存", "Retention");
+        put("report.retention.cohort", "注册月份", "Cohort");
+        put("report.retention.size", "人数", "Members");
+        put("report.retention.id", "会员ID", "ID");
+        put("report.retention.name", "姓名", "Name");
+        put("report.retention.phone", "电话", "Phone");
+        put("report.retention.last", "最近签到", "Last check-in");
+        put("report.retention.visits", "来访天数", "Visit days");
+        put("report.retention.absent", "未到天数", "Days absent");
+        put("report.retention.churn", "流失风险：近30天未签到、此前60天内来过的会员", "Churn risk: active members absent for 30 days who visited in the 60 days before");
+        put("report.tab.heatmap", "到店热力图", "Heatmap");
+        put("report.heatmap.range", "近 %d 周", "Last %d weeks");
+        put("report.heatmap.overlay.none", "不叠加课程", "No class overlay");
+        put("report.heatmap.peak", "高峰时段", "Peak");
+        put("report.activity.weekdays", "周一,周二,周三,周四,周五,周六,周日", "Mon,Tue,Wed,Thu,Fri,Sat,Sun");
 
         // === 10. 会员管理 Member Manage ===
         put("mm.title", "会员档案管理", "Member Management");
@@ -191,32 +285,207 @@ public class LanguageUtils {
         put("buy.month", "月卡", "Monthly");
         put("buy.year", "年卡", "Yearly");
         put("buy.btn", "立即开通", "Activate");
+
+        TABLE = new String[2][ENTRIES.size()];
+        int index = 0;
+        for (Map.Entry<String, String[]> entry : ENTRIES.entrySet()) {
+            String name = entry.getKey().intern();
+            TABLE[CN][index] = entry.getValue()[CN];
+            TABLE[EN][index] = entry.getValue()[EN];
+            KEYS.put(name, new Key(name, index));
+            index++;
+        }
+        ENTRIES.clear();
     }
 
     private static void put(String key, String cn, String en) {
-        CN.put(key, cn);
-        EN.put(key, en);
+        ENTRIES.put(key, new String[]{cn, en});
     }
 
+    // ==================== 查询 ====================
+
+    /**
+     * 取得词条（不存在时返回null）
+     */
+    public static Key key(String key) {
+        return KEYS.get(key);
+    }
+
+    /**
+     * 当前语言的文字：只有数组访问
+     */
+    public static String text(Key key) {
+        return TABLE[language][key.index];
+    }
+
+    /**
+     * 当前语言的文字，词条不存在时原样返回键
+     */
     public static String getText(String key) {
-        return isChinese ? CN.getOrDefault(key, key) : EN.getOrDefault(key, key);
+        Key k = KEYS.get(key);
+        return k != null ? TABLE[language][k.index] : key;
+    }
+
+    public static boolean isChinese() {
+        return language == CN;
     }
 
+    // ==================== 切换 ====================
+
+    /**
+     * 切换语言并原地刷新所有已登记窗口的文字
+     */
     public static void toggle() {
-        isChinese = !isChinese;
+        language = language == CN ? EN : CN;
+        if (SwingUtilities.isEventDispatchThread()) {
+            relabelAll();
+        } else {
+            SwingUtilities.invokeLater(LanguageUtils::relabelAll);
+        }
+    }
+
+    /**
+     * 登记窗口中需要随语言变化的文字：立即执行一次，之后每次切换语言时再执行（事件线程）
+     *
+     * 窗口关闭（dispose）后自动注销
+     *
+     * @param window  所属窗口
+     * @param relabel 重新设置文字的动作，只能读取已有数据，不要在这里查询数据库
+     */
+    public static void bind(Window window, Runnable relabel) {
+        relabel.run();
+        List<Runnable> list = BINDINGS.get(window);
+        if (list == null) {
+            list = new ArrayList<>();
+            BINDINGS.put(window, list);
+            window.addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowClosed(WindowEvent e) {
+                    BINDINGS.remove(window);
+                }
+            });
+        }
+        list.add(relabel);
+    }
+
+    /**
+     * 窗口是否登记过文字（切换语言时可以原地刷新），只登记了语言切换按钮的不算
+     */
+    public static boolean isBound(Window window) {
+        List<Runnable> list = BINDINGS.get(window);
+        if (list == null) {
+            return false;
+        }
+        for (Runnable relabel : list) {
+            if (!(relabel instanceof LanguageButtonLabel)) {
+                return true;
+            }
+        }
+        return false;
     }
 
+    private static void relabelAll() {
+        for (Map.Entry<Window, List<Runnable>> entry : new ArrayList<>(BINDINGS.entrySet())) {
+            for (Runnable relabel : entry.getValue()) {
+                relabel.run();
+            }
+            entry.getKey().revalidate();
+            entry.getKey().repaint();
+        }
+    }
+
+    // ==================== 组件辅助 ====================
+
+    /**
+     * 替换下拉框的选项并保持选中位置，期间不触发 ActionListener（避免切换语言引起重新查询）
+     */
+    public static void setItems(JComboBox<String> box, String... items) {
+        ActionListener[] listeners = box.getActionListeners();
+        for (ActionListener listener : listeners) {
+            box.removeActionListener(listener);
+        }
+        int selected = box.getSelectedIndex();
+        box.removeAllItems();
+        for (String item : items) {
+            box.addItem(item);
+        }
+        if (selected >= 0 && selected < items.length) {
+            box.setSelectedIndex(selected);
+        }
+        for (ActionListener listener : listeners) {
+            box.addActionListener(listener);
+        }
+    }
+
+    /**
+     * 设置表头文字（只改显示，不重建列，列宽和渲染器保持不变）
+     */
+    public static void setHeaders(JTable table, String... headers) {
+        for (int i = 0; i < headers.length && i < table.getColumnModel().getColumnCount(); i++) {
+            table.getColumnModel().getColumn(i).setHeaderValue(headers[i]);
+        }
+        table.getTableHeader().repaint();
+    }
+
+    /**
+     * 语言切换按钮
+     *
+     * 窗口登记过文字时原地刷新；否则关闭窗口并用 reopener 重新打开
+     */
     public static JButton createLanguageButton(Window window, Runnable reopener) {
-        JButton btn = new JButton(isChinese ? "English" : "中文");
+        JButton btn = new JButton();
         btn.setFont(new Font("SansSerif", Font.BOLD, 12));
         btn.setFocusPainted(false);
         btn.setBackground(Color.WHITE);
         btn.setCursor(new Cursor(Cursor.HAND_CURSOR));
+        // 按钮文字和窗口其他文字一样登记，任何窗口切换语言时都会刷新
+        bind(window, new LanguageButtonLabel(btn));
         btn.addActionListener(e -> {
+            boolean inPlace = isBound(window);
             toggle();
-            window.dispose();
-            reopener.run();
+            if (!inPlace) {
+                window.dispose();
+                reopener.run();
+            }
         });
         return btn;
     }
-}
\ No newline at end of file
+
+    /**
+     * 语言切换按钮的文字：显示要切换到的语言
+     */
+    private static final class LanguageButtonLabel implements Runnable {
+        private final JButton button;
+
+        LanguageButtonLabel(JButton button) {
+            this.button = button;
+        }
+
+        @Override
+        public void run() {
+            button.setText(isChinese() ? "English" : "中文");
+        }
+    }
+
+    /**
+     * 词条：键和它在数组表中的下标
+     */
+    public static final class Key {
+        private final String name;
+        private final int index;
+
+        private Key(String name, int index) {
+            this.name = name;
+            this.index = index;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package utils;
+
+import java.util.function.Supplier;
+
+/**
+ * 延迟创建的单例持有者：第一次 {@link #get()} 时才创建，之后一直返回同一个对象（线程安全）
+ *
+ * 用于 DAO / Service 之间的依赖，避免构造一个对象时连带把用不到的依赖全部创建出来
+ *
+ * @param <T> 对象类型
+ */
+public final class Lazy<T> implements Supplier<T> {
+
+    private Supplier<T> factory;
+    private volatile T value;
+
+    private Lazy(Supplier<T> factory) {
+        this.factory = factory;
+    }
+
+    public static <T> Lazy<T> of(Supplier<T> factory) {
+        return new Lazy<>(factory);
+    }
+
+    @Override
+    public T get() {
+        T v = value;
+        if (v == null) {
+            synchronized (this) {
+                v = value;
+                if (v == null) {
+                    v = factory.get();
+                    value = v;
+                    factory = null;
+                }
+            }
+        }
+        return v;
+    }
+
+    /**
+     * 是否已经创建
+     */
+    public boolean isInitialized() {
+        return value != null;
+    }
+}
@@ -0,0 +1,247 @@
+package utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 有界 LRU + TTL 缓存
+ *
+ * 特点：
+ * - 容量有上限，超出时淘汰最久未访问的条目
+ * - 每个条目有存活时间（TTL），过期后视为未命中
+ * - 记录命中 / 未命中 / 淘汰次数，便于调优容量和 TTL
+ *
+ * 线程安全：所有操作在同一把锁内完成，适合读多写少的小型缓存
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ */
+public class LruCache<K, V> {
+
+    // ==================== 配置 ====================
+
+    /** 最大条目数 */
+    private final int maxSize;
+
+    /** 条目存活时间（毫秒），<= 0 表示永不过期 */
+    private final long ttlMillis;
+
+    // ==================== 存储 ====================
+
+    /** accessOrder = true：按访问顺序排列，头部即最久未访问 */
+    private final LinkedHashMap<K, Entry<V>> map;
+
+    // ==================== 统计计数 ====================
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long expiredCount;
+
+    // ==================== 构造方法 ====================
+
+    /**
+     * @param maxSize   最大条目数（必须大于0）
+     * @param ttlMillis 条目存活时间（毫秒），<= 0 表示永不过期
+     */
+    public LruCache(int maxSize, long ttlMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("缓存容量必须大于0");
+        }
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+        this.map = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    // ==================== 读写操作 ====================
+
+    /**
+     * 读取缓存
+     *
+     * @param key 键
+     * @return 命中返回值，未命中或已过期返回null
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = map.get(key);
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        if (isExpired(entry)) {
+            map.remove(key);
+            expiredCount++;
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.value;
+    }
+
+    /**
+     * 读穿透：命中直接返回，未命中时调用 loader 加载并放入缓存
+     *
+     * 注意：loader 在锁外执行，避免数据库查询期间阻塞其他线程；
+     * 并发未命中时可能重复加载，对幂等的查询来说可以接受
+     *
+     * @param key    键
+     * @param loader 加载函数，返回null时不缓存
+     * @return 值，加载失败返回null
+     */
+    public V getOrLoad(K key, Function<K, V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        value = loader.apply(key);
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * 写入缓存，超出容量时淘汰最久未访问的条目
+     */
+    public synchronized void put(K key, V value) {
+        if (key == null || value == null) {
+            return;
+        }
+        map.put(key, new Entry<>(value, System.currentTimeMillis()));
+        evictIfNecessary();
+    }
+
+    /**
+     * 使单个条目失效
+     *
+     * @return 被移除的值，不存在返回null
+     */
+    public synchronized V invalidate(K key) {
+        Entry<V> entry = map.remove(key);
+        return entry != null ? entry.value : null;
+    }
+
+    /**
+     * 清空缓存（统计计数保留）
+     */
+    public synchronized void clear() {
+        map.clear();
+    }
+
+    /**
+     * 当前条目数（包含尚未清理的过期条目）
+     */
+    public synchronized int size() {
+        return map.size();
+    }
+
+    // ==================== 统计 ====================
+
+    /**
+     * 获取统计快照
+     */
+    public synchronized Stats getStats() {
+        return new Stats(hitCount, missCount, evictionCount, expiredCount, map.size(), maxSize);
+    }
+
+    /**
+     * 重置统计计数
+     */
+    public synchronized void resetStats() {
+        hitCount = 0;
+        missCount = 0;
+        evictionCount = 0;
+        expiredCount = 0;
+    }
+
+    // ==================== 内部方法 ====================
+
+    private boolean isExpired(Entry<V> entry) {
+        return ttlMillis > 0 && System.currentTimeMillis() - entry.createdAt > ttlMillis;
+    }
+
+    private void evictIfNecessary() {
+        Iterator<Map.Entry<K, Entry<V>>> it = map.entrySet().iterator();
+        while (map.size() > maxSize && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictionCount++;
+        }
+    }
+
+    // ==================== 内部类 ====================
+
+    private static class Entry<V> {
+        final V value;
+        final long createdAt;
+
+        Entry(V value, long createdAt) {
+            this.value = value;
+            this.createdAt = createdAt;
+        }
+    }
+
+    /**
+     * 缓存统计快照（不可变）
+     */
+    public static class Stats {
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+        private final long expiredCount;
+        private final int size;
+        private final int maxSize;
+
+        public Stats(long hitCount, long missCount, long evictionCount, long expiredCount, int size, int maxSize) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+            this.expiredCount = expiredCount;
+            this.size = size;
+            this.maxSize = maxSize;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        public long getMissCount() {
+            return missCount;
+        }
+
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        public long getExpiredCount() {
+            return expiredCount;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public long getRequestCount() {
+            return hitCount + missCount;
+        }
+
+        /**
+         * 命中率（0.0 ~ 1.0），没有请求时返回0
+         */
+        public double getHitRate() {
+            long requests = getRequestCount();
+            return requests == 0 ? 0.0 : (double) hitCount / requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("命中=%d, 未命中=%d, 命中率=%.1f%%, 淘汰=%d, 过期=%d, 容量=%d/%d",
+                    hitCount, missCount, getHitRate() * 100, evictionCount, expiredCount, size, maxSize);
+        }
+    }
+}
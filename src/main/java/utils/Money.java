@@ -0,0 +1,188 @@
+package utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 金额工具类
+ * 项目中所有金额统一用 long 表示"分"（1 元 = 100 分）
+ *
+ * - 数据库 DECIMAL(10,2) 与分之间的换算只在读写 ResultSet / PreparedStatement 时发生
+ * - 加、乘使用整数运算，结果精确且不创建对象；溢出时抛出 ArithmeticException
+ * - 界面显示统一用 {@link #format(long)}，输入统一用 {@link #parse(String)}
+ *
+ * 实体类中保留的 double 取值/设值方法仅作兼容，内部同样以分存储
+ */
+public final class Money {
+
+    /** 1 元对应的分 */
+    public static final long CENTS_PER_YUAN = 100;
+
+    /** 金额符号 */
+    public static final String SYMBOL = "¥";
+
+    private Money() {
+    }
+
+    // ==================== 换算 ====================
+
+    /**
+     * 元（double）转分，四舍五入到分
+     *
+     * 经 BigDecimal.valueOf 按十进制字面值换算，避免 0.285 * 100 = 28.4999... 这类误差
+     */
+    public static long ofYuan(double yuan) {
+        if (Double.isNaN(yuan) || Double.isInfinite(yuan)) {
+            throw new IllegalArgumentException("金额无效: " + yuan);
+        }
+        return fromBigDecimal(BigDecimal.valueOf(yuan));
+    }
+
+    /**
+     * BigDecimal（元）转分，四舍五入到分
+     */
+    public static long fromBigDecimal(BigDecimal yuan) {
+        if (yuan == null) {
+            return 0;
+        }
+        return yuan.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * 分转 BigDecimal（元，两位小数）
+     */
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * 分转元（double），仅用于图表等不要求精确的场合
+     */
+    public static double toYuan(long cents) {
+        return cents / (double) CENTS_PER_YUAN;
+    }
+
+    // ==================== 运算 ====================
+
+    /**
+     * 相加（溢出时抛出 ArithmeticException）
+     */
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    /**
+     * 相减（溢出时抛出 ArithmeticException）
+     */
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    /**
+     * 单价乘数量（溢出时抛出 ArithmeticException）
+     */
+    public static long multiply(long unitCents, int quantity) {
+        return Math.multiplyExact(unitCents, (long) quantity);
+    }
+
+    // ==================== 格式化与解析 ====================
+
+    /**
+     * 格式化为两位小数，如 1234.5 元 → "1234.50"
+     */
+    public static String format(long cents) {
+        return format(cents, false);
+    }
+
+    /**
+     * 格式化为带千分位的两位小数，如 "1,234.50"
+     */
+    public static String formatGrouped(long cents) {
+        return format(cents, true);
+    }
+
+    /**
+     * 带金额符号，如 "¥ 1,234.50"
+     */
+    public static String formatWithSymbol(long cents) {
+        return SYMBOL + " " + formatGrouped(cents);
+    }
+
+    private static String format(long cents, boolean grouped) {
+        StringBuilder sb = new StringBuilder(24);
+        // 用负数运算，Long.MIN_VALUE 也不会溢出
+        long negative = cents < 0 ? cents : -cents;
+        if (cents < 0) {
+            sb.append('-');
+        }
+        String yuan = Long.toString(-(negative / CENTS_PER_YUAN));
+        int fraction = (int) -(negative % CENTS_PER_YUAN);
+        if (grouped) {
+            int head = yuan.length() % 3;
+            for (int i = 0; i < yuan.length(); i++) {
+                if (i > 0 && (i - head) % 3 == 0) {
+                    sb.append(',');
+                }
+                sb.append(yuan.charAt(i));
+            }
+        } else {
+            sb.append(yuan);
+        }
+        sb.append('.');
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        sb.append(fraction);
+        return sb.toString();
+    }
+
+    /**
+     * 解析用户输入的金额（元），最多两位小数
+     *
+     * 允许前后空格、金额符号和千分位逗号
+     *
+     * @param text 输入文本，如 "200"、"19.9"、"¥ 1,200.00"
+     * @return 分
+     * @throws NumberFormatException 格式错误或小数超过两位
+     */
+    public static long parse(String text) {
+        if (text == null) {
+            throw new NumberFormatException("金额为空");
+        }
+        String cleaned = text.trim().replace(SYMBOL, "").replace(",", "").trim();
+        if (cleaned.isEmpty()) {
+            throw new NumberFormatException("金额为空");
+        }
+        try {
+            return new BigDecimal(cleaned).setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("金额最多两位小数: " + text);
+        }
+    }
+
+    // ==================== JDBC ====================
+
+    /**
+     * 从结果集读取金额列（DECIMAL）为分，NULL 视为 0
+     */
+    public static long getCents(ResultSet rs, String column) throws SQLException {
+        return fromBigDecimal(rs.getBigDecimal(column));
+    }
+
+    /**
+     * 从结果集读取金额列（按序号）为分，NULL 视为 0
+     */
+    public static long getCents(ResultSet rs, int column) throws SQLException {
+        return fromBigDecimal(rs.getBigDecimal(column));
+    }
+
+    /**
+     * 以 DECIMAL 精度写入金额参数
+     */
+    public static void setCents(PreparedStatement pstmt, int index, long cents) throws SQLException {
+        pstmt.setBigDecimal(index, toBigDecimal(cents));
+    }
+}
@@ -0,0 +1,65 @@
+package utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 密码哈希基准测试：按当前机器校准迭代次数，分别用 1 个线程和全部核数计算哈希，
+ * 输出每秒哈希数和每核每秒哈希数，用于评估登录高峰能承受的并发
+ *
+ * 运行：mvn -q compile 后执行 java -cp target/classes utils.PasswordHashBenchmark [每轮秒数]
+ */
+public final class PasswordHashBenchmark {
+
+    private PasswordHashBenchmark() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        long seconds = args.length > 0 ? Long.parseLong(args[0]) : 5;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        PasswordHasher hasher = PasswordHasher.getInstance();
+        long start = System.nanoTime();
+        int iterations = hasher.calibrate();
+        System.out.println(String.format("校准：%d 次迭代（目标 %d ms，耗时 %d ms）",
+                iterations, Long.getLong(PasswordHasher.TARGET_PROPERTY, PasswordHasher.DEFAULT_TARGET_MILLIS),
+                (System.nanoTime() - start) / 1_000_000));
+
+        String stored = hasher.hash("benchmark");
+        for (int threads : new int[]{1, cores}) {
+            double perSecond = run(hasher, stored, threads, seconds);
+            System.out.println(String.format("%2d 线程：%8.1f 次/秒，每核 %6.1f 次/秒，单次 %6.1f ms",
+                    threads, perSecond, perSecond / threads, threads * 1000.0 / perSecond));
+            if (cores == 1) {
+                break;
+            }
+        }
+        hasher.shutdown();
+    }
+
+    /**
+     * 用 threads 个线程持续验证 seconds 秒，返回每秒完成的验证次数
+     */
+    private static double run(PasswordHasher hasher, String stored, int threads, long seconds) throws InterruptedException {
+        AtomicLong count = new AtomicLong();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Thread> workers = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            Thread t = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    hasher.matches("benchmark", stored);
+                    count.incrementAndGet();
+                }
+            });
+            workers.add(t);
+            t.start();
+        }
+        for (Thread t : workers) {
+            t.join();
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        return count.get() / elapsed;
+    }
+}
@@ -0,0 +1,276 @@
+package utils;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.spec.InvalidKeySpecException;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 密码哈希（PBKDF2-HMAC-SHA256，加盐，迭代次数可调）
+ *
+ * 原来的密码是不加盐的单轮 SHA-256，而且在界面线程上计算。现在：
+ * - 新哈希格式为 pbkdf2$迭代次数$盐$哈希（盐和哈希为 Base64），每个密码随机16字节盐
+ * - 迭代次数在启动时按目标耗时校准（{@link #calibrate()}），不低于 {@link #MIN_ITERATIONS}；
+ *   迭代次数写在哈希里，校准结果变化不影响已有哈希的验证
+ * - 验证在一个有界线程池上执行（线程数为CPU核数的一半，排队数有上限），
+ *   一批同时登录不会占满CPU；排队满时直接返回"繁忙"，不无限堆积
+ * - 旧的 SHA-256 哈希仍可验证，{@link #needsRehash(String)} 为 true，登录成功后由调用方换成新哈希
+ */
+public final class PasswordHasher {
+
+    /** 单次哈希的目标耗时（毫秒）的系统属性 */
+    public static final String TARGET_PROPERTY = "gym.password.targetMillis";
+    /** 默认目标耗时（毫秒） */
+    public static final long DEFAULT_TARGET_MILLIS = 150;
+    /** 迭代次数下限 */
+    public static final int MIN_ITERATIONS = 100_000;
+    /** 校准前使用的迭代次数 */
+    public static final int DEFAULT_ITERATIONS = 210_000;
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String PREFIX = "pbkdf2";
+    private static final int SALT_BYTES = 16;
+    private static final int KEY_BITS = 256;
+    /** 排队等待验证的上限 */
+    private static final int QUEUE_CAPACITY = 32;
+    /** 等待验证结果的最长时间（秒） */
+    private static final long VERIFY_TIMEOUT_SECONDS = 10;
+    /** 校准时测量用的迭代次数 */
+    private static final int PROBE_ITERATIONS = 20_000;
+
+    private static volatile PasswordHasher instance;
+
+    private final SecureRandom random = new SecureRandom();
+    private final ThreadPoolExecutor executor;
+    private final long targetMillis;
+    private volatile int iterations;
+    private volatile boolean calibrated;
+
+    // ==================== 构造方法 ====================
+
+    /**
+     * @param iterations   新哈希的迭代次数
+     * @param targetMillis 校准的目标耗时（毫秒）
+     * @param threads      验证线程数
+     */
+    public PasswordHasher(int iterations, long targetMillis, int threads) {
+        this.iterations = Math.max(iterations, 1);
+        this.targetMillis = targetMillis;
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), r -> {
+                    Thread t = new Thread(r, "password-hasher-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 进程内共享的哈希器（目标耗时取系统属性 gym.password.targetMillis，线程数为CPU核数的一半）
+     */
+    public static PasswordHasher getInstance() {
+        PasswordHasher hasher = instance;
+        if (hasher == null) {
+            synchronized (PasswordHasher.class) {
+                if (instance == null) {
+                    int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+                    instance = new PasswordHasher(DEFAULT_ITERATIONS,
+                            Long.getLong(TARGET_PROPERTY, DEFAULT_TARGET_MILLIS), threads);
+                }
+                hasher = instance;
+            }
+        }
+        return hasher;
+    }
+
+    // ==================== 校准 ====================
+
+    /**
+     * 按目标耗时校准迭代次数（只执行一次，启动时在后台调用）
+     *
+     * @return 校准后的迭代次数
+     */
+    public synchronized int calibrate() {
+        if (!calibrated) {
+            iterations = Math.max(MIN_ITERATIONS, computeIterations(targetMillis));
+            calibrated = true;
+        }
+        return iterations;
+    }
+
+    /**
+     * 估算在目标耗时内可执行的迭代次数：先预热一次，再取两次测量中较快的一次
+     */
+    private static int computeIterations(long targetMillis) {
+        byte[] salt = new byte[SALT_BYTES];
+        char[] probe = "calibrate".toCharArray();
+        derive(probe, salt, PROBE_ITERATIONS);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 2; i++) {
+            long start = System.nanoTime();
+            derive(probe, salt, PROBE_ITERATIONS);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        double perIteration = (double) Math.max(best, 1) / PROBE_ITERATIONS;
+        long result = (long) (targetMillis * 1_000_000L / perIteration);
+        return (int) Math.min(result, Integer.MAX_VALUE);
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public boolean isCalibrated() {
+        return calibrated;
+    }
+
+    // ==================== 哈希与验证 ====================
+
+    /**
+     * 生成新哈希（随机盐，当前迭代次数），在调用线程上计算
+     */
+    public String hash(String plainPassword) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        int n = iterations;
+        byte[] key = derive(plainPassword.toCharArray(), salt, n);
+        Base64.Encoder encoder = Base64.getEncoder();
+        return PREFIX + "$" + n + "$" + encoder.encodeToString(salt) + "$" + encoder.encodeToString(key);
+    }
+
+    /**
+     * 验证密码（在调用线程上计算），同时支持新格式和旧的 SHA-256 哈希
+     */
+    public boolean matches(String plainPassword, String storedHash) {
+        if (plainPassword == null || storedHash == null) {
+            return false;
+        }
+        if (!isPbkdf2(storedHash)) {
+            return MessageDigest.isEqual(legacyHash(plainPassword).getBytes(StandardCharsets.US_ASCII),
+                    storedHash.getBytes(StandardCharsets.US_ASCII));
+        }
+        String[] parts = storedHash.split("\\$");
+        if (parts.length != 4) {
+            return false;
+        }
+        try {
+            int n = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            return MessageDigest.isEqual(derive(plainPassword.toCharArray(), salt, n), expected);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 在验证线程池上验证密码并等待结果
+     *
+     * @throws BusyException 排队已满或等待超时
+     */
+    public boolean verify(String plainPassword, String storedHash) throws BusyException {
+        Future<Boolean> future;
+        try {
+            future = executor.submit(() -> matches(plainPassword, storedHash));
+        } catch (RejectedExecutionException e) {
+            throw new BusyException("验证排队已满");
+        }
+        try {
+            return future.get(VERIFY_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new BusyException("验证超时");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new BusyException("验证被中断");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("密码验证失败", e.getCause());
+        }
+    }
+
+    /**
+     * 在验证线程池上执行一个后台任务（如登录后升级哈希），排队满时放弃
+     *
+     * @return 是否已提交
+     */
+    public boolean submit(Runnable task) {
+        try {
+            executor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 是否需要换成新哈希：旧的 SHA-256 哈希，或迭代次数低于当前值
+     */
+    public boolean needsRehash(String storedHash) {
+        if (storedHash == null || !isPbkdf2(storedHash)) {
+            return true;
+        }
+        String[] parts = storedHash.split("\\$");
+        try {
+            return parts.length != 4 || Integer.parseInt(parts[1]) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    private static boolean isPbkdf2(String storedHash) {
+        return storedHash.startsWith(PREFIX + "$");
+    }
+
+    private static byte[] derive(char[] password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password, salt, iterations, KEY_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+            throw new IllegalStateException("密码哈希失败", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    /**
+     * 旧格式：不加盐的单轮 SHA-256（Base64），只用于验证升级前的哈希
+     */
+    static String legacyHash(String plainPassword) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(md.digest(plainPassword.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("密码哈希失败", e);
+        }
+    }
+
+    /**
+     * 关闭验证线程池（应用停止时由 AppContext 调用，测试中也直接调用）
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 验证线程池繁忙（排队已满或超时）
+     */
+    public static class BusyException extends Exception {
+        public BusyException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package utils;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.JTextComponent;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 边输入边搜索的查询管道（每个搜索框一个实例）
+ *
+ * 输入每变化一次就查一次数据库代价太大，这里做了四件事：
+ * - 防抖：停止输入 {@code debounceMillis} 毫秒后才真正查询，回车 / 按钮可立即查询
+ * - 取消：新查询发出时取消仍在执行的旧查询（绑定 {@link CancellationToken}，DAO 登记的 Statement 会被 cancel），
+ *   旧结果即使返回也直接丢弃
+ * - 缓存：按规范化后的关键字（去首尾空格、合并空白、小写）缓存最近的结果，退格回到之前的关键字时不再查询
+ * - 线程：查询在后台线程执行，结果回到事件线程交给 onResult
+ *
+ * 数据被本界面修改后调用 {@link #invalidate()} 清空缓存；窗口关闭时调用 {@link #close()}
+ *
+ * @param <T> 结果类型
+ */
+public class SearchPipeline<T> {
+
+    /** 默认防抖时间（毫秒） */
+    public static final int DEFAULT_DEBOUNCE_MILLIS = 250;
+
+    /** 默认缓存条数 */
+    public static final int DEFAULT_CACHE_SIZE = 32;
+
+    /** 缓存结果的存活时间（毫秒），其他客户端的修改最多延迟这么久可见 */
+    public static final long CACHE_TTL_MILLIS = 60_000;
+
+    private static final ScheduledExecutorService DEBOUNCER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "search-debounce");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static final ExecutorService WORKERS = Executors.newFixedThreadPool(2, new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "search-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    });
+
+    // ==================== 状态 ====================
+
+    private final int debounceMillis;
+    private final Searcher<T> searcher;
+    private final Consumer<T> onResult;
+    private final ScheduledExecutorService scheduler;
+    private final Executor worker;
+    private final Executor deliverer;
+    /** 规范化关键字 -> 结果，容量为0时不缓存 */
+    private final LruCache<String, T> cache;
+
+    /** 每发出一次请求（含缓存命中）递增，只有最新请求的结果会交付 */
+    private long seq;
+    private ScheduledFuture<?> pending;
+    private CancellationToken inFlight;
+    /** 最近一次请求的规范化关键字，输入变化后规范化结果不变（如多打了空格）时不再请求 */
+    private String lastRequested;
+    private boolean closed;
+
+    // ==================== 构造方法 ====================
+
+    /**
+     * Swing 界面使用：共享防抖线程和查询线程，结果在事件线程交付
+     *
+     * @param cacheSize 缓存条数，0 表示不缓存（如数据已在内存中）
+     * @param searcher  查询函数，参数为规范化后的关键字（可能为空字符串）
+     * @param onResult  结果回调（事件线程）
+     */
+    public SearchPipeline(int debounceMillis, int cacheSize, Searcher<T> searcher, Consumer<T> onResult) {
+        this(debounceMillis, cacheSize, searcher, onResult, DEBOUNCER, WORKERS, SwingUtilities::invokeLater);
+    }
+
+    /**
+     * @param scheduler 防抖计时
+     * @param worker    执行查询
+     * @param deliverer 交付结果（界面中为事件线程）
+     */
+    public SearchPipeline(int debounceMillis, int cacheSize, Searcher<T> searcher, Consumer<T> onResult,
+                          ScheduledExecutorService scheduler, Executor worker, Executor deliverer) {
+        this.debounceMillis = debounceMillis;
+        this.searcher = searcher;
+        this.onResult = onResult;
+        this.scheduler = scheduler;
+        this.worker = worker;
+        this.deliverer = deliverer;
+        this.cache = cacheSize > 0 ? new LruCache<>(cacheSize, CACHE_TTL_MILLIS) : null;
+    }
+
+    /**
+     * 监听输入框：内容每次变化都提交（防抖后查询）
+     */
+    public SearchPipeline<T> attach(JTextComponent field) {
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { submit(field.getText()); }
+            @Override public void removeUpdate(DocumentEvent e) { submit(field.getText()); }
+            @Override public void changedUpdate(DocumentEvent e) { submit(field.getText()); }
+        });
+        return this;
+    }
+
+    // ==================== 提交 ====================
+
+    /**
+     * 输入变化：防抖后查询；命中缓存时直接交付
+     */
+    public void submit(String rawQuery) {
+        request(normalize(rawQuery), false);
+    }
+
+    /**
+     * 立即查询（回车 / 搜索按钮），不使用缓存
+     */
+    public void searchNow(String rawQuery) {
+        request(normalize(rawQuery), true);
+    }
+
+    /**
+     * 清空缓存（本界面修改了数据之后）
+     */
+    public synchronized void invalidate() {
+        if (cache != null) {
+            cache.clear();
+        }
+        lastRequested = null;
+    }
+
+    /**
+     * 停止：取消等待中和执行中的查询，之后的提交全部忽略
+     */
+    public synchronized void close() {
+        closed = true;
+        seq++;
+        cancelPending();
+    }
+
+    /**
+     * 停止共享的防抖线程和查询线程（应用退出时调用）
+     */
+    public static void shutdown() {
+        DEBOUNCER.shutdownNow();
+        WORKERS.shutdownNow();
+    }
+
+    /**
+     * 规范化关键字：去首尾空格、连续空白合并为一个空格、转小写
+     */
+    public static String normalize(String rawQuery) {
+        if (rawQuery == null) {
+            return "";
+        }
+        return rawQuery.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    // ==================== 内部方法 ====================
+
+    private synchronized void request(String query, boolean immediate) {
+        if (closed || (!immediate && query.equals(lastRequested))) {
+            return;
+        }
+        lastRequested = query;
+        cancelPending();
+        long mySeq = ++seq;
+
+        if (!immediate && cache != null) {
+            T cached = cache.get(query);
+            if (cached != null) {
+                deliver(mySeq, cached);
+                return;
+            }
+        }
+        if (immediate || debounceMillis <= 0) {
+            start(query, mySeq);
+        } else {
+            pending = scheduler.schedule(() -> fire(query, mySeq), debounceMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void fire(String query, long mySeq) {
+        if (mySeq == seq) {
+            pending = null;
+            start(query, mySeq);
+        }
+    }
+
+    /** 已持有锁时调用 */
+    private void start(String query, long mySeq) {
+        CancellationToken token = new CancellationToken();
+        inFlight = token;
+        worker.execute(() -> run(query, mySeq, token));
+    }
+
+    private void run(String query, long mySeq, CancellationToken token) {
+        T result;
+        try {
+            result = token.callBound(() -> searcher.search(query));
+        } catch (Exception e) {
+            if (!token.isCancelled()) {
+                e.printStackTrace();
+            }
+            return;
+        }
+        synchronized (this) {
+            if (inFlight == token) {
+                inFlight = null;
+            }
+            if (token.isCancelled() || mySeq != seq) {
+                return;
+            }
+            if (cache != null && result != null) {
+                cache.put(query, result);
+            }
+        }
+        deliver(mySeq, result);
+    }
+
+    private void deliver(long mySeq, T result) {
+        deliverer.execute(() -> {
+            // 交付前再确认一次，排队期间又有新请求时丢弃
+            synchronized (this) {
+                if (mySeq != seq) {
+                    return;
+                }
+            }
+            onResult.accept(result);
+        });
+    }
+
+    /** 已持有锁时调用 */
+    private void cancelPending() {
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+        if (inFlight != null) {
+            // Statement.cancel 需要再连一次数据库，放到防抖线程执行，不阻塞事件线程
+            CancellationToken token = inFlight;
+            inFlight = null;
+            scheduler.execute(token::cancel);
+        }
+    }
+
+    /**
+     * 查询函数
+     */
+    @FunctionalInterface
+    public interface Searcher<T> {
+        /**
+         * @param query 规范化后的关键字，可能为空字符串
+         */
+        T search(String query) throws Exception;
+    }
+}
@@ -0,0 +1,81 @@
+package utils;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 启动耗时统计
+ *
+ * 从 JVM 启动开始计时，Main 在每个启动阶段结束时调用 {@link #phase(String)} 记一笔，
+ * 登录窗口第一次显示并可以输入时调用 {@link #interactive()}，打印各阶段耗时和
+ * 可交互时间（time-to-interactive），超过 {@link #TARGET_INTERACTIVE_MILLIS} 时给出提示。
+ *
+ * 后台预热不计入可交互时间，完成后用 {@link #background(String)} 单独记录。
+ *
+ * 启动参数 -Dgym.startup.exitWhenReady=true 时，预热结束后直接退出，
+ * 用于生成 AppCDS 归档（见 README）
+ */
+public final class StartupProfiler {
+
+    /** 可交互时间目标（毫秒，从 JVM 启动算起） */
+    public static final long TARGET_INTERACTIVE_MILLIS = 1500;
+
+    /** 预热完成后退出（生成 AppCDS 归档用） */
+    public static final boolean EXIT_WHEN_READY = Boolean.getBoolean("gym.startup.exitWhenReady");
+
+    private static final long JVM_START = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+    private static final List<String> lines = new ArrayList<>();
+    private static long lastMark = JVM_START;
+    private static long interactiveAt;
+
+    private StartupProfiler() {
+    }
+
+    // ==================== 记录 ====================
+
+    /**
+     * 一个启动阶段结束（耗时从上一个阶段结束算起）
+     */
+    public static synchronized void phase(String name) {
+        long now = System.currentTimeMillis();
+        lines.add(String.format("  %-24s %6d ms", name, now - lastMark));
+        lastMark = now;
+    }
+
+    /**
+     * 登录窗口已显示（只记录第一次）
+     */
+    public static synchronized void interactive() {
+        if (interactiveAt != 0) {
+            return;
+        }
+        phase("show login");
+        interactiveAt = System.currentTimeMillis();
+        long elapsed = interactiveAt - JVM_START;
+        StringBuilder sb = new StringBuilder("⏱ 启动阶段耗时：\n");
+        for (String line : lines) {
+            sb.append(line).append('\n');
+        }
+        sb.append(String.format("  %-24s %6d ms（目标 %d ms）", "time-to-interactive", elapsed, TARGET_INTERACTIVE_MILLIS));
+        System.out.println(sb);
+        if (elapsed > TARGET_INTERACTIVE_MILLIS) {
+            System.out.println("⚠️ 启动超过目标时间，可使用 AppCDS 归档启动（见 README）");
+        }
+    }
+
+    /**
+     * 后台任务完成（耗时从 JVM 启动算起）
+     */
+    public static void background(String name) {
+        System.out.println(String.format("⏱ %s 完成：%d ms", name, System.currentTimeMillis() - JVM_START));
+    }
+
+    /**
+     * 可交互时间（毫秒），尚未显示登录窗口时为 -1
+     */
+    public static synchronized long getInteractiveMillis() {
+        return interactiveAt == 0 ? -1 : interactiveAt - JVM_START;
+    }
+}
@@ -0,0 +1,296 @@
+package utils;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 统计指标缓存（过期后先返回旧值，后台刷新）
+ *
+ * 面板类统计（营收、会员数、预约/签到概览等）多个管理员同时打开时，
+ * 每次调用都重新查询数据库并无必要。本缓存按"指标 + 参数"缓存结果：
+ * - 未过期：直接返回
+ * - 已过期但不太旧（不超过 TTL 的 {@link #MAX_STALE_FACTOR} 倍）：立即返回旧值，同时在后台刷新
+ * - 没有值或过旧：调用线程同步加载
+ * - 同一个键同时只有一次加载，并发请求等待同一个结果
+ *
+ * 加载函数返回 null 时不缓存；后台刷新失败保留旧值，下次读取时重试
+ *
+ * 返回的对象为共享实例，调用方不要修改
+ */
+public class StatsCache {
+
+    /** 默认最多缓存的条目数 */
+    public static final int DEFAULT_MAX_SIZE = 256;
+
+    /** 旧值最多可用到 TTL 的多少倍，再旧就同步加载 */
+    public static final int MAX_STALE_FACTOR = 10;
+
+    private static volatile StatsCache instance;
+
+    // ==================== 状态 ====================
+
+    private final int maxSize;
+    private final Executor refresher;
+    private final LongSupplier clock;
+
+    /** accessOrder = true：超出容量时淘汰最久未访问的指标 */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    /** 正在加载的键 -> 加载结果 */
+    private final Map<String, CompletableFuture<Object>> inFlight = new HashMap<>();
+
+    private long hitCount;
+    private long staleHitCount;
+    private long missCount;
+    private long loadCount;
+    private long failureCount;
+
+    // ==================== 构造方法 ====================
+
+    /**
+     * @param maxSize   最大条目数（必须大于0）
+     * @param refresher 后台刷新使用的执行器
+     * @param clock     当前时间（毫秒）来源，测试时可替换
+     */
+    public StatsCache(int maxSize, Executor refresher, LongSupplier clock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("缓存容量必须大于0");
+        }
+        this.maxSize = maxSize;
+        this.refresher = refresher;
+        this.clock = clock;
+    }
+
+    /**
+     * 进程内共享的统计缓存（两个守护线程负责后台刷新）
+     */
+    public static StatsCache getInstance() {
+        StatsCache cache = instance;
+        if (cache == null) {
+            synchronized (StatsCache.class) {
+                if (instance == null) {
+                    AtomicInteger count = new AtomicInteger();
+                    Executor executor = Executors.newFixedThreadPool(2, r -> {
+                        Thread t = new Thread(r, "stats-refresh-" + count.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+                    instance = new StatsCache(DEFAULT_MAX_SIZE, executor, System::currentTimeMillis);
+                }
+                cache = instance;
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * 拼接缓存键：指标名 + 参数，如 key("revenue.series", from, to, "DAY")
+     */
+    public static String key(String metric, Object... params) {
+        StringBuilder sb = new StringBuilder(metric);
+        for (Object param : params) {
+            sb.append('|').append(param);
+        }
+        return sb.toString();
+    }
+
+    // ==================== 读取 ====================
+
+    /**
+     * 读取指标
+     *
+     * @param key       缓存键（见 {@link #key(String, Object...)}）
+     * @param ttlMillis 该指标的存活时间（毫秒）
+     * @param loader    查询函数
+     * @return 指标值；没有缓存且加载返回null时为null
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, long ttlMillis, Supplier<T> loader) {
+        CompletableFuture<Object> pending;
+        boolean owner = false;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                long age = clock.getAsLong() - entry.loadedAt;
+                if (!entry.stale && age < ttlMillis) {
+                    hitCount++;
+                    return (T) entry.value;
+                }
+                if (age < ttlMillis * MAX_STALE_FACTOR) {
+                    staleHitCount++;
+                    refreshAsync(key, loader);
+                    return (T) entry.value;
+                }
+            }
+            missCount++;
+            pending = inFlight.get(key);
+            if (pending == null) {
+                pending = new CompletableFuture<>();
+                inFlight.put(key, pending);
+                owner = true;
+            }
+        }
+
+        if (owner) {
+            load(key, loader, pending);
+        }
+        try {
+            return (T) pending.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    // ==================== 失效 ====================
+
+    /**
+     * 移除某个前缀下的全部指标（下次读取同步加载，正在进行的加载结果不再写入）
+     *
+     * 用于调用方已确知数据变化、不能接受旧值的场合
+     *
+     * @param prefix 键前缀，如 "stats.order."
+     */
+    public synchronized void invalidate(String prefix) {
+        entries.keySet().removeIf(k -> k.startsWith(prefix));
+        inFlight.keySet().removeIf(k -> k.startsWith(prefix));
+    }
+
+    /**
+     * 把某个前缀下的指标标记为过期（下次读取仍先返回旧值，同时后台刷新）
+     */
+    public synchronized void markStale(String prefix) {
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            if (e.getKey().startsWith(prefix)) {
+                e.getValue().stale = true;
+            }
+        }
+    }
+
+    /**
+     * 清空缓存（统计计数保留）
+     */
+    public synchronized void clear() {
+        entries.clear();
+        inFlight.clear();
+    }
+
+    /**
+     * 关闭后台刷新线程池（应用停止时由 AppContext 调用），之后过期的值不再后台刷新
+     */
+    public void shutdown() {
+        if (refresher instanceof ExecutorService) {
+            ((ExecutorService) refresher).shutdownNow();
+        }
+    }
+
+    // ==================== 统计 ====================
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /** 返回旧值（并触发后台刷新）的次数 */
+    public synchronized long getStaleHitCount() {
+        return staleHitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /** 实际执行查询的次数（同步 + 后台） */
+    public synchronized long getLoadCount() {
+        return loadCount;
+    }
+
+    public synchronized long getFailureCount() {
+        return failureCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "StatsCache{size = " + entries.size() + ", hit = " + hitCount + ", staleHit = " + staleHitCount
+                + ", miss = " + missCount + ", load = " + loadCount + ", failure = " + failureCount + "}";
+    }
+
+    // ==================== 内部方法 ====================
+
+    /**
+     * 已持有锁时调用：没有进行中的加载才提交后台刷新
+     */
+    private void refreshAsync(String key, Supplier<?> loader) {
+        if (inFlight.containsKey(key)) {
+            return;
+        }
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        inFlight.put(key, future);
+        try {
+            refresher.execute(() -> load(key, loader, future));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key);
+            future.completeExceptionally(e);
+        }
+    }
+
+    private void load(String key, Supplier<?> loader, CompletableFuture<Object> future) {
+        Object value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                loadCount++;
+                failureCount++;
+                inFlight.remove(key, future);
+            }
+            future.completeExceptionally(e);
+            return;
+        }
+        synchronized (this) {
+            loadCount++;
+            // 加载期间被 invalidate 过的结果作废，避免写回变更前的数据
+            if (inFlight.remove(key, future) && value != null) {
+                entries.put(key, new Entry(value, clock.getAsLong()));
+                evictIfNecessary();
+            }
+        }
+        future.complete(value);
+    }
+
+    private void evictIfNecessary() {
+        Iterator<String> it = entries.keySet().iterator();
+        while (entries.size() > maxSize && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    // ==================== 内部类 ====================
+
+    private static class Entry {
+        final Object value;
+        final long loadedAt;
+        boolean stale;
+
+        Entry(Object value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -27,10 +27,19 @@ public class StyleUtils {
     public static final Font FONT_NORMAL     = new Font("微软雅黑", Font.PLAIN, 14);
     public static final Font FONT_BOLD       = new Font("微软雅黑", Font.BOLD, 14);
 
+    /** 皮肤是否已安装：每个窗口构造时都会调用 initGlobalTheme，只有第一次真正安装 */
+    private static boolean themeInstalled;
+
     /**
      * 初始化全局皮肤 (适配 FlatLaf)
+     *
+     * 重复安装 LookAndFeel 要重建全部 UI 默认值，代价不小，所以只在第一次调用时执行
      */
-    public static void initGlobalTheme() {
+    public static synchronized void initGlobalTheme() {
+        if (themeInstalled) {
+            return;
+        }
+        themeInstalled = true;
         try {
             // 1. 尝试启动 FlatLaf (这是最关键的一步)
             // 如果你没有导包，请确保 pom.xml 或库里有 flatlaf.jar
@@ -0,0 +1,388 @@
+package utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * 本地追加写日志（write-ahead journal）
+ *
+ * 用途：数据库暂时不可用时，业务写入先落到本地日志立即返回，由后台线程再写入数据库。
+ *
+ * 存储格式：
+ * - 日志目录下若干定长段文件 segment-000001.wal ...，通过内存映射写入
+ * - 每条记录 = [int 长度][int CRC32][内容]，长度最后写入，作为记录完整的标志
+ * - 内容分两种：ENTRY（键 + 数据）和 ACK（键，表示该条已写入数据库）
+ *
+ * 可靠性：
+ * - append 写入映射内存即返回，进程崩溃不会丢失（数据已在操作系统页缓存中）
+ * - force 将映射内存刷到磁盘，由调用方按批调用（组提交），掉电最多丢失一个批次间隔
+ * - 打开时逐条校验 CRC，遇到长度为0或校验失败即认为该段到此为止（末尾半条记录被丢弃）
+ *
+ * 段文件中的条目全部确认后自动删除；未确认的条目在重新打开时通过 {@link #getPendingEntries()} 返回
+ */
+public class WriteAheadJournal implements Closeable {
+
+    /** 默认段文件大小：4MB */
+    public static final int DEFAULT_SEGMENT_SIZE = 4 * 1024 * 1024;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final int HEADER_SIZE = 8;
+    private static final byte KIND_ENTRY = 1;
+    private static final byte KIND_ACK = 2;
+
+    // ==================== 状态 ====================
+
+    private final File dir;
+    private final int segmentSize;
+
+    /** 当前写入段 */
+    private Segment active;
+
+    /** 未确认条目：键 -> 所在段序号（按写入顺序） */
+    private final Map<String, Long> pendingSegments = new LinkedHashMap<>();
+    /** 段序号 -> 未确认条目数 */
+    private final Map<Long, Integer> pendingCounts = new HashMap<>();
+    /** 打开时恢复出的未确认条目：键 -> 数据 */
+    private final Map<String, byte[]> recovered = new LinkedHashMap<>();
+
+    private boolean closed;
+
+    // ==================== 构造方法 ====================
+
+    /**
+     * 打开（或创建）日志目录，并恢复未确认的条目
+     *
+     * @param dir         日志目录
+     * @param segmentSize 段文件大小（字节）
+     * @throws IOException 目录无法创建或文件无法映射
+     */
+    public WriteAheadJournal(File dir, int segmentSize) throws IOException {
+        if (segmentSize < 1024) {
+            throw new IllegalArgumentException("段文件大小不能小于1KB");
+        }
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("无法创建日志目录: " + dir);
+        }
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        recover();
+    }
+
+    // ==================== 写入 ====================
+
+    /**
+     * 追加一条条目
+     *
+     * @param key  幂等键（全局唯一）
+     * @param data 条目数据
+     * @throws IOException 段文件滚动失败
+     */
+    public synchronized void append(String key, byte[] data) throws IOException {
+        checkOpen();
+        if (pendingSegments.containsKey(key)) {
+            throw new IllegalArgumentException("重复的日志键: " + key);
+        }
+        writeRecord(encode(KIND_ENTRY, key, data));
+        pendingSegments.put(key, active.index);
+        pendingCounts.merge(active.index, 1, Integer::sum);
+    }
+
+    /**
+     * 确认条目已写入数据库
+     * 不需要立即刷盘：确认记录丢失只会导致重放，由幂等键保证不重复写入
+     *
+     * @param keys 已写入数据库的键
+     * @throws IOException 段文件滚动失败
+     */
+    public synchronized void ack(Collection<String> keys) throws IOException {
+        checkOpen();
+        for (String key : keys) {
+            Long segmentIndex = pendingSegments.remove(key);
+            if (segmentIndex == null) {
+                continue;
+            }
+            writeRecord(encode(KIND_ACK, key, null));
+            recovered.remove(key);
+            int remaining = pendingCounts.merge(segmentIndex, -1, Integer::sum);
+            if (remaining <= 0) {
+                pendingCounts.remove(segmentIndex);
+                if (segmentIndex != active.index) {
+                    deleteSegment(segmentIndex);
+                }
+            }
+        }
+    }
+
+    /**
+     * 将当前段刷到磁盘（组提交时调用）
+     * 刷盘在锁外进行，不阻塞其他线程追加
+     */
+    public void force() {
+        MappedByteBuffer buffer;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            buffer = active.buffer;
+        }
+        buffer.force();
+    }
+
+    // ==================== 查询 ====================
+
+    /**
+     * 打开时恢复出的、尚未确认的条目（按写入顺序）
+     *
+     * @return Map<键, 数据> 只读副本
+     */
+    public synchronized Map<String, byte[]> getPendingEntries() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(recovered));
+    }
+
+    /**
+     * 未确认条目数
+     */
+    public synchronized int getPendingCount() {
+        return pendingSegments.size();
+    }
+
+    /**
+     * 当前段文件数量
+     */
+    public synchronized int getSegmentCount() {
+        return listSegments().size();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        active.close();
+    }
+
+    // ==================== 恢复 ====================
+
+    private void recover() throws IOException {
+        TreeMap<Long, File> files = listSegments();
+        Map<String, Long> acked = new HashMap<>();
+        Segment last = null;
+        for (Map.Entry<Long, File> file : files.entrySet()) {
+            Segment segment = new Segment(file.getKey(), file.getValue(), segmentSize);
+            scan(segment, acked);
+            if (last != null) {
+                last.close();
+            }
+            last = segment;
+        }
+        for (String key : acked.keySet()) {
+            recovered.remove(key);
+            Long segmentIndex = pendingSegments.remove(key);
+            if (segmentIndex != null) {
+                pendingCounts.merge(segmentIndex, -1, Integer::sum);
+            }
+        }
+
+        active = last != null ? last : new Segment(1, segmentFile(1), segmentSize);
+
+        // 清理条目已全部确认的旧段
+        for (Long index : files.keySet()) {
+            if (index != active.index && pendingCounts.getOrDefault(index, 0) <= 0) {
+                pendingCounts.remove(index);
+                deleteSegment(index);
+            }
+        }
+    }
+
+    /**
+     * 扫描一个段：读取完整记录，截断末尾的不完整记录
+     */
+    private void scan(Segment segment, Map<String, Long> acked) {
+        MappedByteBuffer buffer = segment.buffer;
+        int pos = 0;
+        while (pos + HEADER_SIZE <= segmentSize) {
+            int length = buffer.getInt(pos);
+            if (length <= 0 || pos + HEADER_SIZE + length > segmentSize) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(pos + HEADER_SIZE, payload);
+            if (crc(payload) != buffer.getInt(pos + 4)) {
+                break;
+            }
+            applyRecovered(segment.index, payload, acked);
+            pos += HEADER_SIZE + length;
+        }
+        segment.position = pos;
+
+        // 末尾有残留数据（半条记录）时清零，避免后续写入后被误读
+        for (int i = pos; i < segmentSize; i++) {
+            if (buffer.get(i) != 0) {
+                for (int j = i; j < segmentSize; j++) {
+                    buffer.put(j, (byte) 0);
+                }
+                break;
+            }
+        }
+    }
+
+    private void applyRecovered(long segmentIndex, byte[] payload, Map<String, Long> acked) {
+        ByteBuffer in = ByteBuffer.wrap(payload);
+        byte kind = in.get();
+        byte[] keyBytes = new byte[in.getShort() & 0xFFFF];
+        in.get(keyBytes);
+        String key = new String(keyBytes, StandardCharsets.UTF_8);
+        if (kind == KIND_ACK) {
+            acked.put(key, segmentIndex);
+        } else if (kind == KIND_ENTRY) {
+            byte[] data = new byte[in.getInt()];
+            in.get(data);
+            recovered.put(key, data);
+            pendingSegments.put(key, segmentIndex);
+            pendingCounts.merge(segmentIndex, 1, Integer::sum);
+        }
+    }
+
+    // ==================== 内部方法 ====================
+
+    private void writeRecord(byte[] payload) throws IOException {
+        int recordSize = HEADER_SIZE + payload.length;
+        if (recordSize > segmentSize) {
+            throw new IllegalArgumentException("记录过大: " + recordSize + " 字节");
+        }
+        if (active.position + recordSize > segmentSize) {
+            roll();
+        }
+        MappedByteBuffer buffer = active.buffer;
+        int pos = active.position;
+        // 先写内容和校验值，最后写长度：长度非0即表示整条记录已完整写入
+        buffer.put(pos + HEADER_SIZE, payload);
+        buffer.putInt(pos + 4, crc(payload));
+        buffer.putInt(pos, payload.length);
+        active.position = pos + recordSize;
+    }
+
+    /**
+     * 切换到新段：旧段刷盘后关闭，若条目已全部确认则直接删除
+     */
+    private void roll() throws IOException {
+        Segment old = active;
+        old.buffer.force();
+        old.close();
+        active = new Segment(old.index + 1, segmentFile(old.index + 1), segmentSize);
+        if (pendingCounts.getOrDefault(old.index, 0) <= 0) {
+            pendingCounts.remove(old.index);
+            deleteSegment(old.index);
+        }
+    }
+
+    private void deleteSegment(long index) {
+        File file = segmentFile(index);
+        if (file.exists() && !file.delete()) {
+            // 映射未释放时部分系统不允许删除，下次打开时再清理
+            System.err.println("日志段删除失败，将在下次启动时清理: " + file);
+        }
+    }
+
+    private TreeMap<Long, File> listSegments() {
+        TreeMap<Long, File> files = new TreeMap<>();
+        File[] list = dir.listFiles((d, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (list != null) {
+            for (File file : list) {
+                String name = file.getName();
+                try {
+                    files.put(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())), file);
+                } catch (NumberFormatException e) {
+                    System.err.println("忽略无法识别的日志文件: " + file);
+                }
+            }
+        }
+        return files;
+    }
+
+    private File segmentFile(long index) {
+        return new File(dir, String.format("%s%06d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("日志已关闭");
+        }
+    }
+
+    private static byte[] encode(byte kind, String key, byte[] data) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            if (keyBytes.length > 0xFFFF) {
+                throw new IllegalArgumentException("日志键过长");
+            }
+            out.writeByte(kind);
+            out.writeShort(keyBytes.length);
+            out.write(keyBytes);
+            if (kind == KIND_ENTRY) {
+                out.writeInt(data.length);
+                out.write(data);
+            }
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            // 写入内存流不会发生 IO 异常
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int crc(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    // ==================== 内部类 ====================
+
+    /**
+     * 段文件：定长文件 + 读写映射
+     */
+    private static class Segment {
+        final long index;
+        final RandomAccessFile file;
+        final MappedByteBuffer buffer;
+        int position;
+
+        Segment(long index, File path, int size) throws IOException {
+            this.index = index;
+            this.file = new RandomAccessFile(path, "rw");
+            if (file.length() < size) {
+                file.setLength(size);
+            }
+            this.buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+
+        void close() {
+            try {
+                file.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,57 @@
+import dao.BookingDAO;
+import dao.OrderDAO;
+import org.junit.Before;
+import org.junit.Test;
+import service.AnalyticsStore;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * AnalyticsStore 测试类
+ *
+ * 数据直接追加到内存分析库，不依赖数据库
+ */
+public class AnalyticsStoreTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 6, 10);
+
+    private AnalyticsStore store;
+
+    @Before
+    public void setUp() {
+        store = new AnalyticsStore();
+    }
+
+    @Test
+    public void testDeletedBookingLeavesReport() {
+        store.appendBooking(1, 10, 100, "yoga", BookingDAO.STATUS_CONFIRMED, Timestamp.valueOf(DAY.atTime(9, 0)));
+        store.appendBooking(2, 11, 100, "yoga", BookingDAO.STATUS_CONFIRMED, Timestamp.valueOf(DAY.atTime(9, 0)));
+        long version = store.getVersion();
+
+        store.deleteBooking(2);
+        store.deleteBooking(99); // 未加载的预约忽略
+        assertNotEquals(version, store.getVersion());
+        assertEquals(Long.valueOf(1), store.bookingsByCourseType(DAY, DAY).toCountMap().get("yoga"));
+    }
+
+    @Test
+    public void testUpdateAndDeleteOrder() {
+        store.appendOrder(1, 10, OrderDAO.TYPE_PRODUCT, 1990, Timestamp.valueOf(DAY.atTime(9, 0)));
+        store.appendOrder(2, 11, OrderDAO.TYPE_PRODUCT, 500, Timestamp.valueOf(DAY.atTime(10, 0)));
+
+        // 改类型、金额并挪到第二天
+        store.updateOrder(1, 10, OrderDAO.TYPE_RECHARGE, 10000, Timestamp.valueOf(DAY.plusDays(1).atTime(8, 0)));
+        Map<String, Long> firstDay = store.ordersByType(DAY, DAY).toSumMap();
+        assertEquals(Long.valueOf(500), firstDay.get(OrderDAO.TYPE_PRODUCT));
+        assertNull(firstDay.get(OrderDAO.TYPE_RECHARGE));
+        assertEquals(Long.valueOf(10000), store.ordersByType(DAY.plusDays(1), DAY.plusDays(1)).toSumMap().get(OrderDAO.TYPE_RECHARGE));
+
+        store.deleteOrder(2);
+        assertEquals(0, store.ordersByType(DAY, DAY).getCount());
+        assertEquals(1, store.ordersByType(DAY, DAY.plusDays(1)).getCount());
+    }
+}
@@ -0,0 +1,97 @@
+import org.junit.Test;
+import service.AppContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * AppContext 测试类
+ *
+ * 只测生命周期（使用不含默认组件的空上下文）和单例共享，不依赖数据库
+ */
+public class AppContextTest {
+
+    @Test
+    public void testStartInOrderStopInReverse() {
+        List<String> events = new ArrayList<>();
+        AppContext context = new AppContext();
+        context.register("a", () -> events.add("start a"), () -> events.add("stop a"));
+        context.register("b", () -> events.add("start b"), null);
+        context.register("c", null, () -> events.add("stop c"));
+
+        context.start();
+        context.start();
+        assertTrue(context.isRunning());
+        context.stop();
+        context.stop();
+        assertFalse(context.isRunning());
+
+        assertEquals(Arrays.asList("start a", "start b", "stop c", "stop a"), events);
+    }
+
+    @Test
+    public void testFailedComponentDoesNotBlockOthers() {
+        List<String> events = new ArrayList<>();
+        AppContext context = new AppContext();
+        context.register("broken", () -> { throw new IllegalStateException("boom"); }, () -> events.add("stop broken"));
+        context.register("ok", () -> events.add("start ok"), () -> { throw new IllegalStateException("boom"); });
+        context.register("last", null, () -> events.add("stop last"));
+
+        context.start();
+        context.stop();
+        assertEquals(Arrays.asList("start ok", "stop last", "stop broken"), events);
+    }
+
+    @Test
+    public void testStopDoesNotWaitForStartingComponent() throws Exception {
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch starting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AppContext context = new AppContext();
+        context.register("a", () -> events.add("start a"), () -> events.add("stop a"));
+        context.register("slow", () -> {
+            starting.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.add("start slow");
+        }, () -> events.add("stop slow"));
+        context.register("c", () -> events.add("start c"), () -> events.add("stop c"));
+
+        Thread starter = new Thread(context::start);
+        starter.start();
+        assertTrue(starting.await(5, TimeUnit.SECONDS));
+
+        // 正在启动的组件不阻塞停止
+        context.stop();
+        assertEquals(Arrays.asList("start a", "stop a"), events);
+
+        // 启动完成后立即停止，后面的组件不再启动
+        release.countDown();
+        starter.join(5_000);
+        assertEquals(Arrays.asList("start a", "stop a", "start slow", "stop slow"), events);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRegisterAfterStartRejected() {
+        AppContext context = new AppContext();
+        context.start();
+        context.register("late", null, null);
+    }
+
+    @Test
+    public void testServicesAreShared() {
+        AppContext context = new AppContext();
+        assertSame(context.getMemberService(), context.getMemberService());
+        assertSame(context.getEmployeeDAO(), context.getEmployeeDAO());
+        assertSame(AppContext.getInstance().getCourseService(), AppContext.getInstance().getCourseService());
+    }
+}
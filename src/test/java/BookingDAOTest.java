@@ -534,6 +534,19 @@ public class BookingDAOTest {
         assertTrue(stats[1] + stats[2] <= stats[0]);
     }
 
+    @Test
+    public void testGetSummaryMatchesCounts() {
+        BookingDAO.Summary summary = bookingDAO.getSummary();
+        assertNotNull(summary);
+
+        // 每项计数都应与单独的统计方法一致
+        assertEquals(bookingDAO.getAllBookings().size(), summary.getTotalCount());
+        assertEquals(bookingDAO.getBookingCountByStatus(BookingDAO.STATUS_PENDING), summary.getPendingCount());
+        assertEquals(bookingDAO.getBookingCountByStatus(BookingDAO.STATUS_CONFIRMED), summary.getConfirmedCount());
+        assertEquals(bookingDAO.getBookingCountByStatus(BookingDAO.STATUS_CANCELLED), summary.getCancelledCount());
+        assertEquals(bookingDAO.getTodayBookingCount(), summary.getTodayCount());
+    }
+
     // ==================== 时间相关查询测试 ====================
 
     @Test
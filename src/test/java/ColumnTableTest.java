@@ -0,0 +1,134 @@
+import org.junit.Before;
+import org.junit.Test;
+import utils.ColumnTable;
+
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * ColumnTable 测试类
+ *
+ * 纯内存计算，不依赖数据库
+ */
+public class ColumnTableTest {
+
+    private ColumnTable table;
+
+    @Before
+    public void setUp() {
+        table = new ColumnTable("order")
+                .addColumn("id", ColumnTable.Type.INT)
+                .addColumn("member_id", ColumnTable.Type.INT)
+                .addColumn("type", ColumnTable.Type.DICT)
+                .addColumn("amount", ColumnTable.Type.LONG)
+                .addColumn("hour", ColumnTable.Type.INT);
+    }
+
+    private void add(int id, int member, String type, long amount, int hour) {
+        table.append(id, member, table.encode("type", type), amount, hour);
+    }
+
+    @Test
+    public void testFilterGroupAndSum() {
+        add(1, 10, "product", 1990, 9);
+        add(2, 11, "membership", 20000, 9);
+        add(3, 10, "product", 500, 18);
+        add(4, 12, "recharge", 10000, 18);
+
+        ColumnTable.Result byType = table.query().groupBy("type").sum("amount").execute();
+        Map<String, Long> sums = byType.toSumMap();
+        assertEquals(Long.valueOf(2490), sums.get("product"));
+        assertEquals(Long.valueOf(20000), sums.get("membership"));
+        assertEquals(4, byType.getCount());
+
+        ColumnTable.Result evening = table.query().between("hour", 12, 23).where("type", "product").execute();
+        assertEquals(1, evening.getCount());
+        assertEquals(0, table.query().where("type", "refund").execute().getCount());
+    }
+
+    @Test
+    public void testDeletedRowsAreSkipped() {
+        add(1, 10, "product", 1990, 9);
+        add(2, 11, "membership", 20000, 9);
+        add(3, 10, "product", 500, 18);
+
+        table.delete(table.findRow("id", 2));
+        assertTrue(table.isDeleted(1));
+        assertEquals(1, table.getDeletedCount());
+        assertEquals(3, table.size());
+
+        ColumnTable.Result byType = table.query().groupBy("type").sum("amount").execute();
+        assertEquals(2, byType.getCount());
+        assertNull(byType.toSumMap().get("membership"));
+        assertEquals(3, table.getMax("id", 0));
+    }
+
+    @Test
+    public void testGroupByTwoColumns() {
+        add(1, 10, "product", 100, 9);
+        add(2, 10, "product", 100, 9);
+        add(3, 10, "course", 100, 10);
+
+        ColumnTable.Result result = table.query().groupBy("hour", "type").execute();
+        assertEquals(2, result.size());
+        ColumnTable.Row first = result.getRows().get(0);
+        assertEquals(9, first.getKey(0));
+        assertEquals("product", first.getLabel(1));
+        assertEquals(2, first.getCount());
+    }
+
+    @Test
+    public void testSetAndFindRow() {
+        add(5, 10, "course", 100, 9);
+        add(8, 11, "course", 100, 9);
+        int row = table.findRow("id", 8);
+        assertEquals(1, row);
+        assertEquals(-1, table.findRow("id", 6));
+
+        table.set("type", row, table.encode("type", "product"));
+        assertEquals("product", table.decode("type", (int) table.get("type", row)));
+        assertEquals(1, table.query().where("type", "product").execute().getCount());
+    }
+
+    @Test
+    public void testParallelScanMatchesSequential() {
+        Random random = new Random(42);
+        String[] types = {"product", "membership", "course", "recharge"};
+        int rows = ColumnTable.PARALLEL_THRESHOLD * 3 + 17;
+        long[] expectedByHour = new long[24];
+        long expectedSum = 0;
+        for (int i = 0; i < rows; i++) {
+            int hour = random.nextInt(24);
+            long amount = random.nextInt(100_000);
+            String type = types[random.nextInt(types.length)];
+            // 会员ID取值很大，按会员分组时走哈希表
+            add(i + 1, random.nextInt(1_000_000), type, amount, hour);
+            if ("course".equals(type)) {
+                expectedByHour[hour]++;
+                expectedSum += amount;
+            }
+        }
+
+        ColumnTable.Result result = table.query().where("type", "course").groupBy("hour").sum("amount").execute();
+        assertEquals(expectedSum, result.getSum());
+        for (ColumnTable.Row row : result.getRows()) {
+            assertEquals(expectedByHour[row.getKey(0)], row.getCount());
+        }
+        assertEquals(rows, table.query().groupBy("member_id").execute().getCount());
+    }
+
+    @Test
+    public void testEmptyTableWithoutGroupReturnsTotalRow() {
+        ColumnTable.Result result = table.query().sum("amount").execute();
+        assertEquals(1, result.size());
+        assertEquals(0, result.getSum());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSchemaFixedAfterAppend() {
+        add(1, 10, "product", 100, 9);
+        table.addColumn("extra", ColumnTable.Type.INT);
+    }
+}
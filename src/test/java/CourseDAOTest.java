@@ -346,6 +346,19 @@ public class CourseDAOTest {
         }
     }
 
+    @Test
+    public void testGetSummaryMatchesCounts() {
+        CourseDAO.Summary summary = courseDAO.getSummary();
+        assertNotNull(summary);
+
+        // 每项计数都应与单独的统计方法一致
+        assertEquals(courseDAO.getTotalCourseCount(), summary.getTotalCount());
+        assertEquals(courseDAO.getAvailableCourses().size(), summary.getAvailableCount());
+        assertEquals(courseDAO.getCourseCountByType(), summary.getCountByType());
+        assertEquals(courseDAO.getCourseCountByType(CourseDAO.TYPE_YOGA), summary.getCountByType(CourseDAO.TYPE_YOGA));
+        assertEquals(courseDAO.getCourseCountByEmployee(), summary.getCountByEmployee());
+    }
+
     // ==================== 工具方法测试 ====================
 
     @Test
@@ -0,0 +1,86 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import utils.EdtWatchdog;
+
+import javax.swing.*;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * EdtWatchdog 测试类
+ *
+ * 在事件分发线程上故意阻塞，检查卡顿被检测、采样并归并；不写日志文件
+ */
+public class EdtWatchdogTest {
+
+    private EdtWatchdog watchdog;
+
+    @Before
+    public void setUp() throws Exception {
+        // 先启动事件分发线程，再等几个心跳让监控认出它
+        SwingUtilities.invokeAndWait(() -> { });
+        watchdog = new EdtWatchdog(150, 20, null);
+        watchdog.start();
+        Thread.sleep(100);
+    }
+
+    @After
+    public void tearDown() {
+        watchdog.stop();
+    }
+
+    private static void blockEdt(long millis) throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    private void waitForStalls(long count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 3000;
+        while (watchdog.getStallCount() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    public void testStallDetectedAndSampled() throws Exception {
+        blockEdt(500);
+        waitForStalls(1);
+
+        assertEquals(1, watchdog.getStallCount());
+        List<EdtWatchdog.Hotspot> hotspots = watchdog.getHotspots();
+        assertEquals(1, hotspots.size());
+        EdtWatchdog.Hotspot h = hotspots.get(0);
+        assertTrue(h.getMaxMillis() >= 300);
+        assertTrue(h.getStack(), h.getStack().contains("blockEdt"));
+        assertNull(h.getLastSql());
+    }
+
+    @Test
+    public void testSameLocationAggregated() throws Exception {
+        blockEdt(400);
+        waitForStalls(1);
+        blockEdt(400);
+        waitForStalls(2);
+
+        List<EdtWatchdog.Hotspot> hotspots = watchdog.getHotspots();
+        assertEquals(1, hotspots.size());
+        assertEquals(2, hotspots.get(0).getCount());
+        assertTrue(hotspots.get(0).getTotalMillis() >= hotspots.get(0).getMaxMillis());
+    }
+
+    @Test
+    public void testShortWorkIsNotAStall() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            blockEdt(30);
+        }
+        Thread.sleep(200);
+        assertEquals(0, watchdog.getStallCount());
+    }
+}
@@ -0,0 +1,66 @@
+import org.junit.After;
+import org.junit.Test;
+import utils.LanguageUtils;
+
+import javax.swing.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * LanguageUtils 测试类
+ *
+ * 纯内存测试，不依赖数据库和显示器
+ */
+public class LanguageUtilsTest {
+
+    @After
+    public void tearDown() {
+        if (!LanguageUtils.isChinese()) {
+            LanguageUtils.toggle();
+        }
+    }
+
+    @Test
+    public void testLookupByKeyAndIndex() {
+        LanguageUtils.Key key = LanguageUtils.key("report.title");
+        assertNotNull(key);
+        assertEquals(LanguageUtils.getText("report.title"), LanguageUtils.text(key));
+
+        LanguageUtils.toggle();
+        assertFalse(LanguageUtils.isChinese());
+        assertEquals(LanguageUtils.getText("report.title"), LanguageUtils.text(key));
+    }
+
+    @Test
+    public void testToggleSwitchesText() {
+        String cn = LanguageUtils.getText("main.logout");
+        LanguageUtils.toggle();
+        String en = LanguageUtils.getText("main.logout");
+        assertNotEquals(cn, en);
+        LanguageUtils.toggle();
+        assertEquals(cn, LanguageUtils.getText("main.logout"));
+    }
+
+    @Test
+    public void testUnknownKey() {
+        assertNull(LanguageUtils.key("no.such.key"));
+        assertEquals("no.such.key", LanguageUtils.getText("no.such.key"));
+    }
+
+    @Test
+    public void testSetItemsKeepsSelectionWithoutEvents() {
+        JComboBox<String> box = new JComboBox<>(new String[]{"日", "周", "月"});
+        box.setSelectedIndex(1);
+        AtomicInteger events = new AtomicInteger();
+        box.addActionListener(e -> events.incrementAndGet());
+
+        LanguageUtils.setItems(box, "Day", "Week", "Month");
+
+        assertEquals(3, box.getItemCount());
+        assertEquals(1, box.getSelectedIndex());
+        assertEquals("Week", box.getSelectedItem());
+        assertEquals(0, events.get());
+        assertEquals(1, box.getActionListeners().length);
+    }
+}
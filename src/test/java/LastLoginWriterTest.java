@@ -0,0 +1,68 @@
+import dao.LastLoginWriter;
+import org.junit.Test;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * LastLoginWriter 测试类
+ *
+ * 用内存中的写入动作代替数据库，不依赖数据库
+ */
+public class LastLoginWriterTest {
+
+    private final List<Map<Integer, Timestamp>> batches = new ArrayList<>();
+
+    private LastLoginWriter newWriter(boolean ok) {
+        return new LastLoginWriter(60_000, batch -> {
+            batches.add(new HashMap<>(batch));
+            return ok;
+        });
+    }
+
+    @Test
+    public void testCoalesceByUser() {
+        LastLoginWriter writer = newWriter(true);
+        writer.record(1, new Timestamp(1000));
+        writer.record(2, new Timestamp(2000));
+        writer.record(1, new Timestamp(3000));
+        assertEquals(2, writer.getPendingCount());
+
+        assertEquals(2, writer.flush());
+        assertEquals(1, batches.size());
+        assertEquals(new Timestamp(3000), batches.get(0).get(1));
+        assertEquals(0, writer.getPendingCount());
+        assertEquals(0, writer.flush());
+        assertEquals(1, batches.size());
+    }
+
+    @Test
+    public void testFailedBatchIsRetainedWithoutOverwritingNewer() {
+        LastLoginWriter writer = newWriter(false);
+        writer.record(1, new Timestamp(1000));
+        assertEquals(-1, writer.flush());
+        assertEquals(1, writer.getPendingCount());
+
+        writer.record(1, new Timestamp(5000));
+        writer.flush();
+        assertEquals(new Timestamp(5000), batches.get(1).get(1));
+    }
+
+    @Test
+    public void testStopFlushesPending() {
+        LastLoginWriter writer = newWriter(true);
+        writer.start();
+        assertTrue(writer.isRunning());
+        writer.record(7, new Timestamp(1000));
+        writer.stop();
+
+        assertFalse(writer.isRunning());
+        assertEquals(1, batches.size());
+        assertTrue(batches.get(0).containsKey(7));
+    }
+}
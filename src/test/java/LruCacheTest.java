@@ -0,0 +1,94 @@
+import org.junit.Test;
+import utils.LruCache;
+
+import static org.junit.Assert.*;
+
+/**
+ * LruCache 测试类
+ *
+ * 纯内存测试，不依赖数据库
+ */
+public class LruCacheTest {
+
+    @Test
+    public void testGetAndPut() {
+        LruCache<Integer, String> cache = new LruCache<>(10, 0);
+        assertNull(cache.get(1));
+
+        cache.put(1, "a");
+        assertEquals("a", cache.get(1));
+        assertEquals(1, cache.getStats().getHitCount());
+        assertEquals(1, cache.getStats().getMissCount());
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() {
+        LruCache<Integer, String> cache = new LruCache<>(2, 0);
+        cache.put(1, "a");
+        cache.put(2, "b");
+        cache.get(1);          // 1 变为最近访问
+        cache.put(3, "c");     // 淘汰 2
+
+        assertEquals("a", cache.get(1));
+        assertNull(cache.get(2));
+        assertEquals("c", cache.get(3));
+        assertEquals(1, cache.getStats().getEvictionCount());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testExpire() throws InterruptedException {
+        LruCache<Integer, String> cache = new LruCache<>(10, 20);
+        cache.put(1, "a");
+        Thread.sleep(40);
+
+        assertNull(cache.get(1));
+        assertEquals(1, cache.getStats().getExpiredCount());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testInvalidate() {
+        LruCache<Integer, String> cache = new LruCache<>(10, 0);
+        cache.put(1, "a");
+
+        assertEquals("a", cache.invalidate(1));
+        assertNull(cache.get(1));
+        assertNull(cache.invalidate(1));
+    }
+
+    @Test
+    public void testGetOrLoad() {
+        LruCache<Integer, String> cache = new LruCache<>(10, 0);
+        int[] loads = {0};
+
+        assertEquals("v1", cache.getOrLoad(1, k -> { loads[0]++; return "v" + k; }));
+        assertEquals("v1", cache.getOrLoad(1, k -> { loads[0]++; return "v" + k; }));
+        assertEquals(1, loads[0]);
+
+        // 加载结果为null时不缓存
+        assertNull(cache.getOrLoad(2, k -> null));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testHitRate() {
+        LruCache<Integer, String> cache = new LruCache<>(10, 0);
+        assertEquals(0.0, cache.getStats().getHitRate(), 0.0001);
+
+        cache.put(1, "a");
+        cache.get(1);
+        cache.get(1);
+        cache.get(1);
+        cache.get(2);
+        assertEquals(0.75, cache.getStats().getHitRate(), 0.0001);
+
+        cache.resetStats();
+        assertEquals(0, cache.getStats().getRequestCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxSize() {
+        new LruCache<Integer, String>(0, 0);
+    }
+}
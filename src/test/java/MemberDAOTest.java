@@ -445,6 +445,20 @@ public class MemberDAOTest {
         assertTrue(count >= 0);
     }
 
+    @Test
+    public void testGetSummaryMatchesCounts() {
+        MemberDAO.Summary summary = memberDAO.getSummary();
+        assertNotNull(summary);
+
+        // 每项计数都应与单独的统计方法一致
+        assertEquals(memberDAO.getTotalMemberCount(), summary.getTotalCount());
+        assertEquals(memberDAO.getActiveMemberCount(), summary.getActiveCount());
+        assertEquals(memberDAO.getMemberCountByStatus(), summary.getCountByStatus());
+        assertEquals(memberDAO.getMemberCountByGender(), summary.getCountByGender());
+        assertEquals(memberDAO.getTodayNewMemberCount(), summary.getTodayNewCount());
+        assertEquals(memberDAO.getMonthlyNewMemberCount(), summary.getMonthlyNewCount());
+    }
+
     // ==================== 年龄相关测试 ====================
 
     @Test
@@ -591,6 +605,44 @@ public class MemberDAOTest {
         assertEquals(members5.size(), members6.size());
     }
 
+    // ==================== 缓存测试 ====================
+
+    @Test
+    public void testGetMemberByIdReturnsCopy() {
+        Member first = memberDAO.getMemberById(1);
+        assertNotNull(first);
+        first.setName("被修改的名字");
+
+        Member second = memberDAO.getMemberById(1);
+        assertEquals("修改返回对象不应影响缓存", "张三", second.getName());
+        assertNotSame(first, second);
+    }
+
+    @Test
+    public void testUpdateBalanceInvalidatesCache() {
+        Member member = memberDAO.getMemberById(1);
+        double originalBalance = member.getBalance();
+
+        assertTrue(memberDAO.updateBalance(1, originalBalance + 10));
+        assertEquals(originalBalance + 10, memberDAO.getMemberById(1).getBalance(), 0.001);
+        assertEquals(originalBalance + 10, memberDAO.getMemberByPhone("13900001111").getBalance(), 0.001);
+
+        // 恢复
+        memberDAO.updateBalance(1, originalBalance);
+        assertEquals(originalBalance, memberDAO.getMemberById(1).getBalance(), 0.001);
+    }
+
+    @Test
+    public void testCacheHitAfterFirstLoad() {
+        MemberDAO.clearCache();
+        long hitsBefore = MemberDAO.getCacheStats().getHitCount();
+
+        memberDAO.getMemberById(1);
+        memberDAO.getMemberById(1);
+
+        assertTrue(MemberDAO.getCacheStats().getHitCount() > hitsBefore);
+    }
+
     // ==================== 实体类测试 ====================
 
     @Test
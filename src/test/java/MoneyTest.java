@@ -0,0 +1,73 @@
+import org.junit.Test;
+import utils.Money;
+
+import java.math.BigDecimal;
+
+import static org.junit.Assert.*;
+
+/**
+ * Money 测试类
+ *
+ * 纯计算，不依赖数据库
+ */
+public class MoneyTest {
+
+    @Test
+    public void testOfYuanRoundsToCents() {
+        assertEquals(1990, Money.ofYuan(19.9));
+        assertEquals(29, Money.ofYuan(0.285));   // double 乘 100 会得到 28.4999...
+        assertEquals(-150, Money.ofYuan(-1.5));
+        assertEquals(0, Money.ofYuan(0.004));
+    }
+
+    @Test
+    public void testBigDecimalConversion() {
+        assertEquals(123456, Money.fromBigDecimal(new BigDecimal("1234.56")));
+        assertEquals(new BigDecimal("1234.56"), Money.toBigDecimal(123456));
+        assertEquals(0, Money.fromBigDecimal(null));
+    }
+
+    @Test
+    public void testArithmeticIsExact() {
+        // 0.1 + 0.2 用 double 会得到 0.30000000000000004
+        assertEquals(30, Money.add(Money.ofYuan(0.1), Money.ofYuan(0.2)));
+        assertEquals(5970, Money.multiply(1990, 3));
+        assertEquals(-100, Money.subtract(100, 200));
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testOverflowDetected() {
+        Money.multiply(Long.MAX_VALUE / 2, 3);
+    }
+
+    @Test
+    public void testFormat() {
+        assertEquals("0.00", Money.format(0));
+        assertEquals("0.05", Money.format(5));
+        assertEquals("19.90", Money.format(1990));
+        assertEquals("-0.50", Money.format(-50));
+        assertEquals("1,234,567.89", Money.formatGrouped(123456789));
+        assertEquals("123.00", Money.formatGrouped(12300));
+        assertEquals("-1,000.00", Money.formatGrouped(-100000));
+        assertEquals("¥ 1,200.00", Money.formatWithSymbol(120000));
+        assertEquals("-92233720368547758.08", Money.format(Long.MIN_VALUE));
+    }
+
+    @Test
+    public void testParse() {
+        assertEquals(20000, Money.parse("200"));
+        assertEquals(1990, Money.parse(" 19.9 "));
+        assertEquals(120000, Money.parse("¥ 1,200.00"));
+        assertEquals(Money.parse(Money.format(987654)), 987654);
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testParseRejectsSubCent() {
+        Money.parse("1.005");
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testParseRejectsGarbage() {
+        Money.parse("abc");
+    }
+}
@@ -0,0 +1,101 @@
+import entity.Course;
+import org.junit.Before;
+import org.junit.Test;
+import service.AnalyticsStore;
+import service.OccupancyHeatmap;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * OccupancyHeatmap 测试类
+ *
+ * 签到数据直接追加到内存分析库，课程用内存对象，不依赖数据库
+ */
+public class OccupancyHeatmapTest {
+
+    /** 2024-06-10 是星期一 */
+    private static final LocalDate MONDAY = LocalDate.of(2024, 6, 10);
+
+    private AnalyticsStore store;
+    private OccupancyHeatmap heatmap;
+    private int nextId;
+
+    @Before
+    public void setUp() {
+        store = new AnalyticsStore();
+        heatmap = new OccupancyHeatmap(store::getCheckIns);
+        nextId = 1;
+    }
+
+    private void checkIn(LocalDateTime time) {
+        store.appendCheckIn(nextId++, 1, Timestamp.valueOf(time));
+    }
+
+    @Test
+    public void testBuildAndRangeQuery() {
+        checkIn(MONDAY.atTime(18, 5));
+        checkIn(MONDAY.atTime(18, 40));
+        checkIn(MONDAY.plusDays(7).atTime(18, 10));
+        checkIn(MONDAY.plusDays(5).atTime(9, 0)); // 星期六
+
+        heatmap.refresh();
+        OccupancyHeatmap.Grid all = heatmap.getCheckIns(MONDAY, MONDAY.plusDays(7));
+        assertEquals(3, all.get(1, 18));
+        assertEquals(1, all.get(6, 9));
+        assertEquals(4, all.getTotal());
+        assertArrayEquals(new int[]{1, 18}, all.getPeak());
+
+        // 只看第一周
+        assertEquals(2, heatmap.getCheckIns(MONDAY, MONDAY.plusDays(6)).get(1, 18));
+    }
+
+    @Test
+    public void testIncrementalRefresh() {
+        checkIn(MONDAY.atTime(7, 0));
+        heatmap.refresh();
+        assertEquals(1, heatmap.getCheckIns(MONDAY, MONDAY).get(1, 7));
+
+        checkIn(MONDAY.atTime(7, 30));
+        checkIn(MONDAY.plusDays(1).atTime(20, 0));
+        heatmap.refresh();
+        assertEquals(2, heatmap.getCheckIns(MONDAY, MONDAY).get(1, 7));
+        assertEquals(1, heatmap.getCheckIns(MONDAY, MONDAY.plusDays(1)).get(2, 20));
+    }
+
+    @Test
+    public void testRebuildAfterReplacedTable() {
+        AtomicReference<AnalyticsStore> current = new AtomicReference<>(store);
+        OccupancyHeatmap shared = new OccupancyHeatmap(() -> current.get().getCheckIns());
+        checkIn(MONDAY.atTime(7, 0));
+        shared.refresh();
+        assertEquals(1, shared.getCheckIns(MONDAY, MONDAY).getTotal());
+
+        // 分析库重新加载后换成新表，热力图按新表重建而不是在旧计数上累加
+        AnalyticsStore reloaded = new AnalyticsStore();
+        reloaded.appendCheckIn(1, 1, Timestamp.valueOf(MONDAY.atTime(9, 0)));
+        current.set(reloaded);
+        shared.refresh();
+        assertEquals(0, shared.getCheckIns(MONDAY, MONDAY).get(1, 7));
+        assertEquals(1, shared.getCheckIns(MONDAY, MONDAY).get(1, 9));
+    }
+
+    @Test
+    public void testCourseOverlay() {
+        Course yoga = new Course(1, "Morning Yoga", "yoga", 60, 20, 1, Timestamp.valueOf(MONDAY.atTime(8, 0)));
+        Course spin = new Course(2, "Spin", "spinning", 45, 15, 2, Timestamp.valueOf(MONDAY.plusDays(2).atTime(19, 30)));
+        Course old = new Course(3, "Old Yoga", "yoga", 60, 20, 1, Timestamp.valueOf(MONDAY.minusDays(30).atTime(8, 0)));
+
+        Map<String, OccupancyHeatmap.Grid> overlay =
+                OccupancyHeatmap.courseOverlay(Arrays.asList(yoga, spin, old), MONDAY, MONDAY.plusDays(6));
+        assertEquals(1, overlay.get("yoga").get(1, 8));
+        assertEquals(1, overlay.get("yoga").getTotal());
+        assertEquals(1, overlay.get("spinning").get(3, 19));
+    }
+}
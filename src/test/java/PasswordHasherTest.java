@@ -0,0 +1,109 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import utils.PasswordHasher;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * PasswordHasher 测试类
+ *
+ * 使用很小的迭代次数，纯内存测试，不依赖数据库
+ */
+public class PasswordHasherTest {
+
+    private PasswordHasher hasher;
+
+    @Before
+    public void setUp() {
+        hasher = new PasswordHasher(1000, 5, 1);
+    }
+
+    @After
+    public void tearDown() {
+        hasher.shutdown();
+    }
+
+    @Test
+    public void testHashAndMatch() {
+        String stored = hasher.hash("secret123");
+        assertTrue(stored.startsWith("pbkdf2$1000$"));
+        assertTrue(hasher.matches("secret123", stored));
+        assertFalse(hasher.matches("secret124", stored));
+        assertFalse(hasher.needsRehash(stored));
+    }
+
+    @Test
+    public void testSaltDiffers() {
+        String a = hasher.hash("secret123");
+        String b = hasher.hash("secret123");
+        assertNotEquals(a, b);
+        assertTrue(hasher.matches("secret123", a));
+        assertTrue(hasher.matches("secret123", b));
+    }
+
+    @Test
+    public void testLegacyHashNeedsRehash() throws Exception {
+        String legacy = Base64.getEncoder().encodeToString(
+                MessageDigest.getInstance("SHA-256").digest("secret123".getBytes(StandardCharsets.UTF_8)));
+        assertTrue(hasher.matches("secret123", legacy));
+        assertFalse(hasher.matches("wrong", legacy));
+        assertTrue(hasher.needsRehash(legacy));
+    }
+
+    @Test
+    public void testLowerIterationsNeedRehash() {
+        PasswordHasher weak = new PasswordHasher(500, 5, 1);
+        String stored = weak.hash("secret123");
+        weak.shutdown();
+
+        assertTrue(hasher.matches("secret123", stored));
+        assertTrue(hasher.needsRehash(stored));
+    }
+
+    @Test
+    public void testMalformedHash() {
+        assertFalse(hasher.matches("x", "pbkdf2$abc"));
+        assertFalse(hasher.matches("x", "pbkdf2$1000$!!$!!"));
+        assertFalse(hasher.matches(null, "abc"));
+    }
+
+    @Test
+    public void testCalibrateRespectsMinimum() {
+        int iterations = hasher.calibrate();
+        assertTrue(iterations >= PasswordHasher.MIN_ITERATIONS);
+        assertTrue(hasher.isCalibrated());
+        assertEquals(iterations, hasher.calibrate());
+    }
+
+    @Test
+    public void testVerifyOnExecutor() throws Exception {
+        String stored = hasher.hash("secret123");
+        assertTrue(hasher.verify("secret123", stored));
+        assertFalse(hasher.verify("nope", stored));
+    }
+
+    @Test(expected = PasswordHasher.BusyException.class)
+    public void testVerifyRejectedWhenQueueFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable block = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException ignored) {
+            }
+        };
+        try {
+            // 1 个线程执行 + 排队占满
+            while (hasher.submit(block)) {
+            }
+            hasher.verify("secret123", hasher.hash("secret123"));
+        } finally {
+            release.countDown();
+        }
+    }
+}
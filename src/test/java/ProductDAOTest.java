@@ -1,9 +1,12 @@
+import dao.ProductCatalog;
 import dao.ProductDAO;
+import dao.StockAlerts;
 import entity.Product;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -293,5 +296,61 @@ public class ProductDAOTest {
         double value = productDAO.getTotalStockValue();
         assertTrue(value > 0);
     }
-}
 
+    // ========== 目录快照测试 ==========
+
+    @Test
+    public void testCatalogFollowsWrites() {
+        ProductCatalog.Snapshot before = ProductCatalog.snapshot();
+
+        Product product = new Product(0, "快照测试商品", 9.9, 20);
+        assertTrue(productDAO.addProduct(product));
+        testProductId = product.getProductId();
+
+        ProductCatalog.Snapshot afterAdd = ProductCatalog.snapshot();
+        assertTrue(afterAdd.getVersion() > before.getVersion());
+        assertEquals(20, afterAdd.getStock(testProductId));
+        assertEquals(1, afterAdd.search("快照测试").size());
+        // 旧快照不受影响
+        assertNull(before.getProduct(testProductId));
+
+        assertTrue(productDAO.decreaseStock(testProductId, 5));
+        assertEquals(15, ProductCatalog.snapshot().getStock(testProductId));
+
+        assertTrue(productDAO.deleteProduct(testProductId));
+        assertNull(ProductCatalog.snapshot().getProduct(testProductId));
+        testProductId = 0;
+    }
+
+    @Test
+    public void testLowStockAlertOnCrossingThreshold() {
+        ProductCatalog.snapshot();
+        List<StockAlerts.Alert> received = new ArrayList<>();
+        StockAlerts.Listener listener = received::add;
+        StockAlerts.subscribe(listener);
+        try {
+            Product product = new Product(0, "补货提醒测试商品", 5.0, 12);
+            product.setReorderThreshold(10);
+            assertTrue(productDAO.addProduct(product));
+            testProductId = product.getProductId();
+            assertTrue(received.isEmpty());
+
+            // 12 -> 9：越过补货线，提醒一次
+            assertTrue(productDAO.decreaseStock(testProductId, 3));
+            assertEquals(1, received.size());
+            assertEquals(StockAlerts.Type.LOW, received.get(0).getType());
+            assertEquals(9, received.get(0).getStock());
+
+            // 仍在补货线以下，不重复提醒
+            assertTrue(productDAO.decreaseStock(testProductId, 1));
+            assertEquals(1, received.size());
+
+            // 补货回到补货线以上
+            assertTrue(productDAO.increaseStock(testProductId, 20));
+            assertEquals(2, received.size());
+            assertEquals(StockAlerts.Type.RESTOCKED, received.get(1).getType());
+        } finally {
+            StockAlerts.unsubscribe(listener);
+        }
+    }
+}
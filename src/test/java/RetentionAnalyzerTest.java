@@ -0,0 +1,111 @@
+import entity.Member;
+import org.junit.Before;
+import org.junit.Test;
+import service.AnalyticsStore;
+import service.RetentionAnalyzer;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * RetentionAnalyzer 测试类
+ *
+ * 签到数据直接追加到内存分析库，只测 analyze，不依赖数据库
+ */
+public class RetentionAnalyzerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 6, 15);
+
+    private AnalyticsStore store;
+    private List<Member> members;
+    private int nextCheckInId;
+
+    @Before
+    public void setUp() {
+        store = new AnalyticsStore();
+        members = new ArrayList<>();
+        nextCheckInId = 1;
+    }
+
+    private void member(int id, LocalDate registered, String status) {
+        members.add(new Member(id, "M" + id, "1380000000" + id, null, "male", null,
+                Timestamp.valueOf(registered.atTime(10, 0)), status));
+    }
+
+    private void checkIn(int memberId, LocalDate day) {
+        store.appendCheckIn(nextCheckInId++, memberId, Timestamp.valueOf(day.atTime(18, 0)));
+    }
+
+    private RetentionAnalyzer.Cohort cohort(RetentionAnalyzer.Report report, YearMonth month) {
+        for (RetentionAnalyzer.Cohort c : report.getCohorts()) {
+            if (c.getMonth().equals(month)) {
+                return c;
+            }
+        }
+        fail("没有同期群 " + month);
+        return null;
+    }
+
+    @Test
+    public void testRetentionMatrix() {
+        member(1, LocalDate.of(2024, 4, 3), "active");
+        member(2, LocalDate.of(2024, 4, 20), "active");
+        member(3, LocalDate.of(2024, 5, 1), "active");
+
+        // 会员1：4月来两次（同月只算一次）、6月来一次；会员2：只在4月来过
+        checkIn(1, LocalDate.of(2024, 4, 5));
+        checkIn(1, LocalDate.of(2024, 4, 9));
+        checkIn(2, LocalDate.of(2024, 4, 21));
+        checkIn(3, LocalDate.of(2024, 5, 2));
+        checkIn(3, LocalDate.of(2024, 6, 1));
+        checkIn(1, LocalDate.of(2024, 6, 10));
+
+        RetentionAnalyzer.Report report = RetentionAnalyzer.analyze(members, store.getCheckIns(), TODAY);
+        assertEquals(RetentionAnalyzer.COHORT_MONTHS, report.getCohorts().size());
+
+        RetentionAnalyzer.Cohort april = cohort(report, YearMonth.of(2024, 4));
+        assertEquals(2, april.getSize());
+        assertEquals(3, april.getMonthCount());
+        assertEquals(2, april.getRetained(0));
+        assertEquals(0, april.getRetained(1));
+        assertEquals(1, april.getRetained(2));
+        assertEquals(50.0, april.getRate(2), 0.001);
+
+        RetentionAnalyzer.Cohort may = cohort(report, YearMonth.of(2024, 5));
+        assertEquals(1, may.getRetained(0));
+        assertEquals(1, may.getRetained(1));
+    }
+
+    @Test
+    public void testChurnRiskList() {
+        member(1, LocalDate.of(2023, 1, 1), "active");
+        member(2, LocalDate.of(2023, 1, 1), "active");
+        member(3, LocalDate.of(2023, 1, 1), "active");
+        member(4, LocalDate.of(2023, 1, 1), "frozen");
+
+        // 会员1：两个月前常来，最近没来 -> 风险
+        checkIn(1, TODAY.minusDays(50));
+        checkIn(1, TODAY.minusDays(45));
+        checkIn(1, TODAY.minusDays(40));
+        // 会员2：之前来过，最近也来了 -> 不算
+        checkIn(2, TODAY.minusDays(50));
+        checkIn(2, TODAY.minusDays(3));
+        // 会员3：只来过一次 -> 风险，排在会员1之后
+        checkIn(3, TODAY.minusDays(35));
+        // 会员4：已冻结 -> 不算
+        checkIn(4, TODAY.minusDays(40));
+
+        List<RetentionAnalyzer.ChurnRisk> risks = RetentionAnalyzer.analyze(members, store.getCheckIns(), TODAY).getChurnRisks();
+        assertEquals(2, risks.size());
+        assertEquals(1, risks.get(0).getMemberId());
+        assertEquals(3, risks.get(0).getVisitDays());
+        assertEquals(TODAY.minusDays(40), risks.get(0).getLastCheckIn());
+        assertEquals(40, risks.get(0).getDaysAbsent());
+        assertEquals(3, risks.get(1).getMemberId());
+    }
+}
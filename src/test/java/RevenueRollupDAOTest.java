@@ -0,0 +1,87 @@
+import dao.OrderDAO;
+import dao.RevenueRollupDAO;
+import entity.Order;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * RevenueRollupDAO 测试类
+ *
+ * 验证订单增删改后每日汇总表同步变化
+ */
+public class RevenueRollupDAOTest {
+
+    private OrderDAO orderDAO;
+    private RevenueRollupDAO rollupDAO;
+    private int testOrderId;
+
+    @Before
+    public void setUp() {
+        orderDAO = new OrderDAO();
+        rollupDAO = new RevenueRollupDAO();
+        testOrderId = 0;
+    }
+
+    @After
+    public void tearDown() {
+        if (testOrderId > 0) {
+            orderDAO.deleteOrder(testOrderId);
+            testOrderId = 0;
+        }
+    }
+
+    private double todayRevenue() {
+        LocalDate today = LocalDate.now();
+        List<RevenueRollupDAO.Point> points = rollupDAO.getRevenueSeries(today, today, RevenueRollupDAO.Granularity.DAY, null);
+        assertEquals(1, points.size());
+        return points.get(0).getAmount();
+    }
+
+    @Test
+    public void testAddUpdateDeleteMaintainRollup() {
+        double before = todayRevenue();
+        double totalBefore = rollupDAO.getTotalRevenue();
+
+        Order order = new Order();
+        order.setMemberId(1);
+        order.setOrderType(OrderDAO.TYPE_RECHARGE);
+        order.setAmount(123.45);
+        order.setOrderTime(new Date());
+        order.setPaymentStatus(OrderDAO.STATUS_PAID);
+        assertTrue(orderDAO.addOrder(order));
+        testOrderId = order.getOrderId();
+
+        assertEquals(before + 123.45, todayRevenue(), 0.001);
+        assertEquals(totalBefore + 123.45, rollupDAO.getTotalRevenue(), 0.001);
+
+        // 改为未支付：不再计入营收
+        order.setPaymentStatus(OrderDAO.STATUS_PENDING);
+        assertTrue(orderDAO.updateOrder(order));
+        assertEquals(before, todayRevenue(), 0.001);
+
+        order.setPaymentStatus(OrderDAO.STATUS_PAID);
+        assertTrue(orderDAO.updateOrder(order));
+        assertTrue(orderDAO.deleteOrder(testOrderId));
+        testOrderId = 0;
+        assertEquals(before, todayRevenue(), 0.001);
+    }
+
+    @Test
+    public void testSeriesFillsEmptyPeriods() {
+        LocalDate from = LocalDate.of(2000, 1, 1);
+        List<RevenueRollupDAO.Point> days = rollupDAO.getRevenueSeries(from, from.plusDays(6), RevenueRollupDAO.Granularity.DAY, null);
+        assertEquals(7, days.size());
+        assertEquals(0.0, days.get(3).getAmount(), 0.0001);
+
+        List<RevenueRollupDAO.Point> months = rollupDAO.getRevenueSeries(from, from.plusMonths(2), RevenueRollupDAO.Granularity.MONTH, null);
+        assertEquals(3, months.size());
+        assertEquals(LocalDate.of(2000, 2, 1), months.get(1).getPeriodStart());
+    }
+}
@@ -0,0 +1,80 @@
+import dao.EmployeeRoleDAO;
+import dao.RoleRegistry;
+import entity.EmployeeRole;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * RoleRegistry 测试类
+ *
+ * 只测试快照的编译和查询，不依赖数据库
+ */
+public class RoleRegistryTest {
+
+    private RoleRegistry.Snapshot sample() {
+        return RoleRegistry.compile(Arrays.asList(
+                new EmployeeRole(EmployeeRoleDAO.ROLE_ID_ADMIN, "Admin", "", "member_manage, employee_manage,report"),
+                new EmployeeRole(EmployeeRoleDAO.ROLE_ID_TRAINER, "Trainer", "", "attendance"),
+                new EmployeeRole(EmployeeRoleDAO.ROLE_ID_RECEPTIONIST, "Receptionist", "", "member_manage,check_in"),
+                new EmployeeRole(9, "Cleaner", "", null)));
+    }
+
+    @Test
+    public void testPermissionBits() {
+        RoleRegistry.Snapshot roles = sample();
+        assertTrue(roles.hasPermission(EmployeeRoleDAO.ROLE_ID_ADMIN, "employee_manage"));
+        assertTrue(roles.hasPermission(EmployeeRoleDAO.ROLE_ID_ADMIN, "report"));
+        assertTrue(roles.hasPermission(EmployeeRoleDAO.ROLE_ID_RECEPTIONIST, "member_manage"));
+        assertFalse(roles.hasPermission(EmployeeRoleDAO.ROLE_ID_RECEPTIONIST, "employee_manage"));
+        assertFalse(roles.hasPermission(EmployeeRoleDAO.ROLE_ID_TRAINER, "unknown"));
+        assertFalse(roles.hasPermission(9, "attendance"));
+        assertFalse(roles.hasPermission(42, "attendance"));
+        assertFalse(roles.hasPermission(EmployeeRoleDAO.ROLE_ID_ADMIN, null));
+    }
+
+    @Test
+    public void testPermissionList() {
+        RoleRegistry.Snapshot roles = sample();
+        assertEquals(Arrays.asList("member_manage", "employee_manage", "report"),
+                roles.getPermissions(EmployeeRoleDAO.ROLE_ID_ADMIN));
+        assertTrue(roles.getPermissions(9).isEmpty());
+        assertTrue(roles.getPermissions(42).isEmpty());
+    }
+
+    @Test
+    public void testLookupAndDisplayNames() {
+        RoleRegistry.Snapshot roles = sample();
+        assertEquals(4, roles.size());
+        assertEquals("教练", roles.getDisplayName(EmployeeRoleDAO.ROLE_ID_TRAINER));
+        assertEquals("管理员", roles.getDisplayName(EmployeeRoleDAO.ROLE_ID_ADMIN));
+        assertEquals("Cleaner", roles.getDisplayName(9));
+        assertEquals("未知", roles.getDisplayName(42));
+
+        assertEquals(9, roles.getRoleByName("Cleaner").getRoleId());
+        assertNull(roles.getRoleByName("Nobody"));
+        assertTrue(roles.contains(EmployeeRoleDAO.ROLE_ID_TRAINER));
+        assertEquals(EmployeeRoleDAO.ROLE_ID_TRAINER, roles.getAllRoles().get(0).getRoleId());
+    }
+
+    @Test
+    public void testBuiltInDisplayNamesWithoutRoles() {
+        // 角色表加载失败时得到空快照
+        RoleRegistry.Snapshot empty = RoleRegistry.compile(Collections.emptyList());
+        assertEquals("教练", empty.getDisplayName(EmployeeRoleDAO.ROLE_ID_TRAINER));
+        assertEquals("前台", empty.getDisplayName(EmployeeRoleDAO.ROLE_ID_RECEPTIONIST));
+        assertEquals("管理员", empty.getDisplayName(EmployeeRoleDAO.ROLE_ID_ADMIN));
+        assertEquals("未知", empty.getDisplayName(9));
+    }
+
+    @Test
+    public void testReturnsCopies() {
+        RoleRegistry.Snapshot roles = sample();
+        roles.getRole(EmployeeRoleDAO.ROLE_ID_TRAINER).setPermissions("everything");
+        assertEquals("attendance", roles.getRole(EmployeeRoleDAO.ROLE_ID_TRAINER).getPermissions());
+        assertFalse(roles.hasPermission(EmployeeRoleDAO.ROLE_ID_TRAINER, "everything"));
+    }
+}
@@ -0,0 +1,107 @@
+import org.junit.Before;
+import org.junit.Test;
+import service.SalesLeaderboard;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * SalesLeaderboard 测试类
+ *
+ * 使用可调的固定日期，只测内存计数，不依赖数据库（rebuild 传入内存中的历史数据）
+ */
+public class SalesLeaderboardTest {
+
+    private LocalDate today;
+    private SalesLeaderboard board;
+
+    @Before
+    public void setUp() {
+        today = LocalDate.of(2024, 3, 15);
+        board = new SalesLeaderboard(() -> today);
+    }
+
+    @Test
+    public void testTopKOrderedByQuantity() {
+        board.record(1, 5, today);
+        board.record(2, 9, today);
+        board.record(3, 5, today);
+        board.record(4, 1, today);
+
+        List<SalesLeaderboard.Entry> top = board.getTop(SalesLeaderboard.Window.DAY, 3);
+        assertEquals(3, top.size());
+        assertEquals(2, top.get(0).getProductId());
+        // 销量相同按产品ID升序
+        assertEquals(1, top.get(1).getProductId());
+        assertEquals(3, top.get(2).getProductId());
+    }
+
+    @Test
+    public void testWindowsAndExpiry() {
+        board.record(1, 10, today.minusDays(10));
+        board.record(2, 3, today.minusDays(3));
+        board.record(3, 1, today);
+
+        assertEquals(1, board.getTop(SalesLeaderboard.Window.DAY, 5).size());
+        assertEquals(2, board.getTop(SalesLeaderboard.Window.WEEK, 5).size());
+        assertEquals(1, board.getTop(SalesLeaderboard.Window.MONTH, 5).get(0).getProductId());
+
+        // 跨过30天后旧销量不再计入
+        today = today.plusDays(25);
+        assertEquals(0, board.getQuantity(1, SalesLeaderboard.Window.MONTH));
+        assertEquals(3, board.getQuantity(2, SalesLeaderboard.Window.MONTH));
+    }
+
+    @Test
+    public void testRecordInvalidatesCachedTop() {
+        board.record(1, 2, today);
+        assertEquals(1, board.getTop(SalesLeaderboard.Window.WEEK, 2).get(0).getProductId());
+
+        Map<Integer, Integer> cart = new HashMap<>();
+        cart.put(2, 5);
+        long before = board.getVersion();
+        board.record(cart);
+        assertTrue(board.getVersion() > before);
+
+        List<SalesLeaderboard.Entry> top = board.getTop(SalesLeaderboard.Window.WEEK, 2);
+        assertEquals(2, top.get(0).getProductId());
+        assertEquals(5, top.get(0).getQuantity());
+    }
+
+    @Test
+    public void testSlotReusedForNewDay() {
+        board.record(1, 4, today.minusDays(SalesLeaderboard.RETENTION_DAYS));
+        board.record(1, 1, today);
+        assertEquals(1, board.getQuantity(1, SalesLeaderboard.Window.MONTH));
+    }
+
+    @Test
+    public void testRebuildKeepsSalesRecordedDuringHistoryQuery() {
+        board.record(1, 100, today); // 重建后应被历史数据取代
+
+        boolean ok = board.rebuild(() -> {
+            Map<LocalDate, Map<Integer, Integer>> history = new HashMap<>();
+            history.put(today, new HashMap<>(Collections.singletonMap(1, 3)));
+            // 查询历史期间结账，不在历史结果中
+            board.record(2, 4, today);
+            return history;
+        });
+
+        assertTrue(ok);
+        assertEquals(3, board.getQuantity(1, SalesLeaderboard.Window.DAY));
+        assertEquals(4, board.getQuantity(2, SalesLeaderboard.Window.DAY));
+    }
+
+    @Test
+    public void testFailedRebuildKeepsCounts() {
+        board.record(1, 5, today);
+        assertFalse(board.rebuild(() -> null));
+        board.record(1, 1, today);
+        assertEquals(6, board.getQuantity(1, SalesLeaderboard.Window.DAY));
+    }
+}
@@ -0,0 +1,145 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import utils.CancellationToken;
+import utils.SearchPipeline;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * SearchPipeline 测试类
+ *
+ * 查询函数用内存实现，结果直接在查询线程交付（不经过事件线程），不依赖数据库
+ */
+public class SearchPipelineTest {
+
+    private ScheduledExecutorService scheduler;
+    private ExecutorService worker;
+    private List<String> searched;
+    private List<String> delivered;
+
+    @Before
+    public void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        worker = Executors.newCachedThreadPool();
+        searched = new CopyOnWriteArrayList<>();
+        delivered = new CopyOnWriteArrayList<>();
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+        worker.shutdownNow();
+    }
+
+    private SearchPipeline<String> pipeline(int debounceMillis, int cacheSize, CountDownLatch done) {
+        return new SearchPipeline<>(debounceMillis, cacheSize, query -> {
+            searched.add(query);
+            return "result:" + query;
+        }, result -> {
+            delivered.add(result);
+            done.countDown();
+        }, scheduler, worker, Runnable::run);
+    }
+
+    @Test
+    public void testNormalize() {
+        assertEquals("john smith", SearchPipeline.normalize("  John   Smith "));
+        assertEquals("", SearchPipeline.normalize(null));
+    }
+
+    @Test
+    public void testDebounceOnlySearchesLastInput() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        SearchPipeline<String> pipeline = pipeline(200, 0, done);
+        pipeline.submit("z");
+        pipeline.submit("zh");
+        pipeline.submit("zha");
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(1, searched.size());
+        assertEquals("zha", searched.get(0));
+        assertEquals("result:zha", delivered.get(0));
+    }
+
+    @Test
+    public void testCachedQueryIsNotSearchedAgain() throws Exception {
+        CountDownLatch first = new CountDownLatch(2);
+        SearchPipeline<String> pipeline = pipeline(0, 8, first);
+        pipeline.submit("abc");
+        waitFor(1);
+        pipeline.submit("ab");
+        assertTrue(first.await(2, TimeUnit.SECONDS));
+
+        // 退格回到之前的关键字（大小写、空白不同也算同一个）：直接用缓存
+        pipeline.submit(" ABC ");
+        assertEquals(2, searched.size());
+        assertEquals("result:abc", delivered.get(2));
+
+        // 立即查询不使用缓存
+        pipeline.searchNow("abc");
+        waitFor(3);
+        assertEquals(3, searched.size());
+    }
+
+    @Test
+    public void testStaleQueryIsCancelledAndDropped() throws Exception {
+        CountDownLatch slowStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        boolean[] slowCancelled = new boolean[1];
+
+        SearchPipeline<String> pipeline = new SearchPipeline<>(0, 0, query -> {
+            if (query.equals("slow")) {
+                slowStarted.countDown();
+                release.await(2, TimeUnit.SECONDS);
+                slowCancelled[0] = CancellationToken.isCurrentCancelled();
+            }
+            return "result:" + query;
+        }, result -> {
+            delivered.add(result);
+            done.countDown();
+        }, scheduler, worker, Runnable::run);
+
+        pipeline.searchNow("slow");
+        assertTrue(slowStarted.await(2, TimeUnit.SECONDS));
+        pipeline.searchNow("fast");
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+
+        // 新查询发出后旧查询被取消，旧结果返回后也不会交付
+        Thread.sleep(100);
+        release.countDown();
+        Thread.sleep(100);
+        assertTrue(slowCancelled[0]);
+        assertEquals(1, delivered.size());
+        assertEquals("result:fast", delivered.get(0));
+    }
+
+    @Test
+    public void testCloseIgnoresLaterInput() throws Exception {
+        SearchPipeline<String> pipeline = pipeline(0, 0, new CountDownLatch(1));
+        pipeline.close();
+        pipeline.submit("abc");
+        pipeline.searchNow("abc");
+        Thread.sleep(100);
+        assertTrue(searched.isEmpty());
+        assertTrue(delivered.isEmpty());
+    }
+
+    private void waitFor(int searches) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (searched.size() < searches && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(50);
+    }
+}
@@ -0,0 +1,73 @@
+import dao.RoleRegistry;
+import entity.Employee;
+import entity.EmployeeRole;
+import entity.Member;
+import org.junit.Test;
+import service.Session;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * Session 测试类
+ *
+ * 纯内存测试，不依赖数据库
+ */
+public class SessionTest {
+
+    @Test
+    public void testEmployeePermissions() {
+        Employee employee = new Employee();
+        employee.setEmployeeId(3);
+        employee.setRoleId(2);
+        employee.setEmployeeRole(new EmployeeRole(2, "Receptionist", "", "check_in, sell ,member_manage"));
+
+        Session session = Session.forEmployee(10, "front", employee, new Date());
+        assertEquals("employee", session.getUserType());
+        assertSame(employee, session.getProfile());
+        assertTrue(session.isEmployee(3));
+        assertFalse(session.isEmployee(4));
+        assertEquals(2, session.getRoleId());
+
+        // 角色表加载失败（快照中没有该角色）时使用登录时的权限
+        RoleRegistry.Snapshot empty = RoleRegistry.compile(Collections.emptyList());
+        assertTrue(session.hasPermission(empty, "sell"));
+        assertTrue(session.hasPermission(empty, "member_manage"));
+        assertFalse(session.hasPermission(empty, "employee_manage"));
+        assertEquals(3, session.getPermissions(empty).size());
+    }
+
+    @Test
+    public void testPermissionsFollowRoleSnapshot() {
+        Employee employee = new Employee();
+        employee.setEmployeeId(3);
+        employee.setRoleId(2);
+        employee.setEmployeeRole(new EmployeeRole(2, "Receptionist", "", "check_in,sell"));
+        Session session = Session.forEmployee(10, "front", employee, new Date());
+
+        // 登录后角色权限被修改：以当前快照为准
+        RoleRegistry.Snapshot roles = RoleRegistry.compile(Arrays.asList(
+                new EmployeeRole(2, "Receptionist", "", "check_in,report")));
+        assertTrue(session.hasPermission(roles, "report"));
+        assertFalse(session.hasPermission(roles, "sell"));
+        assertEquals(new LinkedHashSet<>(Arrays.asList("check_in", "report")), session.getPermissions(roles));
+    }
+
+    @Test
+    public void testMemberHasNoPermissions() {
+        Member member = new Member();
+        member.setId(5);
+        Session session = Session.forMember(11, "m", member, new Date());
+
+        assertEquals("member", session.getUserType());
+        assertSame(member, session.getProfile());
+        assertNull(session.getEmployee());
+        assertFalse(session.isEmployee(5));
+        assertEquals(0, session.getRoleId());
+        assertTrue(session.getPermissions().isEmpty());
+    }
+}
@@ -0,0 +1,138 @@
+import org.junit.Before;
+import org.junit.Test;
+import utils.StatsCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+/**
+ * StatsCache 测试类
+ *
+ * 手动推进时钟，后台刷新任务先排队、由测试决定何时执行，不依赖数据库
+ */
+public class StatsCacheTest {
+
+    private static final long TTL = 1000;
+
+    private AtomicLong now;
+    private List<Runnable> queued;
+    private StatsCache cache;
+    private AtomicInteger loads;
+
+    @Before
+    public void setUp() {
+        now = new AtomicLong(0);
+        queued = new ArrayList<>();
+        cache = new StatsCache(16, queued::add, now::get);
+        loads = new AtomicInteger();
+    }
+
+    private Integer load() {
+        return loads.incrementAndGet();
+    }
+
+    private void runQueued() {
+        List<Runnable> tasks = new ArrayList<>(queued);
+        queued.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    @Test
+    public void testFreshValueServedWithoutReload() {
+        assertEquals(Integer.valueOf(1), cache.get("k", TTL, this::load));
+        now.addAndGet(TTL - 1);
+        assertEquals(Integer.valueOf(1), cache.get("k", TTL, this::load));
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void testStaleValueServedWhileOneRefreshRuns() {
+        cache.get("k", TTL, this::load);
+        now.addAndGet(TTL + 1);
+
+        // 过期后立即返回旧值，多次读取只排队一次刷新
+        assertEquals(Integer.valueOf(1), cache.get("k", TTL, this::load));
+        assertEquals(Integer.valueOf(1), cache.get("k", TTL, this::load));
+        assertEquals(1, queued.size());
+        assertEquals(1, loads.get());
+
+        runQueued();
+        assertEquals(Integer.valueOf(2), cache.get("k", TTL, this::load));
+        assertEquals(2, cache.getStaleHitCount());
+    }
+
+    @Test
+    public void testTooOldValueLoadedSynchronously() {
+        cache.get("k", TTL, this::load);
+        now.addAndGet(TTL * StatsCache.MAX_STALE_FACTOR);
+        assertEquals(Integer.valueOf(2), cache.get("k", TTL, this::load));
+        assertTrue(queued.isEmpty());
+    }
+
+    @Test
+    public void testInvalidateDropsInFlightRefresh() {
+        cache.get("stats.order.revenue", TTL, this::load);
+        now.addAndGet(TTL + 1);
+        cache.get("stats.order.revenue", TTL, this::load); // 排队一次后台刷新
+
+        cache.invalidate("stats.order.");
+        assertEquals(Integer.valueOf(2), cache.get("stats.order.revenue", TTL, this::load));
+
+        // 失效前发起的刷新结果不再写回
+        runQueued();
+        assertEquals(3, loads.get());
+        assertEquals(Integer.valueOf(2), cache.get("stats.order.revenue", TTL, this::load));
+    }
+
+    @Test
+    public void testMarkStaleServesOldValueAndRefreshes() {
+        cache.get("k", TTL, this::load);
+        cache.markStale("k");
+        assertEquals(Integer.valueOf(1), cache.get("k", TTL, this::load));
+        runQueued();
+        assertEquals(Integer.valueOf(2), cache.get("k", TTL, this::load));
+    }
+
+    @Test
+    public void testNullNotCached() {
+        assertNull(cache.get("k", TTL, () -> null));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testConcurrentMissesCoalesced() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        StatsCache shared = new StatsCache(16, Runnable::run, System::currentTimeMillis);
+
+        Thread first = new Thread(() -> shared.get("k", TTL, () -> {
+            loading.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return load();
+        }));
+        first.start();
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        Integer[] second = new Integer[1];
+        Thread waiter = new Thread(() -> second[0] = shared.get("k", TTL, this::load));
+        waiter.start();
+        Thread.sleep(50);
+        release.countDown();
+        first.join(5000);
+        waiter.join(5000);
+
+        assertEquals(1, loads.get());
+        assertEquals(Integer.valueOf(1), second[0]);
+    }
+}
@@ -0,0 +1,120 @@
+import org.junit.Before;
+import org.junit.Test;
+import service.StockReservationLedger;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * StockReservationLedger 测试类
+ *
+ * 使用固定库存，不依赖数据库
+ */
+public class StockReservationLedgerTest {
+
+    private Map<Integer, Integer> stock;
+    private StockReservationLedger ledger;
+
+    @Before
+    public void setUp() {
+        stock = new HashMap<>();
+        stock.put(1, 3);
+        stock.put(2, 10);
+        ledger = new StockReservationLedger(60_000, id -> stock.getOrDefault(id, 0));
+    }
+
+    @Test
+    public void testReserveReducesAvailable() {
+        String cart = ledger.openCart();
+        assertTrue(ledger.reserve(cart, 1, 2));
+        assertEquals(1, ledger.getAvailable(1));
+        assertEquals(2, (int) ledger.getReservations(cart).get(1));
+    }
+
+    @Test
+    public void testSecondCartSeesReservation() {
+        String cartA = ledger.openCart();
+        String cartB = ledger.openCart();
+        assertTrue(ledger.reserve(cartA, 1, 3));
+
+        assertFalse("最后一件已被A预留", ledger.reserve(cartB, 1, 1));
+        assertTrue(ledger.getReservations(cartB).isEmpty());
+    }
+
+    @Test
+    public void testReleaseAndClose() {
+        String cart = ledger.openCart();
+        ledger.reserve(cart, 1, 2);
+        ledger.reserve(cart, 2, 5);
+
+        ledger.release(cart, 1);
+        assertEquals(3, ledger.getAvailable(1));
+        assertEquals(5, ledger.getAvailable(2));
+
+        ledger.closeCart(cart);
+        assertEquals(10, ledger.getAvailable(2));
+        assertEquals(0, ledger.getOpenCartCount());
+    }
+
+    @Test
+    public void testCompleteAfterStockDecrease() {
+        String cart = ledger.openCart();
+        ledger.reserve(cart, 1, 2);
+
+        // 模拟结账：库存扣减后释放预留
+        stock.put(1, 1);
+        ledger.complete(cart);
+
+        assertEquals(1, ledger.getAvailable(1));
+        assertEquals(0, ledger.getReserved(1));
+        assertTrue(ledger.getReservations(cart).isEmpty());
+    }
+
+    @Test
+    public void testExpiredCartReleased() throws InterruptedException {
+        StockReservationLedger shortLedger = new StockReservationLedger(20, id -> stock.getOrDefault(id, 0));
+        String cart = shortLedger.openCart();
+        assertTrue(shortLedger.reserve(cart, 1, 3));
+
+        Thread.sleep(1100); // 超过 TTL 和清理节流间隔
+        assertEquals(3, shortLedger.getAvailable(1));
+        assertTrue(shortLedger.getReservations(cart).isEmpty());
+    }
+
+    @Test
+    public void testConcurrentReserveNeverOversells() throws InterruptedException {
+        stock.put(3, 50);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(200);
+        for (int i = 0; i < 200; i++) {
+            pool.submit(() -> {
+                String cart = ledger.openCart();
+                if (ledger.reserve(cart, 3, 1)) {
+                    granted.incrementAndGet();
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        pool.shutdown();
+
+        assertEquals(50, granted.get());
+        assertEquals(0, ledger.getAvailable(3));
+    }
+
+    @Test
+    public void testVersionChangesOnReserve() {
+        long before = ledger.getVersion();
+        String cart = ledger.openCart();
+        ledger.reserve(cart, 2, 1);
+        assertTrue(ledger.getVersion() > before);
+    }
+}
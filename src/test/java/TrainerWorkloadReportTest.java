@@ -0,0 +1,50 @@
+import dao.EmployeeDAO;
+import org.junit.Test;
+import service.TrainerWorkloadReport;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * TrainerWorkloadReport 测试类
+ *
+ * 纯内存测试，不依赖数据库
+ */
+public class TrainerWorkloadReportTest {
+
+    @Test
+    public void testLeastLoadedPrefersFewerCoursesThenFewerBookings() {
+        EmployeeDAO.Workload busy = new EmployeeDAO.Workload(1, "A", 5, 100, 80, 10);
+        EmployeeDAO.Workload light = new EmployeeDAO.Workload(2, "B", 2, 40, 30, 0);
+        EmployeeDAO.Workload lighter = new EmployeeDAO.Workload(3, "C", 2, 40, 10, 0);
+
+        assertSame(lighter, TrainerWorkloadReport.leastLoaded(Arrays.asList(busy, light, lighter)));
+    }
+
+    @Test
+    public void testLeastLoadedTieBreaksOnTrainerId() {
+        EmployeeDAO.Workload second = new EmployeeDAO.Workload(7, "B", 0, 0, 0, 0);
+        EmployeeDAO.Workload first = new EmployeeDAO.Workload(4, "A", 0, 0, 0, 0);
+
+        assertSame(first, TrainerWorkloadReport.leastLoaded(Arrays.asList(second, first)));
+        assertNull(TrainerWorkloadReport.leastLoaded(Collections.emptyList()));
+        assertNull(TrainerWorkloadReport.leastLoaded(null));
+    }
+
+    @Test
+    public void testFillRate() {
+        assertEquals(0.75, new EmployeeDAO.Workload(1, "A", 2, 40, 30, 0).getFillRate(), 1e-9);
+        assertEquals(0.0, new EmployeeDAO.Workload(1, "A", 0, 0, 0, 0).getFillRate(), 1e-9);
+    }
+
+    @Test
+    public void testWeekStartsOnMonday() {
+        LocalDate monday = LocalDate.of(2026, 10, 19);
+        assertEquals(monday, TrainerWorkloadReport.weekStart(monday));
+        assertEquals(monday, TrainerWorkloadReport.weekStart(LocalDate.of(2026, 10, 22)));
+        assertEquals(monday, TrainerWorkloadReport.weekStart(LocalDate.of(2026, 10, 25)));
+    }
+}
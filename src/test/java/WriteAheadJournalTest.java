@@ -0,0 +1,113 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import utils.WriteAheadJournal;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * WriteAheadJournal 测试类
+ *
+ * 使用临时目录，不依赖数据库
+ */
+public class WriteAheadJournalTest {
+
+    private static final int SEGMENT_SIZE = 1024;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testPendingEntriesRecoveredAfterReopen() throws IOException {
+        File dir = folder.newFolder("wal");
+        WriteAheadJournal journal = new WriteAheadJournal(dir, SEGMENT_SIZE);
+        journal.append("k1", bytes("order-1"));
+        journal.append("k2", bytes("order-2"));
+        journal.close();
+
+        WriteAheadJournal reopened = new WriteAheadJournal(dir, SEGMENT_SIZE);
+        Map<String, byte[]> pending = reopened.getPendingEntries();
+        assertEquals(Arrays.asList("k1", "k2"), Arrays.asList(pending.keySet().toArray()));
+        assertArrayEquals(bytes("order-2"), pending.get("k2"));
+        reopened.close();
+    }
+
+    @Test
+    public void testAckedEntriesNotReplayed() throws IOException {
+        File dir = folder.newFolder("wal");
+        WriteAheadJournal journal = new WriteAheadJournal(dir, SEGMENT_SIZE);
+        journal.append("k1", bytes("a"));
+        journal.append("k2", bytes("b"));
+        journal.ack(Collections.singletonList("k1"));
+        assertEquals(1, journal.getPendingCount());
+        journal.close();
+
+        WriteAheadJournal reopened = new WriteAheadJournal(dir, SEGMENT_SIZE);
+        assertEquals(Collections.singleton("k2"), reopened.getPendingEntries().keySet());
+        reopened.close();
+    }
+
+    @Test
+    public void testTornTailIsDiscarded() throws IOException {
+        File dir = folder.newFolder("wal");
+        WriteAheadJournal journal = new WriteAheadJournal(dir, SEGMENT_SIZE);
+        journal.append("k1", bytes("good"));
+        journal.append("k2", bytes("torn"));
+        journal.close();
+
+        // 破坏最后一条记录的内容，CRC 校验应失败
+        try (RandomAccessFile file = new RandomAccessFile(new File(dir, "segment-000001.wal"), "rw")) {
+            long lastPayloadEnd = 0;
+            byte[] content = new byte[SEGMENT_SIZE];
+            file.readFully(content);
+            for (int i = 0; i < content.length; i++) {
+                if (content[i] != 0) lastPayloadEnd = i;
+            }
+            file.seek(lastPayloadEnd);
+            file.write('X');
+        }
+
+        WriteAheadJournal reopened = new WriteAheadJournal(dir, SEGMENT_SIZE);
+        assertEquals(Collections.singleton("k1"), reopened.getPendingEntries().keySet());
+
+        // 截断处可以继续写入
+        reopened.append("k3", bytes("after"));
+        reopened.close();
+        WriteAheadJournal again = new WriteAheadJournal(dir, SEGMENT_SIZE);
+        assertEquals(Arrays.asList("k1", "k3"), Arrays.asList(again.getPendingEntries().keySet().toArray()));
+        again.close();
+    }
+
+    @Test
+    public void testFullyAckedSegmentsDeleted() throws IOException {
+        File dir = folder.newFolder("wal");
+        WriteAheadJournal journal = new WriteAheadJournal(dir, SEGMENT_SIZE);
+        byte[] data = new byte[200];
+        for (int i = 0; i < 20; i++) {
+            journal.append("k" + i, data);
+            journal.ack(Collections.singletonList("k" + i));
+        }
+        assertEquals(0, journal.getPendingCount());
+        assertEquals("只保留当前写入段", 1, journal.getSegmentCount());
+        journal.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateKeyRejected() throws IOException {
+        WriteAheadJournal journal = new WriteAheadJournal(folder.newFolder("wal"), SEGMENT_SIZE);
+        journal.append("k1", bytes("a"));
+        journal.append("k1", bytes("b"));
+    }
+}